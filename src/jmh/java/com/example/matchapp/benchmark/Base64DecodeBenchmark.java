@@ -0,0 +1,66 @@
+package com.example.matchapp.benchmark;
+
+import com.example.matchapp.util.ChunkedBase64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding the {@code b64_json} field of an image generation response, as done by
+ * the OpenAI and Spring AI image generation services.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Base64DecodeBenchmark {
+
+    /**
+     * Decoded image size in bytes. 1.5 MB is typical for a 1024×1024 PNG portrait.
+     * Random bytes are used because compressed image data does not compress any further.
+     */
+    @Param({"1572864"})
+    public int imageSize;
+
+    private String encoded;
+    private byte[] encodedBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] image = new byte[imageSize];
+        new Random(42).nextBytes(image);
+        encoded = Base64.getEncoder().encodeToString(image);
+        encodedBytes = encoded.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Benchmark
+    public byte[] decodeString() {
+        return Base64.getDecoder().decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] decodeBytes() {
+        return Base64.getDecoder().decode(encodedBytes);
+    }
+
+    @Benchmark
+    public byte[] decodeChunked() {
+        return ChunkedBase64.decode(encoded);
+    }
+}
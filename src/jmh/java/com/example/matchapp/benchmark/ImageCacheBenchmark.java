@@ -0,0 +1,93 @@
+package com.example.matchapp.benchmark;
+
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.impl.FileSystemImageCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures reading and writing images through the file system cache.
+ * Writes include the fsync and atomic move, so results depend heavily on the disk the
+ * temporary directory lives on; compare runs on the same machine only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageCacheBenchmark {
+
+    /**
+     * Image size in bytes. 1.5 MB is typical for a 1024×1024 PNG portrait.
+     */
+    @Param({"1572864"})
+    public int imageSize;
+
+    private FileSystemImageCacheService cache;
+    private Path imagesDir;
+    private ProfileEntity cachedProfile;
+    private ProfileEntity writtenProfile;
+    private byte[] image;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cache = new FileSystemImageCacheService();
+        imagesDir = Files.createTempDirectory("image-cache-benchmark");
+        image = new byte[imageSize];
+        new Random(42).nextBytes(image);
+
+        cachedProfile = profile("cached");
+        writtenProfile = profile("written");
+        cache.putImageInCache(cachedProfile, image, imagesDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(imagesDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static ProfileEntity profile(String id) {
+        return new ProfileEntity(id, "First", "Last", 30, "Hispanic", Gender.MALE, null, id + ".png", "INTJ");
+    }
+
+    @Benchmark
+    public boolean hasImage() {
+        return cache.hasImageInCache(cachedProfile, imagesDir);
+    }
+
+    @Benchmark
+    public Optional<byte[]> readImage() throws IOException {
+        return cache.getImageFromCache(cachedProfile, imagesDir);
+    }
+
+    @Benchmark
+    public void writeImage() throws IOException {
+        cache.putImageInCache(writtenProfile, image, imagesDir);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.matchapp.benchmark;
+
+import com.example.matchapp.dto.ProfileResponse;
+import com.example.matchapp.mapper.ProfileMapper;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.Profile;
+import com.example.matchapp.model.ProfileEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversions between profile records, entities and response DTOs
+ * that every read and write of a profile goes through.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfileMapperBenchmark {
+
+    private ProfileMapper mapper;
+    private ProfileEntity entity;
+    private Profile profile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = new ProfileMapper();
+        entity = new ProfileEntity(
+                "profile-1",
+                "Maria",
+                "Silva",
+                29,
+                "Hispanic",
+                Gender.FEMALE,
+                "Enjoys hiking, photography and cooking for friends on weekends",
+                "profile-1.jpg",
+                "ENFP");
+        profile = mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public ProfileResponse entityToResponse() {
+        return mapper.entityToResponse(entity);
+    }
+
+    @Benchmark
+    public Profile entityToDomain() {
+        return mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public ProfileEntity domainToEntity() {
+        return mapper.toEntity(profile);
+    }
+
+    @Benchmark
+    public ProfileEntity staticDomainToEntity() {
+        return ProfileMapper.toProfileEntity(profile);
+    }
+}
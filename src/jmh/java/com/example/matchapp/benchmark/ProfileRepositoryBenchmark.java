@@ -0,0 +1,79 @@
+package com.example.matchapp.benchmark;
+
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.repository.impl.InMemoryProfileRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures paginated reads from the in-memory repository, which copies all profiles
+ * before slicing out the requested page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfileRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Number of profiles in the repository, in addition to the ones loaded from profile.json.
+     */
+    @Param({"0", "1000", "10000"})
+    public int extraProfiles;
+
+    private InMemoryProfileRepository repository;
+    private Pageable firstPage;
+    private Pageable lastPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryProfileRepository();
+        repository.init();
+        for (int i = 0; i < extraProfiles; i++) {
+            repository.save(new ProfileEntity(
+                    "benchmark-" + i,
+                    "First" + i,
+                    "Last" + i,
+                    20 + i % 40,
+                    "Hispanic",
+                    Gender.values()[i % Gender.values().length],
+                    "Bio " + i,
+                    "benchmark-" + i + ".jpg",
+                    "INTJ"));
+        }
+
+        int total = repository.findAll().size();
+        firstPage = PageRequest.of(0, PAGE_SIZE);
+        lastPage = PageRequest.of(Math.max(0, (total - 1) / PAGE_SIZE), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<ProfileEntity> findFirstPage() {
+        return repository.findAll(firstPage);
+    }
+
+    @Benchmark
+    public Page<ProfileEntity> findLastPage() {
+        return repository.findAll(lastPage);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.matchapp.benchmark;
+
+import com.example.matchapp.config.PromptProperties;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.impl.DefaultPromptBuilderService;
+import com.example.matchapp.service.impl.TemplatePromptBuilderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the String.format based prompt builder with the precompiled template builder.
+ * Run with {@code -prof gc} to compare allocation per prompt as well as time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBuilderBenchmark {
+
+    private static final int PROFILE_COUNT = 64;
+
+    private DefaultPromptBuilderService legacy;
+    private TemplatePromptBuilderService template;
+    private ProfileEntity[] profiles;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        legacy = new DefaultPromptBuilderService();
+        template = new TemplatePromptBuilderService(new PromptProperties());
+
+        String[] types = {"INTJ", "ENFP", "ISTP", "ESFJ", "UNKNOWN"};
+        Gender[] genders = Gender.values();
+        profiles = new ProfileEntity[PROFILE_COUNT];
+        for (int i = 0; i < PROFILE_COUNT; i++) {
+            profiles[i] = new ProfileEntity(
+                    "profile-" + i,
+                    "First" + i,
+                    "Last" + i,
+                    20 + i % 40,
+                    i % 2 == 0 ? "Hispanic" : "East Asian",
+                    genders[i % genders.length],
+                    i % 3 == 0 ? null : "Enjoys hiking, photography and cooking for friends on weekends " + i,
+                    "profile-" + i + ".jpg",
+                    types[i % types.length]);
+        }
+    }
+
+    private ProfileEntity nextProfile() {
+        next = (next + 1) % PROFILE_COUNT;
+        return profiles[next];
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        return legacy.buildPrompt(nextProfile());
+    }
+
+    @Benchmark
+    public String precompiledTemplate() {
+        return template.buildPrompt(nextProfile());
+    }
+}
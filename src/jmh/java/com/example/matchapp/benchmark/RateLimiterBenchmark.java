@@ -0,0 +1,64 @@
+package com.example.matchapp.benchmark;
+
+import com.example.matchapp.config.ImageGenProperties;
+import com.example.matchapp.exception.RateLimitExceededException;
+import com.example.matchapp.service.impl.InMemoryRateLimiterService;
+import com.example.matchapp.service.impl.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the admission decision of both rate limiters when many threads
+ * ask for permits at once. Limits are set high enough that the benchmark measures the
+ * synchronization overhead rather than time spent waiting for permits; once the token
+ * bucket runs dry, it measures the cost of a rejected request instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private InMemoryRateLimiterService inMemoryLimiter;
+    private TokenBucketRateLimiter tokenBucketLimiter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ImageGenProperties properties = new ImageGenProperties();
+        properties.setRequestsPerMinute(Integer.MAX_VALUE);
+        properties.setBurstCapacity(Integer.MAX_VALUE);
+
+        inMemoryLimiter = new InMemoryRateLimiterService(properties);
+        tokenBucketLimiter = new TokenBucketRateLimiter(properties);
+    }
+
+    @Benchmark
+    public boolean inMemoryAcquire() {
+        try {
+            inMemoryLimiter.acquire();
+            return true;
+        } catch (RateLimitExceededException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean tokenBucketTryAcquire() {
+        return tokenBucketLimiter.tryAcquire();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.matchapp.config;
 
+import com.example.matchapp.model.BackupFormat;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -31,6 +32,33 @@ public class BackupProperties {
      */
     private boolean defaultOverwrite = false;
 
+    /**
+     * Whether backups only copy files that changed since the previous backup.
+     * Unchanged files are hard-linked from the previous backup instead of copied.
+     */
+    private boolean incremental = true;
+
+    /**
+     * Number of worker threads used to copy files during backup and restore.
+     */
+    private int copyThreads = 4;
+
+    /**
+     * Number of files that may wait for a copy worker before the directory walk copies files itself.
+     */
+    private int copyQueueCapacity = 1000;
+
+    /**
+     * Storage format of new backups: a directory tree per backup, or a single ZIP archive.
+     */
+    private BackupFormat format = BackupFormat.DIRECTORY;
+
+    /**
+     * Whether backups first take a snapshot of the images directory by hard-linking its files.
+     * Backups then read from the snapshot, so images written during the backup don't affect it.
+     */
+    private boolean snapshot = true;
+
     /**
      * Gets the root directory for storing image backups.
      *
@@ -72,4 +100,44 @@ public class BackupProperties {
     public void setDefaultOverwrite(boolean defaultOverwrite) {
         this.defaultOverwrite = defaultOverwrite;
     }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public int getCopyThreads() {
+        return copyThreads;
+    }
+
+    public void setCopyThreads(int copyThreads) {
+        this.copyThreads = copyThreads;
+    }
+
+    public int getCopyQueueCapacity() {
+        return copyQueueCapacity;
+    }
+
+    public void setCopyQueueCapacity(int copyQueueCapacity) {
+        this.copyQueueCapacity = copyQueueCapacity;
+    }
+
+    public BackupFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(BackupFormat format) {
+        this.format = format;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
 }
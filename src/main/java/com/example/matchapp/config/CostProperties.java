@@ -0,0 +1,121 @@
+package com.example.matchapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for cost accounting of image generation provider calls.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "imagegen.cost")
+public class CostProperties {
+
+    /**
+     * Currency the prices are expressed in.
+     */
+    private String currency = "USD";
+
+    /**
+     * Price per generated image, keyed by model.
+     * Defaults to the list price of a standard quality 1024x1024 DALL-E 3 image.
+     */
+    private Map<String, BigDecimal> pricePerImage = new HashMap<>(Map.of("dall-e-3", new BigDecimal("0.040")));
+
+    /**
+     * Price per generated image for models without an entry in pricePerImage.
+     */
+    private BigDecimal defaultPricePerImage = new BigDecimal("0.040");
+
+    /**
+     * Whether provider calls are written to the ledger table. Metrics are recorded either way.
+     */
+    private boolean ledgerEnabled = true;
+
+    /**
+     * Number of buffered ledger entries that triggers an immediate write.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Maximum time in milliseconds a ledger entry stays buffered before it is written.
+     * Defaults to 5000 (5 seconds).
+     */
+    private long flushInterval = 5000L;
+
+    /**
+     * Maximum number of ledger entries kept in the buffer. While the database can't keep up or is
+     * unavailable, entries beyond this are dropped from the ledger; they are still counted in metrics.
+     */
+    private int maxPending = 10000;
+
+    /**
+     * Gets the price of one image generated with a model.
+     *
+     * @param model the model name
+     * @return the price per image
+     */
+    public BigDecimal priceOf(String model) {
+        BigDecimal price = model != null ? pricePerImage.get(model) : null;
+        return price != null ? price : defaultPricePerImage;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Map<String, BigDecimal> getPricePerImage() {
+        return pricePerImage;
+    }
+
+    public void setPricePerImage(Map<String, BigDecimal> pricePerImage) {
+        this.pricePerImage = pricePerImage;
+    }
+
+    public BigDecimal getDefaultPricePerImage() {
+        return defaultPricePerImage;
+    }
+
+    public void setDefaultPricePerImage(BigDecimal defaultPricePerImage) {
+        this.defaultPricePerImage = defaultPricePerImage;
+    }
+
+    public boolean isLedgerEnabled() {
+        return ledgerEnabled;
+    }
+
+    public void setLedgerEnabled(boolean ledgerEnabled) {
+        this.ledgerEnabled = ledgerEnabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.matchapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the pool of direct buffers image bytes are moved through.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "imagegen.buffer-pool")
+public class ImageBufferPoolProperties {
+
+    /**
+     * Size of each pooled buffer in bytes. Images are processed in chunks of this size.
+     * Defaults to 262144 (256 KB).
+     */
+    private int bufferSize = 256 * 1024;
+
+    /**
+     * Maximum number of direct buffers the pool allocates. When all of them are in use, callers get
+     * short-lived heap buffers instead of waiting.
+     */
+    private int maxBuffers = 32;
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+
+    public void setMaxBuffers(int maxBuffers) {
+        this.maxBuffers = maxBuffers;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.matchapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the smaller variants derived from each generated image.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "imagegen.variants")
+public class ImageVariantProperties {
+
+    /**
+     * Whether variants are created and can be requested.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum width and height in pixels of each variant, keyed by variant name.
+     * Images are scaled down preserving their aspect ratio and never scaled up.
+     */
+    private Map<String, Integer> sizes = new HashMap<>(Map.of("thumbnail", 128, "medium", 512));
+
+    /**
+     * Image format of the variants: jpeg or png.
+     */
+    private String format = "jpeg";
+
+    /**
+     * Compression quality of JPEG variants, between 0 and 1.
+     */
+    private float quality = 0.85f;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, Integer> getSizes() {
+        return sizes;
+    }
+
+    public void setSizes(Map<String, Integer> sizes) {
+        this.sizes = sizes;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public float getQuality() {
+        return quality;
+    }
+
+    public void setQuality(float quality) {
+        this.quality = quality;
+    }
+}
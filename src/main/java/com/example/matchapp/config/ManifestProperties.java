@@ -0,0 +1,55 @@
+package com.example.matchapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the profiles_with_images.json manifest.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "imagegen.manifest")
+public class ManifestProperties {
+
+    /**
+     * Number of segments the manifest is split into.
+     * A change only rewrites the segment holding the changed profile, so more segments mean
+     * cheaper updates at the cost of more files.
+     */
+    private int segments = 64;
+
+    /**
+     * Directory holding the manifest segments.
+     * It is kept outside the images directory so that backups don't copy the segments along with the images.
+     */
+    private String segmentsDir = "data/manifest-segments";
+
+    /**
+     * Size of the change log, relative to the number of profiles in the manifest, at which the change log
+     * is compacted into the manifest. With 0 every update rewrites the manifest and no change log is kept.
+     */
+    private double compactionRatio = 0.1;
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public void setSegments(int segments) {
+        this.segments = segments;
+    }
+
+    public String getSegmentsDir() {
+        return segmentsDir;
+    }
+
+    public void setSegmentsDir(String segmentsDir) {
+        this.segmentsDir = segmentsDir;
+    }
+
+    public double getCompactionRatio() {
+        return compactionRatio;
+    }
+
+    public void setCompactionRatio(double compactionRatio) {
+        this.compactionRatio = compactionRatio;
+    }
+}
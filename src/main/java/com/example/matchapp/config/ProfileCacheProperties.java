@@ -0,0 +1,52 @@
+package com.example.matchapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the in-memory profile lookup cache.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "profile.cache")
+public class ProfileCacheProperties {
+
+    /**
+     * Whether profile lookups by ID are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of profiles kept in the cache.
+     */
+    private int maxSize = 1000;
+
+    /**
+     * Time-to-live of a cached profile in milliseconds.
+     * Defaults to 300000 (5 minutes).
+     */
+    private long ttl = 300_000L;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
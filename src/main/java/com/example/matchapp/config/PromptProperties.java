@@ -0,0 +1,99 @@
+package com.example.matchapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for building image generation prompts.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "imagegen.prompt")
+public class PromptProperties {
+
+    /**
+     * Template the default prompt is rendered from.
+     * It produces the same prompt as {@link com.example.matchapp.service.impl.DefaultPromptBuilderService}.
+     */
+    public static final String DEFAULT_TEMPLATE =
+            "Create a realistic photographic portrait (1024×1024) of a {{age}}-year-old {{ethnicity}} {{gender}}, "
+            + "{{personality}}. Their name is {{firstName}} {{lastName}}. {{#bio}}Bio details: {{bio}}. {{/bio}}"
+            + "The image should have natural soft lighting, a neutral background, "
+            + "and professional photography quality with realistic skin texture and details. "
+            + "The subject should be looking slightly off-camera with a natural pose. "
+            + "Use a shallow depth of field for a professional portrait effect. "
+            + "The image should be high resolution, photorealistic, with no watermarks or text.";
+
+    /**
+     * Prompt template. Placeholders are written as {{name}}; text between {{#name}} and {{/name}}
+     * is only included when the value is present. Available names: age, firstName, lastName,
+     * ethnicity, gender, personality, mbti and bio.
+     */
+    private String template = DEFAULT_TEMPLATE;
+
+    /**
+     * Settings of the cache of built prompts.
+     */
+    private Cache cache = new Cache();
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Configuration of the cache of built prompts.
+     */
+    public static class Cache {
+
+        /**
+         * Whether built prompts are cached.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of cached prompts.
+         */
+        private int maxSize = 10_000;
+
+        /**
+         * Time-to-live of a cached prompt in milliseconds.
+         * Defaults to 3600000 (1 hour).
+         */
+        private long ttl = 3_600_000L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(long ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
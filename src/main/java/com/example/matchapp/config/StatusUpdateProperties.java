@@ -0,0 +1,39 @@
+package com.example.matchapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for write-behind batching of image generation status updates.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "imagegen.status-updates")
+public class StatusUpdateProperties {
+
+    /**
+     * Number of buffered status updates that triggers an immediate flush.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Maximum time in milliseconds a status update stays buffered before it is flushed.
+     * Defaults to 2000 (2 seconds).
+     */
+    private long flushInterval = 2000L;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+}
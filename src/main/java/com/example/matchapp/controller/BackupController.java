@@ -1,8 +1,10 @@
 package com.example.matchapp.controller;
 
 import com.example.matchapp.config.BackupProperties;
+import com.example.matchapp.model.BackupInfo;
+import com.example.matchapp.model.BackupJob;
+import com.example.matchapp.service.BackupJobService;
 import com.example.matchapp.service.ImageBackupService;
-import com.example.matchapp.service.impl.FileSystemImageBackupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,14 +12,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -32,10 +36,13 @@ public class BackupController {
     private static final String DEFAULT_IMAGE_DIR = "src/main/resources/static/images";
 
     private final ImageBackupService backupService;
+    private final BackupJobService backupJobService;
     private final BackupProperties backupProperties;
 
-    public BackupController(ImageBackupService backupService, BackupProperties backupProperties) {
+    public BackupController(ImageBackupService backupService, BackupJobService backupJobService,
+                            BackupProperties backupProperties) {
         this.backupService = backupService;
+        this.backupJobService = backupJobService;
         // Create defensive copy to prevent external modification
         this.backupProperties = copyBackupProperties(backupProperties);
     }
@@ -59,34 +66,94 @@ public class BackupController {
     }
 
     /**
-     * Create a backup of all images.
+     * Start a backup of all images in the background.
      *
-     * @return information about the created backup
+     * @return a handle to the backup job
      */
     @PostMapping
-    @Operation(summary = "Create a backup", description = "Creates a backup of all generated profile images")
-    @ApiResponse(responseCode = "200", description = "Backup created successfully")
-    @ApiResponse(responseCode = "500", description = "Error creating backup")
+    @Operation(summary = "Create a backup", description = "Starts a background backup of all generated profile images and returns a job handle")
+    @ApiResponse(responseCode = "202", description = "Backup job accepted")
     public ResponseEntity<Map<String, Object>> createBackup() {
-        try {
-            Path sourceDir = Paths.get(DEFAULT_IMAGE_DIR);
-            int filesBackedUp = backupService.createBackup(sourceDir);
+        Path sourceDir = Paths.get(DEFAULT_IMAGE_DIR);
+        BackupJob job = backupJobService.submitBackup(sourceDir);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("message", "Backup created successfully");
-            response.put("filesBackedUp", filesBackedUp);
+        Map<String, Object> response = toJobResponse(job);
+        response.put("message", "Backup job accepted");
+        URI statusUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/jobs/{jobId}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(statusUri)
+                .body(response);
+    }
 
-            return ResponseEntity.ok(response);
-        } catch (IOException e) {
-            logger.error("Error creating backup", e);
+    /**
+     * Get the status of a backup job.
+     *
+     * @param jobId the job ID
+     * @return the status and progress of the job
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get backup job status", description = "Returns the status and progress of a backup job")
+    @ApiResponse(responseCode = "200", description = "Job found")
+    @ApiResponse(responseCode = "404", description = "Job not found")
+    public ResponseEntity<Map<String, Object>> getBackupJob(@PathVariable String jobId) {
+        return backupJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(toJobResponse(job)))
+                .orElseGet(() -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("status", "error");
+                    response.put("message", "Backup job not found: " + jobId);
+                    return ResponseEntity.status(404).body(response);
+                });
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "error");
-            response.put("message", "Error creating backup: " + e.getMessage());
+    /**
+     * List recent backup jobs.
+     *
+     * @return the most recent backup jobs, newest first
+     */
+    @GetMapping("/jobs")
+    @Operation(summary = "List backup jobs", description = "Lists the most recent backup jobs, newest first")
+    @ApiResponse(responseCode = "200", description = "Jobs listed successfully")
+    public ResponseEntity<Map<String, Object>> listBackupJobs() {
+        List<Map<String, Object>> jobs = backupJobService.getRecentJobs().stream()
+                .map(this::toJobResponse)
+                .collect(Collectors.toList());
 
-            return ResponseEntity.status(500).body(response);
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("jobs", jobs);
+        response.put("count", jobs.size());
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> toJobResponse(BackupJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("jobId", job.getId());
+        response.put("jobStatus", job.getStatus());
+        response.put("progress", job.getProgress());
+        response.put("filesProcessed", job.getFilesProcessed());
+        response.put("filesTotal", job.getFilesTotal());
+        response.put("submittedAt", job.getSubmittedAt());
+        if (job.getStartedAt() != null) {
+            response.put("startedAt", job.getStartedAt());
         }
+        if (job.getFinishedAt() != null) {
+            response.put("finishedAt", job.getFinishedAt());
+        }
+        if (job.getStatus() == BackupJob.Status.COMPLETED) {
+            response.put("filesBackedUp", job.getFilesBackedUp());
+        }
+        if (job.getErrorMessage() != null) {
+            response.put("error", job.getErrorMessage());
+        }
+        if (job.getCoalescedRequests() > 0) {
+            response.put("coalescedRequests", job.getCoalescedRequests());
+        }
+        return response;
     }
 
     /**
@@ -100,15 +167,16 @@ public class BackupController {
     @ApiResponse(responseCode = "500", description = "Error listing backups")
     public ResponseEntity<Map<String, Object>> listBackups() {
         try {
-            Path[] backups = backupService.listBackups(Paths.get(backupProperties.getBackupDir()));
+            List<BackupInfo> backups = backupService.listBackupInfo();
 
-            List<String> backupNames = Arrays.stream(backups)
-                    .map(path -> path.getFileName().toString())
+            List<String> backupNames = backups.stream()
+                    .map(BackupInfo::name)
                     .collect(Collectors.toList());
 
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
             response.put("backups", backupNames);
+            response.put("details", backups);
             response.put("count", backupNames.size());
 
             return ResponseEntity.ok(response);
@@ -163,15 +231,14 @@ public class BackupController {
                 return ResponseEntity.ok(response);
             } else {
                 // Restore from specified backup
-                Path backupsRootDir = Paths.get(backupProperties.getBackupDir());
-                backupDir = backupsRootDir.resolve(backupName);
-
-                if (!backupDir.toFile().exists() || !backupDir.toFile().isDirectory()) {
+                Optional<Path> backup = backupService.findBackup(backupName);
+                if (backup.isEmpty()) {
                     Map<String, Object> response = new HashMap<>();
                     response.put("status", "error");
                     response.put("message", "Backup not found: " + backupName);
                     return ResponseEntity.status(404).body(response);
                 }
+                backupDir = backup.get();
 
                 int filesRestored = backupService.restoreImages(backupDir, targetDir, overwrite);
 
@@ -183,6 +250,11 @@ public class BackupController {
 
                 return ResponseEntity.ok(response);
             }
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "Invalid backup name: " + backupName);
+            return ResponseEntity.status(400).body(response);
         } catch (IOException e) {
             logger.error("Error restoring from backup", e);
 
@@ -193,4 +265,64 @@ public class BackupController {
             return ResponseEntity.status(500).body(response);
         }
     }
+
+    /**
+     * Restore a single image from a backup.
+     *
+     * @param backupName the name of the backup directory or archive to restore from
+     * @param image the path of the image inside the backup, e.g. the profile's image file name
+     * @param overwrite whether to overwrite an existing file
+     * @return information about the restore operation
+     */
+    @PostMapping("/restore/image")
+    @Operation(summary = "Restore one image", description = "Restores a single image from a specified backup without restoring the whole backup")
+    @ApiResponse(responseCode = "200", description = "Image restored successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid backup name")
+    @ApiResponse(responseCode = "404", description = "Backup or image not found")
+    @ApiResponse(responseCode = "409", description = "Image already exists and overwrite is disabled")
+    @ApiResponse(responseCode = "500", description = "Error during restore")
+    public ResponseEntity<Map<String, Object>> restoreImage(
+            @RequestParam String backupName,
+            @RequestParam String image,
+            @RequestParam(defaultValue = "false") boolean overwrite) {
+
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Optional<Path> backup = backupService.findBackup(backupName);
+            if (backup.isEmpty()) {
+                response.put("status", "error");
+                response.put("message", "Backup not found: " + backupName);
+                return ResponseEntity.status(404).body(response);
+            }
+
+            Path targetDir = Paths.get(DEFAULT_IMAGE_DIR);
+            if (!overwrite && targetDir.resolve(image).toFile().exists()) {
+                response.put("status", "error");
+                response.put("message", "Image already exists: " + image);
+                return ResponseEntity.status(409).body(response);
+            }
+
+            if (!backupService.restoreImage(backup.get(), image, targetDir, overwrite)) {
+                response.put("status", "error");
+                response.put("message", "Image not found in backup " + backupName + ": " + image);
+                return ResponseEntity.status(404).body(response);
+            }
+
+            response.put("status", "success");
+            response.put("message", "Image restored successfully");
+            response.put("backupName", backupName);
+            response.put("image", image);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", "Invalid backup name: " + backupName);
+            return ResponseEntity.status(400).body(response);
+        } catch (IOException e) {
+            logger.error("Error restoring image {} from backup {}", image, backupName, e);
+
+            response.put("status", "error");
+            response.put("message", "Error restoring image from backup: " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
 }
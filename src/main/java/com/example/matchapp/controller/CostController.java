@@ -0,0 +1,50 @@
+package com.example.matchapp.controller;
+
+import com.example.matchapp.model.CostLedgerSummary;
+import com.example.matchapp.service.CostLedgerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+/**
+ * REST controller for the cost ledger of image generation provider calls.
+ */
+@RestController
+@RequestMapping("/costs")
+@Tag(name = "Cost Accounting", description = "API endpoints for the cost of image generation provider calls")
+public class CostController {
+
+    private final CostLedgerService costLedgerService;
+
+    public CostController(CostLedgerService costLedgerService) {
+        if (costLedgerService == null) {
+            throw new NullPointerException("CostLedgerService cannot be null");
+        }
+        this.costLedgerService = costLedgerService;
+    }
+
+    /**
+     * Summarize the provider calls made since a point in time and what they cost.
+     *
+     * @param since the start of the period; all recorded calls are summarized when omitted
+     * @return the totals, broken down by provider and model
+     */
+    @GetMapping("/summary")
+    @Operation(summary = "Summarize provider costs",
+               description = "Returns the number of provider calls, retries, billed images and their cost, per provider and model")
+    @ApiResponse(responseCode = "200", description = "Cost summary")
+    public ResponseEntity<CostLedgerSummary> getSummary(
+            @Parameter(description = "Start of the period as an ISO-8601 instant, e.g. 2024-01-01T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since) {
+        return ResponseEntity.ok(costLedgerService.summarize(since != null ? since : Instant.EPOCH));
+    }
+}
@@ -6,6 +6,7 @@ import com.example.matchapp.model.Profile;
 import com.example.matchapp.model.ProfileEntity;
 import com.example.matchapp.mapper.ProfileMapper;
 import com.example.matchapp.service.ImageGenerationService;
+import com.example.matchapp.service.impl.CachingImageGenerationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,6 +15,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +28,7 @@ import org.springframework.web.server.ResponseStatusException;
 /**
  * REST controller for image generation.
  * Provides endpoints to generate images using the OpenAI API.
+ * Images that are already in the image cache are served from it without calling the provider.
  */
 @RestController
 @RequestMapping("/images")
@@ -37,7 +40,7 @@ public class ImageGenerationController {
     private final ProfileMapper profileMapper;
 
     public ImageGenerationController(
-            ImageGenerationService imageGenerationService,
+            @Qualifier(CachingImageGenerationService.BEAN_NAME) ImageGenerationService imageGenerationService,
             GenerateImageRequestMapper generateImageRequestMapper,
             ProfileMapper profileMapper) {
         this.imageGenerationService = imageGenerationService;
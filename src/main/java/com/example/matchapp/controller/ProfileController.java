@@ -4,20 +4,29 @@ import com.example.matchapp.dto.CreateProfileRequest;
 import com.example.matchapp.dto.ProfileResponse;
 import com.example.matchapp.dto.UpdateProfileRequest;
 import com.example.matchapp.mapper.ProfileMapper;
+import com.example.matchapp.model.ExportFormat;
 import com.example.matchapp.model.Profile;
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfileSummary;
+import com.example.matchapp.service.ImageVariantService;
+import com.example.matchapp.service.ProfileExportService;
 import com.example.matchapp.service.ProfileService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
@@ -36,12 +45,15 @@ import org.springframework.data.domain.Pageable;
 public class ProfileController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProfileController.class);
+    private static final Path IMAGES_DIR = Paths.get("src/main/resources/static/images");
     private final ProfileService profileService;
     private final ProfileMapper profileMapper;
+    private final ProfileExportService profileExportService;
 
     public ProfileController(
             ProfileService profileService,
-            ProfileMapper profileMapper) {
+            ProfileMapper profileMapper,
+            ProfileExportService profileExportService) {
         // Validate parameters before assigning to fields
         if (profileService == null) {
             throw new NullPointerException("ProfileService cannot be null");
@@ -49,9 +61,13 @@ public class ProfileController {
         if (profileMapper == null) {
             throw new NullPointerException("ProfileMapper cannot be null");
         }
+        if (profileExportService == null) {
+            throw new NullPointerException("ProfileExportService cannot be null");
+        }
         // These are interfaces/services, not mutable objects that need defensive copying
         this.profileService = profileService;
         this.profileMapper = profileMapper;
+        this.profileExportService = profileExportService;
     }
 
     /**
@@ -85,6 +101,51 @@ public class ProfileController {
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Get profile summaries with pagination.
+     * Summaries leave out the bio, ethnicity and image URL and are cheaper to load than full profiles.
+     *
+     * @param pageable pagination information including page number, page size, and sorting
+     * @return a page of profile summaries
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<Page<ProfileSummary>> getProfileSummaries(Pageable pageable) {
+        logger.info("GET request to fetch profile summaries with pagination: page={}, size={}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        return ResponseEntity.ok(profileService.getProfileSummaries(pageable));
+    }
+
+    /**
+     * Export all profiles as a file download.
+     * The response is streamed while profiles are read page by page, so nothing is buffered in memory;
+     * writes block while the client is slow to read, which throttles the export to the client's pace.
+     *
+     * @param format the export format: json, ndjson, csv, or zip for profiles bundled with their images
+     * @return the streamed export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProfiles(@RequestParam(defaultValue = "json") String format) {
+        logger.info("GET request to export profiles as {}", format);
+        ExportFormat exportFormat = parseExportFormat(format);
+
+        StreamingResponseBody body = out -> profileExportService.export(exportFormat, out, IMAGES_DIR);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("profiles" + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    private static ExportFormat parseExportFormat(String format) {
+        try {
+            return ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * Get a profile by ID.
      *
@@ -100,6 +161,40 @@ public class ProfileController {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Profile not found with ID: " + id));
     }
 
+    /**
+     * Get the generated image of a profile.
+     * The image is streamed from the cache to the client, so serving it doesn't load the whole image on the heap.
+     *
+     * @param id the profile ID
+     * @param variant the size variant, e.g. thumbnail, or original for the image as generated
+     * @return the image
+     */
+    @GetMapping("/{id}/image")
+    public ResponseEntity<StreamingResponseBody> getProfileImage(
+            @PathVariable String id,
+            @RequestParam(defaultValue = ImageVariantService.ORIGINAL) String variant) {
+        logger.info("GET request to fetch {} image of profile with ID: {}", variant, id);
+        if (!profileService.isImageVariant(variant)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown image variant: " + variant);
+        }
+        ProfileEntity profile = profileService.getProfileWithCachedImage(id, IMAGES_DIR)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found for profile with ID: " + id));
+
+        String contentType;
+        try {
+            contentType = profileService.getImageContentType(profile, variant, IMAGES_DIR)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found for profile with ID: " + id));
+        } catch (IOException e) {
+            logger.error("Error reading image of profile: {}", id, e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error reading image: " + e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> profileService.writeCachedImage(profile, variant, IMAGES_DIR, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .body(body);
+    }
+
     /**
      * Create a new profile.
      *
@@ -150,6 +245,24 @@ public class ProfileController {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Profile not found with ID: " + id));
     }
 
+    /**
+     * Partially update an existing profile.
+     * Only the fields present in the request, and different from the stored values, are written.
+     *
+     * @param id the profile ID
+     * @param request the fields to change
+     * @return the updated profile
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProfileResponse> patchProfile(@PathVariable String id, @Valid @RequestBody UpdateProfileRequest request) {
+        logger.info("PATCH request to update profile with ID: {}", id);
+
+        return profileService.patchProfile(id, profileMapper.toPatch(request))
+                .map(ProfileResponse::fromProfile)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Profile not found with ID: " + id));
+    }
+
     /**
      * Delete a profile by ID.
      *
@@ -177,7 +290,7 @@ public class ProfileController {
     public ResponseEntity<ProfileResponse> generateImageForProfile(@PathVariable String id) {
         logger.info("POST request to generate image for profile with ID: {}", id);
         try {
-            return profileService.generateImageForProfile(id, Paths.get("src/main/resources/static/images"))
+            return profileService.generateImageForProfile(id, IMAGES_DIR)
                     .map(ProfileResponse::fromProfile)
                     .map(ResponseEntity::ok)
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Profile not found with ID: " + id));
@@ -196,7 +309,7 @@ public class ProfileController {
     public ResponseEntity<List<ProfileResponse>> generateImagesForAllProfiles() {
         logger.info("POST request to generate images for all profiles");
         try {
-            List<ProfileResponse> responses = profileService.generateImages(Paths.get("src/main/resources/static/images"))
+            List<ProfileResponse> responses = profileService.generateImages(IMAGES_DIR)
                     .stream()
                     .map(ProfileResponse::fromProfile)
                     .collect(Collectors.toList());
@@ -6,6 +6,7 @@ import com.example.matchapp.dto.UpdateProfileRequest;
 import com.example.matchapp.model.Gender;
 import com.example.matchapp.model.Profile;
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfilePatch;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
@@ -83,6 +84,26 @@ public class ProfileMapper {
         return entity;
     }
 
+    /**
+     * Convert an UpdateProfileRequest DTO to a ProfilePatch.
+     * Fields missing from the request stay null and are not changed by the patch.
+     *
+     * @param request the request DTO to convert
+     * @return a new ProfilePatch
+     */
+    public ProfilePatch toPatch(UpdateProfileRequest request) {
+        return new ProfilePatch(
+                request.firstName(),
+                request.lastName(),
+                request.age(),
+                request.ethnicity(),
+                request.gender(),
+                request.bio(),
+                request.imageUrl(),
+                request.myersBriggsPersonalityType()
+        );
+    }
+
     /**
      * Convert a Profile record to a ProfileEntity.
      *
@@ -0,0 +1,151 @@
+package com.example.matchapp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Component for tracking metrics related to image backup and restore operations.
+ * This class records files and bytes copied, files linked from earlier backups,
+ * and the duration and throughput of each operation.
+ */
+@Component
+public class BackupMetrics {
+
+    /**
+     * Operation tag value for backups.
+     */
+    public static final String BACKUP = "backup";
+
+    /**
+     * Operation tag value for restores.
+     */
+    public static final String RESTORE = "restore";
+
+    private final Map<String, Counter> fileCounters;
+    private final Map<String, Counter> byteCounters;
+    private final Map<String, Timer> durationTimers;
+    private final Map<String, AtomicLong> throughputs;
+    private final Counter linkedFileCounter;
+    private final Counter archiveBytesCounter;
+    private final AtomicLong archiveCompressionPermille = new AtomicLong(1000);
+
+    public BackupMetrics(MeterRegistry registry) {
+        // Pre-register meters for both operations so they show up before the first run
+        this.fileCounters = Map.of(
+                BACKUP, fileCounter(registry, BACKUP),
+                RESTORE, fileCounter(registry, RESTORE));
+        this.byteCounters = Map.of(
+                BACKUP, byteCounter(registry, BACKUP),
+                RESTORE, byteCounter(registry, RESTORE));
+        this.durationTimers = Map.of(
+                BACKUP, durationTimer(registry, BACKUP),
+                RESTORE, durationTimer(registry, RESTORE));
+        this.throughputs = Map.of(
+                BACKUP, throughputGauge(registry, BACKUP),
+                RESTORE, throughputGauge(registry, RESTORE));
+
+        this.linkedFileCounter = Counter.builder("backup.files.linked")
+                .description("Number of unchanged files hard-linked from a previous backup instead of copied")
+                .register(registry);
+
+        this.archiveBytesCounter = Counter.builder("backup.archive.bytes.written")
+                .description("Number of compressed bytes written to backup archives")
+                .baseUnit("bytes")
+                .register(registry);
+
+        Gauge.builder("backup.archive.compression.ratio", archiveCompressionPermille, permille -> permille.get() / 1000.0)
+                .description("Ratio of archive size to original size for the last backup archive")
+                .register(registry);
+    }
+
+    /**
+     * Records a copied file.
+     *
+     * @param operation the operation, {@link #BACKUP} or {@link #RESTORE}
+     * @param bytes the size of the file in bytes
+     */
+    public void recordFileCopied(String operation, long bytes) {
+        fileCounters.get(operation).increment();
+        byteCounters.get(operation).increment(bytes);
+    }
+
+    /**
+     * Records a file hard-linked from a previous backup.
+     */
+    public void recordFileLinked() {
+        linkedFileCounter.increment();
+    }
+
+    /**
+     * Records a written backup archive.
+     *
+     * @param compressedBytes the size of the archive
+     * @param compressionRatio the ratio of archive size to original size
+     */
+    public void recordArchive(long compressedBytes, double compressionRatio) {
+        archiveBytesCounter.increment(compressedBytes);
+        archiveCompressionPermille.set(Math.round(compressionRatio * 1000));
+    }
+
+    /**
+     * Records a completed operation and updates its throughput gauge.
+     *
+     * @param operation the operation, {@link #BACKUP} or {@link #RESTORE}
+     * @param bytes the number of bytes copied
+     * @param duration how long the operation took
+     */
+    public void recordOperation(String operation, long bytes, Duration duration) {
+        durationTimers.get(operation).record(duration);
+        long millis = Math.max(1, duration.toMillis());
+        throughputs.get(operation).set(bytes * 1000 / millis);
+    }
+
+    /**
+     * Gets the throughput of the last completed operation.
+     *
+     * @param operation the operation, {@link #BACKUP} or {@link #RESTORE}
+     * @return the throughput in bytes per second
+     */
+    public long getLastThroughput(String operation) {
+        return throughputs.get(operation).get();
+    }
+
+    private static Counter fileCounter(MeterRegistry registry, String operation) {
+        return Counter.builder("backup.files.copied")
+                .description("Number of files copied")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static Counter byteCounter(MeterRegistry registry, String operation) {
+        return Counter.builder("backup.bytes.copied")
+                .description("Number of bytes copied")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static Timer durationTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("backup.duration")
+                .description("Time taken by backup and restore operations")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static AtomicLong throughputGauge(MeterRegistry registry, String operation) {
+        AtomicLong throughput = new AtomicLong();
+        Gauge.builder("backup.throughput", throughput, AtomicLong::get)
+                .description("Throughput of the last completed operation")
+                .baseUnit("bytes.per.second")
+                .tag("operation", operation)
+                .register(registry);
+        return throughput;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.matchapp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Component for tracking the utilization of the image buffer pool.
+ * Records whether each acquisition reused a pooled buffer, allocated a new one, or found the pool
+ * exhausted and fell back to a heap buffer; a steady rate of exhausted acquisitions means the pool is too small.
+ */
+@Component
+public class ImageBufferPoolMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter reusedCounter;
+    private final Counter allocatedCounter;
+    private final Counter exhaustedCounter;
+
+    public ImageBufferPoolMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.reusedCounter = acquisitionCounter(registry, "reused");
+        this.allocatedCounter = acquisitionCounter(registry, "allocated");
+        this.exhaustedCounter = acquisitionCounter(registry, "exhausted");
+    }
+
+    /**
+     * Creates buffer pool metrics that record nothing, for pools constructed outside of Spring.
+     *
+     * @return the buffer pool metrics
+     */
+    public static ImageBufferPoolMetrics noop() {
+        // A composite registry without child registries hands out no-op meters
+        return new ImageBufferPoolMetrics(new CompositeMeterRegistry());
+    }
+
+    private static Counter acquisitionCounter(MeterRegistry registry, String result) {
+        return Counter.builder("imagegen.buffer.pool.acquisitions")
+                .description("Number of buffers acquired from the image buffer pool")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Registers gauges reporting the state of a pool.
+     *
+     * @param inUse supplies the number of direct buffers currently borrowed
+     * @param idle supplies the number of direct buffers waiting in the pool
+     * @param maxBuffers the maximum number of direct buffers of the pool
+     * @param bufferSize the size of each buffer in bytes
+     */
+    public void bindPool(IntSupplier inUse, IntSupplier idle, int maxBuffers, int bufferSize) {
+        Gauge.builder("imagegen.buffer.pool.buffers", inUse, IntSupplier::getAsInt)
+                .description("Number of direct buffers of the image buffer pool")
+                .tag("state", "in_use")
+                .register(registry);
+        Gauge.builder("imagegen.buffer.pool.buffers", idle, IntSupplier::getAsInt)
+                .description("Number of direct buffers of the image buffer pool")
+                .tag("state", "idle")
+                .register(registry);
+        Gauge.builder("imagegen.buffer.pool.utilization", inUse, supplier -> (double) supplier.getAsInt() / maxBuffers)
+                .description("Fraction of the maximum number of direct buffers currently borrowed")
+                .register(registry);
+        Gauge.builder("imagegen.buffer.pool.memory", () -> (double) (inUse.getAsInt() + idle.getAsInt()) * bufferSize)
+                .description("Off-heap memory allocated by the image buffer pool")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Records an acquisition served by a pooled buffer.
+     */
+    public void recordReused() {
+        reusedCounter.increment();
+    }
+
+    /**
+     * Records an acquisition that allocated a new direct buffer.
+     */
+    public void recordAllocated() {
+        allocatedCounter.increment();
+    }
+
+    /**
+     * Records an acquisition that found the pool exhausted and got a heap buffer.
+     */
+    public void recordExhausted() {
+        exhaustedCounter.increment();
+    }
+}
@@ -5,78 +5,70 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Component for tracking metrics related to image generation.
- * This class provides methods to record image generation requests, successes, failures, and response times.
+ * Requests are counted and timed per provider and outcome. All meters of a provider are registered together
+ * the first time the provider is seen, so recording a request only increments meters that already exist.
  */
 @Component
 public class ImageGenerationMetrics {
 
-    private final Counter totalRequestsCounter;
-    private final Counter successCounter;
-    private final Counter failureCounter;
-    private final Counter apiErrorCounter;
-    private final Counter cacheHitCounter;
-    private final Timer responseTimeTimer;
+    /**
+     * Tag value used when the provider isn't known.
+     */
+    public static final String UNKNOWN_PROVIDER = "unknown";
 
-    public ImageGenerationMetrics(MeterRegistry registry) {
-        // Initialize counters
-        this.totalRequestsCounter = Counter.builder("imagegen.requests.total")
-                .description("Total number of image generation requests")
-                .register(registry);
+    /**
+     * Outcomes of an image generation request.
+     */
+    public enum Outcome {
+        SUCCESS("success"),
+        FAILURE("failure"),
+        API_ERROR("api_error");
 
-        this.successCounter = Counter.builder("imagegen.requests.success")
-                .description("Number of successful image generation requests")
-                .register(registry);
+        private final String tagValue;
 
-        this.failureCounter = Counter.builder("imagegen.requests.failure")
-                .description("Number of failed image generation requests")
-                .register(registry);
+        Outcome(String tagValue) {
+            this.tagValue = tagValue;
+        }
 
-        this.apiErrorCounter = Counter.builder("imagegen.api.errors")
-                .description("Number of OpenAI API errors")
-                .register(registry);
+        public String getTagValue() {
+            return tagValue;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Counter cacheHitCounter;
+    private final Counter cacheMissCounter;
+    private final Map<String, ProviderMetrics> metricsByProvider = new ConcurrentHashMap<>();
+
+    public ImageGenerationMetrics(MeterRegistry registry) {
+        this.registry = registry;
 
         this.cacheHitCounter = Counter.builder("imagegen.cache.hits")
                 .description("Number of cache hits for image generation")
                 .register(registry);
 
-        // Initialize timer
-        this.responseTimeTimer = Timer.builder("imagegen.response.time")
-                .description("Response time for image generation requests")
-                .publishPercentiles(0.5, 0.95, 0.99) // Publish 50th, 95th, and 99th percentiles
-                .publishPercentileHistogram()
+        this.cacheMissCounter = Counter.builder("imagegen.cache.misses")
+                .description("Number of cache misses for image generation")
                 .register(registry);
     }
 
     /**
-     * Records a new image generation request.
+     * Gets the meters of a provider, registering them on first use.
+     * Callers on a hot path should keep the result rather than looking it up for every request.
+     *
+     * @param provider the provider name
+     * @return the provider's meters
      */
-    public void recordRequest() {
-        totalRequestsCounter.increment();
-    }
-
-    /**
-     * Records a successful image generation request.
-     */
-    public void recordSuccess() {
-        successCounter.increment();
-    }
-
-    /**
-     * Records a failed image generation request.
-     */
-    public void recordFailure() {
-        failureCounter.increment();
-    }
-
-    /**
-     * Records an API error.
-     */
-    public void recordApiError() {
-        apiErrorCounter.increment();
+    public ProviderMetrics forProvider(String provider) {
+        String providerTag = provider != null ? provider : UNKNOWN_PROVIDER;
+        return metricsByProvider.computeIfAbsent(providerTag, key -> new ProviderMetrics(registry, key));
     }
 
     /**
@@ -87,38 +79,88 @@ public class ImageGenerationMetrics {
     }
 
     /**
-     * Records the response time for an image generation request.
-     * 
-     * @param timeMs The response time in milliseconds
-     */
-    public void recordResponseTime(long timeMs) {
-        responseTimeTimer.record(timeMs, TimeUnit.MILLISECONDS);
-    }
-
-    /**
-     * Creates a timer sample that can be used to measure the execution time of a block of code.
-     * 
-     * @return A timer sample
-     */
-    public Timer.Sample startTimer() {
-        return Timer.start();
-    }
-
-    /**
-     * Stops the timer sample and records the elapsed time.
-     * 
-     * @param sample The timer sample to stop
+     * Records a cache miss for image generation.
      */
-    public void stopTimer(Timer.Sample sample) {
-        sample.stop(responseTimeTimer);
+    public void recordCacheMiss() {
+        cacheMissCounter.increment();
     }
 
     /**
-     * Gets the response time timer.
-     * 
-     * @return The response time timer
+     * Pre-registered meters of one provider.
      */
-    public Timer getResponseTimeTimer() {
-        return responseTimeTimer;
+    public static final class ProviderMetrics {
+
+        private final Counter totalRequestsCounter;
+        private final Counter successCounter;
+        private final Counter failureCounter;
+        private final Counter apiErrorCounter;
+        private final Map<Outcome, Timer> responseTimeTimers = new EnumMap<>(Outcome.class);
+
+        private ProviderMetrics(MeterRegistry registry, String provider) {
+            this.totalRequestsCounter = Counter.builder("imagegen.requests.total")
+                    .description("Total number of image generation requests")
+                    .tag("provider", provider)
+                    .register(registry);
+
+            this.successCounter = Counter.builder("imagegen.requests.success")
+                    .description("Number of successful image generation requests")
+                    .tag("provider", provider)
+                    .register(registry);
+
+            this.failureCounter = Counter.builder("imagegen.requests.failure")
+                    .description("Number of failed image generation requests")
+                    .tag("provider", provider)
+                    .register(registry);
+
+            this.apiErrorCounter = Counter.builder("imagegen.api.errors")
+                    .description("Number of image provider API errors")
+                    .tag("provider", provider)
+                    .register(registry);
+
+            for (Outcome outcome : Outcome.values()) {
+                responseTimeTimers.put(outcome, Timer.builder("imagegen.response.time")
+                        .description("Response time for image generation requests")
+                        .tag("provider", provider)
+                        .tag("outcome", outcome.getTagValue())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+        }
+
+        /**
+         * Records a new image generation request.
+         */
+        public void recordRequest() {
+            totalRequestsCounter.increment();
+        }
+
+        /**
+         * Records the outcome of an image generation request and its response time.
+         *
+         * @param outcome the outcome
+         * @param startNanos the value of {@link System#nanoTime()} when the request started
+         * @return the response time in milliseconds
+         */
+        public long recordOutcome(Outcome outcome, long startNanos) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            switch (outcome) {
+                case SUCCESS -> successCounter.increment();
+                case API_ERROR -> apiErrorCounter.increment();
+                default -> failureCounter.increment();
+            }
+            responseTimeTimers.get(outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        /**
+         * Gets the response time timer of an outcome.
+         *
+         * @param outcome the outcome
+         * @return the response time timer
+         */
+        public Timer getResponseTimeTimer(Outcome outcome) {
+            return responseTimeTimers.get(outcome);
+        }
     }
 }
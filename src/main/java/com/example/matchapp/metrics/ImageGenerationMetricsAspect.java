@@ -3,9 +3,10 @@ package com.example.matchapp.metrics;
 import com.example.matchapp.exception.ApiAuthenticationException;
 import com.example.matchapp.exception.ApiConnectionException;
 import com.example.matchapp.exception.ApiRateLimitException;
-import com.example.matchapp.exception.ImageGenerationException;
-import com.example.matchapp.model.Profile;
-import io.micrometer.core.instrument.Timer;
+import com.example.matchapp.metrics.ImageGenerationMetrics.Outcome;
+import com.example.matchapp.metrics.ImageGenerationMetrics.ProviderMetrics;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.ImageGenerationService;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -15,13 +16,22 @@ import org.springframework.stereotype.Component;
 
 /**
  * Aspect for recording metrics related to image generation.
- * This aspect intercepts calls to the ImageGenerationService and records metrics.
+ * This aspect intercepts calls to the ImageGenerationService, tagging them with the provider that served them.
+ * Cache hits and misses are recorded by the generation paths themselves, which know whether a lookup was
+ * made on behalf of a generation.
  */
 @Aspect
 @Component
 public class ImageGenerationMetricsAspect {
     private static final Logger logger = LoggerFactory.getLogger(ImageGenerationMetricsAspect.class);
     
+    /**
+     * Excludes the caching decorator, which records its own cache hits and misses, so requests are
+     * counted once, at the provider.
+     */
+    private static final String NOT_CACHE =
+            "!within(com.example.matchapp.service.impl.CachingImageGenerationService)";
+
     private final ImageGenerationMetrics metrics;
     
     public ImageGenerationMetricsAspect(ImageGenerationMetrics metrics) {
@@ -33,49 +43,41 @@ public class ImageGenerationMetricsAspect {
      * This method intercepts calls to the generateImage method of any implementation of ImageGenerationService.
      * 
      * @param joinPoint The join point representing the intercepted method call
+     * @param service The service generating the image
+     * @param profile The profile the image is generated for
      * @return The result of the intercepted method call
      * @throws Throwable If an error occurs during the method execution
      */
-    @Around("execution(* com.example.matchapp.service.ImageGenerationService.generateImage(..))")
-    public Object recordImageGenerationMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
-        // Get the profile from the method arguments
-        Profile profile = (Profile) joinPoint.getArgs()[0];
-        
-        // Start timer for response time measurement
-        Timer.Sample timerSample = Timer.start();
-        
-        // Record the request
-        metrics.recordRequest();
+    @Around(value = "execution(* com.example.matchapp.service.ImageGenerationService.generateImage(com.example.matchapp.model.ProfileEntity))"
+            + " && target(service) && args(profile) && " + NOT_CACHE, argNames = "joinPoint,service,profile")
+    public Object recordImageGenerationMetrics(ProceedingJoinPoint joinPoint, ImageGenerationService service,
+                                               ProfileEntity profile) throws Throwable {
+        ProviderMetrics providerMetrics = metrics.forProvider(service.getProviderName());
+        String profileId = profile != null ? profile.getId() : null;
+
+        long startNanos = System.nanoTime();
+        providerMetrics.recordRequest();
         
         try {
-            // Execute the original method
             Object result = joinPoint.proceed();
             
-            // Record successful request
-            metrics.recordSuccess();
-            
-            // Record response time
-            long responseTimeMs = timerSample.stop(metrics.getResponseTimeTimer());
-            logger.debug("Image generation for profile {} completed in {} ms", profile.id(), responseTimeMs);
+            long responseTimeMs = providerMetrics.recordOutcome(Outcome.SUCCESS, startNanos);
+            logger.debug("Image generation for profile {} completed in {} ms", profileId, responseTimeMs);
             
             return result;
         } catch (Throwable e) {
-            // Record appropriate metric based on exception type
+            // Record appropriate metric based on exception type; response time is recorded for failures too
             if (e instanceof ApiAuthenticationException || 
                 e instanceof ApiConnectionException || 
                 e instanceof ApiRateLimitException) {
-                metrics.recordApiError();
-                logger.debug("API error during image generation for profile {}: {}", profile.id(), e.getMessage());
+                providerMetrics.recordOutcome(Outcome.API_ERROR, startNanos);
+                logger.debug("API error during image generation for profile {}: {}", profileId, e.getMessage());
             } else {
-                metrics.recordFailure();
-                logger.debug("Failure during image generation for profile {}: {}", profile.id(), e.getMessage());
+                providerMetrics.recordOutcome(Outcome.FAILURE, startNanos);
+                logger.debug("Failure during image generation for profile {}: {}", profileId, e.getMessage());
             }
             
-            // Record response time even for failures
-            timerSample.stop(metrics.getResponseTimeTimer());
-            
-            // Rethrow the exception
             throw e;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+package com.example.matchapp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Component for tracking the latency of each stage of the image generation pipeline.
+ * Every stage has its own timer with a percentile histogram, tagged by provider and model, so a slow
+ * generation can be attributed to rate-limiter wait, prompt building, the provider call, base64 decoding,
+ * the cache write, post-processing into variants or the database update. Time spent waiting for the rate limiter is also recorded in
+ * a separate histogram tagged with whether a permit was granted.
+ */
+@Component
+public class ImageGenerationStageMetrics {
+
+    /**
+     * Tag value used when the provider or model isn't known.
+     */
+    public static final String UNKNOWN = "unknown";
+
+    /**
+     * Stages of generating an image, in the order they run.
+     */
+    public enum Stage {
+        RATE_LIMIT_WAIT("rate_limit_wait"),
+        PROMPT_BUILD("prompt_build"),
+        PROVIDER_CALL("provider_call"),
+        DECODE("decode"),
+        CACHE_WRITE("cache_write"),
+        POST_PROCESS("post_process"),
+        DB_UPDATE("db_update");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+
+        public String getTagValue() {
+            return tagValue;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<String, StageTimers> timersByProvider = new ConcurrentHashMap<>();
+
+    public ImageGenerationStageMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Creates stage metrics that record nothing, for services constructed outside of Spring.
+     *
+     * @return the stage metrics
+     */
+    public static ImageGenerationStageMetrics noop() {
+        // A composite registry without child registries hands out no-op meters
+        return new ImageGenerationStageMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * Gets the stage timers of a provider and model, registering them on first use.
+     * Callers are expected to look the timers up once and keep them, so recording a stage costs no meter lookup.
+     *
+     * @param provider the provider name
+     * @param model the model name
+     * @return the stage timers
+     */
+    public StageTimers timers(String provider, String model) {
+        String providerTag = provider != null ? provider : UNKNOWN;
+        String modelTag = model != null ? model : UNKNOWN;
+        return timersByProvider.computeIfAbsent(providerTag + '\u0000' + modelTag,
+                key -> new StageTimers(registry, providerTag, modelTag));
+    }
+
+    /**
+     * Pre-registered timers of all stages for one provider and model.
+     */
+    public static final class StageTimers {
+
+        private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+        private final Timer rateLimitAcquired;
+        private final Timer rateLimitRejected;
+
+        private StageTimers(MeterRegistry registry, String provider, String model) {
+            for (Stage stage : Stage.values()) {
+                stageTimers.put(stage, Timer.builder("imagegen.stage.duration")
+                        .description("Time spent in each stage of image generation")
+                        .tag("stage", stage.getTagValue())
+                        .tag("provider", provider)
+                        .tag("model", model)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+
+            this.rateLimitAcquired = rateLimitTimer(registry, provider, model, "acquired");
+            this.rateLimitRejected = rateLimitTimer(registry, provider, model, "rejected");
+        }
+
+        private static Timer rateLimitTimer(MeterRegistry registry, String provider, String model, String outcome) {
+            return Timer.builder("imagegen.ratelimiter.wait")
+                    .description("Time spent waiting for a rate limiter permit")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        /**
+         * Records the duration of a stage.
+         *
+         * @param stage the stage
+         * @param startNanos the value of {@link System#nanoTime()} when the stage started
+         */
+        public void record(Stage stage, long startNanos) {
+            stageTimers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Records the time spent waiting for the rate limiter, both as a stage and in the wait histogram.
+         *
+         * @param startNanos the value of {@link System#nanoTime()} when the wait started
+         * @param acquired whether a permit was granted
+         */
+        public void recordRateLimitWait(long startNanos, boolean acquired) {
+            long waitNanos = System.nanoTime() - startNanos;
+            stageTimers.get(Stage.RATE_LIMIT_WAIT).record(waitNanos, TimeUnit.NANOSECONDS);
+            (acquired ? rateLimitAcquired : rateLimitRejected).record(waitNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Gets the timer of a stage.
+         *
+         * @param stage the stage
+         * @return the timer
+         */
+        public Timer getTimer(Stage stage) {
+            return stageTimers.get(stage);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.matchapp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Component for tracking metrics related to the profile lookup cache.
+ * This class provides methods to record cache hits, misses and evictions, and exposes the hit ratio.
+ */
+@Component
+public class ProfileCacheMetrics {
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ProfileCacheMetrics(MeterRegistry registry) {
+        // Initialize counters
+        this.hitCounter = Counter.builder("profile.cache.hits")
+                .description("Number of profile lookups answered from the cache")
+                .register(registry);
+
+        this.missCounter = Counter.builder("profile.cache.misses")
+                .description("Number of profile lookups that went to the database")
+                .register(registry);
+
+        this.invalidationCounter = Counter.builder("profile.cache.invalidations")
+                .description("Number of cache entries invalidated by writes")
+                .register(registry);
+
+        // Initialize gauges
+        Gauge.builder("profile.cache.size", size, AtomicInteger::get)
+                .description("Number of profiles currently cached")
+                .register(registry);
+
+        Gauge.builder("profile.cache.hit.ratio", this, ProfileCacheMetrics::getHitRatio)
+                .description("Ratio of profile lookups answered from the cache")
+                .register(registry);
+    }
+
+    /**
+     * Records a cache hit.
+     */
+    public void recordHit() {
+        hitCounter.increment();
+    }
+
+    /**
+     * Records a cache miss.
+     */
+    public void recordMiss() {
+        missCounter.increment();
+    }
+
+    /**
+     * Records a cache invalidation.
+     */
+    public void recordInvalidation() {
+        invalidationCounter.increment();
+    }
+
+    /**
+     * Updates the current cache size.
+     *
+     * @param currentSize the number of cached entries
+     */
+    public void updateSize(int currentSize) {
+        size.set(currentSize);
+    }
+
+    /**
+     * Gets the ratio of hits to total lookups since startup.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+}
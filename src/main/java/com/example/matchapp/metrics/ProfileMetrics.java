@@ -84,6 +84,15 @@ public class ProfileMetrics {
         updateCounter.increment();
     }
 
+    /**
+     * Records several profile updates made by one batched write.
+     * 
+     * @param count The number of profiles updated
+     */
+    public void recordUpdates(int count) {
+        updateCounter.increment(count);
+    }
+
     /**
      * Records a profile deletion.
      */
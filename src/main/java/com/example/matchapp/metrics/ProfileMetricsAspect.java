@@ -1,6 +1,6 @@
 package com.example.matchapp.metrics;
 
-import com.example.matchapp.model.Profile;
+import com.example.matchapp.model.ProfileEntity;
 import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -19,6 +19,12 @@ import java.util.Optional;
 @Component
 public class ProfileMetricsAspect {
     private static final Logger logger = LoggerFactory.getLogger(ProfileMetricsAspect.class);
+
+    /**
+     * Excludes the caching decorator so operations are counted once, at the storage layer.
+     */
+    private static final String NOT_CACHE =
+            "!within(com.example.matchapp.repository.impl.CachingProfileRepository)";
     
     private final ProfileMetrics metrics;
     
@@ -33,7 +39,7 @@ public class ProfileMetricsAspect {
      * @return The result of the intercepted method call
      * @throws Throwable If an error occurs during the method execution
      */
-    @Around("execution(* com.example.matchapp.repository.ProfileRepository.findAll())")
+    @Around("execution(* com.example.matchapp.repository.ProfileRepository.findAll()) && " + NOT_CACHE)
     public Object recordFindAllMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
         Timer.Sample timerSample = Timer.start();
         
@@ -60,7 +66,7 @@ public class ProfileMetricsAspect {
      * @return The result of the intercepted method call
      * @throws Throwable If an error occurs during the method execution
      */
-    @Around("execution(* com.example.matchapp.repository.ProfileRepository.findById(String))")
+    @Around("execution(* com.example.matchapp.repository.ProfileRepository.findById(String)) && " + NOT_CACHE)
     public Object recordFindByIdMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
         Timer.Sample timerSample = Timer.start();
         
@@ -88,45 +94,123 @@ public class ProfileMetricsAspect {
     
     /**
      * Records metrics for save operations.
+     * save() doesn't tell whether the profile was created or updated, so only its duration is recorded;
+     * implementations that write through upsert() call it internally, which the proxy doesn't intercept.
      * 
      * @param joinPoint The join point representing the intercepted method call
      * @return The result of the intercepted method call
      * @throws Throwable If an error occurs during the method execution
      */
-    @Around("execution(* com.example.matchapp.repository.ProfileRepository.save(com.example.matchapp.model.Profile))")
+    @Around("execution(* com.example.matchapp.repository.ProfileRepository.save(com.example.matchapp.model.ProfileEntity)) && " + NOT_CACHE)
     public Object recordSaveMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
         Timer.Sample timerSample = Timer.start();
         
-        // Determine if this is a create or update operation
-        Profile profile = (Profile) joinPoint.getArgs()[0];
-        boolean isUpdate = false;
+        try {
+            Object result = joinPoint.proceed();
+            
+            long responseTimeMs = timerSample.stop(metrics.getOperationTimer());
+            logger.debug("save operation completed in {} ms", responseTimeMs);
+            
+            return result;
+        } catch (Throwable e) {
+            timerSample.stop(metrics.getOperationTimer());
+            logger.debug("Error during save operation: {}", e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Records metrics for upsert operations.
+     * Whether the write was a creation or an update is derived from the affected-row count
+     * returned by the repository, so no extra lookup is issued.
+     * 
+     * @param joinPoint The join point representing the intercepted method call
+     * @return The result of the intercepted method call
+     * @throws Throwable If an error occurs during the method execution
+     */
+    @Around("execution(int com.example.matchapp.repository.ProfileRepository.upsert(com.example.matchapp.model.ProfileEntity)) && " + NOT_CACHE)
+    public Object recordUpsertMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample timerSample = Timer.start();
         
         try {
-            // Check if profile already exists
-            if (profile != null && profile.id() != null) {
-                Object repo = joinPoint.getTarget();
-                java.lang.reflect.Method findByIdMethod = repo.getClass().getMethod("findById", String.class);
-                Optional<?> existingProfile = (Optional<?>) findByIdMethod.invoke(repo, profile.id());
-                isUpdate = existingProfile.isPresent();
-            }
+            Object result = joinPoint.proceed();
             
-            if (isUpdate) {
+            if (result instanceof Integer updatedRows && updatedRows > 0) {
                 metrics.recordUpdate();
-                logger.debug("Recording update for profile ID: {}", profile.id());
+                logger.debug("Recording update for profile ID: {}", ((ProfileEntity) joinPoint.getArgs()[0]).getId());
             } else {
                 metrics.recordSave();
                 logger.debug("Recording new profile creation");
             }
             
+            long responseTimeMs = timerSample.stop(metrics.getOperationTimer());
+            logger.debug("upsert operation completed in {} ms", responseTimeMs);
+            
+            return result;
+        } catch (Throwable e) {
+            timerSample.stop(metrics.getOperationTimer());
+            logger.debug("Error during upsert operation: {}", e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Records metrics for targeted column updates.
+     * 
+     * @param joinPoint The join point representing the intercepted method call
+     * @return The result of the intercepted method call
+     * @throws Throwable If an error occurs during the method execution
+     */
+    @Around("execution(int com.example.matchapp.repository.ProfileRepository.updateColumns(..)) && " + NOT_CACHE)
+    public Object recordUpdateColumnsMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample timerSample = Timer.start();
+        
+        try {
             Object result = joinPoint.proceed();
             
+            if (result instanceof Integer updatedRows && updatedRows > 0) {
+                metrics.recordUpdate();
+            } else {
+                metrics.recordNotFound();
+                logger.debug("Profile not found for update, ID: {}", joinPoint.getArgs()[0]);
+            }
+            
             long responseTimeMs = timerSample.stop(metrics.getOperationTimer());
-            logger.debug("save operation completed in {} ms", responseTimeMs);
+            logger.debug("updateColumns operation completed in {} ms", responseTimeMs);
             
             return result;
         } catch (Throwable e) {
             timerSample.stop(metrics.getOperationTimer());
-            logger.debug("Error during save operation: {}", e.getMessage());
+            logger.debug("Error during updateColumns operation: {}", e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Records metrics for batched image status updates.
+     * 
+     * @param joinPoint The join point representing the intercepted method call
+     * @return The result of the intercepted method call
+     * @throws Throwable If an error occurs during the method execution
+     */
+    @Around("execution(int com.example.matchapp.repository.ProfileRepository.markImagesGenerated(..)) && " + NOT_CACHE)
+    public Object recordMarkImagesGeneratedMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample timerSample = Timer.start();
+        
+        try {
+            Object result = joinPoint.proceed();
+            
+            if (result instanceof Integer updatedRows && updatedRows > 0) {
+                metrics.recordUpdates(updatedRows);
+            }
+            
+            long responseTimeMs = timerSample.stop(metrics.getOperationTimer());
+            logger.debug("markImagesGenerated operation completed in {} ms", responseTimeMs);
+            
+            return result;
+        } catch (Throwable e) {
+            timerSample.stop(metrics.getOperationTimer());
+            logger.debug("Error during markImagesGenerated operation: {}", e.getMessage());
             throw e;
         }
     }
@@ -138,7 +222,7 @@ public class ProfileMetricsAspect {
      * @return The result of the intercepted method call
      * @throws Throwable If an error occurs during the method execution
      */
-    @Around("execution(* com.example.matchapp.repository.ProfileRepository.deleteById(String))")
+    @Around("execution(* com.example.matchapp.repository.ProfileRepository.deleteById(String)) && " + NOT_CACHE)
     public Object recordDeleteMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
         Timer.Sample timerSample = Timer.start();
         
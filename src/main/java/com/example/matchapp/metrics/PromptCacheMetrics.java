@@ -0,0 +1,74 @@
+package com.example.matchapp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Component for tracking metrics related to the cache of built prompts.
+ * This class provides methods to record cache hits and misses, and exposes the hit ratio.
+ */
+@Component
+public class PromptCacheMetrics {
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public PromptCacheMetrics(MeterRegistry registry) {
+        // Initialize counters
+        this.hitCounter = Counter.builder("prompt.cache.hits")
+                .description("Number of prompts answered from the cache")
+                .register(registry);
+
+        this.missCounter = Counter.builder("prompt.cache.misses")
+                .description("Number of prompts that had to be built")
+                .register(registry);
+
+        // Initialize gauges
+        Gauge.builder("prompt.cache.size", size, AtomicInteger::get)
+                .description("Number of prompts currently cached")
+                .register(registry);
+
+        Gauge.builder("prompt.cache.hit.ratio", this, PromptCacheMetrics::getHitRatio)
+                .description("Ratio of prompts answered from the cache")
+                .register(registry);
+    }
+
+    /**
+     * Records a cache hit.
+     */
+    public void recordHit() {
+        hitCounter.increment();
+    }
+
+    /**
+     * Records a cache miss.
+     */
+    public void recordMiss() {
+        missCounter.increment();
+    }
+
+    /**
+     * Updates the current cache size.
+     *
+     * @param currentSize the number of cached entries
+     */
+    public void updateSize(int currentSize) {
+        size.set(currentSize);
+    }
+
+    /**
+     * Gets the ratio of hits to total lookups since startup.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+}
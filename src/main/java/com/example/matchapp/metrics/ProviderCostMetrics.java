@@ -0,0 +1,114 @@
+package com.example.matchapp.metrics;
+
+import com.example.matchapp.model.ProviderCall;
+import com.example.matchapp.model.ProviderCallOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Component for tracking the calls made to image generation providers and what they cost.
+ * Calls are counted by provider, model, size, outcome and whether they were retries, so the cost of retries
+ * and the calls saved by the image cache show up next to each other.
+ */
+@Component
+public class ProviderCostMetrics {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+    private final Map<String, CallCounters> countersByCall = new ConcurrentHashMap<>();
+    private final Counter ledgerDropped;
+
+    public ProviderCostMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.ledgerDropped = Counter.builder("imagegen.cost.ledger.dropped")
+                .description("Number of provider calls dropped from the ledger because its buffer was full")
+                .register(registry);
+    }
+
+    /**
+     * Records a provider call and its cost.
+     *
+     * @param call the provider call
+     * @param cost the cost the call was billed at
+     */
+    public void record(ProviderCall call, BigDecimal cost) {
+        countersFor(call.provider(), call.model(), call.size()).record(call, cost);
+    }
+
+    /**
+     * Records ledger entries that were dropped because the ledger buffer was full.
+     *
+     * @param entries the number of dropped entries
+     */
+    public void recordLedgerDropped(int entries) {
+        ledgerDropped.increment(entries);
+    }
+
+    private CallCounters countersFor(String provider, String model, String size) {
+        String providerTag = provider != null ? provider : UNKNOWN;
+        String modelTag = model != null ? model : UNKNOWN;
+        String sizeTag = size != null ? size : UNKNOWN;
+        return countersByCall.computeIfAbsent(providerTag + '\u0000' + modelTag + '\u0000' + sizeTag,
+                key -> new CallCounters(registry, providerTag, modelTag, sizeTag));
+    }
+
+    /**
+     * Pre-registered counters of one provider, model and size.
+     */
+    private static final class CallCounters {
+
+        private final Map<ProviderCallOutcome, Counter> firstAttemptCalls = new EnumMap<>(ProviderCallOutcome.class);
+        private final Map<ProviderCallOutcome, Counter> retryCalls = new EnumMap<>(ProviderCallOutcome.class);
+        private final Counter images;
+        private final Counter cost;
+
+        private CallCounters(MeterRegistry registry, String provider, String model, String size) {
+            for (ProviderCallOutcome outcome : ProviderCallOutcome.values()) {
+                firstAttemptCalls.put(outcome, callCounter(registry, provider, model, size, outcome, false));
+                retryCalls.put(outcome, callCounter(registry, provider, model, size, outcome, true));
+            }
+
+            this.images = Counter.builder("imagegen.provider.images")
+                    .description("Number of images billed by image generation providers")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .tag("size", size)
+                    .register(registry);
+
+            this.cost = Counter.builder("imagegen.provider.cost")
+                    .description("Cost of image generation provider calls")
+                    .baseUnit("currency")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .tag("size", size)
+                    .register(registry);
+        }
+
+        private static Counter callCounter(MeterRegistry registry, String provider, String model, String size,
+                                           ProviderCallOutcome outcome, boolean retry) {
+            return Counter.builder("imagegen.provider.calls")
+                    .description("Number of calls made to image generation providers, including retries")
+                    .tag("provider", provider)
+                    .tag("model", model)
+                    .tag("size", size)
+                    .tag("outcome", outcome.getTagValue())
+                    .tag("retry", String.valueOf(retry))
+                    .register(registry);
+        }
+
+        private void record(ProviderCall call, BigDecimal callCost) {
+            (call.isRetry() ? retryCalls : firstAttemptCalls).get(call.outcome()).increment();
+            if (call.outcome().isBillable()) {
+                images.increment(call.variants());
+                cost.increment(callCost.doubleValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.matchapp.model;
+
+import java.time.Duration;
+
+/**
+ * Statistics about writing one backup archive.
+ *
+ * @param files the number of files in the archive
+ * @param uncompressedBytes the total size of the archived files
+ * @param compressedBytes the size of the archive
+ * @param duration how long writing the archive took
+ */
+public record BackupArchiveStats(int files, long uncompressedBytes, long compressedBytes, Duration duration) {
+
+    /**
+     * Gets the ratio of archive size to original size.
+     *
+     * @return the compression ratio, where values below 1 mean the archive is smaller; 1 for empty archives
+     */
+    public double compressionRatio() {
+        return uncompressedBytes == 0 ? 1.0 : (double) compressedBytes / uncompressedBytes;
+    }
+
+    /**
+     * Gets the number of original bytes archived per second.
+     *
+     * @return the throughput in bytes per second
+     */
+    public long throughputBytesPerSecond() {
+        return uncompressedBytes * 1000 / Math.max(1, duration.toMillis());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.matchapp.model;
+
+/**
+ * Storage formats for image backups.
+ */
+public enum BackupFormat {
+    /**
+     * A plain directory tree per backup, with unchanged files hard-linked from the previous backup.
+     */
+    DIRECTORY,
+
+    /**
+     * A single ZIP archive per backup. Single files can be restored without reading the whole archive.
+     */
+    ARCHIVE
+}
@@ -0,0 +1,15 @@
+package com.example.matchapp.model;
+
+import java.time.Instant;
+
+/**
+ * Catalog entry describing one backup.
+ *
+ * @param name the name of the backup directory or archive, which is also its ID
+ * @param createdAt when the backup was created
+ * @param format the storage format of the backup
+ * @param fileCount the number of files in the backup
+ * @param sizeBytes the total size of the backed-up files, or the archive size for archive backups
+ */
+public record BackupInfo(String name, Instant createdAt, BackupFormat format, int fileCount, long sizeBytes) {
+}
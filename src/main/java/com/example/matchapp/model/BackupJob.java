@@ -0,0 +1,159 @@
+package com.example.matchapp.model;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A backup running in the background.
+ * Jobs are updated by the backup worker and read concurrently by status requests, so all state is thread-safe.
+ */
+public class BackupJob {
+
+    /**
+     * Lifecycle states of a backup job.
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final String sourceDir;
+    private final Instant submittedAt;
+    private final AtomicInteger filesProcessed = new AtomicInteger();
+    private final AtomicInteger coalescedRequests = new AtomicInteger();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile int filesTotal;
+    private volatile int filesBackedUp;
+    private volatile String errorMessage;
+
+    public BackupJob(String id, String sourceDir) {
+        this.id = id;
+        this.sourceDir = sourceDir;
+        this.submittedAt = Instant.now();
+    }
+
+    /**
+     * Marks the job as started.
+     */
+    public void markRunning() {
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    /**
+     * Records the number of files the backup will process, once the backup has found them.
+     *
+     * @param filesTotal the number of files
+     */
+    public void recordFilesTotal(int filesTotal) {
+        this.filesTotal = filesTotal;
+    }
+
+    /**
+     * Records that one more file has been processed.
+     */
+    public void recordFileProcessed() {
+        filesProcessed.incrementAndGet();
+    }
+
+    /**
+     * Records a backup request that was merged into this job instead of starting another backup.
+     */
+    public void recordCoalescedRequest() {
+        coalescedRequests.incrementAndGet();
+    }
+
+    /**
+     * Marks the job as successfully finished.
+     *
+     * @param filesBackedUp the number of files in the backup
+     */
+    public void markCompleted(int filesBackedUp) {
+        this.filesBackedUp = filesBackedUp;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    /**
+     * Marks the job as failed.
+     *
+     * @param errorMessage a description of the failure
+     */
+    public void markFailed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    /**
+     * Checks whether the job has finished, successfully or not.
+     *
+     * @return true if the job is completed or failed
+     */
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * Gets the progress of the job.
+     *
+     * @return the fraction of files processed, between 0 and 1
+     */
+    public double getProgress() {
+        if (status == Status.COMPLETED) {
+            return 1.0;
+        }
+        int total = filesTotal;
+        return total == 0 ? 0.0 : Math.min(1.0, (double) filesProcessed.get() / total);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSourceDir() {
+        return sourceDir;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public int getFilesTotal() {
+        return filesTotal;
+    }
+
+    public int getFilesProcessed() {
+        return filesProcessed.get();
+    }
+
+    public int getFilesBackedUp() {
+        return filesBackedUp;
+    }
+
+    public int getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
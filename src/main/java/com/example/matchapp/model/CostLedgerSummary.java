@@ -0,0 +1,51 @@
+package com.example.matchapp.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Totals of the cost ledger since a point in time, broken down by provider and model.
+ */
+public record CostLedgerSummary(
+        /**
+         * Start of the summarized period
+         */
+        Instant since,
+
+        /**
+         * Currency the costs are expressed in
+         */
+        String currency,
+
+        /**
+         * Number of calls made, including retries
+         */
+        long calls,
+
+        /**
+         * Number of calls that were billed
+         */
+        long billableCalls,
+
+        /**
+         * Number of calls that were retries of an earlier attempt
+         */
+        long retriedCalls,
+
+        /**
+         * Number of images billed
+         */
+        long images,
+
+        /**
+         * Total cost of the billed calls
+         */
+        BigDecimal cost,
+
+        /**
+         * Totals per provider and model
+         */
+        List<ProviderCostSummary> providers
+) {
+}
@@ -0,0 +1,68 @@
+package com.example.matchapp.model;
+
+/**
+ * File formats profiles can be exported to.
+ */
+public enum ExportFormat {
+    /**
+     * A single JSON array of profiles.
+     */
+    JSON("application/json", ".json"),
+
+    /**
+     * Newline-delimited JSON: one profile object per line.
+     */
+    NDJSON("application/x-ndjson", ".ndjson"),
+
+    /**
+     * Comma-separated values with a header row.
+     */
+    CSV("text/csv", ".csv"),
+
+    /**
+     * A ZIP archive with an NDJSON list of profiles and their images.
+     */
+    ZIP("application/zip", ".zip");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Parses a format name, ignoring case.
+     *
+     * @param name the format name, e.g. "ndjson"
+     * @return the matching format
+     * @throws IllegalArgumentException if no format has that name
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + name);
+    }
+
+    /**
+     * Gets the media type of files written in this format.
+     *
+     * @return the media type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the file extension for this format, including the leading dot.
+     *
+     * @return the file extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -1,21 +1,31 @@
 package com.example.matchapp.model;
 
+import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * Domain entity representing a user profile with personal information and image generation status.
  * This class is the core domain model for profiles in the application.
  * It is mapped to the database using JPA annotations.
+ * Updates of managed instances only write the columns that changed.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "profiles")
 public class ProfileEntity {
+
+    /**
+     * Maximum length of the bio column, matching the validation limit on profile requests.
+     */
+    public static final int BIO_MAX_LENGTH = 500;
+
     @Id
     private String id;
 
@@ -35,8 +45,11 @@ public class ProfileEntity {
     @Column(nullable = false)
     private Gender gender;
 
-    @Lob
-    @Column(nullable = false)
+    // Bounded VARCHAR instead of @Lob: stored inline on PostgreSQL instead of as a large object.
+    // Lazy so that entity loads don't need to read it when bytecode enhancement is enabled;
+    // list views use ProfileSummary, which never selects it.
+    @Basic(fetch = FetchType.LAZY)
+    @Column(nullable = false, length = ProfileEntity.BIO_MAX_LENGTH)
     private String bio;
 
     @Column(name = "image_url")
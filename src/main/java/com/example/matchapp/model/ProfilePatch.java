@@ -0,0 +1,70 @@
+package com.example.matchapp.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Represents a partial update of a profile.
+ * Null components are left untouched; only the remaining fields are compared and written.
+ */
+public record ProfilePatch(
+        String firstName,
+        String lastName,
+        Integer age,
+        String ethnicity,
+        Gender gender,
+        String bio,
+        String imageUrl,
+        String myersBriggsPersonalityType
+) {
+    /**
+     * Computes the fields of this patch whose values differ from the given profile.
+     * Keys are ProfileEntity attribute names, in declaration order.
+     *
+     * @param current the current state of the profile
+     * @return the changed attributes mapped to their new values; empty if the patch changes nothing
+     */
+    public Map<String, Object> changesAgainst(ProfileEntity current) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfChanged(changes, "firstName", firstName, current.getFirstName());
+        putIfChanged(changes, "lastName", lastName, current.getLastName());
+        putIfChanged(changes, "age", age, current.getAge());
+        putIfChanged(changes, "ethnicity", ethnicity, current.getEthnicity());
+        putIfChanged(changes, "gender", gender, current.getGender());
+        putIfChanged(changes, "bio", bio, current.getBio());
+        putIfChanged(changes, "imageUrl", imageUrl, current.getImageUrl());
+        putIfChanged(changes, "myersBriggsPersonalityType", myersBriggsPersonalityType,
+                current.getMyersBriggsPersonalityType());
+        return changes;
+    }
+
+    /**
+     * Applies changes computed by {@link #changesAgainst(ProfileEntity)} to a profile entity.
+     *
+     * @param target the entity to modify
+     * @param changes the changed attributes mapped to their new values
+     * @throws IllegalArgumentException if a key is not a patchable attribute
+     */
+    public static void applyChanges(ProfileEntity target, Map<String, Object> changes) {
+        changes.forEach((attribute, value) -> {
+            switch (attribute) {
+                case "firstName" -> target.setFirstName((String) value);
+                case "lastName" -> target.setLastName((String) value);
+                case "age" -> target.setAge((Integer) value);
+                case "ethnicity" -> target.setEthnicity((String) value);
+                case "gender" -> target.setGender((Gender) value);
+                case "bio" -> target.setBio((String) value);
+                case "imageUrl" -> target.setImageUrl((String) value);
+                case "myersBriggsPersonalityType" -> target.setMyersBriggsPersonalityType((String) value);
+                default -> throw new IllegalArgumentException("Unknown profile attribute: " + attribute);
+            }
+        });
+    }
+
+    private static void putIfChanged(Map<String, Object> changes, String attribute, Object newValue, Object currentValue) {
+        if (newValue != null && !Objects.equals(newValue, currentValue)) {
+            changes.put(attribute, newValue);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.matchapp.model;
+
+/**
+ * Lightweight read model of a profile for list and page views.
+ * Leaves out the bio, ethnicity and image URL so list queries only read the small columns of each row.
+ */
+public record ProfileSummary(
+        /**
+         * Unique identifier for the profile
+         */
+        String id,
+
+        /**
+         * First name of the person
+         */
+        String firstName,
+
+        /**
+         * Last name of the person
+         */
+        String lastName,
+
+        /**
+         * Age of the person in years
+         */
+        int age,
+
+        /**
+         * Gender of the person (MALE, FEMALE, NON_BINARY, OTHER)
+         */
+        Gender gender,
+
+        /**
+         * Myers-Briggs personality type (e.g., INTJ, ENFP)
+         */
+        String myersBriggsPersonalityType,
+
+        /**
+         * Flag indicating whether an image has been generated for this profile
+         */
+        boolean imageGenerated
+) {
+    /**
+     * Create a ProfileSummary from a ProfileEntity.
+     *
+     * @param entity the profile entity
+     * @return a new ProfileSummary
+     */
+    public static ProfileSummary fromEntity(ProfileEntity entity) {
+        return new ProfileSummary(
+                entity.getId(),
+                entity.getFirstName(),
+                entity.getLastName(),
+                entity.getAge(),
+                entity.getGender(),
+                entity.getMyersBriggsPersonalityType(),
+                entity.isImageGenerated()
+        );
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.matchapp.model;
+
+/**
+ * A single call made to an image generation provider, as reported to the cost ledger.
+ * Every attempt is a separate call, so a request that was retried twice is reported three times.
+ */
+public record ProviderCall(
+        /**
+         * Name of the provider that was called
+         */
+        String provider,
+
+        /**
+         * Model the images were requested from
+         */
+        String model,
+
+        /**
+         * Requested image size, e.g. 1024x1024
+         */
+        String size,
+
+        /**
+         * Number of images requested in the call
+         */
+        int variants,
+
+        /**
+         * Attempt number of the request, starting at 1
+         */
+        int attempt,
+
+        /**
+         * Outcome of the call
+         */
+        ProviderCallOutcome outcome,
+
+        /**
+         * ID of the profile the image was requested for
+         */
+        String profileId
+) {
+
+    /**
+     * Whether this call is a retry of an earlier, failed attempt.
+     *
+     * @return true if the call is a retry
+     */
+    public boolean isRetry() {
+        return attempt > 1;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.matchapp.model;
+
+/**
+ * Outcome of a single call to an image generation provider.
+ */
+public enum ProviderCallOutcome {
+    /**
+     * The provider returned an image. Only these calls are billed.
+     */
+    SUCCESS("success", true),
+
+    /**
+     * The provider rejected the call because of its rate limit.
+     */
+    RATE_LIMITED("rate_limited", false),
+
+    /**
+     * The call failed for any other reason.
+     */
+    FAILURE("failure", false);
+
+    private final String tagValue;
+    private final boolean billable;
+
+    ProviderCallOutcome(String tagValue, boolean billable) {
+        this.tagValue = tagValue;
+        this.billable = billable;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+
+    public boolean isBillable() {
+        return billable;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.matchapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Ledger entry for a single call to an image generation provider, with the cost it was billed at.
+ * Entries are only ever inserted, never updated.
+ */
+@Entity
+@Table(name = "provider_call_ledger", indexes = @Index(name = "idx_provider_call_ledger_called_at", columnList = "called_at"))
+public class ProviderCallRecord {
+
+    // A pooled sequence hands out IDs without a round trip per row, so batched inserts stay batched
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "provider_call_ledger_seq")
+    @SequenceGenerator(name = "provider_call_ledger_seq", sequenceName = "provider_call_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "called_at", nullable = false)
+    private Instant calledAt;
+
+    @Column(nullable = false)
+    private String provider;
+
+    @Column(nullable = false)
+    private String model;
+
+    @Column(name = "image_size", nullable = false)
+    private String imageSize;
+
+    @Column(nullable = false)
+    private int variants;
+
+    @Column(nullable = false)
+    private int attempt;
+
+    @Column(nullable = false)
+    private boolean retry;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProviderCallOutcome outcome;
+
+    @Column(nullable = false, precision = 12, scale = 6)
+    private BigDecimal cost;
+
+    @Column(name = "profile_id")
+    private String profileId;
+
+    /**
+     * Default constructor for JPA.
+     */
+    protected ProviderCallRecord() {
+    }
+
+    /**
+     * Creates a ledger entry for a provider call.
+     *
+     * @param call the provider call
+     * @param cost the cost the call was billed at
+     * @param calledAt when the call was made
+     */
+    public ProviderCallRecord(ProviderCall call, BigDecimal cost, Instant calledAt) {
+        this.calledAt = calledAt;
+        this.provider = call.provider();
+        this.model = call.model();
+        this.imageSize = call.size();
+        this.variants = call.variants();
+        this.attempt = call.attempt();
+        this.retry = call.isRetry();
+        this.outcome = call.outcome();
+        this.cost = cost;
+        this.profileId = call.profileId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getCalledAt() {
+        return calledAt;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getImageSize() {
+        return imageSize;
+    }
+
+    public int getVariants() {
+        return variants;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public boolean isRetry() {
+        return retry;
+    }
+
+    public ProviderCallOutcome getOutcome() {
+        return outcome;
+    }
+
+    public BigDecimal getCost() {
+        return cost;
+    }
+
+    public String getProfileId() {
+        return profileId;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.matchapp.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated provider calls and their cost for one provider and model.
+ */
+public record ProviderCostSummary(
+        /**
+         * Name of the provider
+         */
+        String provider,
+
+        /**
+         * Model the images were requested from
+         */
+        String model,
+
+        /**
+         * Number of calls made, including retries
+         */
+        long calls,
+
+        /**
+         * Number of calls that were billed
+         */
+        long billableCalls,
+
+        /**
+         * Number of calls that were retries of an earlier attempt
+         */
+        long retriedCalls,
+
+        /**
+         * Number of calls rejected by the provider's rate limit
+         */
+        long rateLimitedCalls,
+
+        /**
+         * Number of calls that failed for any other reason
+         */
+        long failedCalls,
+
+        /**
+         * Number of images billed
+         */
+        long images,
+
+        /**
+         * Total cost of the billed calls
+         */
+        BigDecimal cost
+) {
+}
@@ -1,10 +1,13 @@
 package com.example.matchapp.repository;
 
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfileSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -28,6 +31,33 @@ public interface ProfileRepository {
      */
     Page<ProfileEntity> findAll(Pageable pageable);
 
+    /**
+     * Find the profiles that follow an ID in ID order, for keyset pagination.
+     * Unlike an offset page, a call costs the same however far into the profiles it starts,
+     * and no total count is computed.
+     *
+     * @param afterId the ID of the last profile of the previous page, or null to start at the first profile
+     * @param limit the maximum number of profiles to return
+     * @return up to limit profiles with an ID greater than afterId, in ID order
+     */
+    List<ProfileEntity> findAfterId(String afterId, int limit);
+
+    /**
+     * Find summaries of all profiles.
+     * Summaries leave out the bio and other large fields, so this is the cheaper choice for list views.
+     *
+     * @return a list of all profile summaries
+     */
+    List<ProfileSummary> findAllSummaries();
+
+    /**
+     * Find summaries of all profiles with pagination.
+     *
+     * @param pageable pagination information including page number, page size, and sorting
+     * @return a page of profile summaries
+     */
+    Page<ProfileSummary> findAllSummaries(Pageable pageable);
+
     /**
      * Find a profile by its ID.
      *
@@ -46,6 +76,33 @@ public interface ProfileRepository {
      */
     ProfileEntity save(ProfileEntity profile);
 
+    /**
+     * Insert or update a profile without reading it first.
+     * The result tells the caller which of the two happened, so no separate existence check is needed.
+     *
+     * @param profile the profile to write
+     * @return the number of existing rows updated; 0 means the profile was inserted
+     */
+    int upsert(ProfileEntity profile);
+
+    /**
+     * Update only the given columns of a profile.
+     *
+     * @param id the profile ID
+     * @param changes ProfileEntity attribute names mapped to their new values, as produced by
+     *                {@link com.example.matchapp.model.ProfilePatch#changesAgainst(ProfileEntity)}
+     * @return the number of rows updated (0 if the profile doesn't exist)
+     */
+    int updateColumns(String id, Map<String, Object> changes);
+
+    /**
+     * Mark the images of several profiles as generated in one batched write.
+     *
+     * @param ids the profile IDs
+     * @return the number of rows updated
+     */
+    int markImagesGenerated(Collection<String> ids);
+
     /**
      * Delete a profile by its ID.
      *
@@ -0,0 +1,198 @@
+package com.example.matchapp.repository.impl;
+
+import com.example.matchapp.config.ProfileCacheProperties;
+import com.example.matchapp.metrics.ProfileCacheMetrics;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfileSummary;
+import com.example.matchapp.repository.ProfileRepository;
+import com.example.matchapp.util.BoundedTtlCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Caching decorator for ProfileRepository.
+ * Serves {@link #findById(String)} from a bounded, TTL-aware in-memory cache and delegates everything
+ * else to the JPA repository. Writes invalidate the affected entry immediately and again once the
+ * surrounding transaction completes, so readers never see a value older than the last committed write.
+ * Cached entities are copied on the way in and out, so callers can modify what they get back.
+ */
+@Repository
+@Primary
+public class CachingProfileRepository implements ProfileRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingProfileRepository.class);
+
+    private final ProfileRepository delegate;
+    private final ProfileCacheMetrics metrics;
+    private final boolean enabled;
+    private final BoundedTtlCache<String, ProfileEntity> cache;
+
+    public CachingProfileRepository(
+            @Qualifier("jpaProfileRepository") ProfileRepository delegate,
+            ProfileCacheProperties properties,
+            ProfileCacheMetrics metrics) {
+        if (delegate == null) {
+            throw new NullPointerException("ProfileRepository delegate cannot be null");
+        }
+        if (properties == null) {
+            throw new NullPointerException("ProfileCacheProperties cannot be null");
+        }
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.enabled = properties.isEnabled();
+        this.cache = new BoundedTtlCache<>(properties.getMaxSize(), properties.getTtl());
+
+        logger.info("Profile cache {} (max size: {}, ttl: {} ms)",
+                enabled ? "enabled" : "disabled", properties.getMaxSize(), properties.getTtl());
+    }
+
+    @Override
+    public List<ProfileEntity> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<ProfileEntity> findAll(Pageable pageable) {
+        return delegate.findAll(pageable);
+    }
+
+    @Override
+    public List<ProfileEntity> findAfterId(String afterId, int limit) {
+        return delegate.findAfterId(afterId, limit);
+    }
+
+    @Override
+    public List<ProfileSummary> findAllSummaries() {
+        return delegate.findAllSummaries();
+    }
+
+    @Override
+    public Page<ProfileSummary> findAllSummaries(Pageable pageable) {
+        return delegate.findAllSummaries(pageable);
+    }
+
+    /**
+     * Find a profile by its ID, answering from the cache when possible.
+     * Misses are loaded from the delegate and cached; absent profiles are not cached.
+     *
+     * @param id the profile ID
+     * @return an Optional containing the profile if found, or empty if not found
+     */
+    @Override
+    public Optional<ProfileEntity> findById(String id) {
+        if (!enabled || id == null) {
+            return delegate.findById(id);
+        }
+
+        Optional<ProfileEntity> cached = cache.get(id);
+        if (cached.isPresent()) {
+            metrics.recordHit();
+            logger.debug("Profile cache hit for ID {}", id);
+            return Optional.of(copyOf(cached.get()));
+        }
+
+        metrics.recordMiss();
+        long stamp = cache.stamp();
+        Optional<ProfileEntity> loaded = delegate.findById(id);
+        loaded.ifPresent(entity -> {
+            cache.putIfUnchanged(id, copyOf(entity), stamp);
+            metrics.updateSize(cache.size());
+        });
+        return loaded;
+    }
+
+    @Override
+    public ProfileEntity save(ProfileEntity profile) {
+        ProfileEntity saved = delegate.save(profile);
+        invalidate(profile.getId());
+        return saved;
+    }
+
+    @Override
+    public int upsert(ProfileEntity profile) {
+        int updated = delegate.upsert(profile);
+        invalidate(profile.getId());
+        return updated;
+    }
+
+    @Override
+    public int updateColumns(String id, Map<String, Object> changes) {
+        int updated = delegate.updateColumns(id, changes);
+        invalidate(id);
+        return updated;
+    }
+
+    @Override
+    public int markImagesGenerated(Collection<String> ids) {
+        int updated = delegate.markImagesGenerated(ids);
+        ids.forEach(this::invalidate);
+        return updated;
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        boolean deleted = delegate.deleteById(id);
+        invalidate(id);
+        return deleted;
+    }
+
+    /**
+     * Evicts a profile now and, when a transaction is active, again after it completes.
+     *
+     * @param id the profile ID to evict
+     */
+    private void invalidate(String id) {
+        if (!enabled || id == null) {
+            return;
+        }
+
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    private void evict(String id) {
+        cache.invalidate(id);
+        metrics.recordInvalidation();
+        metrics.updateSize(cache.size());
+    }
+
+    /**
+     * Creates a detached copy of a profile entity so cached state cannot be modified by callers.
+     *
+     * @param entity the entity to copy
+     * @return a new ProfileEntity with the same field values
+     */
+    private static ProfileEntity copyOf(ProfileEntity entity) {
+        return new ProfileEntity(
+                entity.getId(),
+                entity.getFirstName(),
+                entity.getLastName(),
+                entity.getAge(),
+                entity.getEthnicity(),
+                entity.getGender(),
+                entity.getBio(),
+                entity.getImageUrl(),
+                entity.getMyersBriggsPersonalityType(),
+                entity.isImageGenerated()
+        );
+    }
+}
@@ -3,6 +3,8 @@ package com.example.matchapp.repository.impl;
 import com.example.matchapp.mapper.ProfileMapper;
 import com.example.matchapp.model.Profile;
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfilePatch;
+import com.example.matchapp.model.ProfileSummary;
 import com.example.matchapp.repository.ProfileRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
@@ -94,6 +96,45 @@ public class InMemoryProfileRepository implements ProfileRepository {
         return new PageImpl<>(pageContent, pageable, allProfiles.size());
     }
 
+    /**
+     * Find the profiles that follow an ID in ID order.
+     *
+     * @param afterId the ID of the last profile of the previous page, or null to start at the first profile
+     * @param limit the maximum number of profiles to return
+     * @return up to limit profiles with an ID greater than afterId, in ID order
+     */
+    @Override
+    public List<ProfileEntity> findAfterId(String afterId, int limit) {
+        return profiles.values().stream()
+                .filter(profile -> afterId == null || profile.getId().compareTo(afterId) > 0)
+                .sorted(Comparator.comparing(ProfileEntity::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Find summaries of all profiles stored in memory.
+     *
+     * @return a list of all profile summaries
+     */
+    @Override
+    public List<ProfileSummary> findAllSummaries() {
+        return profiles.values().stream()
+                .map(ProfileSummary::fromEntity)
+                .toList();
+    }
+
+    /**
+     * Find summaries of all profiles with pagination.
+     *
+     * @param pageable pagination information including page number, page size, and sorting
+     * @return a page of profile summaries
+     */
+    @Override
+    public Page<ProfileSummary> findAllSummaries(Pageable pageable) {
+        return findAll(pageable).map(ProfileSummary::fromEntity);
+    }
+
     /**
      * Find a profile by its ID in the in-memory store.
      *
@@ -119,6 +160,53 @@ public class InMemoryProfileRepository implements ProfileRepository {
         return profile;
     }
 
+    /**
+     * Insert or update a profile in the in-memory store.
+     *
+     * @param profile the profile to write
+     * @return 1 if an existing profile was replaced, 0 if the profile was inserted
+     */
+    @Override
+    public int upsert(ProfileEntity profile) {
+        return profiles.put(profile.getId(), profile) != null ? 1 : 0;
+    }
+
+    /**
+     * Update only the given fields of a profile in the in-memory store.
+     *
+     * @param id the profile ID
+     * @param changes attribute names mapped to their new values
+     * @return 1 if the profile was updated, 0 if it wasn't found
+     */
+    @Override
+    public int updateColumns(String id, Map<String, Object> changes) {
+        ProfileEntity existing = profiles.get(id);
+        if (existing == null) {
+            return 0;
+        }
+        ProfilePatch.applyChanges(existing, changes);
+        return 1;
+    }
+
+    /**
+     * Mark the images of several profiles in the in-memory store as generated.
+     *
+     * @param ids the profile IDs
+     * @return the number of profiles updated
+     */
+    @Override
+    public int markImagesGenerated(Collection<String> ids) {
+        int updated = 0;
+        for (String id : ids) {
+            ProfileEntity existing = profiles.get(id);
+            if (existing != null) {
+                existing.setImageGenerated(true);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
     /**
      * Delete a profile by its ID from the in-memory store.
      *
@@ -1,37 +1,65 @@
 package com.example.matchapp.repository.impl;
 
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfileSummary;
 import com.example.matchapp.repository.ProfileRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * JPA implementation of ProfileRepository.
  * Uses Spring Data JPA to provide database persistence for profiles.
+ * Lookups are cached by {@link CachingProfileRepository}, which decorates this repository.
  */
 @Repository
-@Primary
 public class JpaProfileRepository implements ProfileRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(JpaProfileRepository.class);
 
+    // Attributes that may appear in a targeted UPDATE; anything else is rejected before building JPQL
+    private static final Set<String> UPDATABLE_ATTRIBUTES = Set.of(
+            "firstName", "lastName", "age", "ethnicity", "gender", "bio", "imageUrl", "myersBriggsPersonalityType");
+
+    private static final String INSERT_PROFILE = "INSERT INTO profiles "
+            + "(id, first_name, last_name, age, ethnicity, gender, bio, image_url, personality_type, image_generated) "
+            + "VALUES (:id, :firstName, :lastName, :age, :ethnicity, :gender, :bio, :imageUrl, :personalityType, "
+            + ":imageGenerated)";
+
     private final ProfileJpaRepository jpaRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate savepointTemplate;
 
     /**
      * Creates a new JPA profile repository with the specified JPA repository.
      *
      * @param jpaRepository the Spring Data JPA repository to use
+     * @param entityManager the shared entity manager, used to insert new profiles without a prior select
+     * @param transactionManager the transaction manager, used to run inserts that may collide in a savepoint
      */
-    public JpaProfileRepository(ProfileJpaRepository jpaRepository) {
+    public JpaProfileRepository(ProfileJpaRepository jpaRepository, EntityManager entityManager,
+                                PlatformTransactionManager transactionManager) {
         this.jpaRepository = jpaRepository;
+        this.entityManager = entityManager;
+        this.savepointTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
     }
 
     /**
@@ -58,6 +86,46 @@ public class JpaProfileRepository implements ProfileRepository {
         return jpaRepository.findAll(pageable);
     }
 
+    /**
+     * Find the profiles that follow an ID in ID order, seeking on the primary key.
+     *
+     * @param afterId the ID of the last profile of the previous page, or null to start at the first profile
+     * @param limit the maximum number of profiles to return
+     * @return up to limit profiles with an ID greater than afterId, in ID order
+     */
+    @Override
+    public List<ProfileEntity> findAfterId(String afterId, int limit) {
+        logger.debug("Finding up to {} profiles from database after ID: {}", limit, afterId);
+        Pageable pageable = PageRequest.of(0, limit);
+        return afterId == null
+                ? jpaRepository.findByOrderByIdAsc(pageable)
+                : jpaRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageable);
+    }
+
+    /**
+     * Find summaries of all profiles in the database, selecting only the summary columns.
+     *
+     * @return a list of all profile summaries
+     */
+    @Override
+    public List<ProfileSummary> findAllSummaries() {
+        logger.debug("Finding all profile summaries from database");
+        return jpaRepository.findAllSummaries();
+    }
+
+    /**
+     * Find summaries of profiles in the database with pagination, selecting only the summary columns.
+     *
+     * @param pageable pagination information including page number, page size, and sorting
+     * @return a page of profile summaries
+     */
+    @Override
+    public Page<ProfileSummary> findAllSummaries(Pageable pageable) {
+        logger.debug("Finding profile summaries from database with pagination: page={}, size={}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        return jpaRepository.findAllSummaries(pageable);
+    }
+
     /**
      * Find a profile by its ID in the database.
      *
@@ -75,13 +143,138 @@ public class JpaProfileRepository implements ProfileRepository {
      * If the profile has an ID that already exists, it will be updated.
      * If the profile has no ID or the ID doesn't exist, it will be created.
      *
+     * Writes the profile like {@link #upsert(ProfileEntity)} instead of {@code merge}, which would select the
+     * row first.
+     *
      * @param profile the profile to save
      * @return the saved profile
      */
     @Override
+    @Transactional
     public ProfileEntity save(ProfileEntity profile) {
         logger.debug("Saving profile with ID {} to database", profile.getId());
-        return jpaRepository.save(profile);
+        write(profile);
+        return profile;
+    }
+
+    /**
+     * Insert or update a profile without reading it first.
+     * Issues a single UPDATE and only falls back to an INSERT when no row was affected.
+     * Profiles already managed by the current persistence context are left to dirty checking.
+     *
+     * @param profile the profile to write
+     * @return the number of existing rows updated; 0 means the profile was inserted
+     */
+    @Override
+    @Transactional
+    public int upsert(ProfileEntity profile) {
+        return write(profile);
+    }
+
+    /**
+     * Writes a profile for {@link #save(ProfileEntity)} and {@link #upsert(ProfileEntity)}, which both call it
+     * directly so that neither bypasses the transactional proxy of the other.
+     * <p>
+     * Another transaction can insert the same ID between the UPDATE and the INSERT. The INSERT therefore runs
+     * in a savepoint: if it fails, only the INSERT is rolled back and the now existing row is updated instead,
+     * as if it had been there all along.
+     *
+     * @param profile the profile to write
+     * @return the number of existing rows updated; 0 means the profile was inserted
+     */
+    private int write(ProfileEntity profile) {
+        if (entityManager.contains(profile)) {
+            logger.debug("Profile with ID {} is managed, relying on dirty checking", profile.getId());
+            return 1;
+        }
+
+        int updated = jpaRepository.updateProfile(profile);
+        if (updated > 0) {
+            return updated;
+        }
+        logger.debug("Inserting new profile with ID {} into database", profile.getId());
+        // Pending changes are written first, so rolling back the savepoint can only undo the INSERT
+        entityManager.flush();
+        try {
+            savepointTemplate.executeWithoutResult(status -> insert(profile));
+            return 0;
+        } catch (PersistenceException e) {
+            updated = jpaRepository.updateProfile(profile);
+            if (updated == 0) {
+                // Not a concurrent insert of the same ID, so the INSERT failed for another reason
+                throw e;
+            }
+            logger.debug("Profile with ID {} was inserted concurrently, updated it instead", profile.getId());
+            return updated;
+        }
+    }
+
+    /**
+     * Inserts a profile with a plain INSERT, so that a failure leaves the persistence context untouched.
+     *
+     * @param profile the profile to insert
+     */
+    private void insert(ProfileEntity profile) {
+        entityManager.createNativeQuery(INSERT_PROFILE)
+                .setParameter("id", profile.getId())
+                .setParameter("firstName", profile.getFirstName())
+                .setParameter("lastName", profile.getLastName())
+                .setParameter("age", profile.getAge())
+                .setParameter("ethnicity", profile.getEthnicity())
+                .setParameter("gender", profile.getGender() != null ? profile.getGender().name() : null)
+                .setParameter("bio", profile.getBio())
+                .setParameter("imageUrl", profile.getImageUrl())
+                .setParameter("personalityType", profile.getMyersBriggsPersonalityType())
+                .setParameter("imageGenerated", profile.isImageGenerated())
+                .executeUpdate();
+    }
+
+    /**
+     * Update only the given columns of a profile with a single targeted UPDATE.
+     * Unchanged columns, in particular a large bio, are not rewritten.
+     *
+     * @param id the profile ID
+     * @param changes attribute names mapped to their new values
+     * @return the number of rows updated (0 if the profile doesn't exist)
+     * @throws IllegalArgumentException if a key is not an updatable attribute
+     */
+    @Override
+    @Transactional
+    public int updateColumns(String id, Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        for (String attribute : changes.keySet()) {
+            if (!UPDATABLE_ATTRIBUTES.contains(attribute)) {
+                throw new IllegalArgumentException("Unknown profile attribute: " + attribute);
+            }
+        }
+
+        String assignments = changes.keySet().stream()
+                .map(attribute -> "p." + attribute + " = :" + attribute)
+                .collect(Collectors.joining(", "));
+        logger.debug("Updating columns {} of profile with ID {} in database", changes.keySet(), id);
+
+        Query query = entityManager.createQuery("UPDATE ProfileEntity p SET " + assignments + " WHERE p.id = :id");
+        changes.forEach(query::setParameter);
+        query.setParameter("id", id);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Mark the images of several profiles as generated with a single {@code UPDATE ... WHERE id IN (...)}.
+     *
+     * @param ids the profile IDs
+     * @return the number of rows updated
+     */
+    @Override
+    @Transactional
+    public int markImagesGenerated(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        logger.debug("Marking images of {} profiles as generated in database", ids.size());
+        return jpaRepository.markImagesGenerated(ids);
     }
 
     /**
@@ -91,13 +284,10 @@ public class JpaProfileRepository implements ProfileRepository {
      * @return true if the profile was deleted, false if it wasn't found
      */
     @Override
+    @Transactional
     public boolean deleteById(String id) {
         logger.debug("Deleting profile with ID {} from database", id);
-        if (jpaRepository.existsById(id)) {
-            jpaRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        return jpaRepository.deleteProfileById(id) > 0;
     }
 
 }
@@ -1,15 +1,101 @@
 package com.example.matchapp.repository.impl;
 
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfileSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Spring Data JPA repository interface for ProfileEntity.
  * This interface is used by JpaProfileRepository to access the database.
  */
 @Repository
 public interface ProfileJpaRepository extends JpaRepository<ProfileEntity, String> {
-    // Spring Data JPA will provide implementations for common methods
-    // Custom query methods can be added here if needed
-}
\ No newline at end of file
+
+    /**
+     * Select the first profiles in ID order. Returning a list rather than a page skips the count query.
+     *
+     * @param pageable the number of profiles to select
+     * @return the profiles
+     */
+    List<ProfileEntity> findByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Select the profiles that follow an ID in ID order, using the primary key index instead of an offset.
+     *
+     * @param afterId the ID to start after
+     * @param pageable the number of profiles to select
+     * @return the profiles
+     */
+    List<ProfileEntity> findByIdGreaterThanOrderByIdAsc(String afterId, Pageable pageable);
+
+    /**
+     * Select only the summary columns of all profiles.
+     *
+     * @return a list of profile summaries
+     */
+    @Query("SELECT new com.example.matchapp.model.ProfileSummary("
+            + "p.id, p.firstName, p.lastName, p.age, p.gender, p.myersBriggsPersonalityType, p.imageGenerated) "
+            + "FROM ProfileEntity p")
+    List<ProfileSummary> findAllSummaries();
+
+    /**
+     * Select only the summary columns of a page of profiles.
+     *
+     * @param pageable pagination information including page number, page size, and sorting
+     * @return a page of profile summaries
+     */
+    @Query(value = "SELECT new com.example.matchapp.model.ProfileSummary("
+            + "p.id, p.firstName, p.lastName, p.age, p.gender, p.myersBriggsPersonalityType, p.imageGenerated) "
+            + "FROM ProfileEntity p",
+            countQuery = "SELECT COUNT(p) FROM ProfileEntity p")
+    Page<ProfileSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Update every column of an existing profile in a single statement, without loading it first.
+     *
+     * @param profile the profile holding the new column values
+     * @return the number of rows updated (0 if no profile with that ID exists)
+     */
+    @Modifying
+    @Query("UPDATE ProfileEntity p SET "
+            + "p.firstName = :#{#profile.firstName}, "
+            + "p.lastName = :#{#profile.lastName}, "
+            + "p.age = :#{#profile.age}, "
+            + "p.ethnicity = :#{#profile.ethnicity}, "
+            + "p.gender = :#{#profile.gender}, "
+            + "p.bio = :#{#profile.bio}, "
+            + "p.imageUrl = :#{#profile.imageUrl}, "
+            + "p.myersBriggsPersonalityType = :#{#profile.myersBriggsPersonalityType}, "
+            + "p.imageGenerated = :#{#profile.imageGenerated} "
+            + "WHERE p.id = :#{#profile.id}")
+    int updateProfile(@Param("profile") ProfileEntity profile);
+
+    /**
+     * Mark the images of several profiles as generated in a single statement.
+     *
+     * @param ids the profile IDs
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE ProfileEntity p SET p.imageGenerated = true WHERE p.id IN :ids")
+    int markImagesGenerated(@Param("ids") Collection<String> ids);
+
+    /**
+     * Delete a profile in a single statement, without loading it first.
+     *
+     * @param id the profile ID
+     * @return the number of rows deleted (0 if no profile with that ID exists)
+     */
+    @Modifying
+    @Query("DELETE FROM ProfileEntity p WHERE p.id = :id")
+    int deleteProfileById(@Param("id") String id);
+}
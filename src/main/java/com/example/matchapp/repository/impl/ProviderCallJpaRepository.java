@@ -0,0 +1,30 @@
+package com.example.matchapp.repository.impl;
+
+import com.example.matchapp.model.ProviderCallRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository interface for the provider call ledger.
+ * This interface is used by the cost ledger service to write and summarize ledger entries.
+ */
+@Repository
+public interface ProviderCallJpaRepository extends JpaRepository<ProviderCallRecord, Long> {
+
+    /**
+     * Aggregate the ledger entries made since a point in time, so the database does the summing.
+     * Each row holds the provider, model, outcome, retry flag, number of calls, number of images and total cost.
+     *
+     * @param since the start of the period
+     * @return one row per provider, model, outcome and retry flag
+     */
+    @Query("SELECT r.provider, r.model, r.outcome, r.retry, COUNT(r), SUM(r.variants), SUM(r.cost) "
+            + "FROM ProviderCallRecord r WHERE r.calledAt >= :since "
+            + "GROUP BY r.provider, r.model, r.outcome, r.retry")
+    List<Object[]> summarizeSince(@Param("since") Instant since);
+}
@@ -0,0 +1,38 @@
+package com.example.matchapp.service;
+
+import com.example.matchapp.model.BackupJob;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service for running image backups as background jobs.
+ */
+public interface BackupJobService {
+
+    /**
+     * Requests a backup of the specified source directory.
+     * Backups run one at a time. If a backup of the same directory is already waiting to start,
+     * the request is merged into it and that job is returned.
+     *
+     * @param sourceDir the directory containing images to backup
+     * @return the job that will perform the backup
+     */
+    BackupJob submitBackup(Path sourceDir);
+
+    /**
+     * Gets a job by its ID.
+     *
+     * @param jobId the job ID
+     * @return an Optional containing the job if known, or empty if not found
+     */
+    Optional<BackupJob> getJob(String jobId);
+
+    /**
+     * Gets the most recently submitted jobs.
+     *
+     * @return the recent jobs, newest first
+     */
+    List<BackupJob> getRecentJobs();
+}
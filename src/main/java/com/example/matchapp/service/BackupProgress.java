@@ -0,0 +1,35 @@
+package com.example.matchapp.service;
+
+/**
+ * Receives the progress of a running backup.
+ * Both methods may be called from several threads.
+ */
+public interface BackupProgress {
+
+    /**
+     * Progress listener that ignores all progress.
+     */
+    BackupProgress NONE = new BackupProgress() {
+        @Override
+        public void filesFound(int files) {
+        }
+
+        @Override
+        public void fileProcessed() {
+        }
+    };
+
+    /**
+     * Reports how many files the backup will process, as soon as the backup knows.
+     * Without a snapshot the backup doesn't walk the images up front, so the count of the previous backup
+     * is reported as an estimate.
+     *
+     * @param files the number of files
+     */
+    void filesFound(int files);
+
+    /**
+     * Records that one more file has been backed up.
+     */
+    void fileProcessed();
+}
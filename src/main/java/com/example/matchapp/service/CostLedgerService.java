@@ -0,0 +1,60 @@
+package com.example.matchapp.service;
+
+import com.example.matchapp.model.CostLedgerSummary;
+import com.example.matchapp.model.ProviderCall;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service for accounting the calls made to image generation providers and what they cost.
+ */
+public interface CostLedgerService {
+
+    /**
+     * Records a call made to a provider.
+     * Every attempt is recorded, including retries and calls that failed.
+     *
+     * @param call the provider call
+     */
+    void record(ProviderCall call);
+
+    /**
+     * Summarizes the ledger since a point in time.
+     *
+     * @param since the start of the period
+     * @return the totals of the period, broken down by provider and model
+     */
+    CostLedgerSummary summarize(Instant since);
+
+    /**
+     * Writes all buffered ledger entries now.
+     *
+     * @return the number of entries written
+     */
+    int flush();
+
+    /**
+     * Creates a ledger that records nothing, for services constructed outside of Spring.
+     *
+     * @return the ledger
+     */
+    static CostLedgerService noop() {
+        return new CostLedgerService() {
+            @Override
+            public void record(ProviderCall call) {
+            }
+
+            @Override
+            public CostLedgerSummary summarize(Instant since) {
+                return new CostLedgerSummary(since, "USD", 0, 0, 0, 0, BigDecimal.ZERO, List.of());
+            }
+
+            @Override
+            public int flush() {
+                return 0;
+            }
+        };
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.matchapp.service;
 
+import com.example.matchapp.model.BackupArchiveStats;
+import com.example.matchapp.model.BackupInfo;
+
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Service for backing up and restoring generated profile images.
@@ -18,6 +23,16 @@ public interface ImageBackupService {
      */
     int backupImages(Path sourceDir, Path backupDir) throws IOException;
 
+    /**
+     * Creates a backup of all images in the specified source directory as a single compressed archive.
+     *
+     * @param sourceDir the directory containing images to backup
+     * @param backupDir the directory where the archive will be stored
+     * @return statistics about the written archive, including file count and compression
+     * @throws IOException if there's an error during the backup process
+     */
+    BackupArchiveStats backupImagesToArchive(Path sourceDir, Path backupDir) throws IOException;
+
     /**
      * Creates a backup of images using the configured backup directory.
      *
@@ -27,10 +42,21 @@ public interface ImageBackupService {
      */
     int createBackup(Path sourceDir) throws IOException;
 
+    /**
+     * Creates a backup of images using the configured backup directory, reporting progress as files are processed.
+     * The number of files is found while the backup runs, so the images aren't walked an extra time for it.
+     *
+     * @param sourceDir the directory containing images to backup
+     * @param progress receives the number of files and each backed-up file
+     * @return the number of files backed up
+     * @throws IOException if there's an error during the backup process
+     */
+    int createBackup(Path sourceDir, BackupProgress progress) throws IOException;
+
     /**
      * Restores images from a backup directory to the target directory.
      *
-     * @param backupDir the directory containing the backup
+     * @param backupDir the backup directory or archive
      * @param targetDir the directory where images will be restored
      * @param overwrite whether to overwrite existing files in the target directory
      * @return the number of files restored
@@ -38,6 +64,19 @@ public interface ImageBackupService {
      */
     int restoreImages(Path backupDir, Path targetDir, boolean overwrite) throws IOException;
 
+    /**
+     * Restores a single image from a backup.
+     * For archive backups, only the requested file is read from the archive.
+     *
+     * @param backup the backup directory or archive
+     * @param imagePath the path of the image relative to the backup root, e.g. its file name
+     * @param targetDir the directory where the image will be restored
+     * @param overwrite whether to overwrite an existing file in the target directory
+     * @return true if the image was restored, false if the backup doesn't contain it or it exists and overwrite is off
+     * @throws IOException if there's an error during the restore process
+     */
+    boolean restoreImage(Path backup, String imagePath, Path targetDir, boolean overwrite) throws IOException;
+
     /**
      * Lists available backups.
      *
@@ -55,6 +94,24 @@ public interface ImageBackupService {
      */
     Path[] listBackups() throws IOException;
 
+    /**
+     * Lists details of the available backups in the configured backup directory,
+     * such as creation time, file count and size.
+     *
+     * @return the backups, oldest first
+     * @throws IOException if there's an error accessing the backups directory
+     */
+    List<BackupInfo> listBackupInfo() throws IOException;
+
+    /**
+     * Finds a backup by name in the configured backup directory.
+     *
+     * @param backupName the name of the backup directory or archive
+     * @return an Optional containing the backup if it is a backup directory or archive, or empty if not found
+     * @throws IllegalArgumentException if the name points outside the backup directory
+     */
+    Optional<Path> findBackup(String backupName);
+
     /**
      * Restores images from the most recent backup to the target directory.
      *
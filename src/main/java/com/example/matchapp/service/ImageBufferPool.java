@@ -0,0 +1,33 @@
+package com.example.matchapp.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Service for borrowing fixed-size direct buffers to move image bytes through in chunks.
+ * Keeping the chunks off-heap and reusing them means reading, writing and serving an image
+ * doesn't allocate image-sized arrays for intermediate copies.
+ */
+public interface ImageBufferPool {
+
+    /**
+     * Borrows a cleared buffer of {@link #getBufferSize()} bytes.
+     * The buffer must be returned with {@link #release(ByteBuffer)} once the caller is done with it.
+     *
+     * @return the buffer
+     */
+    ByteBuffer acquire();
+
+    /**
+     * Returns a borrowed buffer to the pool. The caller must not use the buffer afterwards.
+     *
+     * @param buffer the buffer returned by {@link #acquire()}
+     */
+    void release(ByteBuffer buffer);
+
+    /**
+     * Gets the capacity of the buffers handed out by the pool.
+     *
+     * @return the buffer size in bytes
+     */
+    int getBufferSize();
+}
@@ -1,8 +1,10 @@
 package com.example.matchapp.service;
 
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.util.ImageFormats;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.Optional;
 
@@ -30,6 +32,37 @@ public interface ImageCacheService {
      */
     Optional<byte[]> getImageFromCache(ProfileEntity profile, Path imagesDir) throws IOException;
 
+    /**
+     * Writes the cached image of the given profile to a stream, without loading the whole image on the heap.
+     *
+     * @param profile the profile to write the image of
+     * @param imagesDir the directory where images are stored
+     * @param target the stream to write the image to; it is not closed
+     * @return true if the image was written, false if it isn't in the cache
+     * @throws IOException if there's an error reading the image file or writing to the stream
+     */
+    default boolean writeImageFromCache(ProfileEntity profile, Path imagesDir, OutputStream target) throws IOException {
+        Optional<byte[]> image = getImageFromCache(profile, imagesDir);
+        if (image.isEmpty()) {
+            return false;
+        }
+        target.write(image.get());
+        return true;
+    }
+
+    /**
+     * Detects the content type of the cached image of the given profile from its leading bytes.
+     *
+     * @param profile the profile to get the image content type for
+     * @param imagesDir the directory where images are stored
+     * @return an Optional containing the content type if the image is cached, or empty if not found
+     * @throws IOException if there's an error reading the image file
+     */
+    default Optional<String> getImageContentTypeFromCache(ProfileEntity profile, Path imagesDir) throws IOException {
+        return getImageFromCache(profile, imagesDir)
+                .map(image -> ImageFormats.detectContentType(image, image.length));
+    }
+
     /**
      * Puts an image in the cache for the given profile.
      *
@@ -41,7 +74,41 @@ public interface ImageCacheService {
     void putImageInCache(ProfileEntity profile, byte[] imageBytes, Path imagesDir) throws IOException;
 
     /**
-     * Invalidates the cache for the given profile.
+     * Checks if a variant of the image exists in the cache for the given profile.
+     *
+     * @param profile the profile to check
+     * @param variant the variant name
+     * @param imagesDir the directory where images are stored
+     * @return true if the variant exists in the cache, false otherwise
+     */
+    boolean hasImageVariantInCache(ProfileEntity profile, String variant, Path imagesDir);
+
+    /**
+     * Puts a variant of the image in the cache for the given profile.
+     *
+     * @param profile the profile to cache the variant for
+     * @param variant the variant name
+     * @param imageBytes the variant bytes to cache
+     * @param imagesDir the directory where images are stored
+     * @throws IOException if there's an error writing the variant file
+     */
+    void putImageVariantInCache(ProfileEntity profile, String variant, byte[] imageBytes, Path imagesDir) throws IOException;
+
+    /**
+     * Writes a cached variant of the image of the given profile to a stream.
+     *
+     * @param profile the profile to write the variant of
+     * @param variant the variant name
+     * @param imagesDir the directory where images are stored
+     * @param target the stream to write the variant to; it is not closed
+     * @return true if the variant was written, false if it isn't in the cache
+     * @throws IOException if there's an error reading the variant file or writing to the stream
+     */
+    boolean writeImageVariantFromCache(ProfileEntity profile, String variant, Path imagesDir, OutputStream target)
+            throws IOException;
+
+    /**
+     * Invalidates the cache for the given profile, including the variants of its image.
      *
      * @param profile the profile to invalidate the cache for
      * @param imagesDir the directory where images are stored
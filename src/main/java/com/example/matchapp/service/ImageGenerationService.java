@@ -13,4 +13,22 @@ public interface ImageGenerationService {
      * @return the generated image bytes
      */
     byte[] generateImage(ProfileEntity profile);
+
+    /**
+     * Gets the name of the provider images are generated with, used to tag metrics.
+     *
+     * @return the provider name
+     */
+    default String getProviderName() {
+        return "unknown";
+    }
+
+    /**
+     * Gets the model images are generated with, used to tag metrics.
+     *
+     * @return the model name
+     */
+    default String getModel() {
+        return "unknown";
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.matchapp.service;
+
+/**
+ * Service for deferring image generation status updates so they can be written in batches.
+ */
+public interface ImageStatusBuffer {
+
+    /**
+     * Records that the image of a profile has been generated.
+     * The change is written later, together with other buffered changes, and the profile is marked dirty
+     * in the manifest once it has been written.
+     *
+     * @param profileId the profile ID
+     */
+    void markGenerated(String profileId);
+
+    /**
+     * Writes all buffered status changes now.
+     * Also waits for changes that another thread is still writing, so all changes recorded before the call
+     * are in the database when it returns.
+     *
+     * @return the number of profiles updated
+     */
+    int flush();
+}
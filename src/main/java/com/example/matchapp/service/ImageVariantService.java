@@ -0,0 +1,59 @@
+package com.example.matchapp.service;
+
+import com.example.matchapp.model.ProfileEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Service for deriving smaller variants, such as thumbnails, from generated images.
+ * Variants are stored in the image cache alongside the original image.
+ */
+public interface ImageVariantService {
+
+    /**
+     * Name under which the original image is requested.
+     */
+    String ORIGINAL = "original";
+
+    /**
+     * Gets the names of the variants that are created for every image.
+     *
+     * @return the variant names
+     */
+    Set<String> getVariantNames();
+
+    /**
+     * Gets the content type of the variants.
+     *
+     * @return the content type
+     */
+    String getContentType();
+
+    /**
+     * Creates all variants of a newly generated image and puts them in the cache.
+     *
+     * @param profile the profile the image was generated for
+     * @param image the original image
+     * @param imagesDir the directory where images are stored
+     * @throws IOException if the image can't be read or a variant can't be written
+     */
+    void createVariants(ProfileEntity profile, byte[] image, Path imagesDir) throws IOException;
+
+    /**
+     * Writes a variant of a profile's image to a stream.
+     * A variant that isn't in the cache yet, e.g. of an image generated before the variant was configured,
+     * is created from the cached original first.
+     *
+     * @param profile the profile to write the image of
+     * @param variant the variant name
+     * @param imagesDir the directory where images are stored
+     * @param target the stream to write the variant to; it is not closed
+     * @return true if the variant was written, false if the original image isn't in the cache
+     * @throws IllegalArgumentException if the variant isn't configured
+     * @throws IOException if the variant can't be created or written
+     */
+    boolean writeVariant(ProfileEntity profile, String variant, Path imagesDir, OutputStream target) throws IOException;
+}
@@ -95,8 +95,8 @@ public class ProfileCrudService {
         entity.setImageGenerated(false);
 
         logger.info("Creating new profile with ID: {}", entity.getId());
-        ProfileEntity savedEntity = profileRepository.save(entity);
-        return ProfileMapper.toProfile(savedEntity);
+        profileRepository.upsert(entity);
+        return ProfileMapper.toProfile(entity);
     }
 
     /**
@@ -117,9 +117,9 @@ public class ProfileCrudService {
                 updatedEntity.setId(id);
                 updatedEntity.setImageGenerated(existingEntity.isImageGenerated());
 
-                // Save the updated entity
-                ProfileEntity savedEntity = profileRepository.save(updatedEntity);
-                return ProfileMapper.toProfile(savedEntity);
+                // Write the updated entity without another existence check
+                profileRepository.upsert(updatedEntity);
+                return ProfileMapper.toProfile(updatedEntity);
             });
     }
 
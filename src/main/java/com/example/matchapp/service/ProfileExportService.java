@@ -2,13 +2,22 @@ package com.example.matchapp.service;
 
 import com.example.matchapp.exception.ConfigurationException;
 import com.example.matchapp.exception.FileOperationException;
+import com.example.matchapp.mapper.ProfileMapper;
+import com.example.matchapp.model.ExportFormat;
 import com.example.matchapp.model.Profile;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.repository.ProfileRepository;
+import com.example.matchapp.service.impl.ProfileArchiveWriter;
+import com.example.matchapp.service.impl.ProfileStreamWriter;
+import com.example.matchapp.util.AtomicFiles;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -16,18 +25,152 @@ import java.util.List;
  * Service responsible for exporting profiles to various formats.
  * This service follows the Single Responsibility Principle by focusing only on
  * profile export operations.
+ * <p>
+ * Exports read profiles from the repository one page at a time and write each page straight to the
+ * output, so memory use stays constant no matter how many profiles there are. File exports are written
+ * with {@link AtomicFiles}, so readers never see a partially written file.
  */
 @Service
 public class ProfileExportService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProfileExportService.class);
+
+    /**
+     * Name of the file listing the profiles and their images, written next to the images.
+     */
+    public static final String PROFILES_WITH_IMAGES_FILE = "profiles_with_images.json";
+
+    /**
+     * Number of profiles read from the repository per page.
+     */
+    static final int PAGE_SIZE = 500;
+
     private final ObjectMapper objectMapper;
+    private final ProfileRepository profileRepository;
 
-    public ProfileExportService(ObjectMapper objectMapper) {
+    public ProfileExportService(ObjectMapper objectMapper, ProfileRepository profileRepository) {
         if (objectMapper == null) {
             throw new ConfigurationException("ObjectMapper cannot be null", "objectMapper", "null");
         }
+        if (profileRepository == null) {
+            throw new ConfigurationException("ProfileRepository cannot be null", "profileRepository", "null");
+        }
         this.objectMapper = objectMapper;
+        this.profileRepository = profileRepository;
+    }
+
+    /**
+     * Export all profiles in the repository to a file.
+     *
+     * @param format the format to write
+     * @param outputPath the path to write the file to
+     * @return the number of profiles exported
+     * @throws FileOperationException if there's an error writing the file
+     */
+    public long exportProfiles(ExportFormat format, Path outputPath) {
+        logger.info("Exporting profiles as {} to file: {}", format, outputPath);
+        long count = writeAtomically(outputPath, out -> exportProfiles(format, out));
+        logger.info("Successfully exported {} profiles to {}", count, outputPath);
+        return count;
+    }
+
+    /**
+     * Export all profiles in the repository to an output stream.
+     * The stream is flushed but not closed.
+     *
+     * @param format the format to write
+     * @param out the stream to write to
+     * @return the number of profiles exported
+     * @throws IOException if the stream can't be written
+     */
+    public long exportProfiles(ExportFormat format, OutputStream out) throws IOException {
+        try (ProfileStreamWriter writer = ProfileStreamWriter.open(format, out, objectMapper)) {
+            return forEachProfile(writer::write);
+        }
+    }
+
+    /**
+     * Export all profiles in the repository to an output stream in any format, including ZIP archives.
+     * The stream is flushed but not closed.
+     *
+     * @param format the format to write
+     * @param out the stream to write to
+     * @param imagesDir the directory containing the images, used by ZIP archives
+     * @return the number of profiles exported
+     * @throws IOException if the stream can't be written
+     */
+    public long export(ExportFormat format, OutputStream out, Path imagesDir) throws IOException {
+        return format == ExportFormat.ZIP ? exportArchive(out, imagesDir) : exportProfiles(format, out);
+    }
+
+    /**
+     * Export all profiles and their images as a ZIP archive to an output stream.
+     * The archive holds an NDJSON manifest followed by every image that exists in the images directory.
+     * Images are copied straight from their files, so neither the archive nor the images are held in memory.
+     * The stream is flushed but not closed.
+     *
+     * @param out the stream to write to
+     * @param imagesDir the directory containing the images
+     * @return the number of profiles exported
+     * @throws IOException if an image can't be read or the stream can't be written
+     */
+    public long exportArchive(OutputStream out, Path imagesDir) throws IOException {
+        Path dir = imagesDir.toAbsolutePath().normalize();
+        long[] profiles = {0};
+        long[] images = {0};
+        long imageBytes;
+        try (ProfileArchiveWriter archive = new ProfileArchiveWriter(out)) {
+            archive.writeManifest(manifest -> profiles[0] = exportProfiles(ExportFormat.NDJSON, manifest));
+
+            // A second pass adds the images, since the manifest entry has to be complete before the next entry starts
+            forEachProfile(profile -> {
+                Path image = resolveImage(dir, profile);
+                if (image != null) {
+                    archive.writeImage(dir.relativize(image).toString().replace(image.getFileSystem().getSeparator(), "/"),
+                            image);
+                    images[0]++;
+                }
+            });
+            imageBytes = archive.getImageBytes();
+        }
+        logger.info("Exported {} profiles and {} images ({} bytes) as a ZIP archive", profiles[0], images[0], imageBytes);
+        return profiles[0];
+    }
+
+    /**
+     * Passes every profile in the repository to a handler, reading one page at a time.
+     * Profiles arrive in ID order. Each page continues after the last ID of the previous one, so reading a page
+     * costs the same wherever it is and the whole export stays linear in the number of profiles.
+     *
+     * @param handler the handler to call for each profile
+     * @return the number of profiles handled
+     * @throws IOException if the handler fails
+     */
+    public long forEachProfile(ProfileHandler handler) throws IOException {
+        long count = 0;
+        String lastId = null;
+        while (true) {
+            List<ProfileEntity> page = profileRepository.findAfterId(lastId, PAGE_SIZE);
+            for (ProfileEntity entity : page) {
+                handler.handle(ProfileMapper.toProfile(entity));
+                count++;
+            }
+            if (page.size() < PAGE_SIZE) {
+                return count;
+            }
+            lastId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Export all profiles in the repository to the profiles_with_images.json file.
+     *
+     * @param imagesDir the directory containing the images
+     * @return the number of profiles exported
+     * @throws FileOperationException if there's an error writing the file
+     */
+    public long exportProfilesWithImages(Path imagesDir) {
+        return exportProfiles(ExportFormat.JSON, imagesDir.resolve(PROFILES_WITH_IMAGES_FILE));
     }
 
     /**
@@ -39,14 +182,8 @@ public class ProfileExportService {
      */
     public void exportProfilesToJson(List<Profile> profiles, Path outputPath) {
         logger.info("Exporting {} profiles to JSON file: {}", profiles.size(), outputPath);
-        try {
-            objectMapper.writeValue(outputPath.toFile(), profiles);
-            logger.info("Successfully exported profiles to JSON file");
-        } catch (IOException e) {
-            logger.error("Failed to export profiles to JSON file: {}", outputPath, e);
-            throw new FileOperationException("Failed to export profiles to JSON file: " + outputPath, e, 
-                outputPath, "writeValue", false);
-        }
+        writeAtomically(outputPath, out -> writeAll(profiles, out));
+        logger.info("Successfully exported profiles to JSON file");
     }
 
     /**
@@ -58,15 +195,63 @@ public class ProfileExportService {
      * @throws FileOperationException if there's an error writing the file
      */
     public void exportProfilesWithImages(List<Profile> profiles, Path imagesDir) {
-        Path outputPath = imagesDir.resolve("profiles_with_images.json");
+        Path outputPath = imagesDir.resolve(PROFILES_WITH_IMAGES_FILE);
         logger.info("Exporting {} profiles with images to JSON file: {}", profiles.size(), outputPath);
+        writeAtomically(outputPath, out -> writeAll(profiles, out));
+        logger.info("Successfully exported profiles with images to JSON file");
+    }
+
+    /**
+     * Resolves the image file of a profile, ignoring images that are missing or outside the images directory.
+     *
+     * @param imagesDir the normalized images directory
+     * @param profile the profile
+     * @return the image file, or null if there is none to export
+     */
+    private Path resolveImage(Path imagesDir, Profile profile) {
+        if (profile.imageUrl() == null || profile.imageUrl().isBlank()) {
+            return null;
+        }
+        Path image = imagesDir.resolve(profile.imageUrl()).normalize();
+        if (!image.startsWith(imagesDir)) {
+            logger.warn("Skipping image of profile {} outside the images directory: {}", profile.id(), profile.imageUrl());
+            return null;
+        }
+        return Files.isRegularFile(image) ? image : null;
+    }
+
+    private long writeAll(List<Profile> profiles, OutputStream out) throws IOException {
+        try (ProfileStreamWriter writer = ProfileStreamWriter.open(ExportFormat.JSON, out, objectMapper)) {
+            for (Profile profile : profiles) {
+                writer.write(profile);
+            }
+        }
+        return profiles.size();
+    }
+
+    /**
+     * Writes a file atomically, so readers never see a partially written export.
+     *
+     * @param target the file to write
+     * @param content writes the content and returns the number of profiles written
+     * @return the number of profiles written
+     * @throws FileOperationException if the file can't be written
+     */
+    private long writeAtomically(Path target, AtomicFiles.Content<Long> content) {
         try {
-            objectMapper.writeValue(outputPath.toFile(), profiles);
-            logger.info("Successfully exported profiles with images to JSON file");
+            return AtomicFiles.write(target, content);
         } catch (IOException e) {
-            logger.error("Failed to export profiles with images to JSON file: {}", outputPath, e);
-            throw new FileOperationException("Failed to export profiles with images to JSON file: " + outputPath, e, 
-                outputPath, "writeValue", false);
+            logger.error("Failed to export profiles to file: {}", target, e);
+            throw new FileOperationException("Failed to export profiles to file: " + target, e,
+                    target, "write", false);
         }
     }
+
+    /**
+     * Receives profiles one at a time from {@link #forEachProfile(ProfileHandler)}.
+     */
+    @FunctionalInterface
+    public interface ProfileHandler {
+        void handle(Profile profile) throws IOException;
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.matchapp.service;
+
+import java.nio.file.Path;
+
+/**
+ * Service interface for maintaining the profiles_with_images.json manifest next to the generated images.
+ * Changed profiles are recorded as they happen and applied to the manifest later, so the cost of an
+ * update depends on the number of changes rather than the number of profiles.
+ * <p>
+ * An update appends the changed profiles to the {@link #CHANGES_FILE} change log next to the manifest
+ * instead of rewriting it. Each line of the change log is either a profile, replacing the profile with the
+ * same ID, or an object with only the {@code id} and {@code "deleted": true}, removing it. Readers apply the
+ * lines in order on top of the manifest. Once the change log grows large enough it is compacted: the
+ * manifest is rewritten in ID order with all changes applied and the change log is deleted.
+ */
+public interface ProfileManifestService {
+
+    /**
+     * Name of the change log kept next to the manifest.
+     */
+    String CHANGES_FILE = "profiles_with_images.changes.ndjson";
+
+    /**
+     * Records that a profile was created, changed or deleted since the manifest was last updated.
+     * Inside a transaction the change is recorded once the transaction commits.
+     *
+     * @param profileId the profile ID
+     */
+    void markDirty(String profileId);
+
+    /**
+     * Applies the recorded changes to the manifest in the given directory, by appending them to the change log
+     * or, once that has grown large enough, by compacting it into the manifest.
+     * If the manifest doesn't exist yet or its state is unknown, it is rebuilt from scratch.
+     *
+     * @param imagesDir the directory containing the images and the manifest
+     * @return the number of manifest segments that were rewritten
+     * @throws com.example.matchapp.exception.FileOperationException if the manifest can't be written
+     */
+    int update(Path imagesDir);
+
+    /**
+     * Rebuilds the manifest in the given directory from all profiles in the repository and deletes the change log.
+     *
+     * @param imagesDir the directory containing the images and the manifest
+     * @throws com.example.matchapp.exception.FileOperationException if the manifest can't be written
+     */
+    void rebuild(Path imagesDir);
+}
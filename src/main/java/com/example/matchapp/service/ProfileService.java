@@ -5,24 +5,33 @@ import com.example.matchapp.exception.ConfigurationException;
 import com.example.matchapp.exception.FileOperationException;
 import com.example.matchapp.exception.ServiceException;
 import com.example.matchapp.mapper.ProfileMapper;
+import com.example.matchapp.metrics.ImageGenerationMetrics;
+import com.example.matchapp.metrics.ImageGenerationStageMetrics;
+import com.example.matchapp.metrics.ImageGenerationStageMetrics.Stage;
+import com.example.matchapp.model.BackupJob;
 import com.example.matchapp.model.Profile;
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfilePatch;
+import com.example.matchapp.model.ProfileSummary;
 import com.example.matchapp.repository.ProfileRepository;
 import com.example.matchapp.util.LoggingUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -36,30 +45,47 @@ public class ProfileService {
 
     private final ImageGenerationService imageGenerationService;
     private final ProfileRepository profileRepository;
-    private final ImageBackupService imageBackupService;
+    private final BackupJobService backupJobService;
     private final BackupProperties backupProperties;
     private final ImageCacheService imageCacheService;
+    private final ImageVariantService imageVariantService;
+    private final ImageStatusBuffer imageStatusBuffer;
+    private final ProfileManifestService profileManifestService;
+    private final ImageGenerationStageMetrics.StageTimers stageTimers;
+    private final ImageGenerationMetrics metrics;
 
     public ProfileService(
             ImageGenerationService imageGenerationService, 
             ProfileRepository profileRepository,
-            ImageBackupService imageBackupService,
+            BackupJobService backupJobService,
             BackupProperties backupProperties,
-            ImageCacheService imageCacheService) {
+            ImageCacheService imageCacheService,
+            ImageVariantService imageVariantService,
+            ImageStatusBuffer imageStatusBuffer,
+            ProfileManifestService profileManifestService,
+            ImageGenerationStageMetrics stageMetrics,
+            ImageGenerationMetrics metrics) {
         // Validate all parameters before assigning to fields
         validateConstructorParameters(imageGenerationService, profileRepository, 
-                                     imageBackupService, backupProperties, imageCacheService);
+                                     backupJobService, backupProperties, imageCacheService,
+                                     imageVariantService, imageStatusBuffer, profileManifestService, stageMetrics,
+                                     metrics);
 
         // These are interfaces/services, not mutable objects that need defensive copying
         this.imageGenerationService = imageGenerationService;
         this.profileRepository = profileRepository;
-        this.imageBackupService = imageBackupService;
+        this.backupJobService = backupJobService;
 
         // Create defensive copy to prevent external modification
         this.backupProperties = copyBackupProperties(backupProperties);
 
         // This is an interface/service, not a mutable object that needs defensive copying
         this.imageCacheService = imageCacheService;
+        this.imageVariantService = imageVariantService;
+        this.imageStatusBuffer = imageStatusBuffer;
+        this.profileManifestService = profileManifestService;
+        this.stageTimers = stageMetrics.timers(imageGenerationService.getProviderName(), imageGenerationService.getModel());
+        this.metrics = metrics;
     }
 
     /**
@@ -69,17 +95,22 @@ public class ProfileService {
     private void validateConstructorParameters(
             ImageGenerationService imageGenerationService,
             ProfileRepository profileRepository,
-            ImageBackupService imageBackupService,
+            BackupJobService backupJobService,
             BackupProperties backupProperties,
-            ImageCacheService imageCacheService) {
+            ImageCacheService imageCacheService,
+            ImageVariantService imageVariantService,
+            ImageStatusBuffer imageStatusBuffer,
+            ProfileManifestService profileManifestService,
+            ImageGenerationStageMetrics stageMetrics,
+            ImageGenerationMetrics metrics) {
         if (imageGenerationService == null) {
             throw new ConfigurationException("ImageGenerationService cannot be null", "imageGenerationService", "null");
         }
         if (profileRepository == null) {
             throw new ConfigurationException("ProfileRepository cannot be null", "profileRepository", "null");
         }
-        if (imageBackupService == null) {
-            throw new ConfigurationException("ImageBackupService cannot be null", "imageBackupService", "null");
+        if (backupJobService == null) {
+            throw new ConfigurationException("BackupJobService cannot be null", "backupJobService", "null");
         }
         if (backupProperties == null) {
             throw new ConfigurationException("BackupProperties cannot be null", "backupProperties", "null");
@@ -87,6 +118,21 @@ public class ProfileService {
         if (imageCacheService == null) {
             throw new ConfigurationException("ImageCacheService cannot be null", "imageCacheService", "null");
         }
+        if (imageVariantService == null) {
+            throw new ConfigurationException("ImageVariantService cannot be null", "imageVariantService", "null");
+        }
+        if (imageStatusBuffer == null) {
+            throw new ConfigurationException("ImageStatusBuffer cannot be null", "imageStatusBuffer", "null");
+        }
+        if (profileManifestService == null) {
+            throw new ConfigurationException("ProfileManifestService cannot be null", "profileManifestService", "null");
+        }
+        if (stageMetrics == null) {
+            throw new ConfigurationException("ImageGenerationStageMetrics cannot be null", "stageMetrics", "null");
+        }
+        if (metrics == null) {
+            throw new ConfigurationException("ImageGenerationMetrics cannot be null", "metrics", "null");
+        }
     }
 
     /**
@@ -129,6 +175,19 @@ public class ProfileService {
                 .map(ProfileMapper::toProfile);
     }
 
+    /**
+     * Get summaries of profiles with pagination.
+     * Only the summary columns are read, which keeps list views cheap for profiles with long bios.
+     *
+     * @param pageable pagination information including page number, page size, and sorting
+     * @return a page of profile summaries
+     */
+    public Page<ProfileSummary> getProfileSummaries(Pageable pageable) {
+        logger.info("Retrieving profile summaries with pagination: page={}, size={}",
+                pageable.getPageNumber(), pageable.getPageSize());
+        return profileRepository.findAllSummaries(pageable);
+    }
+
     /**
      * Get a profile by ID.
      *
@@ -141,6 +200,66 @@ public class ProfileService {
                 .map(ProfileMapper::toProfile);
     }
 
+    /**
+     * Get a profile by ID if its image is in the cache.
+     *
+     * @param id the profile ID
+     * @param imagesDir the directory where images are stored
+     * @return an Optional containing the profile if found and its image is cached, or empty otherwise
+     */
+    public Optional<ProfileEntity> getProfileWithCachedImage(String id, Path imagesDir) {
+        return profileRepository.findById(id)
+                .filter(entity -> imageCacheService.hasImageInCache(entity, imagesDir));
+    }
+
+    /**
+     * Check whether an image variant can be requested.
+     *
+     * @param variant the variant name, or {@link ImageVariantService#ORIGINAL} for the original image
+     * @return true if the variant is the original or a configured variant
+     */
+    public boolean isImageVariant(String variant) {
+        return ImageVariantService.ORIGINAL.equals(variant) || imageVariantService.getVariantNames().contains(variant);
+    }
+
+    /**
+     * Get the content type of a variant of the cached image of a profile.
+     * Providers may return PNG, JPEG or other formats, so the type of the original image is detected from its bytes;
+     * variants are always encoded in the configured variant format.
+     *
+     * @param profile the profile to get the image content type for
+     * @param variant the variant name, or {@link ImageVariantService#ORIGINAL} for the original image
+     * @param imagesDir the directory where images are stored
+     * @return an Optional containing the content type, or empty if the original image is no longer in the cache
+     * @throws IOException if there's an error reading the image file
+     */
+    public Optional<String> getImageContentType(ProfileEntity profile, String variant, Path imagesDir)
+            throws IOException {
+        if (ImageVariantService.ORIGINAL.equals(variant)) {
+            return imageCacheService.getImageContentTypeFromCache(profile, imagesDir);
+        }
+        return Optional.of(imageVariantService.getContentType());
+    }
+
+    /**
+     * Write a variant of the cached image of a profile to a stream.
+     * Variants missing from the cache are created from the original image.
+     *
+     * @param profile the profile to write the image of
+     * @param variant the variant name, or {@link ImageVariantService#ORIGINAL} for the original image
+     * @param imagesDir the directory where images are stored
+     * @param target the stream to write the image to; it is not closed
+     * @return true if the image was written, false if it is no longer in the cache
+     * @throws IOException if there's an error reading the image file or writing to the stream
+     */
+    public boolean writeCachedImage(ProfileEntity profile, String variant, Path imagesDir, OutputStream target)
+            throws IOException {
+        if (ImageVariantService.ORIGINAL.equals(variant)) {
+            return imageCacheService.writeImageFromCache(profile, imagesDir, target);
+        }
+        return imageVariantService.writeVariant(profile, variant, imagesDir, target);
+    }
+
     /**
      * Create a new profile.
      *
@@ -162,8 +281,9 @@ public class ProfileService {
         entity.setImageGenerated(false);
 
         logger.info("Creating new profile with ID: {}", entity.getId());
-        ProfileEntity savedEntity = profileRepository.save(entity);
-        return ProfileMapper.toProfile(savedEntity);
+        profileRepository.upsert(entity);
+        profileManifestService.markDirty(entity.getId());
+        return ProfileMapper.toProfile(entity);
     }
 
     /**
@@ -184,12 +304,48 @@ public class ProfileService {
                 updatedEntity.setId(id);
                 updatedEntity.setImageGenerated(existingEntity.isImageGenerated());
 
-                // Save the updated entity
-                ProfileEntity savedEntity = profileRepository.save(updatedEntity);
-                return ProfileMapper.toProfile(savedEntity);
+                // Write the updated entity without another existence check
+                profileRepository.upsert(updatedEntity);
+                profileManifestService.markDirty(id);
+                return ProfileMapper.toProfile(updatedEntity);
             });
     }
 
+    /**
+     * Partially update an existing profile.
+     * Only fields whose values actually change are written, with a single targeted UPDATE;
+     * if nothing changes, no write is issued.
+     *
+     * @param id the profile ID
+     * @param patch the fields to change; null fields are left untouched
+     * @return an Optional containing the updated profile if found, or empty if not found
+     */
+    @Transactional
+    public Optional<Profile> patchProfile(String id, ProfilePatch patch) {
+        logger.info("Patching profile with ID: {}", id);
+
+        return profileRepository.findById(id)
+            .flatMap(entity -> {
+                Map<String, Object> changes = patch.changesAgainst(entity);
+                if (changes.isEmpty()) {
+                    logger.debug("Patch for profile {} changes nothing, skipping write", id);
+                    return Optional.of(entity);
+                }
+
+                logger.debug("Patching fields {} of profile {}", changes.keySet(), id);
+                if (profileRepository.updateColumns(id, changes) == 0) {
+                    // Deleted between the read and the write
+                    return Optional.empty();
+                }
+                profileManifestService.markDirty(id);
+                // Apply to a detached copy so a managed entity isn't flushed again by dirty checking
+                ProfileEntity patched = ProfileMapper.toProfileEntity(ProfileMapper.toProfile(entity));
+                ProfilePatch.applyChanges(patched, changes);
+                return Optional.of(patched);
+            })
+            .map(ProfileMapper::toProfile);
+    }
+
     /**
      * Delete a profile by ID.
      *
@@ -199,7 +355,11 @@ public class ProfileService {
     @Transactional
     public boolean deleteProfile(String id) {
         logger.info("Deleting profile with ID: {}", id);
-        return profileRepository.deleteById(id);
+        boolean deleted = profileRepository.deleteById(id);
+        if (deleted) {
+            profileManifestService.markDirty(id);
+        }
+        return deleted;
     }
 
     /**
@@ -212,6 +372,19 @@ public class ProfileService {
      */
     @Transactional
     public Optional<Profile> generateImageForProfile(String id, Path imagesDir) throws IOException {
+        return generateImage(id, imagesDir, false);
+    }
+
+    /**
+     * Generates an image for a profile, either writing its status right away or handing it to the
+     * write-behind buffer.
+     *
+     * @param id the profile ID
+     * @param imagesDir the directory to save the image to
+     * @param deferStatus whether the imageGenerated flag should be written later in a batch
+     * @return an Optional containing the updated profile if found, or empty if not found
+     */
+    private Optional<Profile> generateImage(String id, Path imagesDir, boolean deferStatus) {
         logger.info("Generating image for profile with ID: {}", id);
 
         return profileRepository.findById(id)
@@ -226,6 +399,7 @@ public class ProfileService {
 
                     // Check if image exists in cache
                     if (imageCacheService.hasImageInCache(entity, imagesDir)) {
+                        metrics.recordCacheHit();
                         logger.info("Using cached image for profile: {}", entity.getId());
                         Optional<byte[]> cachedImage = imageCacheService.getImageFromCache(entity, imagesDir);
                         if (cachedImage.isPresent()) {
@@ -237,12 +411,28 @@ public class ProfileService {
                         }
                     } else {
                         // Generate new image if not in cache
+                        metrics.recordCacheMiss();
                         image = generateAndCacheImage(entity, imagesDir);
                     }
 
-                    // Update the profile to mark the image as generated
+                    // Update the profile to mark the image as generated; the manifest only changes on the first image
+                    boolean firstImage = !entity.isImageGenerated();
                     entity.setImageGenerated(true);
+                    if (deferStatus) {
+                        // Only buffered here; the batched write isn't attributable to one profile, so it isn't timed.
+                        // The buffer marks the profile dirty once the status is written, so a concurrent manifest
+                        // update can't read the old status and forget the change.
+                        if (firstImage) {
+                            imageStatusBuffer.markGenerated(entity.getId());
+                        }
+                        return ProfileMapper.toProfile(entity);
+                    }
+                    if (firstImage) {
+                        profileManifestService.markDirty(entity.getId());
+                    }
+                    long updateStart = System.nanoTime();
                     ProfileEntity updatedEntity = profileRepository.save(entity);
+                    stageTimers.record(Stage.DB_UPDATE, updateStart);
                     return ProfileMapper.toProfile(updatedEntity);
                 } catch (IOException e) {
                     logger.error("Error generating image for profile: {}", entity.getId(), e);
@@ -255,7 +445,7 @@ public class ProfileService {
     }
 
     /**
-     * Generates an image for a profile and caches it.
+     * Generates an image for a profile and caches it along with its variants.
      *
      * @param entity the profile entity to generate an image for
      * @param imagesDir the directory to save the image to
@@ -267,19 +457,35 @@ public class ProfileService {
         byte[] image = imageGenerationService.generateImage(entity);
 
         // Cache the image
+        long cacheStart = System.nanoTime();
         imageCacheService.putImageInCache(entity, image, imagesDir);
+        stageTimers.record(Stage.CACHE_WRITE, cacheStart);
+
+        // Derive the smaller variants while the image is still in memory
+        long postProcessStart = System.nanoTime();
+        try {
+            imageVariantService.createVariants(entity, image, imagesDir);
+        } catch (IOException | RuntimeException e) {
+            // Missing variants are created from the original on first request, so the generation still succeeds
+            logger.warn("Failed to create image variants for profile: {}", entity.getId(), e);
+        }
+        stageTimers.record(Stage.POST_PROCESS, postProcessStart);
 
         return image;
     }
 
     /**
      * Generate images for all profiles.
+     * Status updates are buffered and written in batches rather than one UPDATE per profile.
+     * This runs without a surrounding transaction, so no connection is held across provider calls
+     * and the manifest update sees the batched writes. The manifest is updated incrementally, so only
+     * profiles whose status changed are read back.
      *
      * @param imagesDir the directory to save the images to
      * @return a list of profiles with generated images
      * @throws IOException if there's an error writing the image files
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Profile> generateImages(Path imagesDir) throws IOException {
         logger.info("Generating images for all profiles");
 
@@ -291,49 +497,43 @@ public class ProfileService {
         }
 
         List<ProfileEntity> entities = profileRepository.findAll();
-        List<String> failedProfiles = new java.util.ArrayList<>();
+        Map<String, Profile> generatedProfiles = new ConcurrentHashMap<>();
+        List<String> failedProfiles = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
 
         // Use parallel stream to process profiles concurrently
         entities.parallelStream().forEach(entity -> {
             try {
-                generateImageForProfile(entity.getId(), imagesDir);
-            } catch (IOException e) {
+                generateImage(entity.getId(), imagesDir, true)
+                        .ifPresent(profile -> generatedProfiles.put(profile.id(), profile));
+            } catch (RuntimeException e) {
+                // Provider and cache failures aren't all wrapped in ServiceException; none of them may abort the
+                // batch, or the buffered statuses and the manifest would never be written
                 logger.error("Error generating image for profile: {}", entity.getId(), e);
                 failedProfiles.add(entity.getId());
                 // Continue processing other profiles even if one fails
             }
         });
 
+        // Write the remaining buffered status updates before the manifest reads them back
+        imageStatusBuffer.flush();
+
         if (!failedProfiles.isEmpty()) {
             logger.warn("Failed to generate images for {} profiles: {}", 
                     failedProfiles.size(), String.join(", ", failedProfiles));
         }
 
-        // Get the updated profiles with image generation status
-        List<Profile> updatedProfiles = profileRepository.findAll().stream()
-                .map(ProfileMapper::toProfile)
+        // Profiles that failed keep the status they were loaded with
+        List<Profile> updatedProfiles = entities.stream()
+                .map(entity -> generatedProfiles.getOrDefault(entity.getId(), ProfileMapper.toProfile(entity)))
                 .collect(Collectors.toList());
 
-        // Write the updated profiles to a JSON file
-        ObjectMapper objectMapper = new ObjectMapper();
-        try {
-            objectMapper.writeValue(imagesDir.resolve("profiles_with_images.json").toFile(), updatedProfiles);
-        } catch (IOException e) {
-            throw new FileOperationException("Failed to write profiles to JSON file", e, 
-                    imagesDir.resolve("profiles_with_images.json"), "write", true);
-        }
+        // Apply only the profiles whose status changed to profiles_with_images.json
+        profileManifestService.update(imagesDir);
 
-        // Perform automatic backup if configured
+        // Queue an automatic backup if configured; it runs in the background so it doesn't delay this request
         if (backupProperties.isAutoBackup()) {
-            try {
-                logger.info("Auto-backup is enabled. Creating backup of generated images.");
-                int backedUpFiles = imageBackupService.createBackup(imagesDir);
-                logger.info("Auto-backup completed. {} files backed up.", backedUpFiles);
-            } catch (IOException e) {
-                logger.error("Failed to create automatic backup of images", e);
-                // Log warning but don't throw exception as this is a secondary operation
-                logger.warn("Automatic backup failed but image generation completed successfully");
-            }
+            BackupJob backupJob = backupJobService.submitBackup(imagesDir);
+            logger.info("Auto-backup is enabled. Backup of generated images queued as job {}", backupJob.getId());
         }
 
         return updatedProfiles;
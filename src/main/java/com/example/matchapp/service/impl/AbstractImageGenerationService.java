@@ -1,10 +1,14 @@
 package com.example.matchapp.service.impl;
 
 import com.example.matchapp.config.ImageGenProperties;
+import com.example.matchapp.exception.ApiRateLimitException;
 import com.example.matchapp.exception.ImageGenerationException;
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProviderCall;
+import com.example.matchapp.model.ProviderCallOutcome;
 import com.example.matchapp.service.ImageGenerationService;
 import com.example.matchapp.service.PromptBuilderService;
+import com.example.matchapp.util.ChunkedBase64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -18,6 +22,16 @@ public abstract class AbstractImageGenerationService implements ImageGenerationS
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractImageGenerationService.class);
 
+    /**
+     * Size of the images requested from the provider.
+     */
+    protected static final String IMAGE_SIZE = "1024x1024";
+
+    /**
+     * Number of images requested from the provider per call.
+     */
+    protected static final int IMAGE_VARIANTS = 1;
+
     protected final ImageGenProperties properties;
     protected final PromptBuilderService promptBuilder;
 
@@ -68,9 +82,43 @@ public abstract class AbstractImageGenerationService implements ImageGenerationS
     }
 
     /**
-     * Get the name of the provider for logging purposes.
+     * Decodes the base64 image returned by the provider chunk by chunk, instead of copying the whole
+     * payload into an intermediate array first.
+     *
+     * @param base64 the base64 encoded image
+     * @return the decoded image
+     * @throws IllegalArgumentException if the input isn't valid base64
+     */
+    protected byte[] decodeImage(String base64) {
+        return ChunkedBase64.decode(base64);
+    }
+
+    /**
+     * Describes a single attempt at calling the provider, for the cost ledger.
+     *
+     * @param profile the profile the image was requested for
+     * @param attempt the attempt number, starting at 1
+     * @param failure the exception the attempt failed with, or null if it succeeded
+     * @return the provider call
+     */
+    protected ProviderCall providerCall(ProfileEntity profile, int attempt, Exception failure) {
+        ProviderCallOutcome outcome;
+        if (failure == null) {
+            outcome = ProviderCallOutcome.SUCCESS;
+        } else if (failure instanceof ApiRateLimitException) {
+            outcome = ProviderCallOutcome.RATE_LIMITED;
+        } else {
+            outcome = ProviderCallOutcome.FAILURE;
+        }
+        return new ProviderCall(getProviderName(), getModel(), IMAGE_SIZE, IMAGE_VARIANTS, attempt, outcome,
+                profile.getId());
+    }
+
+    /**
+     * Get the name of the provider for logging and metrics.
      *
      * @return the provider name
      */
-    protected abstract String getProviderName();
+    @Override
+    public abstract String getProviderName();
 }
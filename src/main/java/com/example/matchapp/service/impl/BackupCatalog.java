@@ -0,0 +1,190 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.model.BackupFormat;
+import com.example.matchapp.model.BackupInfo;
+import com.example.matchapp.util.AtomicFiles;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Persisted index of the backups in one backups root directory.
+ * Backups are kept sorted by name, which starts with the creation timestamp, so listing, finding the latest
+ * backup and picking the oldest ones for retention don't need to list or sort the directory.
+ * The catalog is stored as {@value #FILE_NAME} in the root directory and rewritten atomically on every change.
+ * If the file is missing, e.g. for backups made before the catalog existed, it is rebuilt once from the directory.
+ */
+final class BackupCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupCatalog.class);
+
+    /**
+     * Name of the catalog file inside the backups root directory.
+     */
+    static final String FILE_NAME = "catalog.json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final Path backupsRootDir;
+    private final Path catalogFile;
+    private final TreeMap<String, BackupInfo> backups = new TreeMap<>();
+
+    private BackupCatalog(Path backupsRootDir) {
+        this.backupsRootDir = backupsRootDir;
+        this.catalogFile = backupsRootDir.resolve(FILE_NAME);
+    }
+
+    /**
+     * Loads the catalog of a backups root directory, rebuilding it from the directory if it doesn't exist yet.
+     *
+     * @param backupsRootDir the backups root directory
+     * @return the catalog
+     * @throws IOException if the catalog or the directory can't be read
+     */
+    static BackupCatalog load(Path backupsRootDir) throws IOException {
+        Files.createDirectories(backupsRootDir);
+        BackupCatalog catalog = new BackupCatalog(backupsRootDir);
+
+        if (Files.exists(catalog.catalogFile)) {
+            List<BackupInfo> entries = OBJECT_MAPPER.readValue(catalog.catalogFile.toFile(),
+                    new TypeReference<List<BackupInfo>>() { });
+            entries.forEach(entry -> catalog.backups.put(entry.name(), entry));
+            logger.debug("Loaded backup catalog of {} with {} backups", backupsRootDir, entries.size());
+        } else {
+            catalog.rebuild();
+            catalog.persist();
+        }
+        return catalog;
+    }
+
+    /**
+     * Adds a backup to the catalog.
+     *
+     * @param backup the backup to add
+     * @throws IOException if the catalog can't be saved
+     */
+    synchronized void add(BackupInfo backup) throws IOException {
+        backups.put(backup.name(), backup);
+        persist();
+    }
+
+    /**
+     * Removes a backup from the catalog.
+     *
+     * @param name the name of the backup
+     * @throws IOException if the catalog can't be saved
+     */
+    synchronized void remove(String name) throws IOException {
+        if (backups.remove(name) != null) {
+            persist();
+        }
+    }
+
+    /**
+     * Removes the oldest backups so that at most {@code maxBackups} remain.
+     *
+     * @param maxBackups the maximum number of backups to keep
+     * @return the removed backups, oldest first
+     * @throws IOException if the catalog can't be saved
+     */
+    synchronized List<BackupInfo> removeOldest(int maxBackups) throws IOException {
+        List<BackupInfo> removed = new ArrayList<>();
+        while (backups.size() > maxBackups) {
+            removed.add(backups.pollFirstEntry().getValue());
+        }
+        if (!removed.isEmpty()) {
+            persist();
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the most recent backup.
+     *
+     * @return an Optional containing the latest backup, or empty if there are no backups
+     */
+    synchronized Optional<BackupInfo> latest() {
+        Map.Entry<String, BackupInfo> last = backups.lastEntry();
+        return last == null ? Optional.empty() : Optional.of(last.getValue());
+    }
+
+    /**
+     * Gets all backups.
+     *
+     * @return the backups, oldest first
+     */
+    synchronized List<BackupInfo> list() {
+        return new ArrayList<>(backups.values());
+    }
+
+    /**
+     * Gets the number of backups.
+     *
+     * @return the number of backups
+     */
+    synchronized int size() {
+        return backups.size();
+    }
+
+    /**
+     * Resolves the path of a backup.
+     *
+     * @param backup the backup
+     * @return the backup directory or archive
+     */
+    Path pathOf(BackupInfo backup) {
+        return backupsRootDir.resolve(backup.name());
+    }
+
+    private void rebuild() throws IOException {
+        logger.info("No backup catalog found in {}, rebuilding it from the directory", backupsRootDir);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(backupsRootDir)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.startsWith(".")) {
+                    continue;
+                }
+                if (Files.isDirectory(entry)) {
+                    backups.put(name, describeDirectory(entry));
+                } else if (ZipBackupArchive.isArchive(entry)) {
+                    backups.put(name, new BackupInfo(name, Files.getLastModifiedTime(entry).toInstant(),
+                            BackupFormat.ARCHIVE, -1, Files.size(entry)));
+                }
+            }
+        }
+    }
+
+    private static BackupInfo describeDirectory(Path backup) throws IOException {
+        BackupManifest manifest = BackupManifest.read(backup);
+        int fileCount = manifest != null ? manifest.entries().size() : -1;
+        long sizeBytes = manifest != null
+                ? manifest.entries().stream().mapToLong(BackupManifest.Entry::size).sum()
+                : -1;
+        return new BackupInfo(backup.getFileName().toString(), Files.getLastModifiedTime(backup).toInstant(),
+                BackupFormat.DIRECTORY, fileCount, sizeBytes);
+    }
+
+    private void persist() throws IOException {
+        // Serialized up front, since Jackson would close the stream AtomicFiles still has to sync
+        byte[] content = OBJECT_MAPPER.writeValueAsBytes(new ArrayList<>(backups.values()));
+        AtomicFiles.write(catalogFile, out -> {
+            out.write(content);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.util.AtomicFiles;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Describes the files of one backup snapshot.
+ * The manifest is stored next to the snapshot folder, so the folder itself only contains backed-up files.
+ *
+ * @param snapshot the name of the snapshot folder
+ * @param entries one entry per file in the snapshot
+ */
+public record BackupManifest(String snapshot, List<Entry> entries) {
+
+    /**
+     * Suffix appended to the snapshot folder name to form the manifest file name.
+     */
+    public static final String FILE_SUFFIX = ".manifest.json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * A single file of a snapshot.
+     *
+     * @param path the file path relative to the snapshot folder, using '/' as separator
+     * @param size the file size in bytes
+     * @param lastModified the last modification time of the source file in milliseconds since the epoch
+     * @param sha256 the hex-encoded SHA-256 hash of the file content
+     */
+    public record Entry(String path, long size, long lastModified, String sha256) {
+    }
+
+    /**
+     * Indexes the entries of this manifest by relative path.
+     *
+     * @return the entries keyed by path
+     */
+    public Map<String, Entry> entriesByPath() {
+        return entries.stream().collect(Collectors.toMap(Entry::path, Function.identity(), (a, b) -> a));
+    }
+
+    /**
+     * Resolves the manifest file of a snapshot folder.
+     *
+     * @param snapshotFolder the snapshot folder
+     * @return the path of the manifest file
+     */
+    public static Path manifestFileFor(Path snapshotFolder) {
+        return snapshotFolder.resolveSibling(snapshotFolder.getFileName() + FILE_SUFFIX);
+    }
+
+    /**
+     * Reads the manifest of a snapshot folder.
+     *
+     * @param snapshotFolder the snapshot folder
+     * @return the manifest, or null if the snapshot has none (e.g. it was created before manifests existed)
+     * @throws IOException if the manifest exists but can't be read
+     */
+    public static BackupManifest read(Path snapshotFolder) throws IOException {
+        Path manifestFile = manifestFileFor(snapshotFolder);
+        if (!Files.exists(manifestFile)) {
+            return null;
+        }
+        return OBJECT_MAPPER.readValue(manifestFile.toFile(), BackupManifest.class);
+    }
+
+    /**
+     * Writes this manifest next to the given snapshot folder.
+     * The manifest is replaced atomically, so an interrupted backup never leaves a truncated manifest
+     * for the next incremental backup to trust.
+     *
+     * @param snapshotFolder the snapshot folder
+     * @throws IOException if the manifest can't be written
+     */
+    public void write(Path snapshotFolder) throws IOException {
+        AtomicFiles.write(manifestFileFor(snapshotFolder), out -> {
+            // AtomicFiles syncs and closes the file itself
+            OBJECT_MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, this);
+            return null;
+        });
+    }
+
+    /**
+     * Computes the hex-encoded SHA-256 hash of a file, streaming its content.
+     *
+     * @param file the file to hash
+     * @return the hash
+     * @throws IOException if the file can't be read
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
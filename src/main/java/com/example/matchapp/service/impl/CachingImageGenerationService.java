@@ -0,0 +1,282 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.metrics.ImageGenerationMetrics;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.ImageGenerationService;
+import com.example.matchapp.service.PromptBuilderService;
+import com.example.matchapp.util.AtomicFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decorator of ImageGenerationService that answers from a cache of generated images before calling the provider.
+ * A cache hit costs one prompt lookup and one file read: no rate limiter permit is taken and no provider call is made.
+ * On a miss the generated image is written to the cache, and concurrent misses for the same image
+ * share a single provider call, so the number of paid calls follows the number of distinct cache misses.
+ * <p>
+ * Images are cached under a hash of the provider, the model and the prompt, so a request is only answered
+ * from the cache when the provider would have been asked for exactly the same image, and a profile edit that
+ * changes the prompt generates a new one. The cache has its own directory, apart from the profile images.
+ * <p>
+ * The cache is bounded by the total size of its images. Once a write takes it over the limit, the least recently
+ * generated images are deleted until it is back under 90% of the limit, so the directory is only scanned again
+ * after that much has been generated.
+ */
+@Service(CachingImageGenerationService.BEAN_NAME)
+public class CachingImageGenerationService implements ImageGenerationService {
+
+    /**
+     * Name of this bean, for injection points that should be served from the cache.
+     */
+    public static final String BEAN_NAME = "cachingImageGenerationService";
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingImageGenerationService.class);
+
+    private static final String CACHE_FILE_SUFFIX = ".img";
+
+    /**
+     * Share of the maximum size the cache is trimmed to once it exceeds it.
+     */
+    private static final double EVICTION_TARGET = 0.9;
+
+    private final ImageGenerationService delegate;
+    private final PromptBuilderService promptBuilder;
+    private final ImageGenerationMetrics metrics;
+    private final Path cacheDir;
+    private final long maxCacheSize;
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * Total size of the cached images, kept up to date on writes and recounted on every eviction.
+     */
+    private final AtomicLong cacheSize;
+
+    public CachingImageGenerationService(
+            ImageGenerationService delegate,
+            PromptBuilderService promptBuilder,
+            ImageGenerationMetrics metrics,
+            @Value("${imagegen.generation-cache-dir:data/generation-cache}") String cacheDir,
+            @Value("${imagegen.generation-cache-max-size:1073741824}") long maxCacheSize) {
+        if (delegate == null) {
+            throw new ConfigurationException("ImageGenerationService cannot be null", "delegate", "null");
+        }
+        if (promptBuilder == null) {
+            throw new ConfigurationException("PromptBuilderService cannot be null", "promptBuilder", "null");
+        }
+        if (metrics == null) {
+            throw new ConfigurationException("ImageGenerationMetrics cannot be null", "metrics", "null");
+        }
+        if (cacheDir == null || cacheDir.isBlank()) {
+            throw new ConfigurationException("Generation cache directory cannot be empty",
+                    "imagegen.generation-cache-dir", String.valueOf(cacheDir));
+        }
+        if (maxCacheSize <= 0) {
+            throw new ConfigurationException("Generation cache max size must be positive",
+                    "imagegen.generation-cache-max-size", String.valueOf(maxCacheSize));
+        }
+        this.delegate = delegate;
+        this.promptBuilder = promptBuilder;
+        this.metrics = metrics;
+        this.cacheDir = Paths.get(cacheDir);
+        this.maxCacheSize = maxCacheSize;
+        this.cacheSize = new AtomicLong(cachedFiles().stream().mapToLong(CachedFile::size).sum());
+    }
+
+    @Override
+    public byte[] generateImage(ProfileEntity profile) {
+        if (profile == null) {
+            return delegate.generateImage(profile);
+        }
+
+        String key = cacheKey(profile);
+        Optional<byte[]> cached = readFromCache(key);
+        if (cached.isPresent()) {
+            metrics.recordCacheHit();
+            logger.debug("Serving cached image for profile: {}", profile.getId());
+            return cached.get();
+        }
+        metrics.recordCacheMiss();
+
+        CompletableFuture<byte[]> generation = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, generation);
+        if (running != null) {
+            logger.debug("Waiting for the image of profile {} that is already being generated", profile.getId());
+            return await(running);
+        }
+
+        try {
+            // A generation may have finished and left between the cache miss and putIfAbsent
+            Optional<byte[]> generated = readFromCache(key);
+            if (generated.isPresent()) {
+                logger.debug("Serving image of profile {} that was generated meanwhile", profile.getId());
+                generation.complete(generated.get());
+                return generated.get();
+            }
+
+            byte[] image = delegate.generateImage(profile);
+            writeToCache(key, image, profile);
+            generation.complete(image);
+            return image;
+        } catch (Throwable e) {
+            // Errors are passed on too, so requests waiting for this generation never hang
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, generation);
+        }
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public String getModel() {
+        return delegate.getModel();
+    }
+
+    /**
+     * Hashes everything the provider is asked for, so the key is a plain file name whatever the prompt contains.
+     */
+    private String cacheKey(ProfileEntity profile) {
+        String request = delegate.getProviderName() + '\u0000' + delegate.getModel() + '\u0000'
+                + promptBuilder.buildPrompt(profile);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Optional<byte[]> readFromCache(String key) {
+        Path file = cacheDir.resolve(key + CACHE_FILE_SUFFIX);
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            logger.warn("Failed to read cached image: {}, generating a new one", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private void writeToCache(String key, byte[] image, ProfileEntity profile) {
+        try {
+            Files.createDirectories(cacheDir);
+            AtomicFiles.write(cacheDir.resolve(key + CACHE_FILE_SUFFIX), out -> {
+                out.write(image);
+                return null;
+            });
+        } catch (IOException e) {
+            // The image is still returned; the next request generates it again
+            logger.warn("Failed to cache generated image for profile: {}", profile.getId(), e);
+            return;
+        }
+        if (cacheSize.addAndGet(image.length) > maxCacheSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Deletes the least recently generated images until the cache is back under its target size.
+     * Requests that find another thread evicting skip it, as that eviction frees enough space for them too.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<CachedFile> files = cachedFiles();
+            files.sort(Comparator.comparingLong(CachedFile::lastModified));
+            long size = files.stream().mapToLong(CachedFile::size).sum();
+            long target = (long) (maxCacheSize * EVICTION_TARGET);
+            int evicted = 0;
+            for (CachedFile file : files) {
+                if (size <= target) {
+                    break;
+                }
+                try {
+                    // A request that already opened the file can still read it
+                    Files.deleteIfExists(file.path());
+                    size -= file.size();
+                    evicted++;
+                } catch (IOException e) {
+                    logger.warn("Failed to evict cached image: {}", file.path(), e);
+                }
+            }
+            cacheSize.set(size);
+            logger.info("Evicted {} cached images, {} bytes left in {}", evicted, size, cacheDir);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Lists the cached images, leaving out images that are still being written.
+     */
+    private List<CachedFile> cachedFiles() {
+        List<CachedFile> files = new ArrayList<>();
+        if (!Files.isDirectory(cacheDir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, "*" + CACHE_FILE_SUFFIX)) {
+            for (Path file : stream) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    files.add(new CachedFile(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                } catch (NoSuchFileException e) {
+                    // Evicted meanwhile
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to list generation cache: {}", cacheDir, e);
+        }
+        return files;
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> generation) {
+        try {
+            return generation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedFile(Path path, long size, long lastModified) {
+    }
+}
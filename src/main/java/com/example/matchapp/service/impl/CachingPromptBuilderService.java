@@ -0,0 +1,106 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.PromptProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.metrics.PromptCacheMetrics;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.PromptBuilderService;
+import com.example.matchapp.util.BoundedTtlCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Caching decorator for the template prompt builder.
+ * A prompt depends only on a few profile fields and the template, so it is cached under a fingerprint of
+ * exactly those values. Retries, hedged requests and repeated generations for an unchanged profile reuse
+ * the cached string instead of rendering it again, and a profile edit that changes the prompt simply
+ * produces a different fingerprint, so no invalidation is needed.
+ */
+@Service
+@Primary
+public class CachingPromptBuilderService implements PromptBuilderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingPromptBuilderService.class);
+
+    private final TemplatePromptBuilderService delegate;
+    private final PromptCacheMetrics metrics;
+    private final boolean enabled;
+    private final String templateVersion;
+    private final BoundedTtlCache<PromptFingerprint, String> cache;
+
+    public CachingPromptBuilderService(
+            TemplatePromptBuilderService delegate,
+            PromptProperties properties,
+            PromptCacheMetrics metrics) {
+        if (delegate == null) {
+            throw new ConfigurationException("PromptBuilderService delegate cannot be null", "delegate", "null");
+        }
+        if (properties == null) {
+            throw new ConfigurationException("PromptProperties cannot be null", "properties", "null");
+        }
+        if (metrics == null) {
+            throw new ConfigurationException("PromptCacheMetrics cannot be null", "metrics", "null");
+        }
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.enabled = properties.getCache().isEnabled();
+        this.templateVersion = delegate.getTemplateVersion();
+        this.cache = new BoundedTtlCache<>(properties.getCache().getMaxSize(), properties.getCache().getTtl());
+
+        logger.info("Prompt cache {} (max size: {}, ttl: {} ms)", enabled ? "enabled" : "disabled",
+                properties.getCache().getMaxSize(), properties.getCache().getTtl());
+    }
+
+    @Override
+    public String buildPrompt(ProfileEntity profile) {
+        if (!enabled) {
+            return delegate.buildPrompt(profile);
+        }
+
+        PromptFingerprint fingerprint = PromptFingerprint.of(profile, templateVersion);
+        Optional<String> cached = cache.get(fingerprint);
+        if (cached.isPresent()) {
+            metrics.recordHit();
+            logger.debug("Prompt cache hit for profile {}", profile.getId());
+            return cached.get();
+        }
+
+        metrics.recordMiss();
+        String prompt = delegate.buildPrompt(profile);
+        cache.put(fingerprint, prompt);
+        metrics.updateSize(cache.size());
+        return prompt;
+    }
+
+    /**
+     * The values a prompt is built from. Two profiles with equal fingerprints get the same prompt.
+     * The fingerprint refers to the profile's existing strings, so building one copies no text.
+     */
+    record PromptFingerprint(
+            int age,
+            String ethnicity,
+            Gender gender,
+            String myersBriggsPersonalityType,
+            String firstName,
+            String lastName,
+            String bio,
+            String templateVersion) {
+
+        static PromptFingerprint of(ProfileEntity profile, String templateVersion) {
+            return new PromptFingerprint(
+                    profile.getAge(),
+                    profile.getEthnicity(),
+                    profile.getGender(),
+                    profile.getMyersBriggsPersonalityType(),
+                    profile.getFirstName(),
+                    profile.getLastName(),
+                    profile.getBio(),
+                    templateVersion);
+        }
+    }
+}
@@ -12,6 +12,9 @@ import java.util.Map;
 /**
  * Enhanced implementation of PromptBuilderService that creates rich, detailed prompts
  * using all profile attributes to generate high-quality, personalized images.
+ * {@link TemplatePromptBuilderService} renders the same prompt from a precompiled template and is the one
+ * used by default, behind {@link CachingPromptBuilderService}; this implementation is kept as the reference
+ * it is tested and benchmarked against.
  */
 @Service
 public class DefaultPromptBuilderService implements PromptBuilderService {
@@ -50,10 +53,7 @@ public class DefaultPromptBuilderService implements PromptBuilderService {
     @Override
     public String buildPrompt(ProfileEntity profile) {
         // Get personality traits based on Myers-Briggs type
-        String personalityTraits = PERSONALITY_TRAITS.getOrDefault(
-                profile.getMyersBriggsPersonalityType(),
-                "with a natural and authentic expression"
-        );
+        String personalityTraits = personalityTraits(profile.getMyersBriggsPersonalityType());
 
         // Convert gender to English for better OpenAI results
         String genderTerm = genderToEnglish(profile.getGender());
@@ -91,13 +91,23 @@ public class DefaultPromptBuilderService implements PromptBuilderService {
         return prompt;
     }
 
+    /**
+     * Describes the visual characteristics of a Myers-Briggs personality type.
+     *
+     * @param personalityType the Myers-Briggs type from the profile
+     * @return the description, or a neutral one for unknown types
+     */
+    static String personalityTraits(String personalityType) {
+        return PERSONALITY_TRAITS.getOrDefault(personalityType, "with a natural and authentic expression");
+    }
+
     /**
      * Converts gender string to English terms for better OpenAI results.
      * 
      * @param gender the gender string from the profile
      * @return the English term for the gender
      */
-    private String genderToEnglish(com.example.matchapp.model.Gender gender) {
+    static String genderToEnglish(com.example.matchapp.model.Gender gender) {
         if (gender == null) {
             return "person";
         }
@@ -0,0 +1,118 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.ImageBufferPoolProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.metrics.ImageBufferPoolMetrics;
+import com.example.matchapp.service.ImageBufferPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ImageBufferPool backed by direct buffers.
+ * Buffers are allocated lazily, up to the configured maximum, and kept for reuse once released, so the
+ * off-heap memory in use is bounded by {@code maxBuffers * bufferSize}. When all buffers are borrowed, a heap
+ * buffer of the same size is handed out instead of blocking; it is small enough to stay out of G1's
+ * humongous regions and is simply dropped on release.
+ */
+@Service
+public class DirectImageBufferPool implements ImageBufferPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectImageBufferPool.class);
+
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final BlockingQueue<ByteBuffer> idle;
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final ImageBufferPoolMetrics metrics;
+
+    /**
+     * Creates a pool with the default settings that records no metrics, for services constructed outside of Spring.
+     */
+    public DirectImageBufferPool() {
+        this(new ImageBufferPoolProperties(), ImageBufferPoolMetrics.noop());
+    }
+
+    @Autowired
+    public DirectImageBufferPool(ImageBufferPoolProperties properties, ImageBufferPoolMetrics metrics) {
+        if (properties == null) {
+            throw new ConfigurationException("ImageBufferPoolProperties cannot be null", "properties", "null");
+        }
+        if (metrics == null) {
+            throw new ConfigurationException("ImageBufferPoolMetrics cannot be null", "metrics", "null");
+        }
+        if (properties.getBufferSize() < 4) {
+            throw new ConfigurationException("Image buffer size must be at least 4 bytes",
+                    "imagegen.buffer-pool.buffer-size", String.valueOf(properties.getBufferSize()));
+        }
+        if (properties.getMaxBuffers() <= 0) {
+            throw new ConfigurationException("Maximum number of image buffers must be positive",
+                    "imagegen.buffer-pool.max-buffers", String.valueOf(properties.getMaxBuffers()));
+        }
+        this.bufferSize = properties.getBufferSize();
+        this.maxBuffers = properties.getMaxBuffers();
+        this.idle = new ArrayBlockingQueue<>(maxBuffers);
+        this.metrics = metrics;
+
+        metrics.bindPool(this::getInUseCount, this::getIdleCount, maxBuffers, bufferSize);
+        logger.info("Initialized image buffer pool with up to {} direct buffers of {} bytes", maxBuffers, bufferSize);
+    }
+
+    @Override
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = idle.poll();
+        if (buffer != null) {
+            metrics.recordReused();
+            return buffer;
+        }
+        if (allocated.incrementAndGet() <= maxBuffers) {
+            metrics.recordAllocated();
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        allocated.decrementAndGet();
+        metrics.recordExhausted();
+        return ByteBuffer.allocate(bufferSize);
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+        // Heap fallbacks are left to the garbage collector
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        buffer.clear();
+        if (!idle.offer(buffer)) {
+            // Not one of ours; the pool is already full
+            logger.warn("Released a buffer that doesn't belong to the image buffer pool");
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Returns the number of direct buffers currently borrowed.
+     *
+     * @return the number of borrowed buffers
+     */
+    public int getInUseCount() {
+        return Math.max(0, Math.min(allocated.get(), maxBuffers) - idle.size());
+    }
+
+    /**
+     * Returns the number of direct buffers waiting in the pool.
+     *
+     * @return the number of idle buffers
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+}
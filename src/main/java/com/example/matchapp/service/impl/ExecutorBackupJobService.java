@@ -0,0 +1,138 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.model.BackupJob;
+import com.example.matchapp.service.BackupJobService;
+import com.example.matchapp.service.BackupProgress;
+import com.example.matchapp.service.ImageBackupService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of BackupJobService that runs backups on a single background thread.
+ * Running one backup at a time keeps backups from competing with each other for disk bandwidth.
+ * A request for a directory whose backup is still queued is merged into the queued job, since that job
+ * will see the latest files anyway; once a backup has started, a new request queues a new job.
+ */
+@Service
+public class ExecutorBackupJobService implements BackupJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorBackupJobService.class);
+    private static final int MAX_RECENT_JOBS = 50;
+
+    private final ImageBackupService imageBackupService;
+    private final ExecutorService executor;
+    private final Map<Path, BackupJob> queuedJobs = new HashMap<>();
+    private final Map<String, BackupJob> recentJobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BackupJob> eldest) {
+            return size() > MAX_RECENT_JOBS && eldest.getValue().isFinished();
+        }
+    };
+
+    public ExecutorBackupJobService(ImageBackupService imageBackupService) {
+        if (imageBackupService == null) {
+            throw new NullPointerException("ImageBackupService cannot be null");
+        }
+        this.imageBackupService = imageBackupService;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backup-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public synchronized BackupJob submitBackup(Path sourceDir) {
+        Path key = sourceDir.toAbsolutePath().normalize();
+
+        BackupJob queued = queuedJobs.get(key);
+        if (queued != null) {
+            queued.recordCoalescedRequest();
+            logger.info("Backup of {} is already queued as job {}, merging request", key, queued.getId());
+            return queued;
+        }
+
+        BackupJob job = new BackupJob(UUID.randomUUID().toString(), key.toString());
+        queuedJobs.put(key, job);
+        recentJobs.put(job.getId(), job);
+        executor.execute(() -> run(job, key));
+
+        logger.info("Queued backup job {} for {}", job.getId(), key);
+        return job;
+    }
+
+    @Override
+    public synchronized Optional<BackupJob> getJob(String jobId) {
+        return Optional.ofNullable(recentJobs.get(jobId));
+    }
+
+    @Override
+    public synchronized List<BackupJob> getRecentJobs() {
+        List<BackupJob> jobs = new ArrayList<>(recentJobs.values());
+        Collections.reverse(jobs);
+        return jobs;
+    }
+
+    /**
+     * Stops accepting jobs and gives a running backup a chance to finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Backup job still running at shutdown, interrupting it");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(BackupJob job, Path sourceDir) {
+        synchronized (this) {
+            // From now on, new requests need a new job to pick up files changed during this backup
+            queuedJobs.remove(sourceDir, job);
+        }
+
+        try {
+            job.markRunning();
+            logger.info("Started backup job {} for {}", job.getId(), sourceDir);
+
+            // The backup reports the number of files as it finds them, so the images are walked only once
+            int filesBackedUp = imageBackupService.createBackup(sourceDir, new BackupProgress() {
+                @Override
+                public void filesFound(int files) {
+                    job.recordFilesTotal(files);
+                }
+
+                @Override
+                public void fileProcessed() {
+                    job.recordFileProcessed();
+                }
+            });
+            job.markCompleted(filesBackedUp);
+            logger.info("Backup job {} completed. {} files backed up.", job.getId(), filesBackedUp);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Backup job {} failed", job.getId(), e);
+            job.markFailed(e.getMessage());
+        }
+    }
+}
@@ -1,25 +1,52 @@
 package com.example.matchapp.service.impl;
 
 import com.example.matchapp.config.BackupProperties;
+import com.example.matchapp.metrics.BackupMetrics;
+import com.example.matchapp.model.BackupArchiveStats;
+import com.example.matchapp.model.BackupFormat;
+import com.example.matchapp.model.BackupInfo;
+import com.example.matchapp.service.BackupProgress;
 import com.example.matchapp.service.ImageBackupService;
+import com.example.matchapp.util.AtomicFiles;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of ImageBackupService that uses the file system for backup and restore operations.
+ * Backups are either directory trees, whose files are copied in parallel by a {@link ParallelCopyEngine},
+ * or single ZIP archives written by {@link ZipBackupArchive}.
+ * Before a backup reads any content, it can take a snapshot of the images directory by hard-linking every file
+ * into a staging directory. Images are replaced by atomic moves, never rewritten in place, so the snapshot keeps
+ * the versions that existed when it was taken while image generation carries on.
+ * Backups are tracked in a persisted {@link BackupCatalog}, so listing, finding the latest backup and retention
+ * don't scan the backups directory. Expired backups are renamed out of the way and deleted in the background.
  */
 @Service
 public class FileSystemImageBackupService implements ImageBackupService {
@@ -27,16 +54,51 @@ public class FileSystemImageBackupService implements ImageBackupService {
     private static final Logger logger = LoggerFactory.getLogger(FileSystemImageBackupService.class);
     private static final DateTimeFormatter BACKUP_FOLDER_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss-SSS");
     private static final String PROFILES_JSON_FILENAME = "profiles_with_images.json";
+    private static final String SNAPSHOT_DIR_PREFIX = ".snapshot-";
+    private static final String TRASH_PREFIX = ".trash-";
 
     private final BackupProperties backupProperties;
+    private final BackupMetrics backupMetrics;
+    private final ParallelCopyEngine copyEngine;
+    private final Map<Path, BackupCatalog> catalogs = new ConcurrentHashMap<>();
+    private final ExecutorService deletionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "backup-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Autowired
-    public FileSystemImageBackupService(BackupProperties backupProperties) {
+    public FileSystemImageBackupService(BackupProperties backupProperties, BackupMetrics backupMetrics) {
         if (backupProperties == null) {
             throw new NullPointerException("BackupProperties cannot be null");
         }
+        if (backupMetrics == null) {
+            throw new NullPointerException("BackupMetrics cannot be null");
+        }
         // Create defensive copy to prevent external modification
         this.backupProperties = copyBackupProperties(backupProperties);
+        this.backupMetrics = backupMetrics;
+        this.copyEngine = new ParallelCopyEngine(
+                Math.max(1, backupProperties.getCopyThreads()),
+                Math.max(1, backupProperties.getCopyQueueCapacity()));
+    }
+
+    /**
+     * Stops the copy workers when the application shuts down and lets pending deletions finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        copyEngine.shutdown();
+        deletionExecutor.shutdown();
+        try {
+            if (!deletionExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Expired backups are still being deleted at shutdown; the rest is deleted on next start");
+                deletionExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            deletionExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -51,6 +113,11 @@ public class FileSystemImageBackupService implements ImageBackupService {
         copy.setAutoBackup(original.isAutoBackup());
         copy.setMaxBackups(original.getMaxBackups());
         copy.setDefaultOverwrite(original.isDefaultOverwrite());
+        copy.setIncremental(original.isIncremental());
+        copy.setCopyThreads(original.getCopyThreads());
+        copy.setCopyQueueCapacity(original.getCopyQueueCapacity());
+        copy.setFormat(original.getFormat());
+        copy.setSnapshot(original.isSnapshot());
         return copy;
     }
 
@@ -63,8 +130,23 @@ public class FileSystemImageBackupService implements ImageBackupService {
      */
     @Override
     public int createBackup(Path sourceDir) throws IOException {
+        return createBackup(sourceDir, BackupProgress.NONE);
+    }
+
+    /**
+     * Creates a backup of images using the configured backup directory, reporting progress as files are processed.
+     *
+     * @param sourceDir the directory containing images to backup
+     * @param progress receives the number of files and each backed-up file
+     * @return the number of files backed up
+     * @throws IOException if there's an error during the backup process
+     */
+    @Override
+    public int createBackup(Path sourceDir, BackupProgress progress) throws IOException {
         Path backupDir = Paths.get(backupProperties.getBackupDir());
-        int filesBackedUp = backupImages(sourceDir, backupDir);
+        int filesBackedUp = backupProperties.getFormat() == BackupFormat.ARCHIVE
+                ? backupImagesToArchive(sourceDir, backupDir, progress).files()
+                : backupImages(sourceDir, backupDir, progress);
 
         // Manage maximum number of backups if configured
         if (backupProperties.getMaxBackups() > 0) {
@@ -74,9 +156,40 @@ public class FileSystemImageBackupService implements ImageBackupService {
         return filesBackedUp;
     }
 
+    /**
+     * Creates a backup of all images in the specified source directory.
+     * Every backup gets a manifest with the path, size, modification time and content hash of each file.
+     * When incremental backups are enabled, files whose content matches a file of the previous backup are
+     * hard-linked to it instead of copied, so backup time and disk usage scale with the number of changed
+     * files. Size and modification time are compared first; a file is only hashed if they differ.
+     *
+     * @param sourceDir the directory containing images to backup
+     * @param backupDir the directory where the backup will be stored
+     * @return the number of files in the backup, whether copied or linked
+     * @throws IOException if there's an error during the backup process
+     */
     @Override
     public int backupImages(Path sourceDir, Path backupDir) throws IOException {
+        return backupImages(sourceDir, backupDir, BackupProgress.NONE);
+    }
+
+    private int backupImages(Path sourceDir, Path backupDir, BackupProgress progress) throws IOException {
         logger.info("Starting backup of images from {} to {}", sourceDir, backupDir);
+        return withSnapshot(sourceDir, backupDir, progress,
+                snapshotDir -> backupDirectory(snapshotDir, backupDir, progress::fileProcessed));
+    }
+
+    private int backupDirectory(Path sourceDir, Path backupDir, Runnable onFileProcessed) throws IOException {
+        // Look up the previous backup before creating the new one
+        Path previousBackup = backupProperties.isIncremental() ? findLatestBackup(backupDir) : null;
+        BackupManifest previousManifest = previousBackup != null ? BackupManifest.read(previousBackup) : null;
+        Map<String, BackupManifest.Entry> previousEntries = new HashMap<>();
+        Map<String, String> previousPathsByHash = new HashMap<>();
+        if (previousManifest != null) {
+            previousEntries.putAll(previousManifest.entriesByPath());
+            previousManifest.entries().forEach(entry -> previousPathsByHash.putIfAbsent(entry.sha256(), entry.path()));
+            logger.debug("Backing up incrementally against {} ({} files)", previousBackup, previousEntries.size());
+        }
 
         // Create a timestamped backup folder
         String timestamp = LocalDateTime.now().format(BACKUP_FOLDER_FORMAT);
@@ -85,33 +198,213 @@ public class FileSystemImageBackupService implements ImageBackupService {
 
         logger.debug("Created backup folder: {}", backupFolderPath);
 
-        // Copy all files from source directory to backup directory
-        final int[] fileCount = {0};
+        // Copy changed files and link unchanged ones, in parallel
+        long startTime = System.nanoTime();
+        AtomicInteger linkedCount = new AtomicInteger();
+        AtomicLong bytesCopied = new AtomicLong();
+        AtomicLong totalBytes = new AtomicLong();
+        List<BackupManifest.Entry> entries = Collections.synchronizedList(new ArrayList<>());
+
+        int fileCount = copyEngine.forEachFile(sourceDir, (file, attrs) -> {
+            if (AtomicFiles.isTemporaryFile(file)) {
+                // An image still being written; its previous version, if any, is backed up instead
+                return false;
+            }
 
-        Files.walkFileTree(sourceDir, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                // Get relative path from source directory
-                Path relativePath = sourceDir.relativize(file);
-                Path targetPath = backupFolderPath.resolve(relativePath);
-
-                // Create parent directories if they don't exist
-                Path parent = targetPath.getParent();
-                if (parent != null) {
-                    Files.createDirectories(parent);
-                }
+            // Get relative path from source directory
+            Path relativePath = sourceDir.relativize(file);
+            Path targetPath = backupFolderPath.resolve(relativePath);
+            String manifestPath = toManifestPath(relativePath);
+
+            long size = attrs.size();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            BackupManifest.Entry previous = previousEntries.get(manifestPath);
+
+            // Trust the previous hash if size and modification time are unchanged
+            String hash = previous != null && previous.size() == size && previous.lastModified() == lastModified
+                    ? previous.sha256()
+                    : BackupManifest.sha256(file);
+
+            String linkSource = previous != null && previous.sha256().equals(hash)
+                    ? previous.path()
+                    : previousPathsByHash.get(hash);
+
+            copyEngine.createParentDirectories(targetPath);
+            if (linkSource != null && linkFromPreviousBackup(previousBackup.resolve(linkSource), targetPath)) {
+                linkedCount.incrementAndGet();
+                backupMetrics.recordFileLinked();
+                logger.debug("Linked unchanged file: {}", relativePath);
+            } else {
+                long bytes = copyEngine.copy(file, targetPath);
+                bytesCopied.addAndGet(bytes);
+                backupMetrics.recordFileCopied(BackupMetrics.BACKUP, bytes);
+                logger.debug("Backed up file: {}", relativePath);
+            }
 
-                // Copy the file
-                Files.copy(file, targetPath, StandardCopyOption.REPLACE_EXISTING);
-                fileCount[0]++;
+            entries.add(new BackupManifest.Entry(manifestPath, size, lastModified, hash));
+            totalBytes.addAndGet(size);
+            onFileProcessed.run();
+            return true;
+        });
 
-                logger.debug("Backed up file: {}", relativePath);
-                return FileVisitResult.CONTINUE;
+        // Keep manifests stable regardless of the order in which workers finished
+        entries.sort(Comparator.comparing(BackupManifest.Entry::path));
+        new BackupManifest(timestamp, entries).write(backupFolderPath);
+        catalogFor(backupDir).add(new BackupInfo(timestamp, Instant.now(), BackupFormat.DIRECTORY,
+                fileCount, totalBytes.get()));
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - startTime);
+        backupMetrics.recordOperation(BackupMetrics.BACKUP, bytesCopied.get(), duration);
+
+        logger.info("Backup completed. {} files backed up to {} ({} copied, {} linked from previous backup) in {} ms",
+                fileCount, backupFolderPath, fileCount - linkedCount.get(), linkedCount.get(), duration.toMillis());
+        return fileCount;
+    }
+
+    /**
+     * Creates a backup of all images in the specified source directory as a single ZIP archive.
+     *
+     * @param sourceDir the directory containing images to backup
+     * @param backupDir the directory where the archive will be stored
+     * @return statistics about the written archive, including file count and compression
+     * @throws IOException if there's an error during the backup process
+     */
+    @Override
+    public BackupArchiveStats backupImagesToArchive(Path sourceDir, Path backupDir) throws IOException {
+        return backupImagesToArchive(sourceDir, backupDir, BackupProgress.NONE);
+    }
+
+    private BackupArchiveStats backupImagesToArchive(Path sourceDir, Path backupDir, BackupProgress progress)
+            throws IOException {
+        logger.info("Starting archive backup of images from {} to {}", sourceDir, backupDir);
+        Files.createDirectories(backupDir);
+
+        String timestamp = LocalDateTime.now().format(BACKUP_FOLDER_FORMAT);
+        Path archiveFile = backupDir.resolve(timestamp + ZipBackupArchive.EXTENSION);
+        BackupArchiveStats stats = withSnapshot(sourceDir, backupDir, progress,
+                snapshotDir -> ZipBackupArchive.write(snapshotDir, archiveFile, progress::fileProcessed));
+
+        catalogFor(backupDir).add(new BackupInfo(archiveFile.getFileName().toString(), Instant.now(),
+                BackupFormat.ARCHIVE, stats.files(), stats.compressedBytes()));
+        backupMetrics.recordArchive(stats.compressedBytes(), stats.compressionRatio());
+        backupMetrics.recordOperation(BackupMetrics.BACKUP, stats.uncompressedBytes(), stats.duration());
+
+        logger.info("Archive backup completed. {} files ({} bytes) written to {} as {} bytes "
+                        + "(compression ratio {}, {} bytes/s)",
+                stats.files(), stats.uncompressedBytes(), archiveFile, stats.compressedBytes(),
+                String.format("%.2f", stats.compressionRatio()), stats.throughputBytesPerSecond());
+        return stats;
+    }
+
+    /**
+     * Work performed on a consistent view of the images directory.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    private interface SnapshotAction<T> {
+        T run(Path snapshotDir) throws IOException;
+    }
+
+    /**
+     * Runs an action against a snapshot of the source directory, or against the directory itself
+     * if snapshots are disabled. The snapshot is deleted afterwards.
+     * The number of files is reported from the snapshot, or estimated from the previous backup without one,
+     * so progress doesn't need a separate walk of the images.
+     *
+     * @param sourceDir the directory containing images to backup
+     * @param backupDir the backups root directory, which holds the snapshot while the action runs
+     * @param progress receives the number of files to back up
+     * @param action the action to run
+     * @return the result of the action
+     * @throws IOException if the snapshot can't be created or the action fails
+     */
+    private <T> T withSnapshot(Path sourceDir, Path backupDir, BackupProgress progress, SnapshotAction<T> action)
+            throws IOException {
+        if (!backupProperties.isSnapshot()) {
+            catalogFor(backupDir).latest()
+                    .filter(previous -> previous.fileCount() >= 0)
+                    .ifPresent(previous -> progress.filesFound(previous.fileCount()));
+            return action.run(sourceDir);
+        }
+
+        Path snapshotDir = backupDir.resolve(SNAPSHOT_DIR_PREFIX + UUID.randomUUID());
+        try {
+            int files = createSnapshot(sourceDir, snapshotDir);
+            logger.debug("Took snapshot of {} files from {} in {}", files, sourceDir, snapshotDir);
+            progress.filesFound(files);
+            return action.run(snapshotDir);
+        } finally {
+            if (Files.exists(snapshotDir)) {
+                deleteDirectory(snapshotDir);
+            }
+        }
+    }
+
+    /**
+     * Hard-links every complete file of the source directory into the snapshot directory.
+     * Linking only touches metadata, so taking a snapshot is fast regardless of image sizes.
+     * Files are copied if they can't be linked, e.g. because the backups are on a different file system.
+     *
+     * @param sourceDir the directory to snapshot
+     * @param snapshotDir the directory to create the snapshot in
+     * @return the number of files in the snapshot
+     * @throws IOException if the snapshot can't be created
+     */
+    private int createSnapshot(Path sourceDir, Path snapshotDir) throws IOException {
+        Files.createDirectories(snapshotDir);
+        return copyEngine.forEachFile(sourceDir, (file, attrs) -> {
+            if (AtomicFiles.isTemporaryFile(file)) {
+                return false;
             }
+
+            Path target = snapshotDir.resolve(sourceDir.relativize(file));
+            copyEngine.createParentDirectories(target);
+            try {
+                Files.createLink(target, file);
+            } catch (NoSuchFileException e) {
+                // Deleted since the directory walk saw it
+                return false;
+            } catch (UnsupportedOperationException | IOException e) {
+                try {
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                } catch (NoSuchFileException deleted) {
+                    return false;
+                }
+            }
+            return true;
         });
+    }
 
-        logger.info("Backup completed. {} files backed up to {}", fileCount[0], backupFolderPath);
-        return fileCount[0];
+    /**
+     * Hard-links a file of the previous backup into the new backup.
+     *
+     * @param existing the file in the previous backup
+     * @param link the path of the file in the new backup
+     * @return true if the link was created, false if the file has to be copied instead
+     */
+    private boolean linkFromPreviousBackup(Path existing, Path link) {
+        if (!Files.isRegularFile(existing)) {
+            return false;
+        }
+        try {
+            Files.createLink(link, existing);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            // E.g. the file system doesn't support hard links, or the backups span devices
+            logger.debug("Could not link {} to {}, copying instead: {}", link, existing, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Converts a relative path to the platform-independent form used in manifests.
+     *
+     * @param relativePath the path relative to the source directory
+     * @return the path with '/' as separator
+     */
+    private static String toManifestPath(Path relativePath) {
+        return relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), "/");
     }
 
     /**
@@ -126,69 +419,157 @@ public class FileSystemImageBackupService implements ImageBackupService {
     @Override
     public int restoreImages(Path backupDir, Path targetDir, boolean overwrite) throws IOException {
         logger.info("Starting restore of images from {} to {}", backupDir, targetDir);
+        if (!isBackup(backupDir)) {
+            // Relativizing a regular file against itself would make the images directory the copy target
+            throw new IOException("Not a backup directory or archive: " + backupDir);
+        }
 
         // Create target directory if it doesn't exist
         Files.createDirectories(targetDir);
 
-        // Copy all files from backup directory to target directory
-        final int[] fileCount = {0};
+        Set<String> restored = ConcurrentHashMap.newKeySet();
+        if (ZipBackupArchive.isArchive(backupDir)) {
+            int filesRestored = ZipBackupArchive.extractAll(backupDir, targetDir, overwrite, restored::add);
+            deleteStaleVariants(targetDir, restored);
+            logger.info("Restore completed. {} files restored from archive to {}", filesRestored, targetDir);
+            return filesRestored;
+        }
 
-        Files.walkFileTree(backupDir, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                // Get relative path from backup directory
-                Path relativePath = backupDir.relativize(file);
-                Path targetPath = targetDir.resolve(relativePath);
-
-                // Create parent directories if they don't exist
-                Path parent = targetPath.getParent();
-                if (parent != null) {
-                    Files.createDirectories(parent);
-                }
+        // Copy all files from backup directory to target directory, in parallel
+        long startTime = System.nanoTime();
+        AtomicLong bytesCopied = new AtomicLong();
+
+        int fileCount = copyEngine.forEachFile(backupDir, (file, attrs) -> {
+            // Get relative path from backup directory
+            Path relativePath = backupDir.relativize(file);
+            Path targetPath = targetDir.resolve(relativePath);
+
+            // Check if file exists and if we should overwrite
+            if (!Files.exists(targetPath) || overwrite) {
+                // Images may be served while they're restored, so each one is replaced atomically
+                long bytes = copyEngine.replace(file, targetPath);
+                bytesCopied.addAndGet(bytes);
+                backupMetrics.recordFileCopied(BackupMetrics.RESTORE, bytes);
+                restored.add(toManifestPath(relativePath));
+                logger.debug("Restored file: {}", relativePath);
+                return true;
+            }
+            logger.debug("Skipped existing file: {}", relativePath);
+            return false;
+        });
+        deleteStaleVariants(targetDir, restored);
 
-                // Check if file exists and if we should overwrite
-                if (!Files.exists(targetPath) || overwrite) {
-                    // Copy the file
-                    Files.copy(file, targetPath, StandardCopyOption.REPLACE_EXISTING);
-                    fileCount[0]++;
-                    logger.debug("Restored file: {}", relativePath);
-                } else {
-                    logger.debug("Skipped existing file: {}", relativePath);
-                }
+        backupMetrics.recordOperation(BackupMetrics.RESTORE, bytesCopied.get(),
+                Duration.ofNanos(System.nanoTime() - startTime));
 
-                return FileVisitResult.CONTINUE;
+        logger.info("Restore completed. {} files restored to {}", fileCount, targetDir);
+        return fileCount;
+    }
+
+    /**
+     * Restores a single image from a backup.
+     * For archive backups, the image is looked up in the archive's central directory and only its data is read.
+     *
+     * @param backup the backup directory or archive
+     * @param imagePath the path of the image relative to the backup root, e.g. its file name
+     * @param targetDir the directory where the image will be restored
+     * @param overwrite whether to overwrite an existing file in the target directory
+     * @return true if the image was restored, false if the backup doesn't contain it or it exists and overwrite is off
+     * @throws IOException if there's an error during the restore process
+     */
+    @Override
+    public boolean restoreImage(Path backup, String imagePath, Path targetDir, boolean overwrite) throws IOException {
+        logger.info("Restoring image {} from {} to {}", imagePath, backup, targetDir);
+        Path target = resolveWithin(targetDir, imagePath);
+
+        if (ZipBackupArchive.isArchive(backup)) {
+            if (!ZipBackupArchive.extractEntry(backup, imagePath, targetDir, overwrite)) {
+                return false;
             }
-        });
+            deleteStaleVariants(targetDir, Set.of(imagePath));
+            return true;
+        }
+
+        Path source = resolveWithin(backup, imagePath);
+        if (!Files.isRegularFile(source)) {
+            logger.debug("Backup {} doesn't contain image {}", backup, imagePath);
+            return false;
+        }
+        if (Files.exists(target) && !overwrite) {
+            logger.debug("Skipped existing file: {}", imagePath);
+            return false;
+        }
+        copyEngine.replace(source, target);
+        deleteStaleVariants(targetDir, Set.of(imagePath));
+        return true;
+    }
 
-        logger.info("Restore completed. {} files restored to {}", fileCount[0], targetDir);
-        return fileCount[0];
+    /**
+     * Deletes the cached variants of restored images, which were made from the images they replaced.
+     * Variants restored along with their image are kept.
+     *
+     * @param targetDir the images directory restored to
+     * @param restored the restored files, relative to the images directory with '/' as separator
+     * @throws IOException if a variant can't be deleted
+     */
+    private static void deleteStaleVariants(Path targetDir, Set<String> restored) throws IOException {
+        for (String path : restored) {
+            // Originals sit at the top of the images directory; nested files are variants themselves
+            if (path.indexOf('/') >= 0) {
+                continue;
+            }
+            FileSystemImageCacheService.deleteVariants(targetDir, path, variant -> restored.contains(
+                    FileSystemImageCacheService.VARIANTS_DIR + '/' + variant + '/' + path));
+        }
+    }
+
+    /**
+     * Resolves a relative path against a directory, rejecting paths that would escape it.
+     *
+     * @param dir the directory
+     * @param relativePath the relative path
+     * @return the resolved path
+     * @throws IOException if the path points outside the directory
+     */
+    private static Path resolveWithin(Path dir, String relativePath) throws IOException {
+        Path normalizedDir = dir.toAbsolutePath().normalize();
+        Path resolved = normalizedDir.resolve(relativePath).normalize();
+        if (!resolved.startsWith(normalizedDir) || resolved.equals(normalizedDir)) {
+            throw new IOException("Path is outside the backup directory: " + relativePath);
+        }
+        return resolved;
     }
 
     /**
      * Lists available backups.
+     * The list comes from the backup catalog, so the backups directory isn't scanned.
      *
      * @param backupsRootDir the root directory where backups are stored
-     * @return an array of paths to available backups
+     * @return an array of paths to available backups, oldest first
      * @throws IOException if there's an error accessing the backups directory
      */
     @Override
     public Path[] listBackups(Path backupsRootDir) throws IOException {
         logger.info("Listing backups in {}", backupsRootDir);
 
-        // Create the backups directory if it doesn't exist
-        if (!Files.exists(backupsRootDir)) {
-            Files.createDirectories(backupsRootDir);
-            logger.debug("Created backups directory: {}", backupsRootDir);
-            return new Path[0];
-        }
+        BackupCatalog catalog = catalogFor(backupsRootDir);
+        Path[] backups = catalog.list().stream()
+                .map(catalog::pathOf)
+                .toArray(Path[]::new);
 
-        // List all directories in the backups root directory
-        List<Path> backupFolders = Files.list(backupsRootDir)
-                .filter(Files::isDirectory)
-                .collect(Collectors.toList());
+        logger.info("Found {} backups", backups.length);
+        return backups;
+    }
 
-        logger.info("Found {} backups", backupFolders.size());
-        return backupFolders.toArray(new Path[0]);
+    /**
+     * Lists details of the available backups in the configured backup directory.
+     *
+     * @return the backups, oldest first
+     * @throws IOException if there's an error accessing the backups directory
+     */
+    @Override
+    public List<BackupInfo> listBackupInfo() throws IOException {
+        return catalogFor(Paths.get(backupProperties.getBackupDir())).list();
     }
 
     /**
@@ -202,6 +583,28 @@ public class FileSystemImageBackupService implements ImageBackupService {
         return listBackups(Paths.get(backupProperties.getBackupDir()));
     }
 
+    /**
+     * Finds a backup by name in the configured backup directory.
+     * Only directories and backup archives count as backups, so files such as the catalog can't be restored from.
+     *
+     * @param backupName the name of the backup directory or archive
+     * @return an Optional containing the backup if it is a backup directory or archive, or empty if not found
+     * @throws IllegalArgumentException if the name points outside the backup directory
+     */
+    @Override
+    public Optional<Path> findBackup(String backupName) {
+        Path backupsRootDir = Paths.get(backupProperties.getBackupDir()).toAbsolutePath().normalize();
+        Path backup = backupsRootDir.resolve(backupName).normalize();
+        if (!backup.startsWith(backupsRootDir) || backup.equals(backupsRootDir)) {
+            throw new IllegalArgumentException("Backup name is outside the backup directory: " + backupName);
+        }
+        return isBackup(backup) ? Optional.of(backup) : Optional.empty();
+    }
+
+    private static boolean isBackup(Path backup) {
+        return Files.isDirectory(backup) || ZipBackupArchive.isArchive(backup);
+    }
+
     /**
      * Restores images from the most recent backup to the target directory.
      *
@@ -212,58 +615,134 @@ public class FileSystemImageBackupService implements ImageBackupService {
     @Override
     public int restoreFromLatestBackup(Path targetDir) throws IOException {
         Path backupsRootDir = Paths.get(backupProperties.getBackupDir());
-        Path[] backups = listBackups(backupsRootDir);
+        Path latestBackup = findLatestBackup(backupsRootDir);
 
-        if (backups.length == 0) {
+        if (latestBackup == null) {
             logger.warn("No backups available to restore from");
             return -1;
         }
 
-        // Find the most recent backup (assuming timestamp-based folder names)
-        Path latestBackup = backups[backups.length - 1];
-        for (Path backup : backups) {
-            Path backupFileName = backup.getFileName();
-            Path latestBackupFileName = latestBackup.getFileName();
-
-            if (backupFileName != null && latestBackupFileName != null && 
-                backupFileName.toString().compareTo(latestBackupFileName.toString()) > 0) {
-                latestBackup = backup;
-            }
-        }
-
         logger.info("Restoring from latest backup: {}", latestBackup);
         return restoreImages(latestBackup, targetDir, backupProperties.isDefaultOverwrite());
     }
 
     /**
-     * Deletes old backups when the maximum number of backups is reached.
+     * Finds the most recent backup in the catalog.
+     * Backups that were removed from disk behind the catalog's back are dropped from it.
+     *
+     * @param backupsRootDir the root directory where backups are stored
+     * @return the most recent backup, or null if there are no backups
+     * @throws IOException if there's an error accessing the backups directory
+     */
+    private Path findLatestBackup(Path backupsRootDir) throws IOException {
+        BackupCatalog catalog = catalogFor(backupsRootDir);
+        Optional<BackupInfo> latest = catalog.latest();
+        while (latest.isPresent() && !Files.exists(catalog.pathOf(latest.get()))) {
+            logger.warn("Backup {} is in the catalog but no longer exists, removing it", latest.get().name());
+            catalog.remove(latest.get().name());
+            latest = catalog.latest();
+        }
+        return latest.map(catalog::pathOf).orElse(null);
+    }
+
+    /**
+     * Removes the oldest backups from the catalog when the maximum number of backups is exceeded.
+     * Removed backups are renamed to hidden directories right away and deleted in the background,
+     * so this doesn't wait for whole directory trees to be deleted.
      *
      * @param backupsRootDir the root directory where backups are stored
      * @param maxBackups the maximum number of backups to keep
-     * @throws IOException if there's an error accessing or deleting backups
+     * @throws IOException if there's an error accessing the catalog
      */
     private void cleanupOldBackups(Path backupsRootDir, int maxBackups) throws IOException {
         logger.debug("Checking if old backups need to be cleaned up (max: {})", maxBackups);
 
-        Path[] backups = listBackups(backupsRootDir);
-        if (backups.length <= maxBackups) {
-            logger.debug("No cleanup needed, {} backups exist (max: {})", backups.length, maxBackups);
+        BackupCatalog catalog = catalogFor(backupsRootDir);
+        List<BackupInfo> expired = catalog.removeOldest(maxBackups);
+        if (expired.isEmpty()) {
+            logger.debug("No cleanup needed, {} backups exist (max: {})", catalog.size(), maxBackups);
             return;
         }
 
-        // Sort backups by name (which should be timestamp-based)
-        List<Path> backupsList = new ArrayList<>(Arrays.asList(backups));
-        backupsList.sort(Comparator.comparing(p -> p.getFileName().toString()));
+        logger.info("Cleaning up {} old backups to maintain maximum of {}", expired.size(), maxBackups);
+        for (BackupInfo backup : expired) {
+            scheduleDeletion(catalog.pathOf(backup));
+        }
+    }
+
+    /**
+     * Moves a backup out of the way and deletes it in the background.
+     *
+     * @param backup the backup directory or archive
+     */
+    private void scheduleDeletion(Path backup) {
+        Path toDelete = backup;
+        try {
+            Files.deleteIfExists(BackupManifest.manifestFileFor(backup));
+            if (Files.exists(backup)) {
+                toDelete = backup.resolveSibling(TRASH_PREFIX + backup.getFileName() + "-" + UUID.randomUUID());
+                Files.move(backup, toDelete, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            // Not fatal: the backup is already out of the catalog, so delete it where it is
+            logger.warn("Could not move expired backup {} aside, deleting it in place", backup, e);
+            toDelete = backup;
+        }
 
-        // Calculate how many backups to delete
-        int backupsToDelete = backups.length - maxBackups;
-        logger.info("Cleaning up {} old backups to maintain maximum of {}", backupsToDelete, maxBackups);
+        Path target = toDelete;
+        deletionExecutor.execute(() -> {
+            try {
+                deletePath(target);
+                logger.info("Deleted old backup: {}", backup);
+            } catch (IOException e) {
+                logger.error("Failed to delete old backup {}", target, e);
+            }
+        });
+    }
+
+    /**
+     * Gets the catalog of a backups root directory, loading it on first use.
+     * Leftovers of deletions interrupted by a shutdown are deleted when the catalog is loaded.
+     *
+     * @param backupsRootDir the root directory where backups are stored
+     * @return the catalog
+     * @throws IOException if the catalog can't be loaded
+     */
+    private BackupCatalog catalogFor(Path backupsRootDir) throws IOException {
+        try {
+            return catalogs.computeIfAbsent(backupsRootDir.toAbsolutePath().normalize(), root -> {
+                try {
+                    BackupCatalog catalog = BackupCatalog.load(root);
+                    deleteLeftoverTrash(root);
+                    return catalog;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void deleteLeftoverTrash(Path backupsRootDir) throws IOException {
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(backupsRootDir, TRASH_PREFIX + "*")) {
+            for (Path leftover : leftovers) {
+                deletionExecutor.execute(() -> {
+                    try {
+                        deletePath(leftover);
+                    } catch (IOException e) {
+                        logger.error("Failed to delete leftover backup {}", leftover, e);
+                    }
+                });
+            }
+        }
+    }
 
-        // Delete the oldest backups
-        for (int i = 0; i < backupsToDelete; i++) {
-            Path backupToDelete = backupsList.get(i);
-            deleteDirectory(backupToDelete);
-            logger.info("Deleted old backup: {}", backupToDelete);
+    private void deletePath(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            deleteDirectory(path);
+        } else {
+            Files.deleteIfExists(path);
         }
     }
 
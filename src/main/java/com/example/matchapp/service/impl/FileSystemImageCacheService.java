@@ -1,24 +1,65 @@
 package com.example.matchapp.service.impl;
 
+import com.example.matchapp.exception.ConfigurationException;
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.ImageBufferPool;
 import com.example.matchapp.service.ImageCacheService;
+import com.example.matchapp.util.AtomicFiles;
+import com.example.matchapp.util.ImageFormats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * Implementation of ImageCacheService that uses the file system to store cached images.
+ * Images are written to a temporary file and atomically moved into place with {@link AtomicFiles}, so readers
+ * and backups only ever see complete images, even if the application crashes mid-write.
+ * Image bytes are moved between the heap and the file system in chunks through pooled direct buffers,
+ * so the JDK doesn't have to allocate a temporary direct buffer the size of the image for every read and write.
+ * Variants of an image are stored under the same file name in {@code variants/<variant>/} of the images directory.
  */
 @Service
 public class FileSystemImageCacheService implements ImageCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileSystemImageCacheService.class);
 
+    /**
+     * Directory, relative to the images directory, that holds a subdirectory of images per variant.
+     */
+    public static final String VARIANTS_DIR = "variants";
+
+    private final ImageBufferPool bufferPool;
+
+    /**
+     * Creates a cache service with its own buffer pool, for use outside of Spring.
+     */
+    public FileSystemImageCacheService() {
+        this(new DirectImageBufferPool());
+    }
+
+    @Autowired
+    public FileSystemImageCacheService(ImageBufferPool bufferPool) {
+        if (bufferPool == null) {
+            throw new ConfigurationException("ImageBufferPool cannot be null", "bufferPool", "null");
+        }
+        this.bufferPool = bufferPool;
+    }
+
     /**
      * Checks if an image exists in the file system cache for the given profile.
      * The image is considered to be in cache if a file with the profile's imageUrl exists
@@ -64,13 +105,105 @@ public class FileSystemImageCacheService implements ImageCacheService {
 
         Path imagePath = imagesDir.resolve(profile.getImageUrl());
         logger.info("Reading image from cache for profile: {}", profile.getId());
-        return Optional.of(Files.readAllBytes(imagePath));
+        try (FileChannel channel = FileChannel.open(imagePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Cached image is too large: " + imagePath);
+            }
+            byte[] image = new byte[(int) size];
+            ByteBuffer buffer = bufferPool.acquire();
+            try {
+                int offset = 0;
+                while (offset < image.length) {
+                    buffer.clear().limit(Math.min(buffer.capacity(), image.length - offset));
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Cached image was truncated while reading: " + imagePath);
+                    }
+                    buffer.flip();
+                    int read = buffer.remaining();
+                    buffer.get(image, offset, read);
+                    offset += read;
+                }
+            } finally {
+                bufferPool.release(buffer);
+            }
+            return Optional.of(image);
+        }
+    }
+
+    /**
+     * Writes the cached image of the given profile to a stream.
+     * The file is copied through a pooled direct buffer, so serving an image allocates no image-sized array.
+     *
+     * @param profile the profile to write the image of
+     * @param imagesDir the directory where images are stored
+     * @param target the stream to write the image to; it is not closed
+     * @return true if the image was written, false if it isn't in the cache
+     * @throws IOException if there's an error reading the image file or writing to the stream
+     */
+    @Override
+    public boolean writeImageFromCache(ProfileEntity profile, Path imagesDir, OutputStream target) throws IOException {
+        if (!hasImageInCache(profile, imagesDir)) {
+            return false;
+        }
+
+        copyTo(imagesDir.resolve(profile.getImageUrl()), target);
+        return true;
+    }
+
+    /**
+     * Detects the content type of the cached image of the given profile.
+     * Only the leading bytes of the image file are read.
+     *
+     * @param profile the profile to get the image content type for
+     * @param imagesDir the directory where images are stored
+     * @return an Optional containing the content type if the image is cached, or empty if not found
+     * @throws IOException if there's an error reading the image file
+     */
+    @Override
+    public Optional<String> getImageContentTypeFromCache(ProfileEntity profile, Path imagesDir) throws IOException {
+        if (!hasImageInCache(profile, imagesDir)) {
+            return Optional.empty();
+        }
+
+        byte[] header = new byte[ImageFormats.HEADER_LENGTH];
+        int length;
+        try (InputStream in = Files.newInputStream(imagesDir.resolve(profile.getImageUrl()))) {
+            length = in.readNBytes(header, 0, header.length);
+        }
+        return Optional.of(ImageFormats.detectContentType(header, length));
+    }
+
+    /**
+     * Copies a file to a stream through a pooled direct buffer.
+     *
+     * @param file the file to copy
+     * @param target the stream to copy the file to; it is not closed
+     * @throws IOException if there's an error reading the file or writing to the stream
+     */
+    private void copyTo(Path file, OutputStream target) throws IOException {
+        WritableByteChannel targetChannel = Channels.newChannel(target);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = bufferPool.acquire();
+            try {
+                while (channel.read(buffer.clear()) >= 0) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        targetChannel.write(buffer);
+                    }
+                }
+            } finally {
+                bufferPool.release(buffer);
+            }
+        }
     }
 
     /**
      * Puts an image in the file system cache for the given profile.
      * Writes the image bytes to a file in the specified images directory using the profile's imageUrl.
      * Creates the directory if it doesn't exist.
+     * The bytes are written and synced to a temporary file first, which then atomically replaces the image,
+     * so the image file is never observed half-written.
      *
      * @param profile the profile to cache the image for
      * @param imageBytes the image bytes to cache
@@ -89,11 +222,111 @@ public class FileSystemImageCacheService implements ImageCacheService {
 
         Path imagePath = imagesDir.resolve(profile.getImageUrl());
         logger.info("Caching image for profile: {}", profile.getId());
-        Files.write(imagePath, imageBytes);
+        writeAtomically(imagePath, imageBytes);
+        // Variants of the replaced image no longer match; they are created again from the new one
+        deleteVariants(imagesDir, profile.getImageUrl());
+    }
+
+    /**
+     * Resolves the file of a variant of the given profile's image.
+     *
+     * @param profile the profile
+     * @param variant the variant name
+     * @param imagesDir the directory where images are stored
+     * @return the variant file
+     */
+    private static Path variantPath(ProfileEntity profile, String variant, Path imagesDir) {
+        return imagesDir.resolve(VARIANTS_DIR).resolve(variant).resolve(profile.getImageUrl());
     }
 
     /**
-     * Invalidates the file system cache for the given profile by deleting the image file.
+     * Checks if a variant of the image exists in the file system cache for the given profile.
+     *
+     * @param profile the profile to check
+     * @param variant the variant name
+     * @param imagesDir the directory where images are stored
+     * @return true if the variant exists in the cache, false otherwise
+     */
+    @Override
+    public boolean hasImageVariantInCache(ProfileEntity profile, String variant, Path imagesDir) {
+        if (profile == null || profile.getImageUrl() == null || profile.getImageUrl().isEmpty()) {
+            return false;
+        }
+        return Files.isRegularFile(variantPath(profile, variant, imagesDir));
+    }
+
+    /**
+     * Puts a variant of the image in the file system cache for the given profile.
+     * The variant is written atomically, like the original image.
+     *
+     * @param profile the profile to cache the variant for
+     * @param variant the variant name
+     * @param imageBytes the variant bytes to cache
+     * @param imagesDir the directory where images are stored
+     * @throws IOException if there's an error writing the variant file
+     */
+    @Override
+    public void putImageVariantInCache(ProfileEntity profile, String variant, byte[] imageBytes, Path imagesDir)
+            throws IOException {
+        if (profile == null || profile.getImageUrl() == null || profile.getImageUrl().isEmpty() || imageBytes == null) {
+            logger.warn("Cannot cache image variant - invalid profile or image data");
+            return;
+        }
+
+        Path variantPath = variantPath(profile, variant, imagesDir);
+        Files.createDirectories(variantPath.getParent());
+        logger.debug("Caching {} image variant for profile: {}", variant, profile.getId());
+        writeAtomically(variantPath, imageBytes);
+    }
+
+    /**
+     * Writes a cached variant of the image of the given profile to a stream.
+     *
+     * @param profile the profile to write the variant of
+     * @param variant the variant name
+     * @param imagesDir the directory where images are stored
+     * @param target the stream to write the variant to; it is not closed
+     * @return true if the variant was written, false if it isn't in the cache
+     * @throws IOException if there's an error reading the variant file or writing to the stream
+     */
+    @Override
+    public boolean writeImageVariantFromCache(ProfileEntity profile, String variant, Path imagesDir, OutputStream target)
+            throws IOException {
+        if (!hasImageVariantInCache(profile, variant, imagesDir)) {
+            return false;
+        }
+        copyTo(variantPath(profile, variant, imagesDir), target);
+        return true;
+    }
+
+    /**
+     * Writes a file through {@link AtomicFiles}, copying the content into the temporary file through a pooled
+     * direct buffer.
+     *
+     * @param target the file to write
+     * @param bytes the content
+     * @throws IOException if the file can't be written
+     */
+    private void writeAtomically(Path target, byte[] bytes) throws IOException {
+        AtomicFiles.writeChannel(target, channel -> {
+            ByteBuffer buffer = bufferPool.acquire();
+            try {
+                for (int offset = 0; offset < bytes.length; offset += buffer.capacity()) {
+                    buffer.clear();
+                    buffer.put(bytes, offset, Math.min(buffer.capacity(), bytes.length - offset)).flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            } finally {
+                bufferPool.release(buffer);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Invalidates the file system cache for the given profile by deleting the image file and its variants.
      *
      * @param profile the profile to invalidate the cache for
      * @param imagesDir the directory where images are stored
@@ -109,6 +342,40 @@ public class FileSystemImageCacheService implements ImageCacheService {
 
         Path imagePath = imagesDir.resolve(profile.getImageUrl());
         logger.info("Invalidating cached image for profile: {}", profile.getId());
+        deleteVariants(imagesDir, profile.getImageUrl());
         return Files.deleteIfExists(imagePath);
     }
+
+    /**
+     * Deletes all cached variants of an image.
+     *
+     * @param imagesDir the directory where images are stored
+     * @param imageUrl the file name of the image
+     * @throws IOException if a variant can't be deleted
+     */
+    static void deleteVariants(Path imagesDir, String imageUrl) throws IOException {
+        deleteVariants(imagesDir, imageUrl, variant -> false);
+    }
+
+    /**
+     * Deletes the cached variants of an image, except for those the caller wants to keep.
+     *
+     * @param imagesDir the directory where images are stored
+     * @param imageUrl the file name of the image
+     * @param keep tells by variant name whether a variant still matches the image
+     * @throws IOException if a variant can't be deleted
+     */
+    static void deleteVariants(Path imagesDir, String imageUrl, Predicate<String> keep) throws IOException {
+        Path variantsDir = imagesDir.resolve(VARIANTS_DIR);
+        if (!Files.isDirectory(variantsDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(variantsDir, Files::isDirectory)) {
+            for (Path variantDir : variants) {
+                if (!keep.test(variantDir.getFileName().toString())) {
+                    Files.deleteIfExists(variantDir.resolve(imageUrl));
+                }
+            }
+        }
+    }
 }
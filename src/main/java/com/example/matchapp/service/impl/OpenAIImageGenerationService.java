@@ -10,11 +10,15 @@ import com.example.matchapp.exception.InvalidResponseException;
 import com.example.matchapp.model.Profile;
 import com.example.matchapp.model.ProfileEntity;
 import com.example.matchapp.mapper.ProfileMapper;
+import com.example.matchapp.metrics.ImageGenerationStageMetrics;
+import com.example.matchapp.metrics.ImageGenerationStageMetrics.Stage;
+import com.example.matchapp.service.CostLedgerService;
 import com.example.matchapp.service.ImageGenerationService;
 import com.example.matchapp.service.PromptBuilderService;
 import com.example.matchapp.service.RateLimiterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
@@ -41,11 +45,18 @@ public class OpenAIImageGenerationService extends AbstractImageGenerationService
 
     private static final Logger logger = LoggerFactory.getLogger(OpenAIImageGenerationService.class);
 
+    /**
+     * Model requested from the OpenAI API.
+     */
+    private static final String MODEL = "dall-e-3";
+
     private final WebClient webClient;
     private final String apiKey;
     private final RetryTemplate retryTemplate;
     private final Map<String, String> cookies = new HashMap<>();
     private final RateLimiterService rateLimiter;
+    private final ImageGenerationStageMetrics.StageTimers stageTimers;
+    private final CostLedgerService costLedger;
 
     private WebClient createWebClient(String apiKey, String baseUrl) {
         // Create cookie handling filter
@@ -99,10 +110,28 @@ public class OpenAIImageGenerationService extends AbstractImageGenerationService
             PromptBuilderService promptBuilder,
             RetryTemplate retryTemplate,
             RateLimiterService rateLimiter) {
+        this(properties, promptBuilder, retryTemplate, rateLimiter, ImageGenerationStageMetrics.noop(),
+                CostLedgerService.noop());
+    }
+
+    @Autowired
+    public OpenAIImageGenerationService(
+            @org.springframework.beans.factory.annotation.Qualifier("imageGenProperties") ImageGenProperties properties, 
+            PromptBuilderService promptBuilder,
+            RetryTemplate retryTemplate,
+            RateLimiterService rateLimiter,
+            ImageGenerationStageMetrics stageMetrics,
+            CostLedgerService costLedger) {
         super(properties, promptBuilder);
 
         // Validate parameters before assigning to fields
         validateConstructorParameters(properties, promptBuilder, retryTemplate, rateLimiter);
+        if (stageMetrics == null) {
+            throw new ConfigurationException("ImageGenerationStageMetrics cannot be null", "stageMetrics", "null");
+        }
+        if (costLedger == null) {
+            throw new ConfigurationException("CostLedgerService cannot be null", "costLedger", "null");
+        }
 
         this.apiKey = properties.getApiKey();
         // RetryTemplate is a complex object that might be mutable, create a defensive copy
@@ -110,6 +139,9 @@ public class OpenAIImageGenerationService extends AbstractImageGenerationService
         // RateLimiter is a service interface, not a mutable object that needs defensive copying
         this.rateLimiter = rateLimiter;
 
+        this.stageTimers = stageMetrics.timers(getProviderName(), getModel());
+        this.costLedger = costLedger;
+
         // Create the WebClient
         this.webClient = createWebClient(apiKey, properties.getBaseUrl());
     }
@@ -167,33 +199,47 @@ public class OpenAIImageGenerationService extends AbstractImageGenerationService
      */
     protected Map<String, Object> createRequest(ProfileEntity profileEntity) {
         // Use the promptBuilder to generate a rich prompt based on all profile attributes
+        long promptStart = System.nanoTime();
         String prompt = promptBuilder.buildPrompt(profileEntity);
+        stageTimers.record(Stage.PROMPT_BUILD, promptStart);
         logger.debug("Generated prompt: {}", prompt);
 
         return Map.of(
                 "prompt", prompt,
-                "n", 1,
-                "size", "1024x1024",
+                "n", IMAGE_VARIANTS,
+                "size", IMAGE_SIZE,
                 "response_format", "b64_json",
-                "model", "dall-e-3"
+                "model", MODEL
         );
     }
 
     /**
-     * Returns the name of this provider for logging purposes.
+     * Returns the name of this provider for logging and metrics.
      *
      * @return the provider name
      */
     @Override
-    protected String getProviderName() {
+    public String getProviderName() {
         return "OpenAI";
     }
 
+    @Override
+    public String getModel() {
+        return MODEL;
+    }
+
     @Override
     protected byte[] generateImageFromProvider(ProfileEntity profileEntity) throws Exception {
         // Acquire a permit from the rate limiter before making the API call
         logger.debug("Waiting for rate limiter permit");
-        rateLimiter.acquire();
+        long waitStart = System.nanoTime();
+        boolean acquired = false;
+        try {
+            rateLimiter.acquire();
+            acquired = true;
+        } finally {
+            stageTimers.recordRateLimitWait(waitStart, acquired);
+        }
         logger.debug("Rate limiter permit acquired");
 
         return retryTemplate.execute(context -> {
@@ -202,7 +248,15 @@ public class OpenAIImageGenerationService extends AbstractImageGenerationService
                 logger.info("Retry attempt {} for image generation", context.getRetryCount());
             }
 
-            return makeApiCall(profileEntity);
+            int attempt = context.getRetryCount() + 1;
+            try {
+                byte[] image = makeApiCall(profileEntity);
+                costLedger.record(providerCall(profileEntity, attempt, null));
+                return image;
+            } catch (Exception e) {
+                costLedger.record(providerCall(profileEntity, attempt, e));
+                throw e;
+            }
         });
     }
 
@@ -218,12 +272,18 @@ public class OpenAIImageGenerationService extends AbstractImageGenerationService
 
         try {
             // This call returns JSON with base64 image.
-            var response = webClient.post()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
+            long callStart = System.nanoTime();
+            Map<?, ?> response;
+            try {
+                response = webClient.post()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToMono(Map.class)
+                        .block();
+            } finally {
+                stageTimers.record(Stage.PROVIDER_CALL, callStart);
+            }
 
             if (response == null) {
                 throw new InvalidResponseException("Null response from OpenAI");
@@ -239,7 +299,10 @@ public class OpenAIImageGenerationService extends AbstractImageGenerationService
                 throw new InvalidResponseException("Missing b64_json field in response");
             }
 
-            return java.util.Base64.getDecoder().decode(base64);
+            long decodeStart = System.nanoTime();
+            byte[] imageBytes = decodeImage(base64);
+            stageTimers.record(Stage.DECODE, decodeStart);
+            return imageBytes;
         } catch (WebClientResponseException e) {
             HttpStatusCode statusCode = e.getStatusCode();
 
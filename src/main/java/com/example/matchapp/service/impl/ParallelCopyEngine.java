@@ -0,0 +1,236 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.util.AtomicFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes the files of a directory tree on a bounded pool of worker threads.
+ * The directory tree is walked on the calling thread while workers process the files it finds;
+ * when the work queue is full, the walking thread processes files itself, which bounds memory use.
+ * Copies use {@link FileChannel#transferTo}, so the data doesn't pass through the Java heap,
+ * and parent directories are created once per run instead of once per file.
+ */
+public class ParallelCopyEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelCopyEngine.class);
+
+    /**
+     * Work done for each regular file of a directory tree.
+     */
+    @FunctionalInterface
+    public interface FileTask {
+
+        /**
+         * Processes one file.
+         *
+         * @param file the file
+         * @param attrs the attributes of the file, as read during the walk
+         * @return true if the file should be counted as processed, false if it was skipped
+         * @throws IOException if the file can't be processed
+         */
+        boolean process(Path file, BasicFileAttributes attrs) throws IOException;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Map<Path, Boolean> createdDirectories = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new engine.
+     *
+     * @param threads the number of worker threads
+     * @param queueCapacity the number of files that may wait for a worker
+     */
+    public ParallelCopyEngine(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "backup-copy-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        logger.info("Initialized parallel copy engine with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    /**
+     * Runs a task for every regular file under a directory and waits for all of them to finish.
+     *
+     * @param root the directory to walk
+     * @param task the task to run per file
+     * @return the number of files for which the task returned true
+     * @throws IOException if the walk fails or any task fails; the first failure is rethrown
+     */
+    public int forEachFile(Path root, FileTask task) throws IOException {
+        // Directories may have been removed since the last run, e.g. by backup rotation
+        createdDirectories.clear();
+
+        // Results are collected while walking, so only files that are queued or running are tracked at any time
+        CompletionService<Boolean> completions = new ExecutorCompletionService<>(executor);
+        Results results = new Results();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    completions.submit(() -> task.process(file, attrs));
+                    results.pending++;
+                    Future<Boolean> completed;
+                    while ((completed = completions.poll()) != null) {
+                        results.collect(completed);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            while (results.pending > 0) {
+                results.collect(completions.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing files under " + root);
+        }
+
+        if (results.failure != null) {
+            throw results.failure;
+        }
+        return results.processed;
+    }
+
+    /**
+     * Outcome of the files of one run whose tasks have finished.
+     */
+    private static final class Results {
+
+        private int pending;
+        private int processed;
+        private IOException failure;
+
+        private void collect(Future<Boolean> completed) {
+            pending--;
+            try {
+                if (completed.get()) {
+                    processed++;
+                }
+            } catch (InterruptedException e) {
+                // Futures are only collected once they are done, so get() doesn't wait
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = toIOException(e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies a file with {@link FileChannel#transferTo}, replacing the target if it exists.
+     * An existing target is deleted rather than overwritten, so hard links to it are left intact.
+     *
+     * @param source the file to copy
+     * @param target the destination
+     * @return the number of bytes copied
+     * @throws IOException if the copy fails
+     */
+    public long copy(Path source, Path target) throws IOException {
+        createParentDirectories(target);
+        Files.deleteIfExists(target);
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+            return transfer(source, out);
+        }
+    }
+
+    /**
+     * Copies a file over a target that may be read while it's replaced, such as an image being served.
+     * The copy is written to a temporary file next to the target and moved over it once complete,
+     * so readers see either the old file or the complete new one, never a missing or half-written file.
+     *
+     * @param source the file to copy
+     * @param target the destination
+     * @return the number of bytes copied
+     * @throws IOException if the copy fails
+     */
+    public long replace(Path source, Path target) throws IOException {
+        createParentDirectories(target);
+        return AtomicFiles.writeChannel(target, out -> transfer(source, out));
+    }
+
+    private static long transfer(Path source, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Creates the parent directories of a path, at most once per directory and run.
+     *
+     * @param path the path whose parent directories should exist
+     * @throws IOException if the directories can't be created
+     */
+    public void createParentDirectories(Path path) throws IOException {
+        Path parent = path.getParent();
+        if (parent == null || createdDirectories.containsKey(parent)) {
+            return;
+        }
+        try {
+            // computeIfAbsent blocks other workers on the same directory until it exists
+            createdDirectories.computeIfAbsent(parent, dir -> {
+                try {
+                    Files.createDirectories(dir);
+                    return Boolean.TRUE;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Stops the worker threads, letting queued files finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static IOException toIOException(Throwable cause) {
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof UncheckedIOException uncheckedIOException) {
+            return uncheckedIOException.getCause();
+        }
+        return new IOException(cause);
+    }
+}
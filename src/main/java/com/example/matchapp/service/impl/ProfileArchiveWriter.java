@@ -0,0 +1,85 @@
+package com.example.matchapp.service.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a ZIP archive of profiles and their images to an output stream, one entry at a time.
+ * Only a fixed-size buffer is held in memory, so a slow reader of the stream slows the writer down
+ * instead of making the archive pile up in memory.
+ * Closing the writer finishes the archive and flushes it, but leaves the underlying stream open.
+ */
+public final class ProfileArchiveWriter implements Closeable {
+
+    /**
+     * Name of the NDJSON entry listing the profiles.
+     */
+    public static final String MANIFEST_ENTRY = "profiles.ndjson";
+
+    /**
+     * Directory inside the archive that holds the images.
+     */
+    public static final String IMAGES_PREFIX = "images/";
+
+    private final ZipOutputStream zip;
+    private final byte[] buffer = new byte[ZipBackupArchive.BUFFER_SIZE];
+    private long imageBytes;
+
+    public ProfileArchiveWriter(OutputStream out) {
+        this.zip = new ZipOutputStream(new BufferedOutputStream(out, ZipBackupArchive.BUFFER_SIZE));
+    }
+
+    /**
+     * Writes the manifest entry.
+     *
+     * @param content writes the NDJSON manifest; it must not close the stream
+     * @throws IOException if the entry can't be written
+     */
+    public void writeManifest(EntryContent content) throws IOException {
+        ZipEntry entry = new ZipEntry(MANIFEST_ENTRY);
+        entry.setMethod(ZipEntry.DEFLATED);
+        zip.putNextEntry(entry);
+        content.writeTo(zip);
+        zip.closeEntry();
+    }
+
+    /**
+     * Writes an image entry, read straight from the file.
+     *
+     * @param name the image path relative to the images directory, using '/' as separator
+     * @param file the image file
+     * @throws IOException if the image can't be read or the entry can't be written
+     */
+    public void writeImage(String name, Path file) throws IOException {
+        imageBytes += ZipBackupArchive.writeEntry(zip, IMAGES_PREFIX + name, file, buffer);
+    }
+
+    /**
+     * Gets the total size of the images written so far.
+     *
+     * @return the number of image bytes
+     */
+    public long getImageBytes() {
+        return imageBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // finish() writes the central directory without closing the caller's stream
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Writes the content of an archive entry.
+     */
+    @FunctionalInterface
+    public interface EntryContent {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
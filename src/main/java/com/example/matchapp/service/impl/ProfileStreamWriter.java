@@ -0,0 +1,164 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.model.ExportFormat;
+import com.example.matchapp.model.Profile;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes profiles to an output stream one at a time, so an export never needs the full list in memory.
+ * Closing the writer finishes the document and flushes it, but leaves the underlying stream open;
+ * the caller that opened the stream is responsible for closing it.
+ */
+public abstract class ProfileStreamWriter implements Closeable {
+
+    private static final String[] CSV_HEADER = {
+            "id", "firstName", "lastName", "age", "ethnicity", "gender",
+            "bio", "imageUrl", "myersBriggsPersonalityType", "imageGenerated"
+    };
+
+    /**
+     * Opens a writer for the given format.
+     *
+     * @param format the export format
+     * @param out the stream to write to
+     * @param objectMapper the mapper used to serialize profiles as JSON
+     * @return a writer positioned before the first profile
+     * @throws IOException if the document header can't be written
+     * @throws IllegalArgumentException if the format isn't a single document format
+     */
+    public static ProfileStreamWriter open(ExportFormat format, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case JSON -> new JsonArrayWriter(out, objectMapper);
+            case NDJSON -> new NdjsonWriter(out, objectMapper);
+            case CSV -> new CsvWriter(out);
+            case ZIP -> throw new IllegalArgumentException("ZIP archives are written with ProfileArchiveWriter");
+        };
+    }
+
+    /**
+     * Writes one profile.
+     *
+     * @param profile the profile to write
+     * @throws IOException if the profile can't be written
+     */
+    public abstract void write(Profile profile) throws IOException;
+
+    private static JsonGenerator createGenerator(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    /**
+     * Writes a single JSON array, one element per profile.
+     */
+    private static final class JsonArrayWriter extends ProfileStreamWriter {
+
+        private final JsonGenerator generator;
+
+        JsonArrayWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = createGenerator(out, objectMapper);
+            generator.writeStartArray();
+        }
+
+        @Override
+        public void write(Profile profile) throws IOException {
+            generator.writeObject(profile);
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes newline-delimited JSON, one profile object per line.
+     */
+    private static final class NdjsonWriter extends ProfileStreamWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = createGenerator(out, objectMapper);
+            // Lines are separated explicitly below; the default separator would indent every line after the first
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Profile profile) throws IOException {
+            generator.writeObject(profile);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes RFC 4180 style CSV with a header row.
+     */
+    private static final class CsvWriter extends ProfileStreamWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeRow((Object[]) CSV_HEADER);
+        }
+
+        @Override
+        public void write(Profile profile) throws IOException {
+            writeRow(
+                    profile.id(),
+                    profile.firstName(),
+                    profile.lastName(),
+                    profile.age(),
+                    profile.ethnicity(),
+                    profile.gender(),
+                    profile.bio(),
+                    profile.imageUrl(),
+                    profile.myersBriggsPersonalityType(),
+                    profile.imageGenerated());
+        }
+
+        private void writeRow(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
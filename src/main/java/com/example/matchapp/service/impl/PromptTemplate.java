@@ -0,0 +1,241 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.model.ProfileEntity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A prompt template parsed once into literal text, placeholders and optional sections.
+ * Rendering walks the parsed segments and appends to a caller-supplied builder, so no format string
+ * is parsed and no intermediate strings are created per prompt.
+ * <p>
+ * Placeholders are written as {@code {{name}}}. Text between {@code {{#name}}} and {@code {{/name}}}
+ * is rendered only when the value is non-null and non-empty.
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String source;
+    private final Segment[] segments;
+
+    private PromptTemplate(String source, Segment[] segments) {
+        this.source = source;
+        this.segments = segments;
+    }
+
+    /**
+     * Parses a template.
+     *
+     * @param source the template text
+     * @return the compiled template
+     * @throws ConfigurationException if the template is malformed or uses an unknown placeholder
+     */
+    public static PromptTemplate compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new ConfigurationException("Prompt template cannot be empty", "imagegen.prompt.template", source);
+        }
+
+        Deque<List<Segment>> open = new ArrayDeque<>();
+        Deque<Variable> sections = new ArrayDeque<>();
+        List<Segment> current = new ArrayList<>();
+        int position = 0;
+        while (position < source.length()) {
+            int start = source.indexOf(OPEN, position);
+            if (start < 0) {
+                current.add(new Literal(source.substring(position)));
+                break;
+            }
+            if (start > position) {
+                current.add(new Literal(source.substring(position, start)));
+            }
+            int end = source.indexOf(CLOSE, start + OPEN.length());
+            if (end < 0) {
+                throw invalid(source, "unclosed placeholder at position " + start);
+            }
+            String tag = source.substring(start + OPEN.length(), end).trim();
+            position = end + CLOSE.length();
+
+            if (tag.startsWith("#")) {
+                sections.push(variable(source, tag.substring(1).trim()));
+                open.push(current);
+                current = new ArrayList<>();
+            } else if (tag.startsWith("/")) {
+                Variable closed = variable(source, tag.substring(1).trim());
+                if (sections.isEmpty() || sections.peek() != closed) {
+                    throw invalid(source, "unexpected end of section " + closed.key);
+                }
+                Segment section = new Section(sections.pop(), current.toArray(new Segment[0]));
+                current = open.pop();
+                current.add(section);
+            } else {
+                current.add(new Placeholder(variable(source, tag)));
+            }
+        }
+        if (!sections.isEmpty()) {
+            throw invalid(source, "section " + sections.peek().key + " is never closed");
+        }
+        return new PromptTemplate(source, current.toArray(new Segment[0]));
+    }
+
+    /**
+     * Renders the template for a profile.
+     *
+     * @param out the builder to append to
+     * @param profile the profile to take values from
+     */
+    public void renderTo(StringBuilder out, ProfileEntity profile) {
+        render(segments, out, profile);
+    }
+
+    /**
+     * Gets a short identifier of the template text, which changes whenever the template changes.
+     *
+     * @return the template version
+     */
+    public String getVersion() {
+        return Integer.toHexString(source.hashCode());
+    }
+
+    /**
+     * Gets the template text.
+     *
+     * @return the source the template was compiled from
+     */
+    public String getSource() {
+        return source;
+    }
+
+    private static void render(Segment[] segments, StringBuilder out, ProfileEntity profile) {
+        for (Segment segment : segments) {
+            segment.render(out, profile);
+        }
+    }
+
+    private static Variable variable(String source, String key) {
+        for (Variable variable : Variable.values()) {
+            if (variable.key.equals(key)) {
+                return variable;
+            }
+        }
+        throw invalid(source, "unknown placeholder " + key);
+    }
+
+    private static ConfigurationException invalid(String source, String reason) {
+        return new ConfigurationException("Invalid prompt template: " + reason, "imagegen.prompt.template", source);
+    }
+
+    /**
+     * Values a template can refer to.
+     */
+    private enum Variable {
+        AGE("age") {
+            @Override
+            String value(ProfileEntity profile) {
+                return Integer.toString(profile.getAge());
+            }
+
+            // Appends the number directly instead of formatting it into a string first
+            @Override
+            void appendTo(StringBuilder out, ProfileEntity profile) {
+                out.append(profile.getAge());
+            }
+
+            @Override
+            boolean isPresent(ProfileEntity profile) {
+                return true;
+            }
+        },
+        FIRST_NAME("firstName") {
+            @Override
+            String value(ProfileEntity profile) {
+                return profile.getFirstName();
+            }
+        },
+        LAST_NAME("lastName") {
+            @Override
+            String value(ProfileEntity profile) {
+                return profile.getLastName();
+            }
+        },
+        ETHNICITY("ethnicity") {
+            @Override
+            String value(ProfileEntity profile) {
+                return profile.getEthnicity();
+            }
+        },
+        GENDER("gender") {
+            @Override
+            String value(ProfileEntity profile) {
+                return DefaultPromptBuilderService.genderToEnglish(profile.getGender());
+            }
+        },
+        PERSONALITY("personality") {
+            @Override
+            String value(ProfileEntity profile) {
+                return DefaultPromptBuilderService.personalityTraits(profile.getMyersBriggsPersonalityType());
+            }
+        },
+        MBTI("mbti") {
+            @Override
+            String value(ProfileEntity profile) {
+                return profile.getMyersBriggsPersonalityType();
+            }
+        },
+        BIO("bio") {
+            @Override
+            String value(ProfileEntity profile) {
+                return profile.getBio();
+            }
+        };
+
+        private final String key;
+
+        Variable(String key) {
+            this.key = key;
+        }
+
+        abstract String value(ProfileEntity profile);
+
+        void appendTo(StringBuilder out, ProfileEntity profile) {
+            out.append(value(profile));
+        }
+
+        boolean isPresent(ProfileEntity profile) {
+            String value = value(profile);
+            return value != null && !value.isEmpty();
+        }
+    }
+
+    private interface Segment {
+        void render(StringBuilder out, ProfileEntity profile);
+    }
+
+    private record Literal(String text) implements Segment {
+        @Override
+        public void render(StringBuilder out, ProfileEntity profile) {
+            out.append(text);
+        }
+    }
+
+    private record Placeholder(Variable variable) implements Segment {
+        @Override
+        public void render(StringBuilder out, ProfileEntity profile) {
+            variable.appendTo(out, profile);
+        }
+    }
+
+    private record Section(Variable variable, Segment[] body) implements Segment {
+        @Override
+        public void render(StringBuilder out, ProfileEntity profile) {
+            if (variable.isPresent(profile)) {
+                PromptTemplate.render(body, out, profile);
+            }
+        }
+    }
+}
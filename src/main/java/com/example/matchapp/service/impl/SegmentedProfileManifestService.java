@@ -0,0 +1,485 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.ManifestProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.exception.FileOperationException;
+import com.example.matchapp.mapper.ProfileMapper;
+import com.example.matchapp.model.Profile;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.repository.ProfileRepository;
+import com.example.matchapp.service.ProfileExportService;
+import com.example.matchapp.service.ProfileManifestService;
+import com.example.matchapp.util.AtomicFiles;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains profiles_with_images.json from segment files instead of rewriting it from the database.
+ * <p>
+ * Profiles are spread over a fixed number of segments by a hash of their ID. Each segment is an NDJSON
+ * file in the configured segments directory, holding one serialized profile per line. The segments
+ * directory lives outside the images directory, so backups only pick up the manifest and its change log.
+ * An update reloads only the dirty profiles, rewrites only the segments they belong to, and appends the
+ * changed profiles to the change log described in {@link ProfileManifestService}.
+ * <p>
+ * Once the change log holds more entries than the configured share of the manifest's profiles, it is
+ * compacted: the sorted segments are merged into a new manifest in ID order, without parsing or serializing
+ * the unchanged profiles beyond their IDs, and the change log is deleted. The manifest is thus rewritten
+ * only after a number of changes proportional to its size, so each change costs a constant number of
+ * entry writes on average.
+ * <p>
+ * Dirty profiles are tracked in memory, so the manifest is rebuilt in full the first time it is updated
+ * after startup, when the segments are missing, or when a different images directory is used.
+ */
+@Service
+public class SegmentedProfileManifestService implements ProfileManifestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedProfileManifestService.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".ndjson";
+
+    private final ProfileRepository profileRepository;
+    private final ProfileExportService profileExportService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+    private final int segmentCount;
+    private final Path segmentsDir;
+    private final double compactionRatio;
+    private final Set<String> dirtyIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The images directory whose manifest the segments are known to reflect every change not in {@link #dirtyIds}.
+     */
+    private Path currentDir;
+
+    /**
+     * Number of profiles in the manifest when it was last written.
+     */
+    private long manifestProfiles;
+
+    /**
+     * Number of entries in the change log since the manifest was last written.
+     */
+    private long loggedChanges;
+
+    public SegmentedProfileManifestService(
+            ProfileRepository profileRepository,
+            ProfileExportService profileExportService,
+            ObjectMapper objectMapper,
+            ManifestProperties properties) {
+        if (profileRepository == null) {
+            throw new ConfigurationException("ProfileRepository cannot be null", "profileRepository", "null");
+        }
+        if (profileExportService == null) {
+            throw new ConfigurationException("ProfileExportService cannot be null", "profileExportService", "null");
+        }
+        if (objectMapper == null) {
+            throw new ConfigurationException("ObjectMapper cannot be null", "objectMapper", "null");
+        }
+        if (properties == null) {
+            throw new ConfigurationException("ManifestProperties cannot be null", "properties", "null");
+        }
+        if (properties.getSegmentsDir() == null || properties.getSegmentsDir().isBlank()) {
+            throw new ConfigurationException("Manifest segments directory cannot be empty",
+                    "imagegen.manifest.segments-dir", String.valueOf(properties.getSegmentsDir()));
+        }
+        if (properties.getSegments() < 1) {
+            throw new ConfigurationException("Manifest segment count must be positive",
+                    "imagegen.manifest.segments", String.valueOf(properties.getSegments()));
+        }
+        if (properties.getCompactionRatio() < 0) {
+            throw new ConfigurationException("Manifest compaction ratio cannot be negative",
+                    "imagegen.manifest.compaction-ratio", String.valueOf(properties.getCompactionRatio()));
+        }
+        this.profileRepository = profileRepository;
+        this.profileExportService = profileExportService;
+        this.objectMapper = objectMapper;
+        // Every profile must fit on one line of its segment
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.segmentCount = properties.getSegments();
+        this.segmentsDir = Path.of(properties.getSegmentsDir()).toAbsolutePath().normalize();
+        this.compactionRatio = properties.getCompactionRatio();
+    }
+
+    @Override
+    public void markDirty(String profileId) {
+        if (profileId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // An update running before the commit would read the old state and lose the change
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyIds.add(profileId);
+                }
+            });
+        } else {
+            dirtyIds.add(profileId);
+        }
+    }
+
+    @Override
+    public synchronized int update(Path imagesDir) {
+        Path dir = imagesDir.toAbsolutePath().normalize();
+        if (!dir.equals(currentDir)
+                || !Files.isDirectory(segmentsDir)
+                || !Files.exists(dir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE))
+                || (loggedChanges > 0 && !Files.exists(dir.resolve(CHANGES_FILE)))) {
+            rebuild(dir);
+            return segmentCount;
+        }
+        if (dirtyIds.isEmpty()) {
+            logger.debug("Manifest in {} is up to date", dir);
+            return 0;
+        }
+
+        List<String> ids = new ArrayList<>(dirtyIds);
+        dirtyIds.removeAll(ids);
+
+        Map<Integer, List<String>> idsBySegment = new TreeMap<>();
+        for (String id : ids) {
+            idsBySegment.computeIfAbsent(segmentOf(id), segment -> new ArrayList<>()).add(id);
+        }
+
+        try {
+            // The new line of every changed profile in ID order, or null if it was deleted
+            Map<String, String> changes = new TreeMap<>();
+            for (Map.Entry<Integer, List<String>> entry : idsBySegment.entrySet()) {
+                rewriteSegment(segmentFile(entry.getKey()), entry.getValue(), changes);
+            }
+            if (changes.isEmpty()) {
+                // Only profiles that were never in the manifest were created and deleted again
+                logger.debug("Manifest in {} is up to date", dir);
+            } else if (loggedChanges + changes.size() > compactionRatio * manifestProfiles) {
+                long profiles = assemble(dir);
+                logger.info("Updated manifest in {}: {} changed profiles, {} of {} segments rewritten, "
+                        + "compacted to {} profiles", dir, ids.size(), idsBySegment.size(), segmentCount, profiles);
+            } else {
+                appendChanges(dir, changes);
+                logger.info("Updated manifest in {}: {} changed profiles, {} of {} segments rewritten, "
+                        + "{} changes logged", dir, ids.size(), idsBySegment.size(), segmentCount, loggedChanges);
+            }
+            return idsBySegment.size();
+        } catch (IOException e) {
+            // Keep the changes and distrust the segments, so the next update starts over cleanly
+            dirtyIds.addAll(ids);
+            currentDir = null;
+            Path manifestFile = dir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE);
+            logger.error("Failed to update manifest: {}", manifestFile, e);
+            throw new FileOperationException("Failed to update manifest: " + manifestFile, e,
+                    manifestFile, "write", true);
+        }
+    }
+
+    @Override
+    public synchronized void rebuild(Path imagesDir) {
+        Path dir = imagesDir.toAbsolutePath().normalize();
+        Path manifestFile = dir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE);
+        logger.info("Rebuilding manifest {} from all profiles", manifestFile);
+
+        // Changes recorded from here on are applied by the next update, even if the rebuild already saw them
+        dirtyIds.clear();
+        currentDir = null;
+
+        Path[] tempFiles = new Path[segmentCount];
+        Writer[] writers = new Writer[segmentCount];
+        try {
+            Files.createDirectories(segmentsDir);
+            for (int i = 0; i < segmentCount; i++) {
+                tempFiles[i] = AtomicFiles.tempFileFor(segmentFile(i));
+                writers[i] = Files.newBufferedWriter(tempFiles[i], StandardCharsets.UTF_8,
+                        StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+            }
+
+            // Profiles arrive in ID order, so every segment ends up sorted by ID as well
+            profileExportService.forEachProfile(profile -> {
+                Writer writer = writers[segmentOf(profile.id())];
+                writer.write(lineWriter.writeValueAsString(profile));
+                writer.write('\n');
+            });
+
+            for (int i = 0; i < segmentCount; i++) {
+                writers[i].close();
+                writers[i] = null;
+                AtomicFiles.moveIntoPlace(tempFiles[i], segmentFile(i));
+            }
+            deleteUnusedSegments();
+
+            long profiles = assemble(dir);
+            currentDir = dir;
+            logger.info("Rebuilt manifest {} with {} profiles in {} segments", manifestFile, profiles, segmentCount);
+        } catch (IOException e) {
+            logger.error("Failed to rebuild manifest: {}", manifestFile, e);
+            throw new FileOperationException("Failed to rebuild manifest: " + manifestFile, e,
+                    manifestFile, "write", true);
+        } finally {
+            for (int i = 0; i < segmentCount; i++) {
+                closeQuietly(writers[i]);
+                deleteQuietly(tempFiles[i]);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of changed profiles not yet applied to the manifest.
+     *
+     * @return the number of dirty profiles
+     */
+    public int pendingCount() {
+        return dirtyIds.size();
+    }
+
+    /**
+     * Reloads the given profiles into a segment and rewrites it; deleted profiles are dropped.
+     *
+     * @param segmentFile the segment to rewrite
+     * @param ids the IDs of the changed profiles in this segment
+     * @param changes receives the new line of every changed profile, or null if it was deleted
+     * @throws IOException if the segment can't be read or written
+     */
+    private void rewriteSegment(Path segmentFile, List<String> ids, Map<String, String> changes) throws IOException {
+        Map<String, String> lines = new TreeMap<>();
+        if (Files.exists(segmentFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(segmentFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        lines.put(idOf(line), line);
+                    }
+                }
+            }
+        }
+
+        for (String id : ids) {
+            Optional<ProfileEntity> entity = profileRepository.findById(id);
+            if (entity.isPresent()) {
+                Profile profile = ProfileMapper.toProfile(entity.get());
+                String line = lineWriter.writeValueAsString(profile);
+                lines.put(id, line);
+                changes.put(id, line);
+            } else if (lines.remove(id) != null) {
+                changes.put(id, null);
+            }
+        }
+
+        AtomicFiles.write(segmentFile, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (String line : lines.values()) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.flush();
+            return null;
+        });
+    }
+
+    /**
+     * Appends the changed profiles to the change log, with a deletion entry for every deleted profile.
+     *
+     * @param dir the images directory
+     * @param changes the new line of every changed profile, or null if it was deleted
+     * @throws IOException if the change log can't be written
+     */
+    private void appendChanges(Path dir, Map<String, String> changes) throws IOException {
+        StringBuilder entries = new StringBuilder();
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String line = change.getValue() != null
+                    ? change.getValue()
+                    : lineWriter.writeValueAsString(objectMapper.createObjectNode()
+                            .put("id", change.getKey())
+                            .put("deleted", true));
+            entries.append(line).append('\n');
+        }
+        // Written in one go, so a reader never sees a partial batch of changes
+        try (Writer writer = Files.newBufferedWriter(dir.resolve(CHANGES_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writer.write(entries.toString());
+        }
+        loggedChanges += changes.size();
+    }
+
+    /**
+     * Writes the manifest as a JSON array of all segment lines in ID order and deletes the change log.
+     * Every segment is sorted by ID, so the segments are merged and each line is copied without being parsed
+     * beyond its ID.
+     *
+     * @param dir the images directory
+     * @return the number of profiles in the manifest
+     * @throws IOException if a segment can't be read or the manifest can't be written
+     */
+    private long assemble(Path dir) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<SegmentLine> heads = new PriorityQueue<>(Comparator.comparing(SegmentLine::id));
+            for (int i = 0; i < segmentCount; i++) {
+                Path segmentFile = segmentFile(i);
+                if (!Files.exists(segmentFile)) {
+                    continue;
+                }
+                BufferedReader reader = Files.newBufferedReader(segmentFile, StandardCharsets.UTF_8);
+                readers.add(reader);
+                SegmentLine head = nextLine(reader);
+                if (head != null) {
+                    heads.add(head);
+                }
+            }
+
+            long profiles = AtomicFiles.write(dir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE), out -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                long count = 0;
+                writer.write('[');
+                while (!heads.isEmpty()) {
+                    SegmentLine head = heads.poll();
+                    if (count > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(head.line());
+                    count++;
+                    SegmentLine next = nextLine(head.reader());
+                    if (next != null) {
+                        heads.add(next);
+                    }
+                }
+                writer.write(']');
+                writer.flush();
+                return count;
+            });
+            // The manifest already contains every logged change, so a leftover change log would only repeat them
+            Files.deleteIfExists(dir.resolve(CHANGES_FILE));
+            manifestProfiles = profiles;
+            loggedChanges = 0;
+            return profiles;
+        } finally {
+            readers.forEach(SegmentedProfileManifestService::closeQuietly);
+        }
+    }
+
+    /**
+     * Reads the next profile line of a segment.
+     *
+     * @param reader the segment reader
+     * @return the line, or null at the end of the segment
+     * @throws IOException if the segment can't be read
+     */
+    private SegmentLine nextLine(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty()) {
+                return new SegmentLine(idOf(line), line, reader);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the ID of a serialized profile, stopping at the ID field instead of parsing the whole profile.
+     *
+     * @param line the serialized profile
+     * @return the profile ID
+     * @throws IOException if the line isn't a profile with an ID
+     */
+    private String idOf(String line) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(line)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("id".equals(field)) {
+                        return parser.getText();
+                    }
+                    parser.skipChildren();
+                }
+            }
+        }
+        throw new IOException("Manifest segment line without a profile ID");
+    }
+
+    /**
+     * Deletes segment files left over from a configuration with more segments.
+     */
+    private void deleteUnusedSegments() throws IOException {
+        Set<Path> expected = new HashSet<>();
+        for (int i = 0; i < segmentCount; i++) {
+            expected.add(segmentsDir.resolve(segmentName(i)));
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(segmentsDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                if (!expected.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private int segmentOf(String id) {
+        return Math.floorMod(id.hashCode(), segmentCount);
+    }
+
+    private Path segmentFile(int segment) {
+        return segmentsDir.resolve(segmentName(segment));
+    }
+
+    private static String segmentName(int segment) {
+        return String.format("%s%04d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close manifest segment", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary manifest segment: {}", file, e);
+        }
+    }
+
+    /**
+     * The next unread line of a segment while the segments are merged.
+     */
+    private record SegmentLine(String id, String line, BufferedReader reader) {
+    }
+}
@@ -7,6 +7,9 @@ import com.example.matchapp.exception.ApiRateLimitException;
 import com.example.matchapp.exception.ConfigurationException;
 import com.example.matchapp.exception.ImageGenerationException;
 import com.example.matchapp.exception.InvalidResponseException;
+import com.example.matchapp.metrics.ImageGenerationStageMetrics;
+import com.example.matchapp.metrics.ImageGenerationStageMetrics.Stage;
+import com.example.matchapp.service.CostLedgerService;
 import com.example.matchapp.model.ProfileEntity;
 import com.example.matchapp.service.PromptBuilderService;
 import com.example.matchapp.service.RateLimiterService;
@@ -29,7 +32,6 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
-import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +47,8 @@ public class SpringAIImageGenerationService extends AbstractImageGenerationServi
     private final String baseUrl;
     private final RateLimiterService rateLimiter;
     private final RetryTemplate retryTemplate;
+    private final ImageGenerationStageMetrics.StageTimers stageTimers;
+    private final CostLedgerService costLedger;
     private final Map<String, String> cookies = new HashMap<>();
 
     /**
@@ -101,21 +105,40 @@ public class SpringAIImageGenerationService extends AbstractImageGenerationServi
         }
     }
 
-    @Autowired
     public SpringAIImageGenerationService(
             @org.springframework.beans.factory.annotation.Qualifier("imageGenProperties") ImageGenProperties properties, 
             PromptBuilderService promptBuilder,
             RateLimiterService rateLimiter,
             RetryTemplate retryTemplate) {
+        this(properties, promptBuilder, rateLimiter, retryTemplate, ImageGenerationStageMetrics.noop(),
+                CostLedgerService.noop());
+    }
+
+    @Autowired
+    public SpringAIImageGenerationService(
+            @org.springframework.beans.factory.annotation.Qualifier("imageGenProperties") ImageGenProperties properties, 
+            PromptBuilderService promptBuilder,
+            RateLimiterService rateLimiter,
+            RetryTemplate retryTemplate,
+            ImageGenerationStageMetrics stageMetrics,
+            CostLedgerService costLedger) {
         super(properties, promptBuilder);
 
         // Validate parameters before assigning to fields
         validateConstructorParameters(properties, promptBuilder, retryTemplate, rateLimiter);
+        if (stageMetrics == null) {
+            throw new ConfigurationException("ImageGenerationStageMetrics cannot be null", "stageMetrics", "null");
+        }
+        if (costLedger == null) {
+            throw new ConfigurationException("CostLedgerService cannot be null", "costLedger", "null");
+        }
 
         this.apiKey = properties.getApiKey();
         this.baseUrl = properties.getSpringAiBaseUrl();
         this.rateLimiter = rateLimiter;
         this.retryTemplate = retryTemplate;
+        this.stageTimers = stageMetrics.timers(getProviderName(), getModel());
+        this.costLedger = costLedger;
 
         // Create the WebClient
         this.webClient = createWebClient(apiKey, baseUrl);
@@ -155,15 +178,27 @@ public class SpringAIImageGenerationService extends AbstractImageGenerationServi
     }
 
     @Override
-    protected String getProviderName() {
+    public String getProviderName() {
         return "Spring AI";
     }
 
+    @Override
+    public String getModel() {
+        return properties.getSpringAiModel();
+    }
+
     @Override
     protected byte[] generateImageFromProvider(ProfileEntity profile) {
         // Acquire a permit from the rate limiter before making the API call
         logger.debug("Waiting for rate limiter permit");
-        rateLimiter.acquire();
+        long waitStart = System.nanoTime();
+        boolean acquired = false;
+        try {
+            rateLimiter.acquire();
+            acquired = true;
+        } finally {
+            stageTimers.recordRateLimitWait(waitStart, acquired);
+        }
         logger.debug("Rate limiter permit acquired");
 
         try {
@@ -173,9 +208,13 @@ public class SpringAIImageGenerationService extends AbstractImageGenerationServi
                     logger.info("Retry attempt {} for image generation", context.getRetryCount());
                 }
 
+                int attempt = context.getRetryCount() + 1;
                 try {
-                    return makeApiCall(profile);
+                    byte[] image = makeApiCall(profile);
+                    costLedger.record(providerCall(profile, attempt, null));
+                    return image;
                 } catch (Exception e) {
+                    costLedger.record(providerCall(profile, attempt, e));
                     throw new RuntimeException(e);
                 }
             });
@@ -198,12 +237,18 @@ public class SpringAIImageGenerationService extends AbstractImageGenerationServi
 
         try {
             // This call returns JSON with base64 image.
-            var response = webClient.post()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
+            long callStart = System.nanoTime();
+            Map<?, ?> response;
+            try {
+                response = webClient.post()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(requestBody)
+                        .retrieve()
+                        .bodyToMono(Map.class)
+                        .block();
+            } finally {
+                stageTimers.record(Stage.PROVIDER_CALL, callStart);
+            }
 
             if (response == null) {
                 throw new InvalidResponseException("Null response from Spring AI API");
@@ -220,7 +265,9 @@ public class SpringAIImageGenerationService extends AbstractImageGenerationServi
             }
 
             logger.debug("Successfully extracted base64 image data, length: {}", base64.length());
-            byte[] imageBytes = Base64.getDecoder().decode(base64);
+            long decodeStart = System.nanoTime();
+            byte[] imageBytes = decodeImage(base64);
+            stageTimers.record(Stage.DECODE, decodeStart);
             logger.info("Successfully generated image, size: {} bytes", imageBytes.length);
             return imageBytes;
         } catch (WebClientResponseException e) {
@@ -261,16 +308,18 @@ public class SpringAIImageGenerationService extends AbstractImageGenerationServi
      */
     protected Map<String, Object> createRequest(ProfileEntity profileEntity) {
         // Use the promptBuilder to generate a rich prompt based on all profile attributes
+        long promptStart = System.nanoTime();
         String prompt = promptBuilder.buildPrompt(profileEntity);
+        stageTimers.record(Stage.PROMPT_BUILD, promptStart);
         logger.debug("Generated prompt: {}", prompt);
 
-        String model = properties.getSpringAiModel();
+        String model = getModel();
         logger.debug("Using model: {}", model);
 
         return Map.of(
                 "prompt", prompt,
-                "n", 1,
-                "size", "1024x1024",
+                "n", IMAGE_VARIANTS,
+                "size", IMAGE_SIZE,
                 "response_format", "b64_json",
                 "model", model
         );
@@ -0,0 +1,59 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.PromptProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.PromptBuilderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * PromptBuilderService that renders prompts from a template configured in {@code imagegen.prompt.template}.
+ * The template is parsed once at startup; each prompt is rendered into a per-thread builder that is reused
+ * across calls, so building a prompt allocates little more than the resulting string.
+ */
+@Service
+public class TemplatePromptBuilderService implements PromptBuilderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplatePromptBuilderService.class);
+
+    /**
+     * Builders that grew beyond this capacity are dropped instead of being kept for the thread's lifetime.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private final PromptTemplate template;
+    private final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    public TemplatePromptBuilderService(PromptProperties properties) {
+        if (properties == null) {
+            throw new ConfigurationException("PromptProperties cannot be null", "properties", "null");
+        }
+        this.template = PromptTemplate.compile(properties.getTemplate());
+        logger.info("Compiled prompt template version {}", template.getVersion());
+    }
+
+    @Override
+    public String buildPrompt(ProfileEntity profile) {
+        StringBuilder builder = builders.get();
+        builder.setLength(0);
+        template.renderTo(builder, profile);
+        String prompt = builder.toString();
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            builders.remove();
+        }
+
+        logger.debug("Generated prompt for profile {}: {}", profile.getId(), prompt);
+        return prompt;
+    }
+
+    /**
+     * Gets the version of the template prompts are rendered from.
+     *
+     * @return the template version
+     */
+    public String getTemplateVersion() {
+        return template.getVersion();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.CostProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.metrics.ProviderCostMetrics;
+import com.example.matchapp.model.CostLedgerSummary;
+import com.example.matchapp.model.ProviderCall;
+import com.example.matchapp.model.ProviderCallOutcome;
+import com.example.matchapp.model.ProviderCallRecord;
+import com.example.matchapp.model.ProviderCostSummary;
+import com.example.matchapp.repository.impl.ProviderCallJpaRepository;
+import com.example.matchapp.service.CostLedgerService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Write-behind implementation of CostLedgerService.
+ * Calls are counted in metrics right away and written to the ledger table in batches by a background thread,
+ * once the batch size is reached, when the flush interval elapses, or when the application shuts down, so
+ * accounting never adds a database round trip to an image generation. If a write fails, its entries are put
+ * back into the buffer and retried with the next flush. The buffer is bounded: while the database can't keep
+ * up, entries that don't fit are dropped from the ledger and counted in metrics. The buffering is done by a
+ * {@link WriteBehindQueue}, so a summary also includes a batch the flush thread is still writing.
+ */
+@Service
+public class WriteBehindCostLedgerService implements CostLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCostLedgerService.class);
+
+    private final ProviderCallJpaRepository repository;
+    private final ProviderCostMetrics metrics;
+    private final CostProperties properties;
+    private final Clock clock;
+    private final WriteBehindQueue<ProviderCallRecord> queue;
+
+    public WriteBehindCostLedgerService(ProviderCallJpaRepository repository, ProviderCostMetrics metrics,
+                                        CostProperties properties) {
+        this(repository, metrics, properties, Clock.systemUTC());
+    }
+
+    WriteBehindCostLedgerService(ProviderCallJpaRepository repository, ProviderCostMetrics metrics,
+                                 CostProperties properties, Clock clock) {
+        if (repository == null) {
+            throw new ConfigurationException("ProviderCallJpaRepository cannot be null", "repository", "null");
+        }
+        if (metrics == null) {
+            throw new ConfigurationException("ProviderCostMetrics cannot be null", "metrics", "null");
+        }
+        if (properties == null) {
+            throw new ConfigurationException("CostProperties cannot be null", "costProperties", "null");
+        }
+        if (properties.getBatchSize() <= 0) {
+            throw new ConfigurationException("Cost ledger batch size must be positive",
+                    "imagegen.cost.batch-size", String.valueOf(properties.getBatchSize()));
+        }
+        if (properties.getFlushInterval() <= 0) {
+            throw new ConfigurationException("Cost ledger flush interval must be positive",
+                    "imagegen.cost.flush-interval", String.valueOf(properties.getFlushInterval()));
+        }
+        if (properties.getMaxPending() < properties.getBatchSize()) {
+            throw new ConfigurationException("Cost ledger max pending must be at least the batch size",
+                    "imagegen.cost.max-pending", String.valueOf(properties.getMaxPending()));
+        }
+        this.repository = repository;
+        this.metrics = metrics;
+        this.properties = properties;
+        this.clock = clock;
+
+        this.queue = new WriteBehindQueue<>("cost-ledger-flush", properties.getBatchSize(),
+                properties.getFlushInterval(), properties.getMaxPending(), this::write, metrics::recordLedgerDropped);
+
+        logger.info("Initialized cost ledger with batch size {}, flush interval {} ms and max pending {} (ledger {})",
+                properties.getBatchSize(), properties.getFlushInterval(), properties.getMaxPending(),
+                properties.isLedgerEnabled() ? "enabled" : "disabled");
+    }
+
+    @Override
+    public void record(ProviderCall call) {
+        BigDecimal cost = call.outcome().isBillable()
+                ? properties.priceOf(call.model()).multiply(BigDecimal.valueOf(call.variants()))
+                : BigDecimal.ZERO;
+        metrics.record(call, cost);
+
+        if (!properties.isLedgerEnabled()) {
+            return;
+        }
+        // The write runs on the flush thread, so the caller never waits for the database
+        if (!queue.add(new ProviderCallRecord(call, cost, clock.instant()))) {
+            logger.debug("Cost ledger buffer is full, dropping entry for profile: {}", call.profileId());
+        }
+    }
+
+    @Override
+    public CostLedgerSummary summarize(Instant since) {
+        // Include the calls that are still buffered or being written
+        try {
+            queue.flush();
+        } catch (RuntimeException e) {
+            // Already logged; the summary covers what has been written so far
+        }
+
+        Map<String, ProviderTotals> totalsByModel = new TreeMap<>();
+        for (Object[] row : repository.summarizeSince(since)) {
+            String provider = (String) row[0];
+            String model = (String) row[1];
+            totalsByModel.computeIfAbsent(provider + '\u0000' + model, key -> new ProviderTotals(provider, model))
+                    .add((ProviderCallOutcome) row[2], (Boolean) row[3], ((Number) row[4]).longValue(),
+                            ((Number) row[5]).longValue(), (BigDecimal) row[6]);
+        }
+
+        List<ProviderCostSummary> providers = new ArrayList<>(totalsByModel.size());
+        long calls = 0;
+        long billableCalls = 0;
+        long retriedCalls = 0;
+        long images = 0;
+        BigDecimal cost = BigDecimal.ZERO;
+        for (ProviderTotals totals : totalsByModel.values()) {
+            ProviderCostSummary summary = totals.toSummary();
+            providers.add(summary);
+            calls += summary.calls();
+            billableCalls += summary.billableCalls();
+            retriedCalls += summary.retriedCalls();
+            images += summary.images();
+            cost = cost.add(summary.cost());
+        }
+        return new CostLedgerSummary(since, properties.getCurrency(), calls, billableCalls, retriedCalls, images,
+                cost, providers);
+    }
+
+    @Override
+    public int flush() {
+        return queue.flush();
+    }
+
+    /**
+     * Returns the number of ledger entries waiting to be written.
+     *
+     * @return the number of buffered entries
+     */
+    public int pendingCount() {
+        return queue.pendingCount();
+    }
+
+    /**
+     * Stops the flush thread and writes whatever is still buffered.
+     */
+    @PreDestroy
+    public void shutdown() {
+        int flushed = queue.shutdown();
+        if (flushed > 0) {
+            logger.info("Flushed {} buffered cost ledger entries on shutdown", flushed);
+        }
+    }
+
+    private int write(List<ProviderCallRecord> batch) {
+        repository.saveAll(batch);
+        logger.debug("Wrote {} cost ledger entries", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Running totals of one provider and model while the summary rows are folded.
+     */
+    private static final class ProviderTotals {
+
+        private final String provider;
+        private final String model;
+        private long calls;
+        private long billableCalls;
+        private long retriedCalls;
+        private long rateLimitedCalls;
+        private long failedCalls;
+        private long images;
+        private BigDecimal cost = BigDecimal.ZERO;
+
+        private ProviderTotals(String provider, String model) {
+            this.provider = provider;
+            this.model = model;
+        }
+
+        private void add(ProviderCallOutcome outcome, boolean retry, long rowCalls, long rowImages, BigDecimal rowCost) {
+            calls += rowCalls;
+            if (retry) {
+                retriedCalls += rowCalls;
+            }
+            switch (outcome) {
+                case SUCCESS -> {
+                    billableCalls += rowCalls;
+                    images += rowImages;
+                }
+                case RATE_LIMITED -> rateLimitedCalls += rowCalls;
+                default -> failedCalls += rowCalls;
+            }
+            cost = cost.add(rowCost);
+        }
+
+        private ProviderCostSummary toSummary() {
+            return new ProviderCostSummary(provider, model, calls, billableCalls, retriedCalls, rateLimitedCalls,
+                    failedCalls, images, cost);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.StatusUpdateProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.repository.ProfileRepository;
+import com.example.matchapp.service.ImageStatusBuffer;
+import com.example.matchapp.service.ProfileManifestService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Write-behind implementation of ImageStatusBuffer.
+ * Buffered profile IDs are written by a {@link WriteBehindQueue} with a single {@code UPDATE ... WHERE id IN (...)}
+ * once the batch size is reached, when the flush interval elapses, or when the application shuts down.
+ * If a write fails, its IDs are put back into the buffer and retried with the next flush.
+ * {@link #flush()} also waits for a batch the flush thread is still writing, and a profile is only marked dirty
+ * in the manifest once its status has been written.
+ * The generated image in the cache stays the durable record: a status lost in a crash is written again
+ * on the next generation run, which finds the image in the cache and does not call the provider.
+ */
+@Service
+public class WriteBehindImageStatusBuffer implements ImageStatusBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindImageStatusBuffer.class);
+
+    private final ProfileRepository profileRepository;
+    private final ProfileManifestService profileManifestService;
+    private final WriteBehindQueue<String> queue;
+
+    public WriteBehindImageStatusBuffer(ProfileRepository profileRepository,
+                                        ProfileManifestService profileManifestService,
+                                        StatusUpdateProperties properties) {
+        if (profileRepository == null) {
+            throw new ConfigurationException("ProfileRepository cannot be null", "profileRepository", "null");
+        }
+        if (profileManifestService == null) {
+            throw new ConfigurationException("ProfileManifestService cannot be null", "profileManifestService", "null");
+        }
+        if (properties == null) {
+            throw new ConfigurationException("StatusUpdateProperties cannot be null", "statusUpdateProperties", "null");
+        }
+        if (properties.getBatchSize() <= 0) {
+            throw new ConfigurationException("Status update batch size must be positive",
+                    "imagegen.status-updates.batch-size", String.valueOf(properties.getBatchSize()));
+        }
+        if (properties.getFlushInterval() <= 0) {
+            throw new ConfigurationException("Status update flush interval must be positive",
+                    "imagegen.status-updates.flush-interval", String.valueOf(properties.getFlushInterval()));
+        }
+        this.profileRepository = profileRepository;
+        this.profileManifestService = profileManifestService;
+        // Each profile is buffered at most once per generation run, so the buffer is bounded by the profile count
+        this.queue = new WriteBehindQueue<>("image-status-flush", properties.getBatchSize(),
+                properties.getFlushInterval(), Integer.MAX_VALUE, this::write, dropped -> { });
+
+        logger.info("Initialized image status write-behind buffer with batch size {} and flush interval {} ms",
+                properties.getBatchSize(), properties.getFlushInterval());
+    }
+
+    @Override
+    public void markGenerated(String profileId) {
+        queue.add(profileId);
+    }
+
+    @Override
+    public int flush() {
+        return queue.flush();
+    }
+
+    /**
+     * Returns the number of status changes waiting to be written.
+     *
+     * @return the number of buffered profile IDs
+     */
+    public int pendingCount() {
+        return queue.pendingCount();
+    }
+
+    /**
+     * Stops the flush thread and writes whatever is still buffered.
+     */
+    @PreDestroy
+    public void shutdown() {
+        int flushed = queue.shutdown();
+        if (flushed > 0) {
+            logger.info("Flushed {} buffered image status updates on shutdown", flushed);
+        }
+    }
+
+    private int write(List<String> batch) {
+        // A profile may have been buffered twice, e.g. by overlapping generation runs
+        List<String> profileIds = List.copyOf(new LinkedHashSet<>(batch));
+        int updated = profileRepository.markImagesGenerated(profileIds);
+        // Only now can a manifest update read the new status back
+        profileIds.forEach(profileManifestService::markDirty);
+        logger.debug("Wrote image status for {} profiles ({} rows updated)", profileIds.size(), updated);
+        return updated;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.matchapp.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Buffer that writes items to a slower store in batches on a background thread.
+ * Items are written once the batch size is reached, when the flush interval elapses, or on shutdown.
+ * A full batch is handed to the flush thread, so callers adding items never wait for the store.
+ * Taking a batch and writing it happens under one lock, so {@link #flush()} returns only after every write that
+ * started before it has finished: everything added before the call has been written when it returns.
+ * If a write fails, its items go back to the front of the buffer and are retried with the next flush.
+ * The buffer is bounded; items that don't fit are dropped and reported to the owner.
+ *
+ * @param <T> the type of the buffered items
+ */
+final class WriteBehindQueue<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    /**
+     * Writes one batch of items to the store.
+     *
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    interface BatchWriter<T> {
+        /**
+         * Writes a batch.
+         *
+         * @param batch the items, oldest first
+         * @return the number of items or rows written, as reported by {@link #flush()}
+         */
+        int write(List<T> batch);
+    }
+
+    private final String threadName;
+    private final int batchSize;
+    private final int maxPending;
+    private final BatchWriter<T> writer;
+    private final IntConsumer onDropped;
+    private final List<T> pending = new ArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Whether a write of a full batch has been handed to the flush thread and not started yet.
+     * Guarded by {@link #pending}.
+     */
+    private boolean flushRequested;
+
+    /**
+     * Creates a queue and starts its flush thread.
+     * The owner validates the settings against its configuration properties first.
+     *
+     * @param threadName the name of the flush thread
+     * @param batchSize the number of buffered items that triggers a write
+     * @param flushInterval the maximum time in milliseconds an item stays buffered
+     * @param maxPending the maximum number of buffered items
+     * @param writer writes a batch to the store
+     * @param onDropped receives the number of items dropped because the buffer was full
+     */
+    WriteBehindQueue(String threadName, int batchSize, long flushInterval, int maxPending,
+                     BatchWriter<T> writer, IntConsumer onDropped) {
+        this.threadName = threadName;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.writer = writer;
+        this.onDropped = onDropped;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers an item, handing a write to the flush thread once a full batch is buffered.
+     *
+     * @param item the item to buffer
+     * @return true if the item was buffered, false if it was dropped because the buffer is full
+     */
+    boolean add(T item) {
+        synchronized (pending) {
+            if (pending.size() >= maxPending) {
+                onDropped.accept(1);
+                return false;
+            }
+            pending.add(item);
+            if (pending.size() < batchSize || flushRequested) {
+                return true;
+            }
+            flushRequested = true;
+        }
+        try {
+            scheduler.execute(this::flushFullBatch);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the final flush writes the buffer
+            synchronized (pending) {
+                flushRequested = false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes all buffered items now, after waiting for a batch that is still being written.
+     *
+     * @return the result of the write, or 0 if nothing was buffered
+     * @throws RuntimeException if the write fails; the items stay buffered
+     */
+    int flush() {
+        writeLock.lock();
+        try {
+            List<T> batch;
+            synchronized (pending) {
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+            return batch.isEmpty() ? 0 : write(batch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of items waiting to be written.
+     *
+     * @return the number of buffered items
+     */
+    int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Stops the flush thread and writes whatever is still buffered.
+     *
+     * @return the result of the final write
+     */
+    int shutdown() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        return flush();
+    }
+
+    private int write(List<T> batch) {
+        try {
+            return writer.write(batch);
+        } catch (RuntimeException e) {
+            int dropped;
+            synchronized (pending) {
+                // The failed items are older than those buffered since, so they go first while there's room
+                int kept = Math.max(0, Math.min(batch.size(), maxPending - pending.size()));
+                pending.addAll(0, batch.subList(0, kept));
+                dropped = batch.size() - kept;
+            }
+            if (dropped > 0) {
+                onDropped.accept(dropped);
+            }
+            logger.error("Failed to write a batch of {} items on {}, keeping {} buffered", batch.size(), threadName,
+                    batch.size() - dropped, e);
+            throw e;
+        }
+    }
+
+    private void flushFullBatch() {
+        synchronized (pending) {
+            flushRequested = false;
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Already logged; the items stay buffered for the next attempt
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.model.BackupArchiveStats;
+import com.example.matchapp.util.AtomicFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Reads and writes backups stored as a single ZIP archive.
+ * Archives are written as a stream, one file at a time, so memory use doesn't depend on the size of the backup.
+ * The ZIP central directory serves as the index: {@link #extractEntry} looks a file up there and reads only
+ * that file's data, without scanning the rest of the archive.
+ * Images are already compressed, so they are stored as-is; other files (e.g. JSON) are deflated.
+ */
+final class ZipBackupArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipBackupArchive.class);
+
+    /**
+     * File extension of backup archives.
+     */
+    static final String EXTENSION = ".zip";
+
+    private static final Set<String> PRECOMPRESSED_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "webp");
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private ZipBackupArchive() {
+        // Utility class
+    }
+
+    /**
+     * Checks whether a backup path refers to an archive.
+     *
+     * @param backup the backup path
+     * @return true if the path is an archive file
+     */
+    static boolean isArchive(Path backup) {
+        return backup.getFileName() != null
+                && backup.getFileName().toString().endsWith(EXTENSION)
+                && Files.isRegularFile(backup);
+    }
+
+    /**
+     * Writes all files under a directory to a new archive.
+     * The archive is written to a temporary file first and moved into place when complete,
+     * so an interrupted backup never leaves a truncated archive behind.
+     *
+     * @param sourceDir the directory to archive
+     * @param archiveFile the archive to create
+     * @param onFileProcessed called once for every file that has been written to the archive
+     * @return statistics about the written archive
+     * @throws IOException if the archive can't be written
+     */
+    static BackupArchiveStats write(Path sourceDir, Path archiveFile, Runnable onFileProcessed) throws IOException {
+        long startTime = System.nanoTime();
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(sourceDir)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> !AtomicFiles.isTemporaryFile(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long uncompressedBytes = AtomicFiles.write(archiveFile, out -> {
+            long bytes = 0;
+            // Finished rather than closed: AtomicFiles syncs and closes the file, and the deflater is freed by its cleaner
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+            for (Path file : files) {
+                bytes += writeEntry(zip, toEntryName(sourceDir.relativize(file)), file, buffer);
+                onFileProcessed.run();
+            }
+            zip.finish();
+            zip.flush();
+            return bytes;
+        });
+
+        BackupArchiveStats stats = new BackupArchiveStats(files.size(), uncompressedBytes, Files.size(archiveFile),
+                Duration.ofNanos(System.nanoTime() - startTime));
+        logger.debug("Wrote archive {} with {} files", archiveFile, stats.files());
+        return stats;
+    }
+
+    /**
+     * Writes one file to a ZIP stream.
+     * Already compressed images are stored as-is; other files are deflated.
+     * The checksum and the data of stored entries are read from the same open file, so an image that is
+     * atomically replaced meanwhile can't make them disagree; the second pass is served from the page cache.
+     *
+     * @param zip the stream to write to
+     * @param entryName the name of the entry, using '/' as separator
+     * @param file the file to write
+     * @param buffer a scratch buffer for copying
+     * @return the size of the file
+     * @throws IOException if the file can't be read or the stream can't be written
+     */
+    static long writeEntry(ZipOutputStream zip, String entryName, Path file, byte[] buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ZipEntry entry = new ZipEntry(entryName);
+            long size = channel.size();
+            entry.setLastModifiedTime(Files.getLastModifiedTime(file));
+            ByteBuffer chunk = ByteBuffer.wrap(buffer);
+
+            if (isPrecompressed(file)) {
+                // Stored entries need their size and checksum before the data is written
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(size);
+                entry.setCompressedSize(size);
+                entry.setCrc(crc32(channel, size, chunk));
+            } else {
+                entry.setMethod(ZipEntry.DEFLATED);
+            }
+
+            zip.putNextEntry(entry);
+            transfer(channel, size, zip, chunk);
+            zip.closeEntry();
+            return size;
+        }
+    }
+
+    /**
+     * Extracts all files of an archive.
+     *
+     * @param archiveFile the archive
+     * @param targetDir the directory to extract to
+     * @param overwrite whether to overwrite existing files
+     * @param extracted receives the path inside the archive of every extracted file
+     * @return the number of files extracted
+     * @throws IOException if the archive can't be read or a file can't be written
+     */
+    static int extractAll(Path archiveFile, Path targetDir, boolean overwrite, Consumer<String> extracted)
+            throws IOException {
+        int count = 0;
+        try (ZipFile zip = new ZipFile(archiveFile.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && extract(zip, entry, targetDir, overwrite)) {
+                    extracted.accept(entry.getName());
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Extracts a single file of an archive, using the archive's central directory to locate it.
+     *
+     * @param archiveFile the archive
+     * @param entryName the path of the file inside the archive, using '/' as separator
+     * @param targetDir the directory to extract to
+     * @param overwrite whether to overwrite an existing file
+     * @return true if the file was extracted, false if it isn't in the archive or exists and overwrite is off
+     * @throws IOException if the archive can't be read or the file can't be written
+     */
+    static boolean extractEntry(Path archiveFile, String entryName, Path targetDir, boolean overwrite)
+            throws IOException {
+        try (ZipFile zip = new ZipFile(archiveFile.toFile())) {
+            ZipEntry entry = zip.getEntry(entryName);
+            return entry != null && !entry.isDirectory() && extract(zip, entry, targetDir, overwrite);
+        }
+    }
+
+    private static boolean extract(ZipFile zip, ZipEntry entry, Path targetDir, boolean overwrite)
+            throws IOException {
+        Path targetPath = resolveSafely(targetDir, entry.getName());
+        if (Files.exists(targetPath) && !overwrite) {
+            logger.debug("Skipped existing file: {}", entry.getName());
+            return false;
+        }
+
+        Path parent = targetPath.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // Images may be served while they're restored, so each one is replaced atomically
+        try (InputStream in = zip.getInputStream(entry)) {
+            AtomicFiles.write(targetPath, in::transferTo);
+        }
+        if (entry.getLastModifiedTime() != null) {
+            Files.setLastModifiedTime(targetPath, entry.getLastModifiedTime());
+        }
+        logger.debug("Restored file: {}", entry.getName());
+        return true;
+    }
+
+    /**
+     * Resolves an entry name against the target directory, rejecting names that would escape it.
+     */
+    private static Path resolveSafely(Path targetDir, String entryName) throws IOException {
+        Path normalizedTarget = targetDir.toAbsolutePath().normalize();
+        Path resolved = normalizedTarget.resolve(entryName).normalize();
+        if (!resolved.startsWith(normalizedTarget)) {
+            throw new IOException("Archive entry is outside the target directory: " + entryName);
+        }
+        return resolved;
+    }
+
+    private static boolean isPrecompressed(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && PRECOMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static long crc32(FileChannel channel, long size, ByteBuffer chunk) throws IOException {
+        CRC32 crc = new CRC32();
+        long position = 0;
+        while (position < size) {
+            int read = channel.read(chunk.clear().limit((int) Math.min(chunk.capacity(), size - position)), position);
+            if (read < 0) {
+                throw new EOFException("File was truncated while archiving");
+            }
+            crc.update(chunk.array(), 0, read);
+            position += read;
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Copies the first {@code size} bytes of a file, which is what the entry header announced.
+     */
+    private static void transfer(FileChannel channel, long size, OutputStream out, ByteBuffer chunk)
+            throws IOException {
+        long position = 0;
+        while (position < size) {
+            int read = channel.read(chunk.clear().limit((int) Math.min(chunk.capacity(), size - position)), position);
+            if (read < 0) {
+                throw new EOFException("File was truncated while archiving");
+            }
+            out.write(chunk.array(), 0, read);
+            position += read;
+        }
+    }
+
+    private static String toEntryName(Path relativePath) {
+        return relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), "/");
+    }
+}
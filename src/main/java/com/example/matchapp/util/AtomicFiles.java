@@ -0,0 +1,152 @@
+package com.example.matchapp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Utility methods for replacing files atomically.
+ * Content is written to a temporary file in the same directory, forced to disk and then moved over
+ * the target, so readers see either the old file or the complete new one.
+ * Temporary files are hidden and end in {@code .tmp}; backups recognize them with {@link #isTemporaryFile(Path)}
+ * and skip them while they're being written.
+ */
+public final class AtomicFiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtomicFiles.class);
+
+    /**
+     * Suffix of temporary files. Such files are incomplete and must not be backed up.
+     */
+    public static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private AtomicFiles() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Writes content to a stream.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface Content<T> {
+        /**
+         * Writes the content. The stream must not be closed.
+         *
+         * @param out the stream to write to
+         * @return a result passed back to the caller of {@link AtomicFiles#write(Path, Content)}
+         * @throws IOException if the content can't be written
+         */
+        T writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes content directly to a file channel, e.g. from pooled direct buffers or with {@code transferTo}.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface ChannelContent<T> {
+        /**
+         * Writes the content. The channel must not be closed.
+         *
+         * @param channel the channel to write to
+         * @return a result passed back to the caller of {@link AtomicFiles#writeChannel(Path, ChannelContent)}
+         * @throws IOException if the content can't be written
+         */
+        T writeTo(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Checks whether a file is a temporary file that is still being written.
+     *
+     * @param file the file to check
+     * @return true if the file is a temporary file
+     */
+    public static boolean isTemporaryFile(Path file) {
+        Path fileName = file.getFileName();
+        return fileName != null && fileName.toString().endsWith(TEMP_FILE_SUFFIX);
+    }
+
+    /**
+     * Atomically replaces a file with the given content.
+     *
+     * @param target the file to write
+     * @param content writes the content of the file
+     * @param <T> the type of the result
+     * @return the result of the content writer
+     * @throws IOException if the file can't be written
+     */
+    public static <T> T write(Path target, Content<T> content) throws IOException {
+        return writeChannel(target, channel -> {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            T result = content.writeTo(out);
+            out.flush();
+            return result;
+        });
+    }
+
+    /**
+     * Atomically replaces a file with content written directly to a file channel.
+     *
+     * @param target the file to write
+     * @param content writes the content of the file
+     * @param <T> the type of the result
+     * @return the result of the content writer
+     * @throws IOException if the file can't be written
+     */
+    public static <T> T writeChannel(Path target, ChannelContent<T> content) throws IOException {
+        Path tempFile = tempFileFor(target);
+        try {
+            T result;
+            try (FileChannel channel = FileChannel.open(tempFile,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+                result = content.writeTo(channel);
+                // Make sure the content is on disk before the file becomes visible under its real name
+                channel.force(true);
+            }
+            moveIntoPlace(tempFile, target);
+            return result;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Creates a unique temporary file name next to the target.
+     *
+     * @param target the file that will eventually be replaced
+     * @return the path of the temporary file; the file itself isn't created
+     */
+    public static Path tempFileFor(Path target) {
+        return target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX);
+    }
+
+    /**
+     * Moves a fully written temporary file over the target, atomically where the file system allows it.
+     *
+     * @param tempFile the temporary file
+     * @param target the file to replace
+     * @throws IOException if the file can't be moved
+     */
+    public static void moveIntoPlace(Path tempFile, Path target) throws IOException {
+        try {
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("Atomic move not supported for {}, falling back to a regular move", target);
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.matchapp.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Small thread-safe in-memory cache with a maximum size and a time-to-live per entry.
+ * Entries are evicted in least-recently-used order once the maximum size is reached,
+ * and expired entries are dropped lazily when they are looked up.
+ *
+ * <p>Every invalidation bumps a stamp. Read-through callers take the stamp before loading a value
+ * and store it with {@link #putIfUnchanged(Object, Object, long)}, so a value loaded before a concurrent
+ * write is never cached after that write has invalidated the key.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long invalidationStamp;
+
+    /**
+     * Creates a cache using the system nano clock.
+     *
+     * @param maxSize the maximum number of entries to keep
+     * @param ttlMillis how long an entry stays valid after it was stored, in milliseconds
+     */
+    public BoundedTtlCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache using the given clock.
+     *
+     * @param maxSize the maximum number of entries to keep
+     * @param ttlMillis how long an entry stays valid after it was stored, in milliseconds
+     * @param clock a monotonic clock returning nanoseconds
+     */
+    public BoundedTtlCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache max size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedTtlCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets a value if present and not expired.
+     *
+     * @param key the key to look up
+     * @return an Optional containing the cached value, or empty on a miss
+     */
+    public synchronized Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (clock.getAsLong() - entry.storedAt >= ttlNanos) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value);
+    }
+
+    /**
+     * Stores a value unconditionally.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+    }
+
+    /**
+     * Stores a value only if nothing has been invalidated since {@code stamp} was taken.
+     *
+     * @param key the key
+     * @param value the value
+     * @param stamp the value returned by {@link #stamp()} before the value was loaded
+     * @return true if the value was stored
+     */
+    public synchronized boolean putIfUnchanged(K key, V value, long stamp) {
+        if (stamp != invalidationStamp) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Returns the current invalidation stamp.
+     *
+     * @return the stamp to pass to {@link #putIfUnchanged(Object, Object, long)}
+     */
+    public synchronized long stamp() {
+        return invalidationStamp;
+    }
+
+    /**
+     * Removes a single key.
+     *
+     * @param key the key to remove
+     */
+    public synchronized void invalidate(K key) {
+        invalidationStamp++;
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void invalidateAll() {
+        invalidationStamp++;
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of entries currently held, including expired entries not yet dropped.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long storedAt) {
+    }
+}
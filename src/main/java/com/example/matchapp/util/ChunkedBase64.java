@@ -0,0 +1,71 @@
+package com.example.matchapp.util;
+
+import java.util.Base64;
+
+/**
+ * Utility methods for decoding large base64 strings chunk by chunk.
+ * {@link Base64.Decoder#decode(String)} first copies the whole string into a byte array, which for a generated
+ * image is a multi-megabyte allocation on top of the decoded image. Decoding through two small arrays that are
+ * reused for every chunk leaves the decoded image as the only image-sized allocation.
+ */
+public final class ChunkedBase64 {
+
+    /**
+     * Number of base64 characters decoded at a time; a multiple of 4, so every chunk holds whole groups.
+     */
+    static final int CHUNK_CHARS = 64 * 1024;
+
+    private ChunkedBase64() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Decodes a base64 string using the basic alphabet, with the same result as {@link Base64.Decoder#decode(String)}.
+     *
+     * @param base64 the base64 string
+     * @return the decoded bytes
+     * @throws IllegalArgumentException if the string isn't valid base64
+     */
+    public static byte[] decode(String base64) {
+        return decode(base64, CHUNK_CHARS);
+    }
+
+    static byte[] decode(String base64, int chunkChars) {
+        int length = base64.length();
+        // Anything that isn't made of whole 4-character groups is left to the JDK to reject or decode
+        if (length % 4 != 0 || length <= chunkChars) {
+            return Base64.getDecoder().decode(base64);
+        }
+
+        int padding = base64.charAt(length - 1) == '=' ? (base64.charAt(length - 2) == '=' ? 2 : 1) : 0;
+        byte[] decoded = new byte[length / 4 * 3 - padding];
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] src = new byte[chunkChars];
+        byte[] dst = new byte[chunkChars / 4 * 3];
+
+        int offset = 0;
+        for (int start = 0; start < length; start += chunkChars) {
+            int end = Math.min(length, start + chunkChars);
+            // The decoder reads the whole source array, so only the shorter last chunk needs one of its own
+            if (end - start != src.length) {
+                src = new byte[end - start];
+            }
+            for (int i = start; i < end; i++) {
+                char c = base64.charAt(i);
+                if (c > 0x7f) {
+                    throw new IllegalArgumentException("Illegal base64 character " + Integer.toHexString(c)
+                            + " at index " + i);
+                }
+                src[i - start] = (byte) c;
+            }
+            int decodedLength = decoder.decode(src, dst);
+            // Padding is only valid at the very end, so every chunk but the last decodes to its full size
+            if (end < length ? decodedLength != dst.length : offset + decodedLength != decoded.length) {
+                throw new IllegalArgumentException("Unexpected padding in base64 input");
+            }
+            System.arraycopy(dst, 0, decoded, offset, decodedLength);
+            offset += decodedLength;
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.matchapp.util;
+
+/**
+ * Utility methods for recognizing image formats.
+ * Providers return images in whatever format they choose, so the format is detected from the
+ * leading bytes of the image instead of being assumed from its file name.
+ */
+public final class ImageFormats {
+
+    /**
+     * Number of leading bytes needed to recognize every supported format.
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    /**
+     * Content type of images in an unrecognized format.
+     */
+    public static final String UNKNOWN_CONTENT_TYPE = "application/octet-stream";
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] GIF87A = {'G', 'I', 'F', '8', '7', 'a'};
+    private static final byte[] GIF89A = {'G', 'I', 'F', '8', '9', 'a'};
+    private static final byte[] RIFF = {'R', 'I', 'F', 'F'};
+    private static final byte[] WEBP = {'W', 'E', 'B', 'P'};
+
+    private ImageFormats() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Detects the content type of an image from its leading bytes.
+     *
+     * @param header the leading bytes of the image
+     * @param length the number of valid bytes in the header
+     * @return the content type, or {@link #UNKNOWN_CONTENT_TYPE} if the format isn't recognized
+     */
+    public static String detectContentType(byte[] header, int length) {
+        if (startsWith(header, length, 0, PNG)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 0, JPEG)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0, GIF87A) || startsWith(header, length, 0, GIF89A)) {
+            return "image/gif";
+        }
+        if (startsWith(header, length, 0, RIFF) && startsWith(header, length, 8, WEBP)) {
+            return "image/webp";
+        }
+        return UNKNOWN_CONTENT_TYPE;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
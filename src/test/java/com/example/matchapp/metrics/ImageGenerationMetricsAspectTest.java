@@ -0,0 +1,85 @@
+package com.example.matchapp.metrics;
+
+import com.example.matchapp.exception.ApiRateLimitException;
+import com.example.matchapp.exception.ImageGenerationException;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.ImageGenerationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImageGenerationMetricsAspectTest {
+
+    private final ProfileEntity profile = new ProfileEntity("p1", "Test", "User", 30, "Test Ethnicity",
+            Gender.FEMALE, "Test bio", "p1.jpg", "INTJ");
+
+    private SimpleMeterRegistry registry;
+    private ImageGenerationMetricsAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        aspect = new ImageGenerationMetricsAspect(new ImageGenerationMetrics(registry));
+    }
+
+    private <T> T advise(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private ImageGenerationService service(String providerName) {
+        ImageGenerationService service = mock(ImageGenerationService.class);
+        when(service.getProviderName()).thenReturn(providerName);
+        return service;
+    }
+
+    private double count(String name, String provider) {
+        return registry.get(name).tag("provider", provider).counter().count();
+    }
+
+    @Test
+    void generateImage_success_recordsRequestTaggedWithProvider() {
+        ImageGenerationService service = service("OpenAI");
+        when(service.generateImage(profile)).thenReturn(new byte[] {1, 2, 3});
+
+        assertArrayEquals(new byte[] {1, 2, 3}, advise(service).generateImage(profile));
+
+        assertEquals(1, count("imagegen.requests.total", "OpenAI"));
+        assertEquals(1, count("imagegen.requests.success", "OpenAI"));
+        assertEquals(0, count("imagegen.requests.failure", "OpenAI"));
+        assertEquals(1, registry.get("imagegen.response.time")
+                .tags("provider", "OpenAI", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void generateImage_apiError_recordsApiErrorOutcome() {
+        ImageGenerationService service = service("OpenAI");
+        when(service.generateImage(profile)).thenThrow(new ApiRateLimitException("rate limited"));
+
+        ImageGenerationService proxy = advise(service);
+        assertThrows(ApiRateLimitException.class, () -> proxy.generateImage(profile));
+
+        assertEquals(1, count("imagegen.api.errors", "OpenAI"));
+        assertEquals(0, count("imagegen.requests.failure", "OpenAI"));
+        assertEquals(1, registry.get("imagegen.response.time")
+                .tags("provider", "OpenAI", "outcome", "api_error").timer().count());
+    }
+
+    @Test
+    void generateImage_otherFailure_recordsFailureOutcome() {
+        ImageGenerationService service = service(null);
+        when(service.generateImage(profile)).thenThrow(new ImageGenerationException("failed"));
+
+        ImageGenerationService proxy = advise(service);
+        assertThrows(ImageGenerationException.class, () -> proxy.generateImage(profile));
+
+        assertEquals(1, count("imagegen.requests.failure", ImageGenerationMetrics.UNKNOWN_PROVIDER));
+        assertEquals(0, count("imagegen.api.errors", ImageGenerationMetrics.UNKNOWN_PROVIDER));
+    }
+}
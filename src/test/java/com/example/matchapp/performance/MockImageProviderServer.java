@@ -0,0 +1,402 @@
+package com.example.matchapp.performance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the OpenAI images endpoint, used for load tests that must not depend on the network
+ * or spend API credits.
+ * The server answers every POST with an OpenAI-shaped response carrying a base64 image of the configured size
+ * after a log-normally distributed delay, and fails a configurable share of requests with 500 or with 429 and
+ * a {@code Retry-After} header. Point {@code imagegen.base-url} and {@code imagegen.spring-ai-base-url} at
+ * {@link #getUrl()} to run the real image generation services against it.
+ *
+ * <p>The server can be embedded in tests and simulations or started on its own with {@link #main(String[])},
+ * configured through the system properties listed in {@link Settings#fromSystemProperties()}.
+ */
+public class MockImageProviderServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockImageProviderServer.class);
+
+    /**
+     * Path the OpenAI images endpoint is served under. Other paths are accepted as well.
+     */
+    public static final String GENERATIONS_PATH = "/v1/images/generations";
+
+    /**
+     * z-score of the 99th percentile of the standard normal distribution.
+     */
+    private static final double Z_99 = 2.3263;
+
+    private static final byte[] SERVER_ERROR_BODY =
+            "{\"error\":{\"message\":\"The server had an error while processing your request.\",\"type\":\"server_error\"}}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] RATE_LIMIT_BODY =
+            "{\"error\":{\"message\":\"Rate limit reached for images per minute.\",\"type\":\"requests\",\"code\":\"rate_limit_exceeded\"}}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] UNAUTHORIZED_BODY =
+            "{\"error\":{\"message\":\"You didn't provide an API key.\",\"type\":\"invalid_request_error\"}}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final Settings settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] successBody;
+    private final double latencySigma;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private MockImageProviderServer(Settings settings) throws IOException {
+        settings.validate();
+        this.settings = settings;
+        this.successBody = createSuccessBody(settings.getPayloadSize());
+        this.latencySigma = settings.getLatencyP99Ms() > settings.getLatencyMedianMs()
+                ? Math.log((double) settings.getLatencyP99Ms() / settings.getLatencyMedianMs()) / Z_99
+                : 0.0;
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.getPort()), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts a server with the given settings.
+     *
+     * @param settings the behavior of the server
+     * @return the running server
+     * @throws IOException if the port can't be bound
+     */
+    public static MockImageProviderServer start(Settings settings) throws IOException {
+        MockImageProviderServer mockServer = new MockImageProviderServer(settings);
+        mockServer.server.start();
+        logger.info("Mock image provider listening on {} (latency median {} ms, p99 {} ms, payload {} bytes, "
+                        + "error rate {}, 429 rate {})",
+                mockServer.getUrl(), settings.getLatencyMedianMs(), settings.getLatencyP99Ms(),
+                settings.getPayloadSize(), settings.getErrorRate(), settings.getRateLimitRate());
+        return mockServer;
+    }
+
+    /**
+     * Starts a standalone server configured from system properties and runs until the JVM is stopped.
+     *
+     * @param args ignored
+     * @throws IOException if the port can't be bound
+     */
+    public static void main(String[] args) throws IOException {
+        MockImageProviderServer mockServer = start(Settings.fromSystemProperties());
+        Runtime.getRuntime().addShutdownHook(new Thread(mockServer::close, "mock-image-provider-shutdown"));
+    }
+
+    /**
+     * Creates the response body once, so serving a request costs no encoding work.
+     */
+    private static byte[] createSuccessBody(int payloadSize) {
+        // Random bytes have the same size and entropy as compressed image data
+        byte[] image = new byte[payloadSize];
+        new Random(42).nextBytes(image);
+        String json = "{\"created\":" + System.currentTimeMillis() / 1000
+                + ",\"data\":[{\"b64_json\":\"" + Base64.getEncoder().encodeToString(image) + "\"}]}";
+        return json.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            drain(exchange.getRequestBody());
+
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (exchange.getRequestHeaders().getFirst("Authorization") == null) {
+                respond(exchange, 401, UNAUTHORIZED_BODY);
+                return;
+            }
+
+            double outcome = ThreadLocalRandom.current().nextDouble();
+            if (outcome < settings.getRateLimitRate()) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", Integer.toString(settings.getRetryAfterSeconds()));
+                respond(exchange, 429, RATE_LIMIT_BODY);
+                return;
+            }
+
+            sleep(sampleLatencyMs());
+            if (outcome < settings.getRateLimitRate() + settings.getErrorRate()) {
+                errors.incrementAndGet();
+                respond(exchange, 500, SERVER_ERROR_BODY);
+                return;
+            }
+
+            successes.incrementAndGet();
+            respond(exchange, 200, successBody);
+        }
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        try (body) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Draws a latency from a log-normal distribution with the configured median and 99th percentile,
+     * which matches the long right tail of real image generation latencies.
+     */
+    private long sampleLatencyMs() {
+        if (latencySigma == 0.0) {
+            return settings.getLatencyMedianMs();
+        }
+        double sample = settings.getLatencyMedianMs() * Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian());
+        return Math.min(Math.round(sample), settings.getLatencyMaxMs());
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the URL of the images endpoint, suitable for {@code imagegen.base-url}.
+     *
+     * @return the endpoint URL
+     */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort() + GENERATIONS_PATH;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getSuccessCount() {
+        return successes.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * Stops the server, giving in-flight requests a second to complete.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+        logger.info("Mock image provider stopped after {} requests ({} succeeded, {} rate limited, {} failed)",
+                getRequestCount(), getSuccessCount(), getRateLimitedCount(), getErrorCount());
+    }
+
+    /**
+     * Behavior of the mock image provider.
+     */
+    public static class Settings {
+
+        /**
+         * Port to listen on; 0 picks a free port.
+         */
+        private int port = 0;
+
+        /**
+         * Median response latency in milliseconds.
+         */
+        private long latencyMedianMs = 8_000;
+
+        /**
+         * 99th percentile of the response latency in milliseconds. Equal to the median for a fixed latency.
+         */
+        private long latencyP99Ms = 20_000;
+
+        /**
+         * Upper bound of sampled latencies in milliseconds.
+         */
+        private long latencyMaxMs = 60_000;
+
+        /**
+         * Size in bytes of the decoded image. 1.5 MB is typical for a 1024×1024 PNG.
+         */
+        private int payloadSize = 1_572_864;
+
+        /**
+         * Share of requests answered with 500 after the sampled latency.
+         */
+        private double errorRate = 0.0;
+
+        /**
+         * Share of requests answered immediately with 429.
+         */
+        private double rateLimitRate = 0.0;
+
+        /**
+         * Value of the Retry-After header of 429 responses, in seconds.
+         */
+        private int retryAfterSeconds = 1;
+
+        /**
+         * Creates settings from {@code mock.provider.*} system properties, falling back to the defaults:
+         * {@code port}, {@code latency-median-ms}, {@code latency-p99-ms}, {@code latency-max-ms},
+         * {@code payload-size}, {@code error-rate}, {@code rate-limit-rate} and {@code retry-after-seconds}.
+         *
+         * @return the settings
+         */
+        public static Settings fromSystemProperties() {
+            return fromSystemProperties(new Settings());
+        }
+
+        /**
+         * Overrides the given settings with the {@code mock.provider.*} system properties that are set.
+         *
+         * @param settings the settings to use for properties that aren't set
+         * @return the given settings
+         * @see #fromSystemProperties()
+         */
+        public static Settings fromSystemProperties(Settings settings) {
+            settings.setPort(Integer.getInteger("mock.provider.port", settings.getPort()));
+            settings.setLatencyMedianMs(Long.getLong("mock.provider.latency-median-ms", settings.getLatencyMedianMs()));
+            settings.setLatencyP99Ms(Long.getLong("mock.provider.latency-p99-ms", settings.getLatencyP99Ms()));
+            settings.setLatencyMaxMs(Long.getLong("mock.provider.latency-max-ms", settings.getLatencyMaxMs()));
+            settings.setPayloadSize(Integer.getInteger("mock.provider.payload-size", settings.getPayloadSize()));
+            settings.setErrorRate(doubleProperty("mock.provider.error-rate", settings.getErrorRate()));
+            settings.setRateLimitRate(doubleProperty("mock.provider.rate-limit-rate", settings.getRateLimitRate()));
+            settings.setRetryAfterSeconds(
+                    Integer.getInteger("mock.provider.retry-after-seconds", settings.getRetryAfterSeconds()));
+            return settings;
+        }
+
+        private static double doubleProperty(String name, double defaultValue) {
+            String value = System.getProperty(name);
+            return value == null ? defaultValue : Double.parseDouble(value);
+        }
+
+        void validate() {
+            if (latencyMedianMs < 0 || latencyP99Ms < latencyMedianMs || latencyMaxMs < latencyP99Ms) {
+                throw new IllegalArgumentException("Latencies must satisfy 0 <= median <= p99 <= max");
+            }
+            if (latencyP99Ms > latencyMedianMs && latencyMedianMs == 0) {
+                throw new IllegalArgumentException("A latency distribution needs a positive median");
+            }
+            if (payloadSize < 0) {
+                throw new IllegalArgumentException("Payload size cannot be negative");
+            }
+            if (errorRate < 0 || rateLimitRate < 0 || errorRate + rateLimitRate > 1) {
+                throw new IllegalArgumentException("Error and 429 rates must be between 0 and 1 in total");
+            }
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public long getLatencyMedianMs() {
+            return latencyMedianMs;
+        }
+
+        public void setLatencyMedianMs(long latencyMedianMs) {
+            this.latencyMedianMs = latencyMedianMs;
+        }
+
+        public long getLatencyP99Ms() {
+            return latencyP99Ms;
+        }
+
+        public void setLatencyP99Ms(long latencyP99Ms) {
+            this.latencyP99Ms = latencyP99Ms;
+        }
+
+        public long getLatencyMaxMs() {
+            return latencyMaxMs;
+        }
+
+        public void setLatencyMaxMs(long latencyMaxMs) {
+            this.latencyMaxMs = latencyMaxMs;
+        }
+
+        public int getPayloadSize() {
+            return payloadSize;
+        }
+
+        public void setPayloadSize(int payloadSize) {
+            this.payloadSize = payloadSize;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public double getRateLimitRate() {
+            return rateLimitRate;
+        }
+
+        public void setRateLimitRate(double rateLimitRate) {
+            this.rateLimitRate = rateLimitRate;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.matchapp.performance;
+
+import com.example.matchapp.config.ImageGenProperties;
+import com.example.matchapp.config.PromptProperties;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.impl.OpenAIImageGenerationService;
+import com.example.matchapp.service.impl.TemplatePromptBuilderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockImageProviderServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private MockImageProviderServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private static MockImageProviderServer.Settings fastSettings() {
+        MockImageProviderServer.Settings settings = new MockImageProviderServer.Settings();
+        settings.setLatencyMedianMs(0);
+        settings.setLatencyP99Ms(0);
+        settings.setPayloadSize(4096);
+        return settings;
+    }
+
+    private HttpResponse<String> post(String authorization) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(server.getUrl()))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"prompt\":\"test\"}"));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void openAiService_pointedAtServer_receivesImageOfConfiguredSize() throws Exception {
+        server = MockImageProviderServer.start(fastSettings());
+
+        ImageGenProperties properties = new ImageGenProperties();
+        properties.setApiKey("test-key");
+        properties.setBaseUrl(server.getUrl());
+        OpenAIImageGenerationService service = new OpenAIImageGenerationService(
+                properties, new TemplatePromptBuilderService(new PromptProperties()), new RetryTemplate(), () -> { });
+
+        byte[] image = service.generateImage(new ProfileEntity("p1", "Test", "User", 30, "Test Ethnicity",
+                Gender.FEMALE, "Test bio", "p1.jpg", "INTJ"));
+
+        assertEquals(4096, image.length);
+        assertEquals(1, server.getSuccessCount());
+    }
+
+    @Test
+    void post_withRateLimitRateOne_returns429WithRetryAfter() throws Exception {
+        MockImageProviderServer.Settings settings = fastSettings();
+        settings.setRateLimitRate(1.0);
+        settings.setRetryAfterSeconds(7);
+        server = MockImageProviderServer.start(settings);
+
+        HttpResponse<String> response = post("Bearer test-key");
+
+        assertEquals(429, response.statusCode());
+        assertEquals("7", response.headers().firstValue("Retry-After").orElse(null));
+        assertTrue(response.body().contains("rate_limit_exceeded"));
+        assertEquals(1, server.getRateLimitedCount());
+    }
+
+    @Test
+    void post_withErrorRateOne_returnsServerError() throws Exception {
+        MockImageProviderServer.Settings settings = fastSettings();
+        settings.setErrorRate(1.0);
+        server = MockImageProviderServer.start(settings);
+
+        assertEquals(500, post("Bearer test-key").statusCode());
+        assertEquals(1, server.getErrorCount());
+    }
+
+    @Test
+    void post_withoutApiKey_returnsUnauthorized() throws Exception {
+        server = MockImageProviderServer.start(fastSettings());
+
+        assertEquals(401, post(null).statusCode());
+    }
+
+    @Test
+    void start_withInvalidSettings_throwsException() {
+        MockImageProviderServer.Settings settings = fastSettings();
+        settings.setErrorRate(0.6);
+        settings.setRateLimitRate(0.6);
+
+        assertThrows(IllegalArgumentException.class, () -> MockImageProviderServer.start(settings));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.matchapp.performance;
+
+import com.example.matchapp.CreateIaProfilesApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Application under test for the Gatling simulations.
+ * By default the application is started in-process with the {@code perf} profile and its image provider
+ * pointed at a {@link MockImageProviderServer}, so simulations run without network access or API keys.
+ * Setting the {@code perf.target-url} system property (e.g. {@code http://staging:8080/api}) runs the
+ * simulations against an already running instance instead and starts nothing locally.
+ */
+public final class PerformanceEnvironment implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceEnvironment.class);
+
+    /**
+     * Port of the in-process application, configurable through {@code perf.app.port}.
+     */
+    private static final int APP_PORT = Integer.getInteger("perf.app.port", 18080);
+
+    private static final String TARGET_URL = System.getProperty("perf.target-url");
+
+    private final MockImageProviderServer provider;
+    private final ConfigurableApplicationContext application;
+
+    private PerformanceEnvironment(MockImageProviderServer provider, ConfigurableApplicationContext application) {
+        this.provider = provider;
+        this.application = application;
+    }
+
+    /**
+     * Gets the base URL of the application under test, including the context path.
+     * It's known before the environment is started, so simulations can use it when building their protocol.
+     *
+     * @return the base URL
+     */
+    public static String baseUrl() {
+        return TARGET_URL != null ? TARGET_URL : "http://localhost:" + APP_PORT + "/api";
+    }
+
+    /**
+     * Starts the provider stand-in and the application, unless an external target is configured.
+     *
+     * @param settings the behavior of the provider stand-in
+     * @return the running environment
+     * @throws IOException if the stand-in can't be started
+     */
+    public static PerformanceEnvironment start(MockImageProviderServer.Settings settings) throws IOException {
+        if (TARGET_URL != null) {
+            logger.info("Running against external application at {}", TARGET_URL);
+            return new PerformanceEnvironment(null, null);
+        }
+
+        MockImageProviderServer provider = MockImageProviderServer.start(settings);
+        try {
+            ConfigurableApplicationContext application = new SpringApplicationBuilder(CreateIaProfilesApplication.class)
+                    .profiles("perf")
+                    .properties(
+                            "server.port=" + APP_PORT,
+                            "imagegen.base-url=" + provider.getUrl(),
+                            "imagegen.spring-ai-base-url=" + provider.getUrl())
+                    .run();
+            logger.info("Application started at {} using the image provider stand-in at {}", baseUrl(), provider.getUrl());
+            return new PerformanceEnvironment(provider, application);
+        } catch (RuntimeException e) {
+            provider.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the provider stand-in, or null when running against an external application.
+     *
+     * @return the provider stand-in
+     */
+    public MockImageProviderServer getProvider() {
+        return provider;
+    }
+
+    @Override
+    public void close() {
+        if (application != null) {
+            application.close();
+        }
+        if (provider != null) {
+            provider.close();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.matchapp.performance;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Gatling performance regression suite.
+ * Each scenario exercises one workload and has its own latency objectives (p95/p99); the build fails
+ * when any of them, or the global error rate, is violated. By default the application is started
+ * in-process against the local image provider stand-in (see {@link PerformanceEnvironment}), so the
+ * suite runs fully offline.
+ *
+ * <p>The suite runs in three phases, so the scenarios that depend on the data set see a predictable one:
+ * <ol>
+ *     <li>CRUD read-heavy traffic, single image generation and backups run concurrently on the initial profiles.</li>
+ *     <li>Bulk generation generates images for all profiles, first cold and then from the image cache.</li>
+ *     <li>The repository is seeded with additional profiles and paginated from the first to the last page.</li>
+ * </ol>
+ */
+public class PerformanceRegressionSimulation extends Simulation {
+
+    /**
+     * Profiles added before the pagination scenario, so deep pages exist. Configurable through {@code perf.seed-profiles}.
+     */
+    private static final int SEED_PROFILES = Integer.getInteger("perf.seed-profiles", 2000);
+
+    private static final int PAGE_SIZE = 20;
+
+    // Load multiplier for all scenarios, e.g. -Dperf.load-factor=0.2 for a quick smoke run
+    private static final double LOAD_FACTOR = Double.parseDouble(System.getProperty("perf.load-factor", "1.0"));
+
+    private PerformanceEnvironment environment;
+
+    // HTTP protocol configuration
+    private final HttpProtocolBuilder httpProtocol = http
+        .baseUrl(PerformanceEnvironment.baseUrl())
+        .acceptHeader("application/json")
+        .contentTypeHeader("application/json")
+        .userAgentHeader("Gatling/Performance-Test");
+
+    private static int users(int count) {
+        return Math.max(1, (int) Math.round(count * LOAD_FACTOR));
+    }
+
+    /**
+     * Provider behavior for the suite: fast enough that generation objectives reflect the application rather than
+     * the provider. Override with -Dmock.provider.* system properties.
+     */
+    private static MockImageProviderServer.Settings providerSettings() {
+        MockImageProviderServer.Settings settings = new MockImageProviderServer.Settings();
+        settings.setLatencyMedianMs(200);
+        settings.setLatencyP99Ms(800);
+        settings.setLatencyMaxMs(2000);
+        return MockImageProviderServer.Settings.fromSystemProperties(settings);
+    }
+
+    // Feeders
+    private static final AtomicLong PROFILE_SEQUENCE = new AtomicLong();
+
+    private static Iterator<Map<String, Object>> newProfiles() {
+        return Stream.generate(() -> {
+            long n = PROFILE_SEQUENCE.incrementAndGet();
+            return Map.<String, Object>of(
+                "firstName", "Perf" + (char) ('A' + n % 26),
+                "lastName", "User" + (char) ('A' + n / 26 % 26),
+                "age", 18 + (int) (n % 60),
+                "gender", n % 2 == 0 ? "FEMALE" : "MALE");
+        }).iterator();
+    }
+
+    private static Iterator<Map<String, Object>> randomPages() {
+        int lastPage = Math.max(0, SEED_PROFILES / PAGE_SIZE - 1);
+        return Stream.generate(() -> Map.<String, Object>of(
+            "page", ThreadLocalRandom.current().nextInt(lastPage + 1))).iterator();
+    }
+
+    private static final String PROFILE_BODY = """
+        {
+            "firstName": "#{firstName}",
+            "lastName": "#{lastName}",
+            "age": #{age},
+            "ethnicity": "Hispanic",
+            "gender": "#{gender}",
+            "bio": "Enjoys hiking, photography and cooking for friends",
+            "myersBriggsPersonalityType": "ENFP"
+        }
+        """;
+
+    // Scenarios
+
+    // Mostly reads with the occasional write: create, read nine times, update, delete
+    private final ScenarioBuilder crudScenario =
+        scenario("CRUD Read-Heavy")
+            .feed(newProfiles())
+            .group("CRUD").on(
+                exec(http("Create Profile")
+                    .post("/profiles")
+                    .body(StringBody(PROFILE_BODY))
+                    .check(status().is(201))
+                    .check(jsonPath("$.id").saveAs("profileId")))
+                .repeat(3).on(
+                    exec(http("Get Profile")
+                        .get("/profiles/#{profileId}")
+                        .check(status().is(200)))
+                    .exec(http("List Profile Summaries")
+                        .get("/profiles/summaries?page=0&size=" + PAGE_SIZE)
+                        .check(status().is(200)))
+                    .exec(http("List Profiles Paged")
+                        .get("/profiles/paged?page=0&size=" + PAGE_SIZE)
+                        .check(status().is(200)))
+                    .pause(Duration.ofMillis(100), Duration.ofMillis(500)))
+                .exec(http("Update Profile")
+                    .put("/profiles/#{profileId}")
+                    .body(StringBody(PROFILE_BODY))
+                    .check(status().is(200)))
+                .exec(http("Delete Profile")
+                    .delete("/profiles/#{profileId}")
+                    .check(status().is(204))));
+
+    private final ScenarioBuilder singleGenerationScenario =
+        scenario("Single Image Generation")
+            .feed(newProfiles())
+            .group("Single Generation").on(
+                exec(http("Generate Image")
+                    .post("/images/generate")
+                    .header("Accept", "image/jpeg")
+                    .body(StringBody("""
+                        {
+                            "id": "perf-#{firstName}-#{lastName}",
+                            "firstName": "#{firstName}",
+                            "lastName": "#{lastName}",
+                            "age": #{age},
+                            "ethnicity": "Hispanic",
+                            "gender": "#{gender}",
+                            "bio": "Enjoys hiking, photography and cooking for friends",
+                            "myersBriggsPersonalityType": "ENFP"
+                        }
+                        """))
+                    .check(status().is(200))
+                    .check(bodyBytes().transform(bytes -> bytes.length).gt(0))));
+
+    // Submit a backup and poll the job until it has finished
+    private final ScenarioBuilder backupScenario =
+        scenario("Backup")
+            .group("Backup").on(
+                exec(http("Submit Backup")
+                    .post("/backups")
+                    .check(status().is(202))
+                    .check(jsonPath("$.jobId").saveAs("jobId")))
+                .exec(session -> session.set("jobStatus", "QUEUED"))
+                .asLongAs(session -> !"COMPLETED".equals(session.getString("jobStatus"))
+                        && !"FAILED".equals(session.getString("jobStatus")), "poll", true).on(
+                    pause(Duration.ofMillis(250))
+                    .exec(http("Get Backup Job")
+                        .get("/backups/jobs/#{jobId}")
+                        .check(status().is(200))
+                        .check(jsonPath("$.jobStatus").not("FAILED").saveAs("jobStatus")))
+                    .exitHereIfFailed())
+                .exec(http("List Backups")
+                    .get("/backups")
+                    .check(status().is(200))));
+
+    private final ScenarioBuilder bulkGenerationScenario =
+        scenario("Bulk Image Generation")
+            .group("Bulk Generation").on(
+                repeat(3).on(
+                    exec(http("Generate All Images")
+                        .post("/profiles/generate-images")
+                        .requestTimeout(Duration.ofMinutes(2))
+                        .check(status().is(200)))));
+
+    private final ScenarioBuilder seedScenario =
+        scenario("Seed Profiles")
+            .repeat(SEED_PROFILES / 4).on(
+                feed(newProfiles())
+                .exec(http("Seed Profile")
+                    .post("/profiles")
+                    .body(StringBody(PROFILE_BODY))
+                    .check(status().is(201))));
+
+    private final ScenarioBuilder paginationScenario =
+        scenario("Pagination Depth")
+            .group("Pagination").on(
+                exec(http("First Page")
+                    .get("/profiles/paged?page=0&size=" + PAGE_SIZE)
+                    .check(status().is(200))
+                    .check(jsonPath("$..totalPages").ofInt().gte(SEED_PROFILES / PAGE_SIZE).saveAs("totalPages")))
+                .repeat(10).on(
+                    feed(randomPages())
+                    .exec(http("Random Page")
+                        .get("/profiles/paged?page=#{page}&size=" + PAGE_SIZE)
+                        .check(status().is(200)))
+                    .exec(http("Random Summary Page")
+                        .get("/profiles/summaries?page=#{page}&size=" + PAGE_SIZE)
+                        .check(status().is(200))))
+                // Other scenarios keep adding profiles, so the last page is taken from the first response
+                .exec(http("Last Page")
+                    .get(session -> "/profiles/paged?page=" + Math.max(0, session.getInt("totalPages") - 1)
+                        + "&size=" + PAGE_SIZE)
+                    .check(status().is(200))));
+
+    @Override
+    public void before() {
+        try {
+            environment = PerformanceEnvironment.start(providerSettings());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the image provider stand-in", e);
+        }
+    }
+
+    @Override
+    public void after() {
+        if (environment != null) {
+            environment.close();
+        }
+    }
+
+    // Latency objectives in milliseconds (p95, p99); a violation fails the build
+    private static Assertion[] slo(String group, String request, int p95, int p99) {
+        return new Assertion[] {
+            details(group, request).responseTime().percentile(95.0).lt(p95),
+            details(group, request).responseTime().percentile(99.0).lt(p99)
+        };
+    }
+
+    private static Assertion[] assertions() {
+        return Stream.of(
+                slo("CRUD", "Create Profile", 200, 500),
+                slo("CRUD", "Get Profile", 50, 150),
+                slo("CRUD", "List Profile Summaries", 100, 250),
+                slo("CRUD", "List Profiles Paged", 100, 250),
+                slo("CRUD", "Update Profile", 200, 500),
+                slo("CRUD", "Delete Profile", 200, 500),
+                slo("Single Generation", "Generate Image", 1500, 2500),
+                slo("Backup", "Submit Backup", 200, 500),
+                slo("Backup", "Get Backup Job", 50, 150),
+                slo("Bulk Generation", "Generate All Images", 15000, 20000),
+                slo("Pagination", "First Page", 100, 250),
+                slo("Pagination", "Random Page", 150, 300),
+                slo("Pagination", "Random Summary Page", 150, 300),
+                slo("Pagination", "Last Page", 150, 300),
+                new Assertion[] {global().failedRequests().percent().lt(1.0)})
+            .flatMap(Stream::of)
+            .toArray(Assertion[]::new);
+    }
+
+    // Simulation setup
+    {
+        setUp(
+            // Phase 1: interactive traffic on the initial profiles
+            crudScenario.injectOpen(
+                rampUsersPerSec(1).to(users(20)).during(Duration.ofSeconds(30)),
+                constantUsersPerSec(users(20)).during(Duration.ofSeconds(60))
+            ).protocols(httpProtocol),
+
+            singleGenerationScenario.injectOpen(
+                rampUsersPerSec(1).to(users(5)).during(Duration.ofSeconds(30)),
+                constantUsersPerSec(users(5)).during(Duration.ofSeconds(60))
+            ).protocols(httpProtocol),
+
+            // Runs slightly longer than the other two, so the next phase starts once all of them are done
+            backupScenario.injectOpen(
+                constantUsersPerSec(0.1).during(Duration.ofSeconds(100))
+            ).protocols(httpProtocol)
+
+            // Phase 2: bulk generation, then phase 3: seed profiles and page through them
+            .andThen(bulkGenerationScenario.injectOpen(atOnceUsers(1)).protocols(httpProtocol)
+                .andThen(seedScenario.injectOpen(atOnceUsers(4)).protocols(httpProtocol)
+                    .andThen(paginationScenario.injectOpen(
+                        rampUsersPerSec(1).to(users(30)).during(Duration.ofSeconds(20)),
+                        constantUsersPerSec(users(30)).during(Duration.ofSeconds(40))
+                    ).protocols(httpProtocol))))
+        ).assertions(assertions());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.matchapp.performance;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Gatling simulation for image generation against the local image provider stand-in.
+ * The real provider services make real HTTP calls, so the results include provider latency,
+ * transfer and decoding of full-size payloads, and retries of rate-limited requests,
+ * without network access or API costs.
+ */
+public class ProviderStandInSimulation extends Simulation {
+
+    // Provider behavior; override with -Dmock.provider.* system properties
+    private static final MockImageProviderServer.Settings PROVIDER = MockImageProviderServer.Settings.fromSystemProperties();
+
+    private PerformanceEnvironment environment;
+
+    // HTTP protocol configuration
+    private final HttpProtocolBuilder httpProtocol = http
+        .baseUrl(PerformanceEnvironment.baseUrl())
+        .acceptHeader("application/json")
+        .contentTypeHeader("application/json")
+        .userAgentHeader("Gatling/Performance-Test");
+
+    private final FeederBuilder<Object> profiles = listFeeder(IntStream.range(0, 1000)
+        .mapToObj(i -> Map.<String, Object>of("profileId", "standin-" + i, "age", 20 + i % 40))
+        .toList()).circular();
+
+    private final ScenarioBuilder generateImageScenario =
+        scenario("Generate Image via Provider Stand-in")
+            .feed(profiles)
+            .exec(http("Generate Image")
+                .post("/images/generate")
+                .header("Accept", "image/jpeg")
+                .body(StringBody("""
+                    {
+                        "id": "#{profileId}",
+                        "firstName": "Stand",
+                        "lastName": "In",
+                        "age": #{age},
+                        "ethnicity": "Hispanic",
+                        "gender": "FEMALE",
+                        "bio": "Enjoys hiking and photography",
+                        "myersBriggsPersonalityType": "ENFP"
+                    }
+                    """))
+                .check(status().is(200))
+                .check(bodyBytes().transform(bytes -> bytes.length).gt(0)));
+
+    @Override
+    public void before() {
+        try {
+            environment = PerformanceEnvironment.start(PROVIDER);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the image provider stand-in", e);
+        }
+    }
+
+    @Override
+    public void after() {
+        if (environment != null) {
+            environment.close();
+        }
+    }
+
+    // Simulation setup
+    {
+        setUp(
+            // 20 concurrent clients generating images for two minutes
+            generateImageScenario.injectClosed(
+                rampConcurrentUsers(1).to(20).during(Duration.ofSeconds(30)),
+                constantConcurrentUsers(20).during(Duration.ofSeconds(90))
+            ).protocols(httpProtocol)
+        ).assertions(
+            global().failedRequests().percent().lt(2.0)
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.matchapp.repository.impl;
+
+import com.example.matchapp.config.ProfileCacheProperties;
+import com.example.matchapp.metrics.ProfileCacheMetrics;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.repository.ProfileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingProfileRepositoryTest {
+
+    private ProfileRepository delegate;
+    private ProfileCacheMetrics metrics;
+    private CachingProfileRepository repository;
+    private ProfileEntity profile;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ProfileRepository.class);
+        metrics = new ProfileCacheMetrics(new SimpleMeterRegistry());
+        repository = new CachingProfileRepository(delegate, new ProfileCacheProperties(), metrics);
+
+        profile = new ProfileEntity("p1", "Test", "User", 30, "Test Ethnicity", Gender.MALE,
+                "Test bio for caching", "p1.jpg", "INTJ");
+        when(delegate.findById("p1")).thenReturn(Optional.of(profile));
+    }
+
+    @Test
+    void findById_secondLookup_isServedFromCache() {
+        repository.findById("p1");
+        Optional<ProfileEntity> result = repository.findById("p1");
+
+        assertTrue(result.isPresent());
+        assertEquals("Test", result.get().getFirstName());
+        verify(delegate, times(1)).findById("p1");
+        assertEquals(0.5, metrics.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    void findById_returnsCopy_soCallerChangesDoNotLeakIntoCache() {
+        repository.findById("p1");
+        repository.findById("p1").get().setFirstName("Changed");
+
+        assertEquals("Test", repository.findById("p1").get().getFirstName());
+    }
+
+    @Test
+    void upsert_invalidatesCachedProfile() {
+        repository.findById("p1");
+        when(delegate.upsert(any(ProfileEntity.class))).thenReturn(1);
+
+        repository.upsert(profile);
+        repository.findById("p1");
+
+        verify(delegate, times(2)).findById("p1");
+    }
+
+    @Test
+    void deleteById_invalidatesCachedProfile() {
+        repository.findById("p1");
+        when(delegate.deleteById("p1")).thenReturn(true);
+
+        assertTrue(repository.deleteById("p1"));
+        when(delegate.findById("p1")).thenReturn(Optional.empty());
+
+        assertTrue(repository.findById("p1").isEmpty());
+    }
+
+    @Test
+    void findById_whenDisabled_alwaysDelegates() {
+        ProfileCacheProperties properties = new ProfileCacheProperties();
+        properties.setEnabled(false);
+        repository = new CachingProfileRepository(delegate, properties, metrics);
+
+        repository.findById("p1");
+        repository.findById("p1");
+
+        verify(delegate, times(2)).findById("p1");
+    }
+}
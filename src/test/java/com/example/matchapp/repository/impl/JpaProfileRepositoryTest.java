@@ -0,0 +1,167 @@
+package com.example.matchapp.repository.impl;
+
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfileSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class JpaProfileRepositoryTest {
+
+    @Autowired
+    private ProfileJpaRepository jpaRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JpaProfileRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new JpaProfileRepository(jpaRepository, testEntityManager.getEntityManager(), transactionManager);
+    }
+
+    private static ProfileEntity profile(String id) {
+        return new ProfileEntity(id, "Test", "User", 30, "Test Ethnicity", Gender.FEMALE, "Test bio",
+                id + ".jpg", "INTJ");
+    }
+
+    /**
+     * Reads a profile back from the database rather than from the persistence context.
+     */
+    private ProfileEntity reload(String id) {
+        testEntityManager.flush();
+        testEntityManager.clear();
+        return jpaRepository.findById(id).orElse(null);
+    }
+
+    @Test
+    void upsert_newProfile_insertsIt() {
+        assertEquals(0, repository.upsert(profile("p1")));
+
+        ProfileEntity stored = reload("p1");
+        assertNotNull(stored);
+        assertEquals("Test", stored.getFirstName());
+        assertEquals(Gender.FEMALE, stored.getGender());
+    }
+
+    @Test
+    void upsert_existingProfile_updatesEveryColumn() {
+        repository.upsert(profile("p1"));
+        reload("p1");
+
+        ProfileEntity changed = profile("p1");
+        changed.setFirstName("Changed");
+        changed.setBio("Changed bio");
+        changed.setImageGenerated(true);
+
+        assertEquals(1, repository.upsert(changed));
+        ProfileEntity stored = reload("p1");
+        assertEquals("Changed", stored.getFirstName());
+        assertEquals("Changed bio", stored.getBio());
+        assertTrue(stored.isImageGenerated());
+    }
+
+    @Test
+    void save_profileInsertedConcurrently_updatesItInstead() {
+        repository.save(profile("p1"));
+        reload("p1");
+
+        // The UPDATE misses the row, as it would if another transaction inserted it right afterwards
+        ProfileJpaRepository racing = mock(ProfileJpaRepository.class, delegatesTo(jpaRepository));
+        doReturn(0).doAnswer(delegatesTo(jpaRepository)).when(racing).updateProfile(any());
+        JpaProfileRepository racingRepository = new JpaProfileRepository(racing,
+                testEntityManager.getEntityManager(), transactionManager);
+        ProfileEntity changed = profile("p1");
+        changed.setLastName("Changed");
+
+        racingRepository.save(changed);
+
+        verify(racing, times(2)).updateProfile(any());
+        assertEquals("Changed", reload("p1").getLastName());
+        assertEquals(1, jpaRepository.count());
+    }
+
+    @Test
+    void updateColumns_updatesOnlyGivenColumns() {
+        repository.upsert(profile("p1"));
+        reload("p1");
+
+        assertEquals(1, repository.updateColumns("p1", Map.of("firstName", "Changed", "age", 31)));
+
+        ProfileEntity stored = reload("p1");
+        assertEquals("Changed", stored.getFirstName());
+        assertEquals(31, stored.getAge());
+        assertEquals("Test bio", stored.getBio());
+    }
+
+    @Test
+    void updateColumns_unknownProfile_updatesNothing() {
+        assertEquals(0, repository.updateColumns("missing", Map.of("firstName", "Changed")));
+    }
+
+    @Test
+    void updateColumns_unknownAttribute_throwsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.updateColumns("p1", Map.of("imageGenerated", true)));
+    }
+
+    @Test
+    void markImagesGenerated_updatesOnlyGivenProfiles() {
+        repository.upsert(profile("p1"));
+        repository.upsert(profile("p2"));
+        repository.upsert(profile("p3"));
+        reload("p1");
+
+        assertEquals(2, repository.markImagesGenerated(List.of("p1", "p3", "missing")));
+
+        assertTrue(reload("p1").isImageGenerated());
+        assertFalse(reload("p2").isImageGenerated());
+        assertTrue(reload("p3").isImageGenerated());
+    }
+
+    @Test
+    void deleteById_deletesOnlyExistingProfile() {
+        repository.upsert(profile("p1"));
+        reload("p1");
+
+        assertTrue(repository.deleteById("p1"));
+        assertFalse(repository.deleteById("p1"));
+        assertNull(reload("p1"));
+    }
+
+    @Test
+    void findAllSummaries_selectsSummaryColumns() {
+        repository.upsert(profile("p1"));
+        repository.upsert(profile("p2"));
+        repository.markImagesGenerated(List.of("p2"));
+        reload("p1");
+
+        Page<ProfileSummary> page = repository.findAllSummaries(PageRequest.of(0, 1, Sort.by("id")));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of(new ProfileSummary("p1", "Test", "User", 30, Gender.FEMALE, "INTJ", false)),
+                page.getContent());
+        assertTrue(repository.findAllSummaries().stream()
+                .anyMatch(summary -> summary.id().equals("p2") && summary.imageGenerated()));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.matchapp.service;
+
+import com.example.matchapp.model.ExportFormat;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.Profile;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.repository.ProfileRepository;
+import com.example.matchapp.service.impl.ProfileArchiveWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProfileExportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ProfileRepository profileRepository;
+    private ObjectMapper objectMapper;
+    private ProfileExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        profileRepository = mock(ProfileRepository.class);
+        objectMapper = new ObjectMapper();
+        exportService = new ProfileExportService(objectMapper, profileRepository);
+    }
+
+    @Test
+    void exportProfiles_readsEveryPage() throws Exception {
+        List<ProfileEntity> entities = new ArrayList<>();
+        for (int i = 0; i < ProfileExportService.PAGE_SIZE + 3; i++) {
+            entities.add(entity("p" + i, "Bio " + i));
+        }
+        stubProfiles(entities);
+
+        Path output = tempDir.resolve("profiles.json");
+        long count = exportService.exportProfiles(ExportFormat.JSON, output);
+
+        assertEquals(entities.size(), count);
+        Profile[] exported = objectMapper.readValue(output.toFile(), Profile[].class);
+        assertEquals(entities.size(), exported.length);
+        assertEquals("p0", exported[0].id());
+        // The second page continues after the last ID of the first; no offsets or counts are involved
+        verify(profileRepository).findAfterId(null, ProfileExportService.PAGE_SIZE);
+        verify(profileRepository, times(2)).findAfterId(any(), eq(ProfileExportService.PAGE_SIZE));
+        verify(profileRepository, never()).findAll();
+        verify(profileRepository, never()).findAll(any(Pageable.class));
+
+        // Only the finished file is left behind
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(output), files.toList());
+        }
+    }
+
+    @Test
+    void exportProfiles_ndjson_writesOneProfilePerLine() throws Exception {
+        stubProfiles(List.of(entity("p1", "First"), entity("p2", "Second")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportProfiles(ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("p1", objectMapper.readValue(lines[0], Profile.class).id());
+        assertEquals("p2", objectMapper.readValue(lines[1], Profile.class).id());
+    }
+
+    @Test
+    void exportProfiles_csv_quotesFieldsWithSeparators() throws Exception {
+        stubProfiles(List.of(entity("p1", "Likes \"hiking\", books")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportProfiles(ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,firstName,lastName,age,ethnicity,gender,bio,imageUrl,myersBriggsPersonalityType,imageGenerated",
+                lines[0]);
+        assertEquals("p1,Test,User,30,Test Ethnicity,FEMALE,\"Likes \"\"hiking\"\", books\",p1.jpg,INFP,false",
+                lines[1]);
+    }
+
+    @Test
+    void exportArchive_bundlesManifestAndExistingImages() throws Exception {
+        Path imagesDir = Files.createDirectories(tempDir.resolve("images"));
+        Files.write(imagesDir.resolve("p1.jpg"), new byte[] {1, 2, 3});
+        ProfileEntity outside = entity("p3", "Outside");
+        outside.setImageUrl("../secret.jpg");
+        Files.write(tempDir.resolve("secret.jpg"), new byte[] {9});
+        stubProfiles(List.of(entity("p1", "First"), entity("p2", "No image"), outside));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, exportService.exportArchive(out, imagesDir));
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+
+        assertEquals(List.of(ProfileArchiveWriter.MANIFEST_ENTRY, "images/p1.jpg"), new ArrayList<>(entries.keySet()));
+        assertEquals(3, new String(entries.get(ProfileArchiveWriter.MANIFEST_ENTRY), StandardCharsets.UTF_8)
+                .split("\n").length);
+        assertArrayEquals(new byte[] {1, 2, 3}, entries.get("images/p1.jpg"));
+    }
+
+    private void stubProfiles(List<ProfileEntity> entities) {
+        when(profileRepository.findAfterId(any(), anyInt())).thenAnswer(invocation -> {
+            String afterId = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return entities.stream()
+                    .filter(entity -> afterId == null || entity.getId().compareTo(afterId) > 0)
+                    .sorted(Comparator.comparing(ProfileEntity::getId))
+                    .limit(limit)
+                    .toList();
+        });
+    }
+
+    private static ProfileEntity entity(String id, String bio) {
+        return new ProfileEntity(id, "Test", "User", 30, "Test Ethnicity", Gender.FEMALE,
+                bio, id + ".jpg", "INFP");
+    }
+}
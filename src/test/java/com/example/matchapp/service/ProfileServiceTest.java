@@ -2,9 +2,13 @@ package com.example.matchapp.service;
 
 import com.example.matchapp.config.BackupProperties;
 import com.example.matchapp.mapper.ProfileMapper;
+import com.example.matchapp.metrics.ImageGenerationMetrics;
+import com.example.matchapp.metrics.ImageGenerationStageMetrics;
 import com.example.matchapp.model.Profile;
 import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.model.ProfilePatch;
 import com.example.matchapp.repository.ProfileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
@@ -12,9 +16,11 @@ import org.mockito.Mockito;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -56,8 +62,8 @@ class ProfileServiceTest {
         Mockito.when(profileRepository.findById(Mockito.anyString())).thenReturn(java.util.Optional.of(testProfileEntity));
         Mockito.when(profileRepository.save(Mockito.any(ProfileEntity.class))).thenAnswer(i -> i.getArgument(0));
 
-        // Mock the image backup service
-        ImageBackupService imageBackupService = Mockito.mock(ImageBackupService.class);
+        // Mock the backup job service
+        BackupJobService backupJobService = Mockito.mock(BackupJobService.class);
 
         // Create a real BackupProperties instance
         BackupProperties backupProperties = new BackupProperties();
@@ -82,6 +88,17 @@ class ProfileServiceTest {
             return null;
         }).when(imageCacheService).putImageInCache(Mockito.any(ProfileEntity.class), Mockito.any(byte[].class), Mockito.any(Path.class));
 
+        // Mock the status buffer so batched writes can be verified
+        ImageStatusBuffer imageStatusBuffer = Mockito.mock(ImageStatusBuffer.class);
+
+        // Mock the manifest service so incremental updates can be verified
+        ProfileManifestService profileManifestService = Mockito.mock(ProfileManifestService.class);
+
+        // Record stage timings in a simple registry so they can be checked
+        ImageGenerationStageMetrics stageMetrics = new ImageGenerationStageMetrics(new SimpleMeterRegistry());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ImageGenerationMetrics metrics = new ImageGenerationMetrics(registry);
+
         // Add debug logging to see what's happening
         System.out.println("[DEBUG_LOG] Test directory: " + tempDir.toString());
         System.out.println("[DEBUG_LOG] Test profile image URL: " + testProfile.imageUrl());
@@ -90,9 +107,14 @@ class ProfileServiceTest {
         ProfileService profileService = new ProfileService(
             imageGenerationService, 
             profileRepository, 
-            imageBackupService, 
+            backupJobService, 
             backupProperties,
-            imageCacheService);
+            imageCacheService,
+            mock(ImageVariantService.class),
+            imageStatusBuffer,
+            profileManifestService,
+            stageMetrics,
+            metrics);
 
         List<Profile> result = profileService.generateImages(tempDir);
 
@@ -101,8 +123,27 @@ class ProfileServiceTest {
             assertTrue(Files.exists(imagePath), "Image not created: " + imagePath);
         }
 
-        Path jsonPath = tempDir.resolve("profiles_with_images.json");
-        assertTrue(Files.exists(jsonPath), "Result JSON not created");
+        // The status buffer marks the changed profile dirty once its status is written, not the service before that
+        verify(profileManifestService, never()).markDirty(testProfileEntity.getId());
+        verify(profileManifestService).update(tempDir);
+        // Profiles are read only once
+        verify(profileRepository, times(1)).findAll();
+        assertTrue(result.get(0).imageGenerated());
+
+        // Status updates go through the write-behind buffer instead of one save per profile
+        verify(imageStatusBuffer).markGenerated(testProfileEntity.getId());
+        verify(imageStatusBuffer).flush();
+        verify(profileRepository, never()).save(any(ProfileEntity.class));
+
+        // The cache write and post-processing are timed; the buffered status update is not a database write
+        ImageGenerationStageMetrics.StageTimers timers = stageMetrics.timers(null, null);
+        assertEquals(1, timers.getTimer(ImageGenerationStageMetrics.Stage.CACHE_WRITE).count());
+        assertEquals(0, timers.getTimer(ImageGenerationStageMetrics.Stage.DB_UPDATE).count());
+        assertEquals(1, timers.getTimer(ImageGenerationStageMetrics.Stage.POST_PROCESS).count());
+
+        // The image wasn't in the cache, which is counted as a miss
+        assertEquals(1, registry.get("imagegen.cache.misses").counter().count());
+        assertEquals(0, registry.get("imagegen.cache.hits").counter().count());
     }
 
     @Test
@@ -135,8 +176,8 @@ class ProfileServiceTest {
         when(profileRepository.findById(anyString())).thenReturn(Optional.of(testProfileEntity));
         when(profileRepository.save(any(ProfileEntity.class))).thenAnswer(i -> i.getArgument(0));
 
-        // Mock the image backup service
-        ImageBackupService imageBackupService = mock(ImageBackupService.class);
+        // Mock the backup job service
+        BackupJobService backupJobService = mock(BackupJobService.class);
 
         // Create a real BackupProperties instance
         BackupProperties backupProperties = new BackupProperties();
@@ -153,9 +194,14 @@ class ProfileServiceTest {
         ProfileService profileService = new ProfileService(
             imageGenerationService,
             profileRepository,
-            imageBackupService,
+            backupJobService,
             backupProperties,
-            imageCacheService
+            imageCacheService,
+            mock(ImageVariantService.class),
+            mock(ImageStatusBuffer.class),
+            mock(ProfileManifestService.class),
+            ImageGenerationStageMetrics.noop(),
+            new ImageGenerationMetrics(new SimpleMeterRegistry())
         );
 
         // Generate image for the profile
@@ -200,8 +246,8 @@ class ProfileServiceTest {
         when(profileRepository.findById(anyString())).thenReturn(Optional.of(testProfileEntity));
         when(profileRepository.save(any(ProfileEntity.class))).thenAnswer(i -> i.getArgument(0));
 
-        // Mock the image backup service
-        ImageBackupService imageBackupService = mock(ImageBackupService.class);
+        // Mock the backup job service
+        BackupJobService backupJobService = mock(BackupJobService.class);
 
         // Create a real BackupProperties instance
         BackupProperties backupProperties = new BackupProperties();
@@ -212,13 +258,21 @@ class ProfileServiceTest {
         // Configure the cache service to indicate the image is not in cache
         when(imageCacheService.hasImageInCache(any(ProfileEntity.class), any(Path.class))).thenReturn(false);
 
+        // Mock the variant service so post-processing can be verified
+        ImageVariantService imageVariantService = mock(ImageVariantService.class);
+
         // Create the profile service
         ProfileService profileService = new ProfileService(
             imageGenerationService,
             profileRepository,
-            imageBackupService,
+            backupJobService,
             backupProperties,
-            imageCacheService
+            imageCacheService,
+            imageVariantService,
+            mock(ImageStatusBuffer.class),
+            mock(ProfileManifestService.class),
+            ImageGenerationStageMetrics.noop(),
+            new ImageGenerationMetrics(new SimpleMeterRegistry())
         );
 
         // Generate image for the profile
@@ -232,5 +286,105 @@ class ProfileServiceTest {
 
         // Verify that the cache service was called to store the generated image
         verify(imageCacheService).putImageInCache(any(ProfileEntity.class), eq(generatedImage), any(Path.class));
+
+        // Verify that the variants were derived from the generated image
+        verify(imageVariantService).createVariants(any(ProfileEntity.class), eq(generatedImage), any(Path.class));
+    }
+
+    @Test
+    void patchProfile_writesOnlyChangedFields() {
+        ProfileRepository profileRepository = mock(ProfileRepository.class);
+        ProfileEntity existing = new ProfileEntity("p1", "Test", "User", 30, "Test Ethnicity",
+                com.example.matchapp.model.Gender.MALE, "Test bio for image generation", "test.jpg", "INTJ");
+        when(profileRepository.findById("p1")).thenReturn(Optional.of(existing));
+        when(profileRepository.updateColumns(eq("p1"), anyMap())).thenReturn(1);
+
+        ProfileService profileService = new ProfileService(
+            mock(ImageGenerationService.class),
+            profileRepository,
+            mock(BackupJobService.class),
+            new BackupProperties(),
+            mock(ImageCacheService.class),
+            mock(ImageVariantService.class),
+            mock(ImageStatusBuffer.class),
+            mock(ProfileManifestService.class),
+            ImageGenerationStageMetrics.noop(),
+            new ImageGenerationMetrics(new SimpleMeterRegistry())
+        );
+
+        // Same first name, new age: only age should be written
+        ProfilePatch patch = new ProfilePatch("Test", null, 31, null, null, null, null, null);
+        Optional<Profile> result = profileService.patchProfile("p1", patch);
+
+        assertTrue(result.isPresent());
+        assertEquals(31, result.get().age());
+        verify(profileRepository).updateColumns("p1", Map.of("age", 31));
+        verify(profileRepository, never()).save(any(ProfileEntity.class));
+        verify(profileRepository, never()).upsert(any(ProfileEntity.class));
+    }
+
+    @Test
+    void patchProfile_withoutChanges_skipsWrite() {
+        ProfileRepository profileRepository = mock(ProfileRepository.class);
+        ProfileEntity existing = new ProfileEntity("p1", "Test", "User", 30, "Test Ethnicity",
+                com.example.matchapp.model.Gender.MALE, "Test bio for image generation", "test.jpg", "INTJ");
+        when(profileRepository.findById("p1")).thenReturn(Optional.of(existing));
+
+        ProfileService profileService = new ProfileService(
+            mock(ImageGenerationService.class),
+            profileRepository,
+            mock(BackupJobService.class),
+            new BackupProperties(),
+            mock(ImageCacheService.class),
+            mock(ImageVariantService.class),
+            mock(ImageStatusBuffer.class),
+            mock(ProfileManifestService.class),
+            ImageGenerationStageMetrics.noop(),
+            new ImageGenerationMetrics(new SimpleMeterRegistry())
+        );
+
+        ProfilePatch patch = new ProfilePatch("Test", "User", 30, null, null, null, null, null);
+        assertTrue(profileService.patchProfile("p1", patch).isPresent());
+
+        verify(profileRepository, never()).updateColumns(anyString(), anyMap());
+    }
+
+    @Test
+    void generateImages_whenProviderThrowsRuntimeException_continuesAndFlushes() throws Exception {
+        ProfileEntity failing = new ProfileEntity("p1", "Test", "User", 30, "Test Ethnicity",
+                com.example.matchapp.model.Gender.MALE, "Test bio for image generation", "p1.jpg", "INTJ");
+        ProfileEntity succeeding = new ProfileEntity("p2", "Test", "User", 31, "Test Ethnicity",
+                com.example.matchapp.model.Gender.FEMALE, "Test bio for image generation", "p2.jpg", "ENFP");
+        ProfileRepository profileRepository = mock(ProfileRepository.class);
+        when(profileRepository.findAll()).thenReturn(List.of(failing, succeeding));
+        when(profileRepository.findById("p1")).thenReturn(Optional.of(failing));
+        when(profileRepository.findById("p2")).thenReturn(Optional.of(succeeding));
+
+        ImageGenerationService imageGenerationService = mock(ImageGenerationService.class);
+        when(imageGenerationService.generateImage(failing)).thenThrow(new RuntimeException("provider failed"));
+        when(imageGenerationService.generateImage(succeeding)).thenReturn(new byte[] {1, 2, 3});
+
+        ImageStatusBuffer imageStatusBuffer = mock(ImageStatusBuffer.class);
+        ProfileManifestService profileManifestService = mock(ProfileManifestService.class);
+        ProfileService profileService = new ProfileService(
+            imageGenerationService,
+            profileRepository,
+            mock(BackupJobService.class),
+            new BackupProperties(),
+            mock(ImageCacheService.class),
+            mock(ImageVariantService.class),
+            imageStatusBuffer,
+            profileManifestService,
+            ImageGenerationStageMetrics.noop(),
+            new ImageGenerationMetrics(new SimpleMeterRegistry())
+        );
+
+        List<Profile> result = profileService.generateImages(tempDir);
+
+        assertEquals(2, result.size());
+        verify(imageStatusBuffer).markGenerated("p2");
+        verify(imageStatusBuffer, never()).markGenerated("p1");
+        verify(imageStatusBuffer).flush();
+        verify(profileManifestService).update(tempDir);
     }
 }
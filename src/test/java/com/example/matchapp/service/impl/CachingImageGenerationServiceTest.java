@@ -0,0 +1,233 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.metrics.ImageGenerationMetrics;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.service.ImageGenerationService;
+import com.example.matchapp.service.PromptBuilderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingImageGenerationServiceTest {
+
+    private static final byte[] IMAGE = {1, 2, 3};
+
+    @TempDir
+    Path cacheDir;
+
+    @TempDir
+    Path otherDir;
+
+    private ImageGenerationService delegate;
+    private PromptBuilderService promptBuilder;
+    private SimpleMeterRegistry registry;
+    private CachingImageGenerationService service;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ImageGenerationService.class);
+        when(delegate.getProviderName()).thenReturn("OpenAI");
+        when(delegate.getModel()).thenReturn("dall-e-3");
+        promptBuilder = mock(PromptBuilderService.class);
+        when(promptBuilder.buildPrompt(any()))
+                .thenAnswer(invocation -> "Portrait: " + invocation.<ProfileEntity>getArgument(0).getBio());
+        registry = new SimpleMeterRegistry();
+        service = new CachingImageGenerationService(delegate, promptBuilder, new ImageGenerationMetrics(registry),
+                cacheDir.toString(), 1024 * 1024);
+    }
+
+    private static ProfileEntity profile(String id, String imageUrl) {
+        return new ProfileEntity(id, "Test", "User", 30, "Test Ethnicity", Gender.FEMALE, "Test bio", imageUrl, "INTJ");
+    }
+
+    private static ProfileEntity profileWithBio(String id, String bio) {
+        ProfileEntity profile = profile(id, id + ".jpg");
+        profile.setBio(bio);
+        return profile;
+    }
+
+    private Path onlyCachedFile() throws Exception {
+        try (var files = Files.list(cacheDir)) {
+            List<Path> cached = files.toList();
+            assertEquals(1, cached.size());
+            return cached.get(0);
+        }
+    }
+
+    @Test
+    void generateImage_cacheMiss_generatesOnceAndCachesImage() throws Exception {
+        when(delegate.generateImage(any())).thenReturn(IMAGE);
+
+        assertArrayEquals(IMAGE, service.generateImage(profile("p1", "p1.jpg")));
+        assertArrayEquals(IMAGE, service.generateImage(profile("p1", "p1.jpg")));
+
+        verify(delegate, times(1)).generateImage(any());
+        assertEquals(1, registry.get("imagegen.cache.misses").counter().count());
+        assertEquals(1, registry.get("imagegen.cache.hits").counter().count());
+    }
+
+    @Test
+    void generateImage_cachesByPromptNotByImageUrl() throws Exception {
+        when(delegate.generateImage(any())).thenReturn(IMAGE);
+
+        service.generateImage(profile("p1", "p1.jpg"));
+
+        // The image is kept apart from profile images, under a key that doesn't come from the request
+        try (var files = Files.list(cacheDir)) {
+            List<Path> cached = files.toList();
+            assertEquals(1, cached.size());
+            assertNotEquals("p1.jpg", cached.get(0).getFileName().toString());
+            assertArrayEquals(IMAGE, Files.readAllBytes(cached.get(0)));
+        }
+
+        // Another profile with the same prompt is served from the cache
+        assertArrayEquals(IMAGE, service.generateImage(profile("p2", "p2.jpg")));
+        verify(delegate, times(1)).generateImage(any());
+    }
+
+    @Test
+    void generateImage_changedPrompt_generatesNewImage() {
+        when(delegate.generateImage(any())).thenReturn(IMAGE, new byte[] {4, 5, 6});
+        ProfileEntity profile = profile("p1", "p1.jpg");
+
+        service.generateImage(profile);
+        profile.setBio("Edited bio");
+
+        assertArrayEquals(new byte[] {4, 5, 6}, service.generateImage(profile));
+        verify(delegate, times(2)).generateImage(any());
+    }
+
+    @Test
+    void generateImage_concurrentMisses_shareOneProviderCall() throws Exception {
+        CountDownLatch called = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.generateImage(any())).thenAnswer(invocation -> {
+            called.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return IMAGE;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = executor.submit(() -> service.generateImage(profile("p1", "p1.jpg")));
+            assertTrue(called.await(5, TimeUnit.SECONDS));
+            Future<byte[]> second = executor.submit(() -> service.generateImage(profile("p1", "p1.jpg")));
+            // Give the second request time to find the running generation before it completes
+            Thread.sleep(100);
+            release.countDown();
+
+            assertArrayEquals(IMAGE, first.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(IMAGE, second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(delegate, times(1)).generateImage(any());
+    }
+
+    @Test
+    void generateImage_generatedBetweenMissAndClaim_servesCachedImage() throws Exception {
+        when(delegate.generateImage(any())).thenReturn(IMAGE);
+        service.generateImage(profile("p1", "p1.jpg"));
+        Path cached = onlyCachedFile();
+        Path generated = Files.move(cached, otherDir.resolve("generated"));
+
+        // Another request finishes generating the image right after this one missed the cache
+        ImageGenerationMetrics metrics = spy(new ImageGenerationMetrics(registry));
+        doAnswer(invocation -> {
+            Files.move(generated, cached);
+            return null;
+        }).when(metrics).recordCacheMiss();
+        CachingImageGenerationService racing = new CachingImageGenerationService(delegate, promptBuilder, metrics,
+                cacheDir.toString(), 1024 * 1024);
+
+        assertArrayEquals(IMAGE, racing.generateImage(profile("p1", "p1.jpg")));
+        verify(delegate, times(1)).generateImage(any());
+    }
+
+    @Test
+    void generateImage_overMaxSize_evictsLeastRecentlyGeneratedImages() throws Exception {
+        when(delegate.generateImage(any())).thenReturn(new byte[4]);
+        CachingImageGenerationService bounded = new CachingImageGenerationService(delegate, promptBuilder,
+                new ImageGenerationMetrics(registry), cacheDir.toString(), 10);
+
+        bounded.generateImage(profileWithBio("p1", "first"));
+        Path first = onlyCachedFile();
+        Files.setLastModifiedTime(first, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        bounded.generateImage(profileWithBio("p2", "second"));
+        // 12 bytes are over the limit, so the oldest image goes until at most 9 are left
+        bounded.generateImage(profileWithBio("p3", "third"));
+
+        assertFalse(Files.exists(first));
+        try (var files = Files.list(cacheDir)) {
+            assertEquals(2, files.count());
+        }
+        bounded.generateImage(profileWithBio("p2", "second"));
+        bounded.generateImage(profileWithBio("p1", "first"));
+        verify(delegate, times(4)).generateImage(any());
+    }
+
+    @Test
+    void constructor_withNonPositiveMaxSize_throwsException() {
+        assertThrows(ConfigurationException.class, () -> new CachingImageGenerationService(delegate, promptBuilder,
+                new ImageGenerationMetrics(registry), cacheDir.toString(), 0));
+    }
+
+    @Test
+    void generateImage_providerFailure_isNotCached() {
+        when(delegate.generateImage(any())).thenThrow(new IllegalStateException("provider down")).thenReturn(IMAGE);
+
+        assertThrows(IllegalStateException.class, () -> service.generateImage(profile("p1", "p1.jpg")));
+        assertArrayEquals(IMAGE, service.generateImage(profile("p1", "p1.jpg")));
+
+        verify(delegate, times(2)).generateImage(any());
+    }
+
+    @Test
+    void generateImage_providerError_failsWaitingRequestsToo() throws Exception {
+        CountDownLatch called = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.generateImage(any())).thenAnswer(invocation -> {
+            called.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new AssertionError("provider crashed");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = executor.submit(() -> service.generateImage(profile("p1", "p1.jpg")));
+            assertTrue(called.await(5, TimeUnit.SECONDS));
+            Future<byte[]> second = executor.submit(() -> service.generateImage(profile("p1", "p1.jpg")));
+            // Give the second request time to find the running generation before it fails
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException firstError = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, firstError.getCause());
+            ExecutionException secondError = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, secondError.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.PromptProperties;
+import com.example.matchapp.metrics.PromptCacheMetrics;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingPromptBuilderServiceTest {
+
+    private TemplatePromptBuilderService delegate;
+    private PromptCacheMetrics metrics;
+    private ProfileEntity profile;
+
+    @BeforeEach
+    void setUp() {
+        delegate = spy(new TemplatePromptBuilderService(new PromptProperties()));
+        metrics = new PromptCacheMetrics(new SimpleMeterRegistry());
+        profile = new ProfileEntity("p1", "Test", "User", 30, "Test Ethnicity", Gender.MALE,
+                "Test bio for prompts", "p1.jpg", "INTJ");
+    }
+
+    @Test
+    void buildPrompt_repeatedCall_isServedFromCache() {
+        CachingPromptBuilderService service = new CachingPromptBuilderService(delegate, new PromptProperties(), metrics);
+
+        String first = service.buildPrompt(profile);
+        String second = service.buildPrompt(profile);
+
+        assertSame(first, second);
+        verify(delegate, times(1)).buildPrompt(any(ProfileEntity.class));
+        assertEquals(0.5, metrics.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    void buildPrompt_otherProfileWithSamePromptFields_sharesEntry() {
+        CachingPromptBuilderService service = new CachingPromptBuilderService(delegate, new PromptProperties(), metrics);
+        ProfileEntity twin = new ProfileEntity("p2", "Test", "User", 30, "Test Ethnicity", Gender.MALE,
+                "Test bio for prompts", "p2.jpg", "INTJ");
+
+        service.buildPrompt(profile);
+        service.buildPrompt(twin);
+
+        verify(delegate, times(1)).buildPrompt(any(ProfileEntity.class));
+    }
+
+    @Test
+    void buildPrompt_changedPromptField_buildsNewPrompt() {
+        CachingPromptBuilderService service = new CachingPromptBuilderService(delegate, new PromptProperties(), metrics);
+
+        String before = service.buildPrompt(profile);
+        profile.setBio("A different bio");
+        String after = service.buildPrompt(profile);
+
+        assertNotEquals(before, after);
+        assertTrue(after.contains("A different bio"));
+        verify(delegate, times(2)).buildPrompt(any(ProfileEntity.class));
+    }
+
+    @Test
+    void buildPrompt_whenDisabled_alwaysDelegates() {
+        PromptProperties properties = new PromptProperties();
+        properties.getCache().setEnabled(false);
+        CachingPromptBuilderService service = new CachingPromptBuilderService(delegate, properties, metrics);
+
+        service.buildPrompt(profile);
+        service.buildPrompt(profile);
+
+        verify(delegate, times(2)).buildPrompt(any(ProfileEntity.class));
+    }
+}
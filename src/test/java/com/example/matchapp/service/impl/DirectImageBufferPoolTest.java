@@ -0,0 +1,97 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.ImageBufferPoolProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.metrics.ImageBufferPoolMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectImageBufferPoolTest {
+
+    private SimpleMeterRegistry registry;
+    private DirectImageBufferPool pool;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        ImageBufferPoolProperties properties = new ImageBufferPoolProperties();
+        properties.setBufferSize(1024);
+        properties.setMaxBuffers(2);
+        pool = new DirectImageBufferPool(properties, new ImageBufferPoolMetrics(registry));
+    }
+
+    private double acquisitions(String result) {
+        return registry.get("imagegen.buffer.pool.acquisitions").tag("result", result).counter().count();
+    }
+
+    @Test
+    void acquire_afterRelease_reusesDirectBuffer() {
+        ByteBuffer first = pool.acquire();
+        first.put((byte) 1);
+        pool.release(first);
+
+        ByteBuffer second = pool.acquire();
+
+        assertSame(first, second);
+        assertTrue(second.isDirect());
+        assertEquals(0, second.position());
+        assertEquals(1024, second.capacity());
+        assertEquals(1.0, acquisitions("allocated"));
+        assertEquals(1.0, acquisitions("reused"));
+    }
+
+    @Test
+    void acquire_whenExhausted_fallsBackToHeapBuffer() {
+        pool.acquire();
+        pool.acquire();
+
+        ByteBuffer fallback = pool.acquire();
+
+        assertFalse(fallback.isDirect());
+        assertEquals(1024, fallback.capacity());
+        assertEquals(2.0, acquisitions("allocated"));
+        assertEquals(1.0, acquisitions("exhausted"));
+    }
+
+    @Test
+    void release_ofHeapFallback_isNotPooled() {
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        ByteBuffer fallback = pool.acquire();
+
+        pool.release(fallback);
+        pool.release(first);
+        pool.release(second);
+
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(0, pool.getInUseCount());
+        assertTrue(pool.acquire().isDirect());
+        assertTrue(pool.acquire().isDirect());
+    }
+
+    @Test
+    void gauges_reflectBorrowedAndIdleBuffers() {
+        ByteBuffer first = pool.acquire();
+        pool.acquire();
+        pool.release(first);
+
+        assertEquals(1.0, registry.get("imagegen.buffer.pool.buffers").tag("state", "in_use").gauge().value());
+        assertEquals(1.0, registry.get("imagegen.buffer.pool.buffers").tag("state", "idle").gauge().value());
+        assertEquals(0.5, registry.get("imagegen.buffer.pool.utilization").gauge().value());
+        assertEquals(2048.0, registry.get("imagegen.buffer.pool.memory").gauge().value());
+    }
+
+    @Test
+    void constructor_withNonPositiveMaxBuffers_throwsException() {
+        ImageBufferPoolProperties properties = new ImageBufferPoolProperties();
+        properties.setMaxBuffers(0);
+
+        assertThrows(ConfigurationException.class,
+                () -> new DirectImageBufferPool(properties, ImageBufferPoolMetrics.noop()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.model.BackupJob;
+import com.example.matchapp.service.BackupProgress;
+import com.example.matchapp.service.ImageBackupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExecutorBackupJobServiceTest {
+
+    @TempDir
+    Path sourceDir;
+
+    private ImageBackupService imageBackupService;
+    private ExecutorBackupJobService jobService;
+    private CountDownLatch backupStarted;
+    private CountDownLatch releaseBackup;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(sourceDir.resolve("test1.jpg"), new byte[] {1, 2, 3});
+        Files.write(sourceDir.resolve("test2.jpg"), new byte[] {4, 5, 6});
+
+        backupStarted = new CountDownLatch(1);
+        releaseBackup = new CountDownLatch(1);
+        imageBackupService = mock(ImageBackupService.class);
+        when(imageBackupService.createBackup(eq(sourceDir.toAbsolutePath().normalize()), any(BackupProgress.class)))
+                .thenAnswer(invocation -> {
+                    BackupProgress progress = invocation.getArgument(1);
+                    progress.filesFound(2);
+                    progress.fileProcessed();
+                    backupStarted.countDown();
+                    assertTrue(releaseBackup.await(5, TimeUnit.SECONDS));
+                    progress.fileProcessed();
+                    return 2;
+                });
+
+        jobService = new ExecutorBackupJobService(imageBackupService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseBackup.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void submitBackup_runsInBackgroundAndReportsProgress() throws Exception {
+        BackupJob job = jobService.submitBackup(sourceDir);
+        assertTrue(backupStarted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(BackupJob.Status.RUNNING, job.getStatus());
+        assertEquals(2, job.getFilesTotal());
+        assertEquals(0.5, job.getProgress(), 0.0001);
+
+        releaseBackup.countDown();
+        awaitFinished(job);
+
+        assertEquals(BackupJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getFilesBackedUp());
+        assertEquals(1.0, job.getProgress(), 0.0001);
+        assertSame(job, jobService.getJob(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void submitBackup_whileAnotherIsQueued_isCoalesced() throws Exception {
+        BackupJob running = jobService.submitBackup(sourceDir);
+        assertTrue(backupStarted.await(5, TimeUnit.SECONDS));
+
+        // The running backup can't include later changes, so a new job is queued...
+        BackupJob queued = jobService.submitBackup(sourceDir);
+        assertNotSame(running, queued);
+
+        // ...but further requests are merged into the queued one
+        BackupJob merged = jobService.submitBackup(sourceDir);
+        assertSame(queued, merged);
+        assertEquals(1, queued.getCoalescedRequests());
+
+        releaseBackup.countDown();
+        awaitFinished(queued);
+        verify(imageBackupService, times(2)).createBackup(any(Path.class), any(BackupProgress.class));
+    }
+
+    @Test
+    void submitBackup_whenBackupFails_marksJobFailed() throws Exception {
+        when(imageBackupService.createBackup(any(Path.class), any(BackupProgress.class)))
+                .thenThrow(new IOException("disk full"));
+
+        BackupJob job = jobService.submitBackup(sourceDir);
+        awaitFinished(job);
+
+        assertEquals(BackupJob.Status.FAILED, job.getStatus());
+        assertEquals("disk full", job.getErrorMessage());
+    }
+
+    private static void awaitFinished(BackupJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "Backup job did not finish in time");
+    }
+}
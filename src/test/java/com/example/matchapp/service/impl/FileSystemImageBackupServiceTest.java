@@ -1,6 +1,13 @@
 package com.example.matchapp.service.impl;
 
 import com.example.matchapp.config.BackupProperties;
+import com.example.matchapp.metrics.BackupMetrics;
+import com.example.matchapp.model.BackupArchiveStats;
+import com.example.matchapp.model.BackupFormat;
+import com.example.matchapp.model.BackupInfo;
+import com.example.matchapp.service.BackupProgress;
+import com.example.matchapp.util.AtomicFiles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +19,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,6 +29,7 @@ class FileSystemImageBackupServiceTest {
 
     private FileSystemImageBackupService backupService;
     private BackupProperties backupProperties;
+    private SimpleMeterRegistry meterRegistry;
 
     @TempDir
     Path tempSourceDir;
@@ -35,11 +45,14 @@ class FileSystemImageBackupServiceTest {
         backupProperties.setAutoBackup(true);
         backupProperties.setDefaultOverwrite(false);
 
-        backupService = new FileSystemImageBackupService(backupProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        backupService = new FileSystemImageBackupService(backupProperties, new BackupMetrics(meterRegistry));
     }
 
     @AfterEach
     void tearDown() throws IOException {
+        backupService.shutdown();
+
         // Clean up any files created during tests
         if (Files.exists(tempSourceDir)) {
             Files.walk(tempSourceDir)
@@ -104,6 +117,57 @@ class FileSystemImageBackupServiceTest {
         assertEquals(1, backups.length, "Should have created 1 backup");
     }
 
+    @Test
+    void createBackup_reportsFilesFoundWithoutExtraWalk() throws IOException {
+        createTestFiles(tempSourceDir, "test1.jpg", "nested/test2.jpg", ".test3.jpg.0b1c.tmp");
+        AtomicInteger found = new AtomicInteger(-1);
+        AtomicInteger processed = new AtomicInteger();
+        BackupProgress progress = new BackupProgress() {
+            @Override
+            public void filesFound(int files) {
+                // The total is known before the first file is backed up
+                assertEquals(0, processed.get());
+                found.set(files);
+            }
+
+            @Override
+            public void fileProcessed() {
+                processed.incrementAndGet();
+            }
+        };
+
+        assertEquals(2, backupService.createBackup(tempSourceDir, progress));
+
+        assertEquals(2, found.get(), "The snapshot counts the files, skipping temporary ones");
+        assertEquals(2, processed.get());
+    }
+
+    @Test
+    void createBackup_withoutSnapshot_estimatesFilesFromPreviousBackup() throws IOException {
+        backupProperties.setSnapshot(false);
+        backupService.shutdown();
+        backupService = new FileSystemImageBackupService(backupProperties, new BackupMetrics(meterRegistry));
+        createTestFiles(tempSourceDir, "test1.jpg", "test2.jpg");
+        AtomicInteger found = new AtomicInteger(-1);
+        BackupProgress progress = new BackupProgress() {
+            @Override
+            public void filesFound(int files) {
+                found.set(files);
+            }
+
+            @Override
+            public void fileProcessed() {
+            }
+        };
+
+        backupService.createBackup(tempSourceDir, progress);
+        assertEquals(-1, found.get(), "Nothing to estimate from without a previous backup");
+
+        createTestFiles(tempSourceDir, "test3.jpg");
+        assertEquals(3, backupService.createBackup(tempSourceDir, progress));
+        assertEquals(2, found.get());
+    }
+
     @Test
     void restoreImages_shouldCopyFilesFromBackupToTarget() throws IOException {
         // Arrange
@@ -126,6 +190,63 @@ class FileSystemImageBackupServiceTest {
         assertTrue(Files.exists(tempSourceDir.resolve("test2.jpg")), "test2.jpg should be restored");
     }
 
+    @Test
+    void restoreImage_shouldDeleteVariantsOfReplacedImage() throws IOException {
+        createTestFiles(tempSourceDir, "test1.jpg");
+        backupService.backupImages(tempSourceDir, tempBackupDir);
+        Path backup = backupService.listBackups(tempBackupDir)[0];
+        // The image changed after the backup and got a variant
+        Files.write(tempSourceDir.resolve("test1.jpg"), "New content".getBytes());
+        createTestFiles(tempSourceDir, "variants/thumbnail/test1.jpg");
+
+        assertTrue(backupService.restoreImage(backup, "test1.jpg", tempSourceDir, true));
+
+        assertFalse(Files.exists(tempSourceDir.resolve("variants/thumbnail/test1.jpg")),
+                "Variant of the replaced image should be deleted");
+    }
+
+    @Test
+    void restoreImages_shouldKeepVariantsRestoredWithTheirImage() throws IOException {
+        createTestFiles(tempSourceDir, "test1.jpg", "variants/thumbnail/test1.jpg", "test2.jpg");
+        backupService.backupImages(tempSourceDir, tempBackupDir);
+        Path backup = backupService.listBackups(tempBackupDir)[0];
+        // A variant created after the backup doesn't match the restored image
+        createTestFiles(tempSourceDir, "variants/thumbnail/test2.jpg");
+
+        backupService.restoreImages(backup, tempSourceDir, true);
+
+        assertTrue(Files.exists(tempSourceDir.resolve("variants/thumbnail/test1.jpg")));
+        assertFalse(Files.exists(tempSourceDir.resolve("variants/thumbnail/test2.jpg")));
+    }
+
+    @Test
+    void restoreImages_overwriting_replacesImagesAtomically() throws IOException {
+        createTestFiles(tempSourceDir, "test1.jpg");
+        backupService.backupImages(tempSourceDir, tempBackupDir);
+        Path backup = backupService.listBackups(tempBackupDir)[0];
+        Files.writeString(tempSourceDir.resolve("test1.jpg"), "Changed after the backup");
+        BackupArchiveStats archived = backupService.backupImagesToArchive(tempSourceDir, tempBackupDir);
+        Path archive = Arrays.stream(backupService.listBackups(tempBackupDir))
+                .filter(path -> path.getFileName().toString().endsWith(ZipBackupArchive.EXTENSION))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, archived.files());
+
+        try (var reader = Files.newInputStream(tempSourceDir.resolve("test1.jpg"))) {
+            backupService.restoreImages(backup, tempSourceDir, true);
+
+            // The image is replaced by a new file, so a reader of the old one still sees it complete
+            assertEquals("Changed after the backup", new String(reader.readAllBytes()));
+        }
+        assertEquals("Test content for test1.jpg", Files.readString(tempSourceDir.resolve("test1.jpg")));
+
+        assertTrue(backupService.restoreImage(archive, "test1.jpg", tempSourceDir, true));
+        assertEquals("Changed after the backup", Files.readString(tempSourceDir.resolve("test1.jpg")));
+        try (var files = Files.list(tempSourceDir)) {
+            assertTrue(files.noneMatch(AtomicFiles::isTemporaryFile), "No temporary files should remain");
+        }
+    }
+
     @Test
     void cleanupOldBackups_shouldDeleteOldestBackupsWhenLimitReached() throws IOException {
         // Arrange - Create multiple backups
@@ -150,6 +271,237 @@ class FileSystemImageBackupServiceTest {
         assertEquals(3, backups.length, "Should have kept only 3 backups (max limit)");
     }
 
+    @Test
+    void backupImages_shouldWriteManifestForEachBackup() throws IOException {
+        // Arrange
+        createTestFiles(tempSourceDir, "test1.jpg", "nested/test2.jpg");
+
+        // Act
+        backupService.backupImages(tempSourceDir, tempBackupDir);
+
+        // Assert
+        Path backup = backupService.listBackups(tempBackupDir)[0];
+        BackupManifest manifest = BackupManifest.read(backup);
+        assertNotNull(manifest, "Manifest should be written next to the backup");
+        assertEquals(2, manifest.entries().size());
+        BackupManifest.Entry entry = manifest.entriesByPath().get("nested/test2.jpg");
+        assertNotNull(entry, "Manifest should use '/' separated relative paths");
+        assertEquals(Files.size(tempSourceDir.resolve("nested/test2.jpg")), entry.size());
+        assertEquals(BackupManifest.sha256(tempSourceDir.resolve("nested/test2.jpg")), entry.sha256());
+        try (var files = Files.list(tempBackupDir)) {
+            assertTrue(files.noneMatch(AtomicFiles::isTemporaryFile), "Manifest should be moved into place");
+        }
+    }
+
+    @Test
+    void backupManifest_write_replacesExistingManifest() throws IOException {
+        Path snapshot = tempBackupDir.resolve("snapshot");
+        new BackupManifest("snapshot", List.of(new BackupManifest.Entry("a.jpg", 1, 2, "aa"),
+                new BackupManifest.Entry("b.jpg", 3, 4, "bb"))).write(snapshot);
+
+        new BackupManifest("snapshot", List.of(new BackupManifest.Entry("a.jpg", 5, 6, "cc"))).write(snapshot);
+
+        BackupManifest manifest = BackupManifest.read(snapshot);
+        assertEquals(List.of(new BackupManifest.Entry("a.jpg", 5, 6, "cc")), manifest.entries());
+    }
+
+    @Test
+    void backupImages_shouldOnlyCopyChangedFilesWhenIncremental() throws IOException, InterruptedException {
+        // Arrange
+        createTestFiles(tempSourceDir, "unchanged.jpg", "changed.jpg");
+        backupService.backupImages(tempSourceDir, tempBackupDir);
+        Path firstBackup = backupService.listBackups(tempBackupDir)[0];
+
+        // Ensure a different timestamp for the second backup folder
+        Thread.sleep(10);
+        Files.write(tempSourceDir.resolve("changed.jpg"), "New content".getBytes());
+
+        // Act
+        int count = backupService.backupImages(tempSourceDir, tempBackupDir);
+
+        // Assert
+        assertEquals(2, count, "Every file should be part of the new backup");
+        Path secondBackup = Arrays.stream(backupService.listBackups(tempBackupDir))
+                .filter(backup -> !backup.equals(firstBackup))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals("New content", Files.readString(secondBackup.resolve("changed.jpg")));
+        assertEquals("Test content for changed.jpg", Files.readString(firstBackup.resolve("changed.jpg")),
+                "Changing a file must not affect older backups");
+        assertTrue(Files.isSameFile(firstBackup.resolve("unchanged.jpg"), secondBackup.resolve("unchanged.jpg")),
+                "Unchanged files should be linked, not copied");
+    }
+
+    @Test
+    void backupAndRestore_shouldCopyNestedFilesInParallelAndRecordMetrics() throws IOException {
+        // Arrange - enough files in enough directories to keep several workers busy
+        for (int dir = 0; dir < 5; dir++) {
+            for (int file = 0; file < 20; file++) {
+                createTestFiles(tempSourceDir, "dir" + dir + "/image" + file + ".jpg");
+            }
+        }
+        long totalBytes;
+        try (var files = Files.walk(tempSourceDir)) {
+            totalBytes = files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+
+        // Act
+        int backedUp = backupService.backupImages(tempSourceDir, tempBackupDir);
+        Path backup = backupService.listBackups(tempBackupDir)[0];
+        Path restoreDir = tempSourceDir.resolve("restored");
+        int restored = backupService.restoreImages(backup, restoreDir, false);
+
+        // Assert
+        assertEquals(100, backedUp);
+        assertEquals(100, restored);
+        assertEquals("Test content for dir3/image7.jpg", Files.readString(restoreDir.resolve("dir3/image7.jpg")));
+        assertEquals(100, meterRegistry.get("backup.files.copied").tag("operation", "backup").counter().count());
+        assertEquals(totalBytes, meterRegistry.get("backup.bytes.copied").tag("operation", "restore").counter().count());
+        assertEquals(1, meterRegistry.get("backup.duration").tag("operation", "restore").timer().count());
+    }
+
+    @Test
+    void backupImagesToArchive_shouldWriteSingleArchiveAndRestoreIt() throws IOException {
+        // Arrange
+        createTestFiles(tempSourceDir, "test1.jpg", "test2.jpg", "profiles_with_images.json");
+
+        // Act
+        BackupArchiveStats stats = backupService.backupImagesToArchive(tempSourceDir, tempBackupDir);
+
+        // Assert
+        assertEquals(3, stats.files());
+        assertTrue(stats.compressedBytes() > 0);
+        Path[] backups = backupService.listBackups(tempBackupDir);
+        assertEquals(1, backups.length, "The archive should be listed as a backup");
+        assertTrue(Files.isRegularFile(backups[0]) && backups[0].toString().endsWith(".zip"));
+
+        Path restoreDir = tempSourceDir.resolve("restored");
+        assertEquals(3, backupService.restoreImages(backups[0], restoreDir, false));
+        assertEquals("Test content for test2.jpg", Files.readString(restoreDir.resolve("test2.jpg")));
+    }
+
+    @Test
+    void restoreImage_shouldRestoreOnlyRequestedImageFromArchive() throws IOException {
+        // Arrange
+        backupProperties.setFormat(BackupFormat.ARCHIVE);
+        backupService.shutdown();
+        backupService = new FileSystemImageBackupService(backupProperties, new BackupMetrics(meterRegistry));
+        createTestFiles(tempSourceDir, "test1.jpg", "test2.jpg");
+        backupService.createBackup(tempSourceDir);
+        Path archive = backupService.listBackups()[0];
+        Path restoreDir = tempSourceDir.resolve("restored");
+
+        // Act
+        boolean restored = backupService.restoreImage(archive, "test1.jpg", restoreDir, false);
+        boolean missing = backupService.restoreImage(archive, "unknown.jpg", restoreDir, false);
+
+        // Assert
+        assertTrue(restored);
+        assertFalse(missing);
+        assertTrue(Files.exists(restoreDir.resolve("test1.jpg")));
+        assertFalse(Files.exists(restoreDir.resolve("test2.jpg")), "Only the requested image should be restored");
+        assertThrows(IOException.class,
+                () -> backupService.restoreImage(archive, "../escape.jpg", restoreDir, true));
+    }
+
+    @Test
+    void backupImages_shouldSkipImagesStillBeingWrittenAndRemoveSnapshot() throws IOException {
+        // Arrange - a complete image and the temporary file of an image being written
+        createTestFiles(tempSourceDir, "test1.jpg", ".test2.jpg.0b1c.tmp");
+
+        // Act
+        int count = backupService.backupImages(tempSourceDir, tempBackupDir);
+
+        // Assert
+        assertEquals(1, count, "Temporary files should not be backed up");
+        Path[] backups = backupService.listBackups(tempBackupDir);
+        assertEquals(1, backups.length, "The snapshot directory should neither remain nor be listed");
+        try (var entries = Files.list(tempBackupDir)) {
+            assertTrue(entries.noneMatch(path -> path.getFileName().toString().startsWith(".snapshot-")));
+        }
+        assertTrue(Files.exists(backups[0].resolve("test1.jpg")));
+        assertFalse(Files.exists(backups[0].resolve(".test2.jpg.0b1c.tmp")));
+    }
+
+    @Test
+    void listBackupInfo_shouldBeServedFromPersistedCatalog() throws IOException {
+        // Arrange
+        createTestFiles(tempSourceDir, "test1.jpg", "test2.jpg");
+        backupService.createBackup(tempSourceDir);
+
+        // Act - a new instance has to read the catalog written by the first one
+        backupService.shutdown();
+        backupService = new FileSystemImageBackupService(backupProperties, new BackupMetrics(meterRegistry));
+        List<BackupInfo> backups = backupService.listBackupInfo();
+
+        // Assert
+        assertTrue(Files.exists(tempBackupDir.resolve("catalog.json")), "Catalog should be persisted");
+        assertEquals(1, backups.size());
+        assertEquals(BackupFormat.DIRECTORY, backups.get(0).format());
+        assertEquals(2, backups.get(0).fileCount());
+        assertEquals(Files.size(tempSourceDir.resolve("test1.jpg")) + Files.size(tempSourceDir.resolve("test2.jpg")),
+                backups.get(0).sizeBytes());
+    }
+
+    @Test
+    void cleanupOldBackups_shouldDeleteExpiredBackupsInBackground() throws IOException, InterruptedException {
+        // Arrange
+        backupProperties.setMaxBackups(1);
+        backupService.shutdown();
+        backupService = new FileSystemImageBackupService(backupProperties, new BackupMetrics(meterRegistry));
+        createTestFiles(tempSourceDir, "test.jpg");
+        backupService.createBackup(tempSourceDir);
+        Path oldBackup = backupService.listBackups()[0];
+        // Ensure a different timestamp for the second backup folder
+        Thread.sleep(10);
+
+        // Act
+        backupService.createBackup(tempSourceDir);
+        Path[] backups = backupService.listBackups();
+        // Shutting down waits for pending deletions
+        backupService.shutdown();
+
+        // Assert
+        assertEquals(1, backups.length);
+        assertNotEquals(oldBackup, backups[0]);
+        assertFalse(Files.exists(oldBackup), "Expired backup should be deleted");
+        try (var entries = Files.list(tempBackupDir)) {
+            assertTrue(entries.noneMatch(path -> path.getFileName().toString().startsWith(".trash-")));
+        }
+    }
+
+    @Test
+    void findBackup_findsOnlyBackupDirectoriesAndArchives() throws IOException {
+        createTestFiles(tempSourceDir, "test.jpg");
+        backupService.createBackup(tempSourceDir);
+        Path backup = backupService.listBackups()[0];
+
+        assertEquals(Optional.of(backup.toAbsolutePath().normalize()),
+                backupService.findBackup(backup.getFileName().toString()));
+        // The catalog is a regular file in the backup directory, but not a backup
+        assertTrue(Files.exists(tempBackupDir.resolve(BackupCatalog.FILE_NAME)));
+        assertEquals(Optional.empty(), backupService.findBackup(BackupCatalog.FILE_NAME));
+        assertEquals(Optional.empty(), backupService.findBackup("missing"));
+    }
+
+    @Test
+    void findBackup_outsideBackupDirectory_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> backupService.findBackup("../.."));
+        assertThrows(IllegalArgumentException.class, () -> backupService.findBackup("."));
+    }
+
+    @Test
+    void restoreImages_fromRegularFile_throwsExceptionAndKeepsTarget() throws IOException {
+        createTestFiles(tempSourceDir, "test.jpg");
+        Path notABackup = tempBackupDir.resolve("notes.json");
+        Files.writeString(notABackup, "{}");
+
+        assertThrows(IOException.class, () -> backupService.restoreImages(notABackup, tempSourceDir, true));
+        assertTrue(Files.isDirectory(tempSourceDir));
+        assertTrue(Files.exists(tempSourceDir.resolve("test.jpg")));
+    }
+
     private void createTestFiles(Path directory, String... fileNames) throws IOException {
         for (String fileName : fileNames) {
             Path filePath = directory.resolve(fileName);
@@ -0,0 +1,163 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.ImageVariantProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalingImageVariantServiceTest {
+
+    @TempDir
+    Path imagesDir;
+
+    private FileSystemImageCacheService cacheService;
+    private ScalingImageVariantService variantService;
+    private ProfileEntity profile;
+
+    @BeforeEach
+    void setUp() {
+        ImageVariantProperties properties = new ImageVariantProperties();
+        properties.setSizes(Map.of("thumbnail", 32, "medium", 100));
+        cacheService = new FileSystemImageCacheService();
+        variantService = new ScalingImageVariantService(properties, cacheService);
+        profile = new ProfileEntity("p1", "Test", "User", 30, "Test Ethnicity", Gender.FEMALE, "Test bio",
+                "p1.jpg", "INTJ");
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage read(byte[] bytes) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(bytes));
+    }
+
+    private byte[] variant(String name) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(variantService.writeVariant(profile, name, imagesDir, out));
+        return out.toByteArray();
+    }
+
+    @Test
+    void createVariants_scalesDownPreservingAspectRatio() throws IOException {
+        variantService.createVariants(profile, png(400, 200), imagesDir);
+
+        BufferedImage thumbnail = read(variant("thumbnail"));
+        assertEquals(32, thumbnail.getWidth());
+        assertEquals(16, thumbnail.getHeight());
+        BufferedImage medium = read(variant("medium"));
+        assertEquals(100, medium.getWidth());
+        assertEquals(50, medium.getHeight());
+        assertTrue(Files.exists(imagesDir.resolve(FileSystemImageCacheService.VARIANTS_DIR).resolve("thumbnail")
+                .resolve("p1.jpg")));
+    }
+
+    @Test
+    void createVariants_neverScalesUp() throws IOException {
+        variantService.createVariants(profile, png(64, 64), imagesDir);
+
+        BufferedImage medium = read(variant("medium"));
+        assertEquals(64, medium.getWidth());
+        assertEquals(64, medium.getHeight());
+    }
+
+    @Test
+    void writeVariant_missingFromCache_isCreatedFromOriginal() throws IOException {
+        cacheService.putImageInCache(profile, png(256, 256), imagesDir);
+
+        BufferedImage thumbnail = read(variant("thumbnail"));
+
+        assertEquals(32, thumbnail.getWidth());
+        assertTrue(cacheService.hasImageVariantInCache(profile, "thumbnail", imagesDir));
+    }
+
+    @Test
+    void getImageContentTypeFromCache_detectsFormatFromBytesNotFileName() throws IOException {
+        // The image URL ends in .jpg, but the provider returned a PNG
+        cacheService.putImageInCache(profile, png(16, 16), imagesDir);
+
+        assertEquals(Optional.of("image/png"), cacheService.getImageContentTypeFromCache(profile, imagesDir));
+    }
+
+    @Test
+    void getImageContentTypeFromCache_withoutOriginal_returnsEmpty() throws IOException {
+        assertEquals(Optional.empty(), cacheService.getImageContentTypeFromCache(profile, imagesDir));
+    }
+
+    @Test
+    void writeVariant_withoutOriginal_returnsFalse() throws IOException {
+        assertFalse(variantService.writeVariant(profile, "thumbnail", imagesDir, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void writeVariant_unknownVariant_throwsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> variantService.writeVariant(profile, "huge", imagesDir, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void getVariantNames_listsLargestFirst() {
+        assertEquals(List.of("medium", "thumbnail"), List.copyOf(variantService.getVariantNames()));
+        assertEquals("image/jpeg", variantService.getContentType());
+    }
+
+    @Test
+    void invalidateCache_deletesVariants() throws IOException {
+        byte[] original = png(200, 200);
+        cacheService.putImageInCache(profile, original, imagesDir);
+        variantService.createVariants(profile, original, imagesDir);
+
+        assertTrue(cacheService.invalidateCache(profile, imagesDir));
+
+        assertFalse(cacheService.hasImageVariantInCache(profile, "thumbnail", imagesDir));
+        assertFalse(cacheService.hasImageVariantInCache(profile, "medium", imagesDir));
+    }
+
+    @Test
+    void putImageInCache_overwritingOriginal_deletesStaleVariants() throws IOException {
+        byte[] original = png(200, 200);
+        cacheService.putImageInCache(profile, original, imagesDir);
+        variantService.createVariants(profile, original, imagesDir);
+
+        cacheService.putImageInCache(profile, png(200, 100), imagesDir);
+
+        assertFalse(cacheService.hasImageVariantInCache(profile, "thumbnail", imagesDir));
+        // Served variants are created again from the new original
+        BufferedImage thumbnail = read(variant("thumbnail"));
+        assertEquals(32, thumbnail.getWidth());
+        assertEquals(16, thumbnail.getHeight());
+    }
+
+    @Test
+    void constructor_withUnsafeVariantName_throwsException() {
+        ImageVariantProperties properties = new ImageVariantProperties();
+        properties.setSizes(Map.of("../thumbnail", 32));
+
+        assertThrows(ConfigurationException.class, () -> new ScalingImageVariantService(properties, cacheService));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.ManifestProperties;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.Profile;
+import com.example.matchapp.model.ProfileEntity;
+import com.example.matchapp.repository.ProfileRepository;
+import com.example.matchapp.service.ProfileExportService;
+import com.example.matchapp.service.ProfileManifestService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SegmentedProfileManifestServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path imagesDir;
+    private final TreeMap<String, ProfileEntity> profiles = new TreeMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ProfileRepository profileRepository;
+    private SegmentedProfileManifestService manifestService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imagesDir = Files.createDirectories(tempDir.resolve("images"));
+        for (int i = 0; i < 20; i++) {
+            String id = "p" + i;
+            profiles.put(id, new ProfileEntity(id, "Test", "User " + i, 30, "Test Ethnicity", Gender.MALE,
+                    "Test bio", id + ".jpg", "INTJ"));
+        }
+
+        profileRepository = mock(ProfileRepository.class);
+        when(profileRepository.findAfterId(any(), anyInt())).thenAnswer(invocation -> {
+            String afterId = invocation.getArgument(0);
+            Map<String, ProfileEntity> tail = afterId == null ? profiles : profiles.tailMap(afterId, false);
+            return tail.values().stream().limit(invocation.<Integer>getArgument(1)).toList();
+        });
+        when(profileRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(profiles.get(invocation.<String>getArgument(0))));
+
+        manifestService = createManifestService(0.1);
+    }
+
+    private SegmentedProfileManifestService createManifestService(double compactionRatio) {
+        ManifestProperties properties = new ManifestProperties();
+        properties.setSegments(8);
+        properties.setSegmentsDir(tempDir.resolve("segments").toString());
+        properties.setCompactionRatio(compactionRatio);
+        return new SegmentedProfileManifestService(profileRepository,
+                new ProfileExportService(objectMapper, profileRepository), objectMapper, properties);
+    }
+
+    @Test
+    void update_firstCall_rebuildsFromAllProfiles() throws Exception {
+        assertEquals(8, manifestService.update(imagesDir));
+
+        assertEquals(20, readManifest().size());
+        verify(profileRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void update_rewritesOnlySegmentsWithChangedProfiles() throws Exception {
+        manifestService.update(imagesDir);
+
+        profiles.get("p3").setImageGenerated(true);
+        profiles.remove("p7");
+        manifestService.markDirty("p3");
+        manifestService.markDirty("p7");
+
+        int rewritten = manifestService.update(imagesDir);
+
+        assertTrue(rewritten >= 1 && rewritten <= 2, "Only the affected segments should be rewritten");
+        List<Profile> manifest = readManifest();
+        assertEquals(19, manifest.size());
+        assertTrue(manifest.stream().anyMatch(profile -> profile.id().equals("p3") && profile.imageGenerated()));
+        assertTrue(manifest.stream().noneMatch(profile -> profile.id().equals("p7")));
+        // Changed profiles are looked up individually; the full list is read only once for the initial build
+        verify(profileRepository, times(1)).findAfterId(any(), anyInt());
+        assertEquals(0, manifestService.pendingCount());
+    }
+
+    @Test
+    void update_appendsChangesToChangeLogWithoutRewritingManifest() throws Exception {
+        manifestService.update(imagesDir);
+        Path manifestFile = imagesDir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE);
+        byte[] manifest = Files.readAllBytes(manifestFile);
+
+        profiles.get("p3").setImageGenerated(true);
+        profiles.remove("p7");
+        manifestService.markDirty("p3");
+        manifestService.markDirty("p7");
+        manifestService.update(imagesDir);
+
+        assertArrayEquals(manifest, Files.readAllBytes(manifestFile));
+        List<String> changes = Files.readAllLines(imagesDir.resolve(ProfileManifestService.CHANGES_FILE));
+        assertEquals(2, changes.size());
+        assertTrue(objectMapper.readValue(changes.get(0), Profile.class).imageGenerated());
+        JsonNode deleted = objectMapper.readTree(changes.get(1));
+        assertEquals("p7", deleted.path("id").asText());
+        assertTrue(deleted.path("deleted").asBoolean());
+    }
+
+    @Test
+    void update_onceChangeLogIsLarge_compactsItIntoManifestInIdOrder() throws Exception {
+        manifestService.update(imagesDir);
+
+        // 20 profiles with a ratio of 0.1 allow two logged changes
+        for (String id : List.of("p1", "p2", "p3")) {
+            profiles.get(id).setImageGenerated(true);
+            manifestService.markDirty(id);
+            manifestService.update(imagesDir);
+        }
+
+        assertFalse(Files.exists(imagesDir.resolve(ProfileManifestService.CHANGES_FILE)));
+        List<Profile> manifest = readManifest();
+        assertEquals(List.copyOf(profiles.keySet()), manifest.stream().map(Profile::id).toList());
+        assertEquals(3, manifest.stream().filter(Profile::imageGenerated).count());
+    }
+
+    @Test
+    void update_withoutCompactionRatio_rewritesManifestEveryTime() throws Exception {
+        SegmentedProfileManifestService compacting = createManifestService(0);
+        compacting.update(imagesDir);
+
+        profiles.get("p3").setImageGenerated(true);
+        compacting.markDirty("p3");
+        compacting.update(imagesDir);
+
+        assertFalse(Files.exists(imagesDir.resolve(ProfileManifestService.CHANGES_FILE)));
+        assertTrue(readManifest().stream().anyMatch(profile -> profile.id().equals("p3") && profile.imageGenerated()));
+    }
+
+    @Test
+    void update_keepsSegmentsOutOfImagesDirectory() throws Exception {
+        manifestService.update(imagesDir);
+
+        try (var files = Files.list(imagesDir)) {
+            assertEquals(List.of(imagesDir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE)), files.toList());
+        }
+        try (var segments = Files.list(tempDir.resolve("segments"))) {
+            assertEquals(8, segments.count());
+        }
+    }
+
+    @Test
+    void update_withoutChanges_leavesManifestAlone() throws Exception {
+        manifestService.update(imagesDir);
+        Path manifestFile = imagesDir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE);
+        var modified = Files.getLastModifiedTime(manifestFile);
+
+        assertEquals(0, manifestService.update(imagesDir));
+        assertEquals(modified, Files.getLastModifiedTime(manifestFile));
+    }
+
+    @Test
+    void update_afterManifestIsDeleted_rebuilds() throws Exception {
+        manifestService.update(imagesDir);
+        Files.delete(imagesDir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE));
+
+        assertEquals(8, manifestService.update(imagesDir));
+        assertEquals(20, readManifest().size());
+    }
+
+    /**
+     * Reads the manifest the way consumers do, with the change log applied.
+     */
+    private List<Profile> readManifest() throws Exception {
+        Profile[] manifest = objectMapper.readValue(
+                imagesDir.resolve(ProfileExportService.PROFILES_WITH_IMAGES_FILE).toFile(), Profile[].class);
+        Map<String, Profile> byId = new LinkedHashMap<>();
+        for (Profile profile : manifest) {
+            byId.put(profile.id(), profile);
+        }
+        Path changesFile = imagesDir.resolve(ProfileManifestService.CHANGES_FILE);
+        if (Files.exists(changesFile)) {
+            for (String line : Files.readAllLines(changesFile)) {
+                JsonNode change = objectMapper.readTree(line);
+                if (change.path("deleted").asBoolean()) {
+                    byId.remove(change.path("id").asText());
+                } else {
+                    byId.put(change.path("id").asText(), objectMapper.treeToValue(change, Profile.class));
+                }
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+}
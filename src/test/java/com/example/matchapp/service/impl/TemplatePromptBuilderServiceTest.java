@@ -0,0 +1,50 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.PromptProperties;
+import com.example.matchapp.exception.ConfigurationException;
+import com.example.matchapp.model.Gender;
+import com.example.matchapp.model.ProfileEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplatePromptBuilderServiceTest {
+
+    private final DefaultPromptBuilderService legacy = new DefaultPromptBuilderService();
+    private final TemplatePromptBuilderService service = new TemplatePromptBuilderService(new PromptProperties());
+
+    @Test
+    void buildPrompt_defaultTemplate_matchesLegacyPrompt() {
+        List<ProfileEntity> profiles = List.of(
+                new ProfileEntity("1", "Valentina", "Rodriguez", 26, "Hispanic", Gender.FEMALE,
+                        "Loves hiking and photography", "img.jpg", "ENFP"),
+                new ProfileEntity("2", "John", "Smith", 30, "Caucasian", Gender.MALE, null, "img.jpg", "INTJ"),
+                new ProfileEntity("3", "Alex", "Johnson", 25, "Asian", Gender.NON_BINARY, "", "img.jpg", "UNKNOWN"));
+
+        for (ProfileEntity profile : profiles) {
+            assertEquals(legacy.buildPrompt(profile), service.buildPrompt(profile));
+        }
+    }
+
+    @Test
+    void buildPrompt_customTemplate_rendersSectionsOnlyWhenPresent() {
+        PromptProperties properties = new PromptProperties();
+        properties.setTemplate("Portrait of {{firstName}} ({{mbti}}){{#bio}}: {{bio}}{{/bio}}.");
+        TemplatePromptBuilderService custom = new TemplatePromptBuilderService(properties);
+
+        assertEquals("Portrait of Ana (INFJ): Painter.", custom.buildPrompt(
+                new ProfileEntity("1", "Ana", "Lima", 40, "Latina", Gender.FEMALE, "Painter", "a.jpg", "INFJ")));
+        assertEquals("Portrait of Bo (ISTP).", custom.buildPrompt(
+                new ProfileEntity("2", "Bo", "Berg", 35, "Nordic", Gender.MALE, null, "b.jpg", "ISTP")));
+    }
+
+    @Test
+    void compile_rejectsMalformedTemplates() {
+        assertThrows(ConfigurationException.class, () -> PromptTemplate.compile("Hello {{name}}"));
+        assertThrows(ConfigurationException.class, () -> PromptTemplate.compile("Hello {{firstName"));
+        assertThrows(ConfigurationException.class, () -> PromptTemplate.compile("{{#bio}}unclosed"));
+        assertThrows(ConfigurationException.class, () -> PromptTemplate.compile("{{#bio}}x{{/mbti}}"));
+    }
+}
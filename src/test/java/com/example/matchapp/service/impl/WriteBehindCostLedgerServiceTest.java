@@ -0,0 +1,217 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.CostProperties;
+import com.example.matchapp.metrics.ProviderCostMetrics;
+import com.example.matchapp.model.CostLedgerSummary;
+import com.example.matchapp.model.ProviderCall;
+import com.example.matchapp.model.ProviderCallOutcome;
+import com.example.matchapp.model.ProviderCallRecord;
+import com.example.matchapp.model.ProviderCostSummary;
+import com.example.matchapp.repository.impl.ProviderCallJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WriteBehindCostLedgerServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private ProviderCallJpaRepository repository;
+    private SimpleMeterRegistry registry;
+    private WriteBehindCostLedgerService ledger;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProviderCallJpaRepository.class);
+        registry = new SimpleMeterRegistry();
+        CostProperties properties = new CostProperties();
+        properties.setBatchSize(3);
+        // Long interval so only size thresholds and explicit flushes write in these tests
+        properties.setFlushInterval(60_000L);
+        ledger = new WriteBehindCostLedgerService(repository, new ProviderCostMetrics(registry), properties,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.shutdown();
+    }
+
+    private static ProviderCall call(int attempt, ProviderCallOutcome outcome) {
+        return new ProviderCall("OpenAI", "dall-e-3", "1024x1024", 1, attempt, outcome, "p1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_reachingBatchSize_writesOneBatchWithCosts() {
+        ledger.record(call(1, ProviderCallOutcome.RATE_LIMITED));
+        ledger.record(call(2, ProviderCallOutcome.SUCCESS));
+        verify(repository, never()).saveAll(any());
+
+        ledger.record(call(1, ProviderCallOutcome.SUCCESS));
+
+        // The full batch is written by the flush thread
+        ArgumentCaptor<List<ProviderCallRecord>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository, timeout(5000)).saveAll(batch.capture());
+        List<ProviderCallRecord> records = batch.getValue();
+        assertEquals(3, records.size());
+        assertEquals(0, BigDecimal.ZERO.compareTo(records.get(0).getCost()));
+        assertTrue(records.get(1).isRetry());
+        assertEquals(0, new BigDecimal("0.040").compareTo(records.get(1).getCost()));
+        assertEquals(NOW, records.get(2).getCalledAt());
+        assertEquals(0, ledger.pendingCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_whenBufferIsFull_dropsAndCountsEntries() throws Exception {
+        CostProperties properties = new CostProperties();
+        properties.setBatchSize(3);
+        properties.setMaxPending(4);
+        properties.setFlushInterval(60_000L);
+        WriteBehindCostLedgerService bounded = new WriteBehindCostLedgerService(repository,
+                new ProviderCostMetrics(registry), properties, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // Hold the first write on the flush thread and then fail it, as a stalled database would
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            throw new IllegalStateException("database unavailable");
+        }).thenAnswer(invocation -> invocation.getArgument(0));
+        try {
+            for (int i = 0; i < 3; i++) {
+                bounded.record(call(1, ProviderCallOutcome.SUCCESS));
+            }
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 5; i++) {
+                bounded.record(call(1, ProviderCallOutcome.SUCCESS));
+            }
+            assertEquals(4, bounded.pendingCount());
+            assertEquals(1, registry.get("imagegen.cost.ledger.dropped").counter().count());
+
+            // The failed batch doesn't fit back into the full buffer either
+            release.countDown();
+            ArgumentCaptor<List<ProviderCallRecord>> batches = ArgumentCaptor.forClass(List.class);
+            verify(repository, timeout(5000).times(2)).saveAll(batches.capture());
+            assertEquals(4, batches.getAllValues().get(1).size());
+            assertEquals(4, registry.get("imagegen.cost.ledger.dropped").counter().count());
+            // Metrics still count every call, including the dropped ones
+            assertEquals(8, registry.get("imagegen.provider.images").counter().count());
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    void record_countsCallsImagesAndCostInMetrics() {
+        ledger.record(call(1, ProviderCallOutcome.RATE_LIMITED));
+        ledger.record(call(2, ProviderCallOutcome.SUCCESS));
+
+        assertEquals(1, registry.get("imagegen.provider.calls")
+                .tags("outcome", "rate_limited", "retry", "false").counter().count());
+        assertEquals(1, registry.get("imagegen.provider.calls")
+                .tags("outcome", "success", "retry", "true").counter().count());
+        assertEquals(1, registry.get("imagegen.provider.images").counter().count());
+        assertEquals(0.04, registry.get("imagegen.provider.cost").counter().count(), 1e-9);
+    }
+
+    @Test
+    void summarize_flushesBufferAndFoldsRowsPerProviderAndModel() {
+        when(repository.summarizeSince(Instant.EPOCH)).thenReturn(List.of(
+                new Object[] {"OpenAI", "dall-e-3", ProviderCallOutcome.SUCCESS, false, 8L, 8L, new BigDecimal("0.320")},
+                new Object[] {"OpenAI", "dall-e-3", ProviderCallOutcome.SUCCESS, true, 2L, 2L, new BigDecimal("0.080")},
+                new Object[] {"OpenAI", "dall-e-3", ProviderCallOutcome.RATE_LIMITED, false, 3L, 3L, BigDecimal.ZERO},
+                new Object[] {"Spring AI", "dall-e-2", ProviderCallOutcome.FAILURE, false, 1L, 1L, BigDecimal.ZERO}));
+        ledger.record(call(1, ProviderCallOutcome.SUCCESS));
+
+        CostLedgerSummary summary = ledger.summarize(Instant.EPOCH);
+
+        verify(repository).saveAll(any());
+        assertEquals(14, summary.calls());
+        assertEquals(10, summary.billableCalls());
+        assertEquals(2, summary.retriedCalls());
+        assertEquals(10, summary.images());
+        assertEquals(0, new BigDecimal("0.400").compareTo(summary.cost()));
+        assertEquals("USD", summary.currency());
+
+        assertEquals(2, summary.providers().size());
+        ProviderCostSummary openAi = summary.providers().get(0);
+        assertEquals("OpenAI", openAi.provider());
+        assertEquals(13, openAi.calls());
+        assertEquals(3, openAi.rateLimitedCalls());
+        assertEquals(1, summary.providers().get(1).failedCalls());
+    }
+
+    @Test
+    void summarize_whileFlushThreadIsWriting_includesThatBatch() throws Exception {
+        // Hold the full batch on the flush thread, as a slow database would
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+        when(repository.summarizeSince(Instant.EPOCH)).thenReturn(List.of());
+        try {
+            for (int i = 0; i < 3; i++) {
+                ledger.record(call(1, ProviderCallOutcome.SUCCESS));
+            }
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            assertEquals(0, ledger.pendingCount());
+
+            CompletableFuture<CostLedgerSummary> summary =
+                    CompletableFuture.supplyAsync(() -> ledger.summarize(Instant.EPOCH));
+
+            // The buffer is empty, but the summary must not be read before the batch in flight is written
+            Thread.sleep(100);
+            assertFalse(summary.isDone());
+            verify(repository, never()).summarizeSince(any());
+
+            release.countDown();
+            summary.get(5, TimeUnit.SECONDS);
+            InOrder inOrder = inOrder(repository);
+            inOrder.verify(repository).saveAll(any());
+            inOrder.verify(repository).summarizeSince(Instant.EPOCH);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void record_withLedgerDisabled_onlyRecordsMetrics() {
+        CostProperties properties = new CostProperties();
+        properties.setLedgerEnabled(false);
+        WriteBehindCostLedgerService metricsOnly = new WriteBehindCostLedgerService(repository,
+                new ProviderCostMetrics(registry), properties);
+        try {
+            metricsOnly.record(call(1, ProviderCallOutcome.SUCCESS));
+
+            assertEquals(0, metricsOnly.pendingCount());
+            assertEquals(0, metricsOnly.flush());
+            verify(repository, never()).saveAll(any());
+            assertEquals(1, registry.get("imagegen.provider.images").counter().count());
+        } finally {
+            metricsOnly.shutdown();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.matchapp.service.impl;
+
+import com.example.matchapp.config.StatusUpdateProperties;
+import com.example.matchapp.repository.ProfileRepository;
+import com.example.matchapp.service.ProfileManifestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class WriteBehindImageStatusBufferTest {
+
+    private ProfileRepository profileRepository;
+    private ProfileManifestService profileManifestService;
+    private WriteBehindImageStatusBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        profileRepository = mock(ProfileRepository.class);
+        profileManifestService = mock(ProfileManifestService.class);
+        StatusUpdateProperties properties = new StatusUpdateProperties();
+        properties.setBatchSize(3);
+        // Long interval so only size thresholds and explicit flushes write in these tests
+        properties.setFlushInterval(60_000L);
+        buffer = new WriteBehindImageStatusBuffer(profileRepository, profileManifestService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.shutdown();
+    }
+
+    @Test
+    void markGenerated_reachingBatchSize_writesOneBatch() {
+        when(profileRepository.markImagesGenerated(anyCollection())).thenReturn(3);
+
+        buffer.markGenerated("p1");
+        buffer.markGenerated("p2");
+        verify(profileRepository, never()).markImagesGenerated(anyCollection());
+
+        buffer.markGenerated("p3");
+
+        // The full batch is written by the flush thread
+        verify(profileManifestService, timeout(5000)).markDirty("p3");
+        verify(profileRepository, times(1)).markImagesGenerated(List.of("p1", "p2", "p3"));
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_writesBufferedIdsOnce() {
+        when(profileRepository.markImagesGenerated(anyCollection())).thenReturn(1);
+
+        buffer.markGenerated("p1");
+        buffer.markGenerated("p1");
+
+        assertEquals(1, buffer.flush());
+        verify(profileRepository).markImagesGenerated(List.of("p1"));
+        assertEquals(0, buffer.flush());
+        verifyNoMoreInteractions(profileRepository);
+    }
+
+    @Test
+    void flush_whenWriteFails_keepsIdsBuffered() {
+        when(profileRepository.markImagesGenerated(anyCollection()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(2);
+
+        buffer.markGenerated("p1");
+        buffer.markGenerated("p2");
+
+        assertThrows(IllegalStateException.class, () -> buffer.flush());
+        assertEquals(2, buffer.pendingCount());
+        verify(profileManifestService, never()).markDirty(anyString());
+
+        assertEquals(2, buffer.flush());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_whileFlushThreadIsWriting_waitsForThatBatch() throws Exception {
+        StatusUpdateProperties properties = new StatusUpdateProperties();
+        properties.setBatchSize(100);
+        properties.setFlushInterval(10L);
+        WriteBehindImageStatusBuffer scheduled = new WriteBehindImageStatusBuffer(profileRepository,
+                profileManifestService, properties);
+
+        // Hold the first write on the flush thread, as a slow database would
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(profileRepository.markImagesGenerated(anyCollection())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return 1;
+        }).thenReturn(1);
+        try {
+            scheduled.markGenerated("p1");
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            assertEquals(0, scheduled.pendingCount());
+
+            CompletableFuture<Integer> flushed = CompletableFuture.supplyAsync(scheduled::flush);
+
+            // The buffer is empty, but the flush must not return before the batch in flight is written
+            Thread.sleep(100);
+            assertFalse(flushed.isDone());
+            verify(profileManifestService, never()).markDirty("p1");
+
+            release.countDown();
+            flushed.get(5, TimeUnit.SECONDS);
+            verify(profileManifestService).markDirty("p1");
+        } finally {
+            release.countDown();
+            scheduled.shutdown();
+        }
+    }
+
+    @Test
+    void shutdown_flushesPendingUpdates() {
+        buffer.markGenerated("p1");
+
+        buffer.shutdown();
+
+        verify(profileRepository).markImagesGenerated(List.of("p1"));
+    }
+}
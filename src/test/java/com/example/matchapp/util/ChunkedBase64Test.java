@@ -0,0 +1,70 @@
+package com.example.matchapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedBase64Test {
+
+    // Small chunks so the inputs below span several of them
+    private static final int CHUNK_CHARS = 64;
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void decode_acrossChunks_matchesJdkDecoder() {
+        // Sizes without padding, with one and with two padding characters
+        for (int size : new int[] {300, 301, 302}) {
+            byte[] image = randomBytes(size);
+            String encoded = Base64.getEncoder().encodeToString(image);
+
+            assertArrayEquals(image, ChunkedBase64.decode(encoded, CHUNK_CHARS), "size " + size);
+        }
+    }
+
+    @Test
+    void decode_withinOneChunk_matchesJdkDecoder() {
+        byte[] image = randomBytes(10);
+
+        assertArrayEquals(image, ChunkedBase64.decode(Base64.getEncoder().encodeToString(image), CHUNK_CHARS));
+    }
+
+    @Test
+    void decode_withDefaultChunkSize_matchesJdkDecoder() {
+        byte[] image = randomBytes(ChunkedBase64.CHUNK_CHARS);
+
+        assertArrayEquals(image, ChunkedBase64.decode(Base64.getEncoder().encodeToString(image)));
+    }
+
+    @Test
+    void decode_withIllegalCharacter_throwsException() {
+        String encoded = Base64.getEncoder().encodeToString(randomBytes(300));
+        String invalid = encoded.substring(0, 100) + '*' + encoded.substring(101);
+
+        assertThrows(IllegalArgumentException.class, () -> ChunkedBase64.decode(invalid, CHUNK_CHARS));
+    }
+
+    @Test
+    void decode_withNonAsciiCharacter_throwsException() {
+        String encoded = Base64.getEncoder().encodeToString(randomBytes(300));
+        // Would become a valid base64 character if only its low byte were kept
+        String invalid = encoded.substring(0, 100) + '\u0141' + encoded.substring(101);
+
+        assertThrows(IllegalArgumentException.class, () -> ChunkedBase64.decode(invalid, CHUNK_CHARS));
+    }
+
+    @Test
+    void decode_withPaddingBeforeLastChunk_throwsException() {
+        String encoded = Base64.getEncoder().encodeToString(randomBytes(300));
+        String invalid = encoded.substring(0, 62) + "==" + encoded.substring(64);
+
+        assertThrows(IllegalArgumentException.class, () -> ChunkedBase64.decode(invalid, CHUNK_CHARS));
+    }
+}
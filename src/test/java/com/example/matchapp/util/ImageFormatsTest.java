@@ -0,0 +1,57 @@
+package com.example.matchapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageFormatsTest {
+
+    private static String detect(byte[] header) {
+        return ImageFormats.detectContentType(header, header.length);
+    }
+
+    @Test
+    void detectContentType_recognizesPng() {
+        byte[] header = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13};
+
+        assertEquals("image/png", detect(header));
+    }
+
+    @Test
+    void detectContentType_recognizesJpeg() {
+        byte[] header = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+        assertEquals("image/jpeg", detect(header));
+    }
+
+    @Test
+    void detectContentType_recognizesGif() {
+        assertEquals("image/gif", detect("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("image/gif", detect("GIF87a".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void detectContentType_recognizesWebp() {
+        byte[] header = "RIFF\0\0\0\0WEBP".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals("image/webp", detect(header));
+    }
+
+    @Test
+    void detectContentType_otherRiffFile_isUnknown() {
+        byte[] header = "RIFF\0\0\0\0WAVE".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(ImageFormats.UNKNOWN_CONTENT_TYPE, detect(header));
+    }
+
+    @Test
+    void detectContentType_truncatedHeader_isUnknown() {
+        byte[] header = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+        // Only the valid bytes count, not the length of the array
+        assertEquals(ImageFormats.UNKNOWN_CONTENT_TYPE, ImageFormats.detectContentType(header, 4));
+        assertEquals(ImageFormats.UNKNOWN_CONTENT_TYPE, detect(new byte[0]));
+    }
+}